@@ -0,0 +1,55 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Instâncias representativas usadas pelos benchmarks JMH, identificadas pelo
+ * nome (o mesmo de optimal.txt). Os caminhos são relativos à raiz do projeto,
+ * que é a pasta de trabalho da tarefa {@code jmh}.
+ */
+final class BenchmarkInstances {
+
+    private static final String ROOT = "src/main/java/org/example/FicheirosTeste/";
+
+    private BenchmarkInstances() {
+    }
+
+    /**
+     * @param name O nome da instância (cap71, cap131, capb, Kcapmo1 ou Kcapmr1).
+     * @return O caminho do ficheiro da instância.
+     */
+    static String path(String name) {
+        switch (name) {
+            case "cap71":
+                return ROOT + "ORLIB/ORLIB-uncap/70/cap71.txt";
+            case "cap131":
+                return ROOT + "ORLIB/ORLIB-uncap/130/cap131.txt";
+            case "capb":
+                return ROOT + "ORLIB/ORLIB-uncap/a-c/capb.txt";
+            case "Kcapmo1":
+                return ROOT + "M/Kcapmo1.txt";
+            case "Kcapmr1":
+                return ROOT + "M/Kcapmr1.txt";
+            default:
+                throw new IllegalArgumentException("Instância desconhecida: " + name);
+        }
+    }
+
+    /**
+     * Carrega uma instância sem as mensagens do construtor de
+     * {@link WarehouseLocationProblem}, que poluiriam a saída do JMH.
+     *
+     * @param name O nome da instância.
+     * @return O problema carregado.
+     */
+    static WarehouseLocationProblem load(String name) {
+        WarehouseLocationProblem problem = new WarehouseLocationProblem(0, 0);
+        try {
+            InstanceParser.parseInto(path(name), problem);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return problem;
+    }
+}
@@ -0,0 +1,144 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara o custo de avaliar um movimento recalculando a solução inteira
+ * ({@link SolutionState#reset(int[])}) com a avaliação incremental do
+ * {@link SolutionState} e do {@link FacilityState}, e a avaliação completa de
+ * um {@link OpenSet} com o kernel escalar e com o de {@link OpenSetKernel#get()}
+ * (vetorial na tarefa {@code jmh}, que passa {@code -Duflp.vector=true}). Os
+ * resultados são por movimento avaliado.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CostEvaluationBenchmark {
+
+    private static final int MOVES = 1024;
+
+    @Param({"cap71", "cap131", "capb", "Kcapmo1", "Kcapmr1"})
+    public String instance;
+
+    private SolutionState fullState;
+    private int[] solution;
+    private SolutionState solutionState;
+    private FacilityState facilityState;
+    private OpenSet openSet;
+    private OpenSetEvaluator scalarEvaluator;
+    private OpenSetEvaluator kernelEvaluator;
+    private final int[] moveCustomer = new int[MOVES];
+    private final int[] moveWarehouse = new int[MOVES];
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        WarehouseLocationProblem problem = BenchmarkInstances.load(instance);
+        fullState = new SolutionState(problem);
+        Random random = new Random(42);
+
+        solution = new int[problem.numCustomers];
+        for (int j = 0; j < solution.length; j++) {
+            solution[j] = random.nextInt(problem.numWarehouses);
+        }
+        solutionState = new SolutionState(problem);
+        solutionState.reset(solution);
+
+        boolean[] open = new boolean[problem.numWarehouses];
+        for (int i = 0; i < open.length; i++) {
+            open[i] = random.nextBoolean();
+        }
+        open[0] = true;
+        facilityState = new FacilityState(problem);
+        facilityState.reset(open);
+        openSet = OpenSet.of(open);
+        scalarEvaluator = new OpenSetEvaluator(problem, new ScalarOpenSetKernel());
+        kernelEvaluator = new OpenSetEvaluator(problem);
+
+        for (int k = 0; k < MOVES; k++) {
+            moveCustomer[k] = random.nextInt(problem.numCustomers);
+            moveWarehouse[k] = random.nextInt(problem.numWarehouses);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MOVES)
+    public double fullCalculateCost() {
+        double sum = 0.0;
+        for (int k = 0; k < MOVES; k++) {
+            int customer = moveCustomer[k];
+            int previous = solution[customer];
+            solution[customer] = moveWarehouse[k];
+            fullState.reset(solution);
+            sum += fullState.getCost();
+            solution[customer] = previous;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MOVES)
+    public double incrementalMoveDelta() {
+        double sum = 0.0;
+        for (int k = 0; k < MOVES; k++) {
+            sum += solutionState.moveDelta(moveCustomer[k], moveWarehouse[k]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MOVES)
+    public double incrementalFlipDelta() {
+        double sum = 0.0;
+        for (int k = 0; k < MOVES; k++) {
+            sum += facilityState.flipDelta(moveWarehouse[k]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MOVES)
+    public double openSetScalar() {
+        return evaluateFlips(scalarEvaluator);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MOVES)
+    public double openSetKernel() {
+        return evaluateFlips(kernelEvaluator);
+    }
+
+    /**
+     * Avalia de raiz o conjunto com cada armazém dos movimentos invertido.
+     */
+    private double evaluateFlips(OpenSetEvaluator evaluator) {
+        double sum = 0.0;
+        for (int k = 0; k < MOVES; k++) {
+            int warehouse = moveWarehouse[k];
+            if (warehouse == 0) {
+                continue; // O armazém 0 fica sempre aberto.
+            }
+            openSet.flip(warehouse);
+            sum += evaluator.evaluate(openSet);
+            openSet.flip(warehouse);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,147 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mede uma passagem completa pela vizinhança de cada algoritmo, sem aplicar o
+ * movimento encontrado: a vizinhança de clientes da pesquisa local e da pesquisa
+ * tabu (completa e com listas de candidatos) e as vizinhanças de flips e trocas
+ * da pesquisa local de armazéns e do filtro e expansão. A vizinhança de clientes
+ * com capacidades é medida com as mesmas listas de candidatos, para comparar o
+ * custo da verificação de viabilidade com o caminho sem capacidades.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NeighbourhoodBenchmark {
+
+    @Param({"cap71", "cap131", "capb", "Kcapmo1", "Kcapmr1"})
+    public String instance;
+
+    private int numWarehouses;
+    private int numCustomers;
+    private SolutionState solutionState;
+    private PreprocessedProblem candidates;
+    private FacilityState facilityState;
+    private CapacitatedState capacitatedState;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        WarehouseLocationProblem problem = BenchmarkInstances.load(instance);
+        numWarehouses = problem.numWarehouses;
+        numCustomers = problem.numCustomers;
+        Random random = new Random(42);
+
+        int[] solution = new int[numCustomers];
+        for (int j = 0; j < numCustomers; j++) {
+            solution[j] = random.nextInt(numWarehouses);
+        }
+        solutionState = new SolutionState(problem);
+        solutionState.reset(solution);
+        capacitatedState = new CapacitatedState(problem);
+        capacitatedState.reset(solution);
+        candidates = PreprocessedProblem.of(problem, PreprocessedProblem.DEFAULT_CANDIDATES);
+
+        // A vizinhança de armazéns é medida num ótimo local, onde as pesquisas passam a maior parte do tempo.
+        boolean[] open = new boolean[numWarehouses];
+        for (int i = 0; i < numWarehouses; i++) {
+            open[i] = random.nextBoolean();
+        }
+        open[0] = true;
+        facilityState = new FacilityState(problem);
+        facilityState.reset(open);
+        FacilityLocalSearchUFLP.descend(facilityState, numWarehouses, true);
+    }
+
+    @Benchmark
+    public double customerMovesFullScan() {
+        double best = Double.POSITIVE_INFINITY;
+        for (int j = 0; j < numCustomers; j++) {
+            for (int i = 0; i < numWarehouses; i++) {
+                best = Math.min(best, solutionState.moveDelta(j, i));
+            }
+        }
+        return best;
+    }
+
+    @Benchmark
+    public double customerMovesCandidateLists() {
+        double best = Double.POSITIVE_INFINITY;
+        int k = candidates.candidateCount();
+        for (int j = 0; j < numCustomers; j++) {
+            for (int r = 0; r < k; r++) {
+                best = Math.min(best, solutionState.moveDelta(j, candidates.candidate(j, r)));
+            }
+        }
+        return best;
+    }
+
+    @Benchmark
+    public double capacitatedMovesCandidateLists() {
+        double best = Double.POSITIVE_INFINITY;
+        int k = candidates.candidateCount();
+        for (int j = 0; j < numCustomers; j++) {
+            for (int r = 0; r < k; r++) {
+                best = Math.min(best, capacitatedState.penalizedMoveDelta(j, candidates.candidate(j, r)));
+            }
+        }
+        return best;
+    }
+
+    @Benchmark
+    public double capacitatedSwapsCandidateLists() {
+        double best = Double.POSITIVE_INFINITY;
+        int k = candidates.candidateCount();
+        for (int j = 0; j < numCustomers; j++) {
+            for (int r = 0; r < k; r++) {
+                int i = candidates.candidate(j, r);
+                for (int c = capacitatedState.firstCustomer(i); c >= 0; c = capacitatedState.nextCustomer(c)) {
+                    best = Math.min(best, capacitatedState.penalizedSwapDelta(j, c));
+                }
+            }
+        }
+        return best;
+    }
+
+    @Benchmark
+    public double facilityFlips() {
+        double best = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < numWarehouses; i++) {
+            best = Math.min(best, facilityState.flipDelta(i));
+        }
+        return best;
+    }
+
+    @Benchmark
+    public double facilitySwaps() {
+        double best = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < numWarehouses; i++) {
+            if (!facilityState.isOpen(i)) {
+                continue;
+            }
+            for (int j = 0; j < numWarehouses; j++) {
+                if (!facilityState.isOpen(j)) {
+                    best = Math.min(best, facilityState.swapDelta(i, j));
+                }
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,61 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mede o carregamento de uma instância: a leitura do ficheiro de texto e a
+ * leitura do formato binário gerado pelo {@link InstanceCompiler}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParsingBenchmark {
+
+    @Param({"cap71", "cap131", "capb", "Kcapmo1", "Kcapmr1"})
+    public String instance;
+
+    private Path binary;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        binary = Files.createTempFile("bench-" + instance, InstanceCompiler.EXTENSION);
+        InstanceCompiler.write(BenchmarkInstances.load(instance), binary);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(binary);
+    }
+
+    @Benchmark
+    public WarehouseLocationProblem parseText() throws IOException {
+        WarehouseLocationProblem problem = new WarehouseLocationProblem(0, 0);
+        InstanceParser.parseInto(BenchmarkInstances.path(instance), problem);
+        return problem;
+    }
+
+    @Benchmark
+    public WarehouseLocationProblem loadBinary() throws IOException {
+        return MappedInstance.load(binary);
+    }
+}
@@ -0,0 +1,69 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mede uma execução completa de cada algoritmo, com os parâmetros por omissão e
+ * a instância já carregada. A semente é fixa, pelo que todas as invocações
+ * fazem o mesmo trabalho.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SolveBenchmark {
+
+    @Param({"cap71", "cap131", "capb", "Kcapmo1", "Kcapmr1"})
+    public String instance;
+
+    private WarehouseLocationProblem problem;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        problem = BenchmarkInstances.load(instance);
+        problem.customerMajorCosts(); // A cópia por cliente é partilhada e não faz parte da execução.
+    }
+
+    @Benchmark
+    public double localSearch() {
+        LocalSearchUFLP solver = new LocalSearchUFLP(problem);
+        solver.solve();
+        return solver.getBestCost();
+    }
+
+    @Benchmark
+    public double tabuSearch() {
+        TabuSearchUFLP solver = new TabuSearchUFLP(problem);
+        solver.solve();
+        return solver.getBestCost();
+    }
+
+    @Benchmark
+    public double filterAndFan() {
+        FilterAndFanUFLP solver = new FilterAndFanUFLP(problem);
+        solver.filterAndFan();
+        return solver.getBestCost();
+    }
+
+    @Benchmark
+    public double facilityLocalSearch() {
+        FacilityLocalSearchUFLP solver = new FacilityLocalSearchUFLP(problem);
+        solver.solve();
+        return solver.getBestCost();
+    }
+}
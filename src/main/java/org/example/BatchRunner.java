@@ -0,0 +1,778 @@
+package org.example;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A classe BatchRunner corre uma experiência completa: encontra as instâncias
+ * (as listadas nos ficheiros {@code files.lst} e as que têm ótimo conhecido em
+ * {@code optimal.txt} ou num ficheiro {@code .opt}), carrega cada uma uma única
+ * vez e executa cada algoritmo com várias sementes e repetições, depois de
+ * algumas execuções de aquecimento que não são contabilizadas. Instâncias
+ * diferentes são processadas em paralelo; as execuções da mesma instância são
+ * sequenciais, para que os tempos sejam comparáveis.
+ *
+ * <p>Para cada execução regista o custo, o desvio ao ótimo, o tempo total e o
+ * tempo até atingir o alvo (o ótimo, com a tolerância {@code targetGap}), e
+ * escreve os resultados em CSV (uma linha por execução) e JSON (um resumo por
+ * instância e algoritmo), sempre pela mesma ordem, para comparar experiências.
+ * O limite inferior do {@link LagrangianBound} é calculado uma vez por
+ * instância e dá o desvio provado de cada solução; com {@code gapTolerance}, as
+ * execuções param logo que a solução esteja provadamente a essa distância do ótimo.
+ * Com {@code reduce}, os algoritmos resolvem a instância reduzida pelo
+ * {@link ProblemReducer} (também calculada uma vez por instância). Com
+ * {@code capacitated}, corre o {@link CapacitatedSearchUFLP}; os ótimos
+ * conhecidos são os do problema sem capacidades e não são usados, mas o limite
+ * Lagrangeano continua válido.
+ */
+public class BatchRunner {
+
+    public static final String DEFAULT_ROOT = "src/main/java/org/example/FicheirosTeste";
+
+    static final double OPTIMUM_TOLERANCE = 1e-6; // Erro relativo aceite (os ótimos têm 3 casas decimais).
+
+    private List<PortfolioRunner.Strategy> strategies; // null = todos os algoritmos da variante.
+    private boolean capacitated;
+    private int seeds = 3;
+    private long baseSeed = 42;
+    private int repetitions = 1;
+    private int warmupRuns = 1;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private long timeLimitMillis = 0; // 0 = sem limite por execução.
+    private double targetGap = 0.0; // Desvio relativo ao ótimo que conta como alvo atingido.
+    private double gapTolerance = -1; // Desvio provado que termina a execução (negativo = não termina).
+    private boolean reduce;
+    private boolean pathRelinking;
+    private ConstructionHeuristic construction; // null = solução inicial aleatória de cada algoritmo.
+    private Pattern instanceFilter;
+
+    /**
+     * Uma instância encontrada, com o ótimo conhecido (NaN se não houver).
+     */
+    public static class Instance {
+        public final String name;
+        public final Path path;
+        public final double optimum;
+
+        Instance(String name, Path path, double optimum) {
+            this.name = name;
+            this.path = path;
+            this.optimum = optimum;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    /**
+     * Resultado de uma execução.
+     */
+    public static class RunRecord {
+        public final String instance;
+        public final PortfolioRunner.Strategy strategy;
+        public final long seed;
+        public final int repetition;
+        public final double cost;
+        public final double optimum;
+        public final double lowerBound;
+        public final long millis;
+        public final long timeToTargetMillis; // -1 se o alvo não foi atingido.
+        public final int improvements;
+        public final boolean timedOut;
+        public final boolean gapClosed; // Terminou por estar provadamente perto do ótimo.
+
+        RunRecord(String instance, PortfolioRunner.Strategy strategy, long seed, int repetition, double cost,
+                  double optimum, double lowerBound, long millis, long timeToTargetMillis, int improvements,
+                  boolean timedOut, boolean gapClosed) {
+            this.instance = instance;
+            this.strategy = strategy;
+            this.seed = seed;
+            this.repetition = repetition;
+            this.cost = cost;
+            this.optimum = optimum;
+            this.lowerBound = lowerBound;
+            this.millis = millis;
+            this.timeToTargetMillis = timeToTargetMillis;
+            this.improvements = improvements;
+            this.timedOut = timedOut;
+            this.gapClosed = gapClosed;
+        }
+
+        /**
+         * @return O desvio ao ótimo em percentagem (NaN se o ótimo for desconhecido).
+         */
+        public double gapPercent() {
+            return Double.isNaN(optimum) ? Double.NaN : 100.0 * (cost - optimum) / optimum;
+        }
+
+        /**
+         * @return O desvio provado em relação ao limite inferior, em percentagem.
+         */
+        public double provenGapPercent() {
+            return 100.0 * LagrangianBound.gap(cost, lowerBound);
+        }
+    }
+
+    /**
+     * Resumo das execuções de um algoritmo numa instância.
+     */
+    public static class Summary {
+        public final String instance;
+        public final PortfolioRunner.Strategy strategy;
+        public final double optimum;
+        public double lowerBound = Double.NEGATIVE_INFINITY;
+        public int runs;
+        public int hits; // Execuções que atingiram o alvo.
+        public double bestCost = Double.POSITIVE_INFINITY;
+        public double sumCost;
+        public long totalMillis;
+        public long sumTimeToTarget;
+        public InstanceParser.ParseStats parseStats; // A leitura da instância.
+
+        Summary(String instance, PortfolioRunner.Strategy strategy, double optimum) {
+            this.instance = instance;
+            this.strategy = strategy;
+            this.optimum = optimum;
+        }
+
+        void add(RunRecord record) {
+            runs++;
+            lowerBound = record.lowerBound;
+            bestCost = Math.min(bestCost, record.cost);
+            sumCost += record.cost;
+            totalMillis += record.millis;
+            if (record.timeToTargetMillis >= 0) {
+                hits++;
+                sumTimeToTarget += record.timeToTargetMillis;
+            }
+        }
+
+        public double meanCost() {
+            return runs == 0 ? Double.NaN : sumCost / runs;
+        }
+
+        public double meanGapPercent() {
+            return Double.isNaN(optimum) ? Double.NaN : 100.0 * (meanCost() - optimum) / optimum;
+        }
+
+        public double bestGapPercent() {
+            return Double.isNaN(optimum) ? Double.NaN : 100.0 * (bestCost - optimum) / optimum;
+        }
+
+        public double meanMillis() {
+            return runs == 0 ? Double.NaN : (double) totalMillis / runs;
+        }
+
+        /**
+         * @return O tempo médio até ao alvo nas execuções que o atingiram (NaN se nenhuma).
+         */
+        public double meanTimeToTargetMillis() {
+            return hits == 0 ? Double.NaN : (double) sumTimeToTarget / hits;
+        }
+
+        /**
+         * @return Execuções por segundo de tempo de execução do algoritmo.
+         */
+        public double runsPerSecond() {
+            return totalMillis == 0 ? Double.NaN : runs * 1000.0 / totalMillis;
+        }
+    }
+
+    /**
+     * Resultado da experiência: todas as execuções e os resumos, pela ordem das
+     * instâncias e dos algoritmos.
+     */
+    public static class BatchResult {
+        public final List<RunRecord> records;
+        public final List<Summary> summaries;
+        public final long elapsedMillis;
+        public long parseBytes; // Totais das leituras das instâncias.
+        public long parseTokens;
+        public long parseNanos;
+
+        BatchResult(List<RunRecord> records, List<Summary> summaries, long elapsedMillis) {
+            this.records = records;
+            this.summaries = summaries;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        /**
+         * @return O débito agregado da leitura das instâncias em MB/s.
+         */
+        public double parseMegabytesPerSecond() {
+            return parseNanos == 0 ? Double.NaN : (parseBytes / 1e6) / (parseNanos / 1e9);
+        }
+
+        /**
+         * @return Execuções medidas por segundo de tempo real da experiência.
+         */
+        public double runsPerSecond() {
+            return elapsedMillis == 0 ? Double.NaN : records.size() * 1000.0 / elapsedMillis;
+        }
+
+        /**
+         * Escreve uma linha por execução.
+         *
+         * @param file O ficheiro CSV.
+         * @throws IOException Se ocorrer um erro de escrita.
+         */
+        public void writeCsv(Path file) throws IOException {
+            try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                out.write("instance,strategy,seed,repetition,cost,optimum,gap_percent,lower_bound,proven_gap_percent,"
+                        + "millis,time_to_target_millis,improvements,timed_out,gap_closed\n");
+                for (RunRecord r : records) {
+                    out.write(String.format(Locale.ROOT, "%s,%s,%d,%d,%.3f,%s,%s,%s,%s,%d,%d,%d,%b,%b%n",
+                            r.instance, r.strategy, r.seed, r.repetition, r.cost, number(r.optimum),
+                            number(r.gapPercent()), number(r.lowerBound), number(r.provenGapPercent()), r.millis,
+                            r.timeToTargetMillis, r.improvements, r.timedOut, r.gapClosed));
+                }
+            }
+        }
+
+        /**
+         * Escreve o resumo por instância e algoritmo.
+         *
+         * @param file O ficheiro JSON.
+         * @throws IOException Se ocorrer um erro de escrita.
+         */
+        public void writeJson(Path file) throws IOException {
+            try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                out.write(String.format(Locale.ROOT, "{%n  \"elapsedMillis\": %d,%n  \"runs\": %d,%n"
+                        + "  \"runsPerSecond\": %s,%n  \"parseBytes\": %d,%n  \"parseTokens\": %d,%n"
+                        + "  \"parseMillis\": %s,%n  \"parseMegabytesPerSecond\": %s,%n  \"summaries\": [",
+                        elapsedMillis, records.size(), json(runsPerSecond()), parseBytes, parseTokens,
+                        json(parseNanos / 1e6), json(parseMegabytesPerSecond())));
+                for (int k = 0; k < summaries.size(); k++) {
+                    Summary s = summaries.get(k);
+                    out.write(String.format(Locale.ROOT, "%s%n    {\"instance\": \"%s\", \"strategy\": \"%s\", "
+                                    + "\"runs\": %d, \"optimum\": %s, \"lowerBound\": %s, \"bestCost\": %s, \"meanCost\": %s, "
+                                    + "\"bestGapPercent\": %s, \"meanGapPercent\": %s, \"hits\": %d, "
+                                    + "\"meanTimeToTargetMillis\": %s, \"meanMillis\": %s, \"runsPerSecond\": %s, "
+                                    + "\"parseMillis\": %s, \"parseMegabytesPerSecond\": %s}",
+                            k == 0 ? "" : ",", s.instance, s.strategy, s.runs, json(s.optimum), json(s.lowerBound),
+                            json(s.bestCost),
+                            json(s.meanCost()), json(s.bestGapPercent()), json(s.meanGapPercent()), s.hits,
+                            json(s.meanTimeToTargetMillis()), json(s.meanMillis()), json(s.runsPerSecond()),
+                            json(s.parseStats == null ? Double.NaN : s.parseStats.nanos / 1e6),
+                            json(s.parseStats == null ? Double.NaN : s.parseStats.megabytesPerSecond())));
+                }
+                out.write(String.format("%n  ]%n}%n"));
+            }
+        }
+
+        private static String number(double value) {
+            return Double.isNaN(value) || Double.isInfinite(value) ? "" : String.format(Locale.ROOT, "%.6f", value);
+        }
+
+        private static String json(double value) {
+            return Double.isNaN(value) || Double.isInfinite(value) ? "null" : String.format(Locale.ROOT, "%.6f", value);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format(Locale.ROOT, "%-10s %-22s %5s %16s %16s %9s %9s %6s %10s %10s%n", "instance",
+                    "strategy", "runs", "best", "mean", "best gap%", "mean gap%", "hits", "ttt ms", "mean ms"));
+            for (Summary s : summaries) {
+                sb.append(String.format(Locale.ROOT, "%-10s %-22s %5d %16.3f %16.3f %9.4f %9.4f %3d/%-2d %10.1f %10.1f%n",
+                        s.instance, s.strategy, s.runs, s.bestCost, s.meanCost(), s.bestGapPercent(),
+                        s.meanGapPercent(), s.hits, s.runs, s.meanTimeToTargetMillis(), s.meanMillis()));
+            }
+            sb.append(String.format(Locale.ROOT, "%d runs in %d ms (%.2f runs/s)%n", records.size(), elapsedMillis,
+                    runsPerSecond()));
+            sb.append(String.format(Locale.ROOT, "parsed %d bytes, %d tokens in %.1f ms (%.1f MB/s)%n", parseBytes,
+                    parseTokens, parseNanos / 1e6, parseMegabytesPerSecond()));
+            return sb.toString();
+        }
+    }
+
+    /**
+     * @param strategies Os algoritmos a comparar (têm de ser da variante escolhida por
+     *                   {@link #setCapacitated(boolean)}), ou null para todos os da variante.
+     */
+    public void setStrategies(List<PortfolioRunner.Strategy> strategies) {
+        this.strategies = strategies == null ? null : new ArrayList<>(strategies);
+    }
+
+    /**
+     * @param seeds    O número de sementes por algoritmo.
+     * @param baseSeed A primeira semente (as seguintes são consecutivas).
+     */
+    public void setSeeds(int seeds, long baseSeed) {
+        this.seeds = Math.max(1, seeds);
+        this.baseSeed = baseSeed;
+    }
+
+    public void setRepetitions(int repetitions) {
+        this.repetitions = Math.max(1, repetitions);
+    }
+
+    public void setWarmupRuns(int warmupRuns) {
+        this.warmupRuns = Math.max(0, warmupRuns);
+    }
+
+    public void setThreads(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * @param timeLimitMillis O tempo máximo de cada execução (0 para não limitar).
+     */
+    public void setTimeLimitMillis(long timeLimitMillis) {
+        this.timeLimitMillis = timeLimitMillis;
+    }
+
+    /**
+     * @param targetGap O desvio relativo ao ótimo que conta como alvo atingido (0 = o próprio ótimo).
+     */
+    public void setTargetGap(double targetGap) {
+        this.targetGap = targetGap;
+    }
+
+    /**
+     * @param gapTolerance O desvio relativo provado (face ao limite inferior) com que cada execução termina,
+     *                     ou um valor negativo para executar sempre até ao fim.
+     */
+    public void setGapTolerance(double gapTolerance) {
+        this.gapTolerance = gapTolerance;
+    }
+
+    /**
+     * @param reduce Verdadeiro para resolver a instância reduzida pelo {@link ProblemReducer}.
+     */
+    public void setReduce(boolean reduce) {
+        this.reduce = reduce;
+    }
+
+    /**
+     * @param pathRelinking Verdadeiro para a pesquisa local e a tabu terminarem com
+     *                      {@link PathRelinking} entre os ótimos locais (os outros algoritmos ignoram-no).
+     */
+    public void setPathRelinking(boolean pathRelinking) {
+        this.pathRelinking = pathRelinking;
+    }
+
+    /**
+     * Escolhe a variante do problema: com capacidades, a experiência corre por
+     * omissão o {@link CapacitatedSearchUFLP}; sem, os algoritmos sem capacidades.
+     * Os algoritmos escolhidos por {@link #setStrategies(List)} têm de ser da
+     * variante (a ordem das chamadas não importa).
+     *
+     * @param capacitated Verdadeiro para respeitar as capacidades dos armazéns.
+     */
+    public void setCapacitated(boolean capacitated) {
+        this.capacitated = capacitated;
+    }
+
+    /**
+     * @return Os algoritmos da experiência.
+     * @throws IllegalArgumentException Se algum algoritmo escolhido não for da variante do problema.
+     */
+    private List<PortfolioRunner.Strategy> strategies() {
+        if (strategies == null) {
+            return capacitated ? Collections.singletonList(PortfolioRunner.Strategy.CAPACITATED_SEARCH)
+                    : PortfolioRunner.Strategy.uncapacitated();
+        }
+        for (PortfolioRunner.Strategy strategy : strategies) {
+            if (strategy.isCapacitated() != capacitated) {
+                throw new IllegalArgumentException("O algoritmo " + strategy + (capacitated
+                        ? " não respeita as capacidades (--capacitated)" : " só corre com --capacitated"));
+            }
+        }
+        return strategies;
+    }
+
+    /**
+     * @param construction A heurística da solução inicial de todos os algoritmos (null para a aleatória).
+     */
+    public void setConstruction(ConstructionHeuristic construction) {
+        this.construction = construction;
+    }
+
+    /**
+     * @param regex Expressão regular que o nome da instância tem de conter (null para todas).
+     */
+    public void setInstanceFilter(String regex) {
+        this.instanceFilter = regex == null ? null : Pattern.compile(regex, Pattern.CASE_INSENSITIVE);
+    }
+
+    /**
+     * Encontra as instâncias dentro de uma pasta: os ficheiros listados nos
+     * {@code files.lst}, os ficheiros {@code .txt} com ótimo conhecido e todas as
+     * instâncias compiladas pelo {@link InstanceCompiler}. O ótimo vem do ficheiro
+     * {@code .opt} da instância ou, se não existir, de um {@code optimal.txt}
+     * dentro da pasta. A pasta pode ser um único ficheiro.
+     *
+     * @param root A pasta das instâncias.
+     * @return As instâncias, ordenadas pelo caminho.
+     * @throws IOException Se ocorrer um erro ao percorrer a pasta.
+     */
+    public static List<Instance> discover(Path root) throws IOException {
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(root)) {
+            files = walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+
+        Map<String, Double> optima = new HashMap<>();
+        Set<Path> listed = new LinkedHashSet<>();
+        for (Path file : files) {
+            String fileName = file.getFileName().toString();
+            if (fileName.equals("optimal.txt")) {
+                readOptimalFile(file, optima);
+            } else if (fileName.equals("files.lst")) {
+                for (String line : Files.readAllLines(file, StandardCharsets.ISO_8859_1)) {
+                    if (!line.isBlank()) {
+                        listed.add(file.resolveSibling(line.trim()));
+                    }
+                }
+            }
+        }
+
+        List<Instance> instances = new ArrayList<>();
+        for (Path file : files) {
+            String fileName = file.getFileName().toString();
+            boolean compiled = fileName.endsWith(InstanceCompiler.EXTENSION);
+            if (!compiled && (!fileName.endsWith(".txt") || fileName.equals("optimal.txt"))) {
+                continue;
+            }
+            String name = fileName.substring(0, fileName.lastIndexOf('.'));
+            Path optFile = file.resolveSibling(fileName + ".opt");
+            double optimum = Files.exists(optFile) ? lastNumber(optFile)
+                    : optima.getOrDefault(name.toLowerCase(Locale.ROOT), Double.NaN);
+            if (compiled || listed.contains(file) || !Double.isNaN(optimum)) {
+                instances.add(new Instance(name, file, optimum));
+            }
+        }
+        return instances;
+    }
+
+    // optimal.txt: uma linha "nome valor" por instância; o cabeçalho não está em UTF-8.
+    private static void readOptimalFile(Path file, Map<String, Double> optima) throws IOException {
+        for (String line : Files.readAllLines(file, StandardCharsets.ISO_8859_1)) {
+            String[] tokens = line.trim().split("\\s+");
+            if (tokens.length < 2) {
+                continue;
+            }
+            try {
+                optima.put(tokens[0].toLowerCase(Locale.ROOT), Double.parseDouble(tokens[tokens.length - 1]));
+            } catch (NumberFormatException e) {
+                // Linha de cabeçalho.
+            }
+        }
+    }
+
+    // Ficheiro .opt: a atribuição seguida do custo ótimo, que é o último número.
+    private static double lastNumber(Path file) throws IOException {
+        String[] tokens = new String(Files.readAllBytes(file), StandardCharsets.ISO_8859_1).trim().split("\\s+");
+        return Double.parseDouble(tokens[tokens.length - 1]);
+    }
+
+    /**
+     * Controlo de uma execução: regista o momento em que o alvo é atingido e pára
+     * no limite de tempo.
+     */
+    private static class BatchControl extends SearchControl {
+        private final long startNanos = System.nanoTime();
+        private final long deadline;
+        private final double target;
+        private long timeToTargetNanos = -1;
+        private int improvements;
+        private boolean timedOut;
+
+        BatchControl(long timeLimitMillis, double target) {
+            this.deadline = timeLimitMillis > 0 ? startNanos + timeLimitMillis * 1_000_000L : 0;
+            this.target = target;
+        }
+
+        @Override
+        public boolean shouldStop() {
+            if (deadline != 0 && System.nanoTime() - deadline >= 0) {
+                timedOut = true;
+            }
+            return timedOut || isCancelled();
+        }
+
+        @Override
+        public void improved(double cost, int[] assignment) {
+            improvements++;
+            if (timeToTargetNanos < 0 && cost <= target) {
+                timeToTargetNanos = System.nanoTime() - startNanos;
+            }
+        }
+    }
+
+    /**
+     * Executa a experiência sobre as instâncias dadas.
+     *
+     * @param instances As instâncias (filtradas pelo filtro de nomes, se definido).
+     * @return Os resultados de todas as execuções medidas.
+     * @throws InterruptedException Se a thread for interrompida enquanto espera.
+     */
+    public BatchResult run(List<Instance> instances) throws InterruptedException {
+        long start = System.nanoTime();
+        List<PortfolioRunner.Strategy> strategies = strategies();
+        List<Instance> selected = new ArrayList<>();
+        for (Instance instance : instances) {
+            if (instanceFilter == null || instanceFilter.matcher(instance.name).find()) {
+                selected.add(instance);
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "batch-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<InstanceRun>> futures = new ArrayList<>();
+            for (Instance instance : selected) {
+                futures.add(executor.submit(() -> runInstance(instance, strategies)));
+            }
+            List<RunRecord> records = new ArrayList<>();
+            List<Summary> summaries = new ArrayList<>();
+            long parseBytes = 0;
+            long parseTokens = 0;
+            long parseNanos = 0;
+            for (int k = 0; k < futures.size(); k++) {
+                InstanceRun instanceRun;
+                try {
+                    instanceRun = futures.get(k).get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Execução de " + selected.get(k).name + " falhou", e.getCause());
+                }
+                List<RunRecord> instanceRecords = instanceRun.records;
+                records.addAll(instanceRecords);
+                parseBytes += instanceRun.parseStats.bytes;
+                parseTokens += instanceRun.parseStats.tokens;
+                parseNanos += instanceRun.parseStats.nanos;
+                for (PortfolioRunner.Strategy strategy : strategies) {
+                    Summary summary = new Summary(selected.get(k).name, strategy, optimumFor(strategy, selected.get(k)));
+                    summary.parseStats = instanceRun.parseStats;
+                    for (RunRecord record : instanceRecords) {
+                        if (record.strategy == strategy) {
+                            summary.add(record);
+                        }
+                    }
+                    summaries.add(summary);
+                }
+            }
+            BatchResult result = new BatchResult(records, summaries, (System.nanoTime() - start) / 1_000_000);
+            result.parseBytes = parseBytes;
+            result.parseTokens = parseTokens;
+            result.parseNanos = parseNanos;
+            return result;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * As execuções de uma instância e as estatísticas da sua leitura.
+     */
+    private static class InstanceRun {
+        final InstanceParser.ParseStats parseStats;
+        final List<RunRecord> records;
+
+        InstanceRun(InstanceParser.ParseStats parseStats, List<RunRecord> records) {
+            this.parseStats = parseStats;
+            this.records = records;
+        }
+    }
+
+    /**
+     * Carrega uma instância e executa o aquecimento e todas as execuções medidas.
+     * Uma instância compilada ({@link InstanceCompiler#EXTENSION}) é mapeada em
+     * memória em vez de lida como texto, e o custo registado de cada execução é
+     * recalculado sobre o mapeamento com {@link MappedInstance#evaluate(int[])}.
+     */
+    private InstanceRun runInstance(Instance instance, List<PortfolioRunner.Strategy> strategies) {
+        if (!instance.path.toString().endsWith(InstanceCompiler.EXTENSION)) {
+            WarehouseLocationProblem problem = new WarehouseLocationProblem(0, 0);
+            InstanceParser.ParseStats parseStats;
+            try {
+                parseStats = InstanceParser.parseInto(instance.path.toString(), problem);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return runInstance(instance, strategies, problem, null, parseStats);
+        }
+        long start = System.nanoTime();
+        try (MappedInstance mapped = new MappedInstance(instance.path)) {
+            WarehouseLocationProblem problem = mapped.toProblem();
+            // Sem texto para converter: conta só os bytes mapeados e o tempo da cópia.
+            InstanceParser.ParseStats loadStats = new InstanceParser.ParseStats(mapped.sizeBytes(), 0,
+                    System.nanoTime() - start);
+            return runInstance(instance, strategies, problem, mapped, loadStats);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @param mapped O mapeamento da instância compilada, que avalia os resultados (null para as de texto).
+     */
+    private InstanceRun runInstance(Instance instance, List<PortfolioRunner.Strategy> strategies,
+                                    WarehouseLocationProblem problem, MappedInstance mapped,
+                                    InstanceParser.ParseStats parseStats) {
+        LagrangianBound bound = new LagrangianBound(problem);
+        double lowerBound = bound.compute();
+        ReducedInstance reduced = reduce ? ProblemReducer.reduce(problem, bound) : null;
+        Budget budget = gapTolerance >= 0 ? Budget.unlimited().withLowerBound(lowerBound, gapTolerance)
+                : Budget.unlimited();
+
+        // Aquecimento: compila os caminhos quentes antes das execuções medidas.
+        for (int k = 0; k < warmupRuns; k++) {
+            for (PortfolioRunner.Strategy strategy : strategies) {
+                solve(strategy, problem, reduced, construction, pathRelinking, baseSeed - 1 - k,
+                        new BatchControl(timeLimitMillis, target(optimumFor(strategy, instance))), budget);
+            }
+        }
+
+        List<RunRecord> records = new ArrayList<>();
+        for (PortfolioRunner.Strategy strategy : strategies) {
+            double optimum = optimumFor(strategy, instance);
+            double target = target(optimum);
+            for (int s = 0; s < seeds; s++) {
+                long seed = baseSeed + s;
+                for (int repetition = 0; repetition < repetitions; repetition++) {
+                    BatchControl control = new BatchControl(timeLimitMillis, target);
+                    SolverResult result = solve(strategy, problem, reduced, construction, pathRelinking, seed,
+                            control, budget);
+                    long millis = (System.nanoTime() - control.startNanos) / 1_000_000;
+                    long timeToTarget = control.timeToTargetNanos < 0 ? -1 : control.timeToTargetNanos / 1_000_000;
+                    double cost = mapped != null && result.getAssignment() != null
+                            ? mapped.evaluate(result.getAssignment()) : result.getCost();
+                    records.add(new RunRecord(instance.name, strategy, seed, repetition, cost,
+                            optimum, lowerBound, millis, timeToTarget, control.improvements, control.timedOut,
+                            result.getStopReason() == SolverResult.StopReason.GAP_CLOSED));
+                }
+            }
+        }
+        return new InstanceRun(parseStats, records);
+    }
+
+    /**
+     * @return O ótimo conhecido da instância para o algoritmo (NaN para os
+     * algoritmos com capacidades, porque os ótimos são os do problema sem capacidades).
+     */
+    private static double optimumFor(PortfolioRunner.Strategy strategy, Instance instance) {
+        return strategy.isCapacitated() ? Double.NaN : instance.optimum;
+    }
+
+    private double target(double optimum) {
+        return Double.isNaN(optimum) ? Double.NEGATIVE_INFINITY
+                : optimum * (1.0 + targetGap) + Math.abs(optimum) * OPTIMUM_TOLERANCE;
+    }
+
+    private static SolverResult solve(PortfolioRunner.Strategy strategy, WarehouseLocationProblem problem,
+                                      ReducedInstance reduced, ConstructionHeuristic construction,
+                                      boolean pathRelinking, long seed, SearchControl control, Budget budget) {
+        // A redução fixa armazéns pelos custos do problema sem capacidades: não se aplica ao capacitado.
+        Solver solver = reduced == null || strategy.isCapacitated() ? create(strategy, problem, pathRelinking)
+                : new ReducedSolver(reduced, create(strategy, reduced.getProblem(), pathRelinking));
+        solver.setSeed(seed);
+        solver.setSearchControl(control);
+        solver.setConstruction(construction);
+        return solver.solve(budget, null, null);
+    }
+
+    /**
+     * Cria o algoritmo, com o path relinking no fim se pedido e se o algoritmo
+     * alimentar um conjunto de elite.
+     */
+    private static Solver create(PortfolioRunner.Strategy strategy, WarehouseLocationProblem problem,
+                                 boolean pathRelinking) {
+        Solver solver = strategy.create(problem);
+        if (pathRelinking && strategy == PortfolioRunner.Strategy.LOCAL_SEARCH) {
+            ((LocalSearchUFLP) solver).setPathRelinking(true);
+        } else if (pathRelinking && strategy == PortfolioRunner.Strategy.TABU_SEARCH) {
+            ((TabuSearchUFLP) solver).setPathRelinking(true);
+        }
+        return solver;
+    }
+
+    /**
+     * Executa uma experiência a partir da linha de comandos.
+     * Uso: {@code BatchRunner [pasta|ficheiro] [--solvers=A,B] [--seeds=N] [--reps=N] [--warmup=N] [--threads=N]
+     * [--time-limit=ms] [--target-gap=f] [--gap-tolerance=f] [--reduce=true] [--relink=true] [--capacitated]
+     * [--construction=greedy-add|greedy-drop|grasp:α] [--filter=regex] [--out=pasta]}.
+     * Escreve {@code runs.csv} e {@code summary.json} na pasta de saída (por omissão {@code build/batch}).
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Path root = Paths.get(DEFAULT_ROOT);
+        Path out = Paths.get("build", "batch");
+        BatchRunner runner = new BatchRunner();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                root = Paths.get(arg);
+                continue;
+            }
+            if (arg.equals("--capacitated")) {
+                runner.setCapacitated(true);
+                continue;
+            }
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Opção sem valor: " + arg);
+            }
+            String key = arg.substring(2, eq);
+            String value = arg.substring(eq + 1);
+            switch (key) {
+                case "solvers": {
+                    List<PortfolioRunner.Strategy> list = new ArrayList<>();
+                    for (String name : value.split(",")) {
+                        list.add(PortfolioRunner.Strategy.valueOf(name.trim().toUpperCase(Locale.ROOT)));
+                    }
+                    runner.setStrategies(list);
+                    break;
+                }
+                case "seeds": runner.setSeeds(Integer.parseInt(value), runner.baseSeed); break;
+                case "reps": runner.setRepetitions(Integer.parseInt(value)); break;
+                case "warmup": runner.setWarmupRuns(Integer.parseInt(value)); break;
+                case "threads": runner.setThreads(Integer.parseInt(value)); break;
+                case "time-limit": runner.setTimeLimitMillis(Long.parseLong(value)); break;
+                case "target-gap": runner.setTargetGap(Double.parseDouble(value)); break;
+                case "gap-tolerance": runner.setGapTolerance(Double.parseDouble(value)); break;
+                case "construction": runner.setConstruction(ConstructionHeuristic.parse(value)); break;
+                case "reduce": runner.setReduce(Boolean.parseBoolean(value)); break;
+                case "relink": runner.setPathRelinking(Boolean.parseBoolean(value)); break;
+                case "capacitated": runner.setCapacitated(Boolean.parseBoolean(value)); break;
+                case "filter": runner.setInstanceFilter(value); break;
+                case "out": out = Paths.get(value); break;
+                default: throw new IllegalArgumentException("Opção desconhecida: " + arg);
+            }
+        }
+
+        BatchResult result = runner.run(discover(root));
+        System.out.print(result);
+        for (SolverMetrics.Snapshot snapshot : SolverMetrics.snapshotAll().values()) {
+            System.out.println(snapshot);
+        }
+        Files.createDirectories(out);
+        result.writeCsv(out.resolve("runs.csv"));
+        result.writeJson(out.resolve("summary.json"));
+        System.out.println("Resultados em " + out.toAbsolutePath());
+    }
+}
@@ -0,0 +1,118 @@
+package org.example;
+
+/**
+ * A classe Budget define o orçamento de uma execução de um {@link Solver}: um
+ * limite de tempo real e/ou um limite de avaliações de movimentos. Um valor 0
+ * significa que esse limite não existe. Com um orçamento limitado, o algoritmo
+ * recomeça (com a semente seguinte) até o esgotar; sem limites, faz uma única
+ * execução com os critérios de paragem próprios.
+ *
+ * <p>Opcionalmente, o orçamento inclui um limite inferior (por exemplo do
+ * {@link LagrangianBound}): a execução termina logo que a distância relativa
+ * entre a melhor solução e esse limite fique abaixo da tolerância, porque a
+ * solução é comprovadamente ótima (a menos da tolerância).
+ */
+public final class Budget {
+
+    private static final Budget UNLIMITED = new Budget(0, 0, Double.NEGATIVE_INFINITY, 0.0);
+
+    private final long millis;
+    private final long evaluations;
+    private final double lowerBound;
+    private final double gapTolerance;
+
+    private Budget(long millis, long evaluations, double lowerBound, double gapTolerance) {
+        if (millis < 0 || evaluations < 0) {
+            throw new IllegalArgumentException("Orçamento negativo: " + millis + " ms, " + evaluations + " avaliações");
+        }
+        this.millis = millis;
+        this.evaluations = evaluations;
+        this.lowerBound = lowerBound;
+        this.gapTolerance = gapTolerance;
+    }
+
+    /**
+     * @return Um orçamento sem limites (uma única execução do algoritmo).
+     */
+    public static Budget unlimited() {
+        return UNLIMITED;
+    }
+
+    /**
+     * @param millis O tempo máximo em milissegundos.
+     * @return Um orçamento limitado apenas pelo tempo.
+     */
+    public static Budget ofMillis(long millis) {
+        return new Budget(millis, 0, Double.NEGATIVE_INFINITY, 0.0);
+    }
+
+    /**
+     * @param evaluations O número máximo de avaliações de movimentos.
+     * @return Um orçamento limitado apenas pelo número de avaliações.
+     */
+    public static Budget ofEvaluations(long evaluations) {
+        return new Budget(0, evaluations, Double.NEGATIVE_INFINITY, 0.0);
+    }
+
+    /**
+     * @param millis      O tempo máximo em milissegundos (0 = sem limite).
+     * @param evaluations O número máximo de avaliações (0 = sem limite).
+     * @return O orçamento com os dois limites; termina quando o primeiro for atingido.
+     */
+    public static Budget of(long millis, long evaluations) {
+        return new Budget(millis, evaluations, Double.NEGATIVE_INFINITY, 0.0);
+    }
+
+    /**
+     * Cria um orçamento igual a este que termina quando a melhor solução fica a
+     * uma distância relativa do limite inferior não superior à tolerância.
+     *
+     * @param lowerBound   Um limite inferior do custo ótimo.
+     * @param gapTolerance A distância relativa aceite (por exemplo 1e-6).
+     * @return O novo orçamento.
+     */
+    public Budget withLowerBound(double lowerBound, double gapTolerance) {
+        return new Budget(millis, evaluations, lowerBound, gapTolerance);
+    }
+
+    public long getMillis() {
+        return millis;
+    }
+
+    public long getEvaluations() {
+        return evaluations;
+    }
+
+    /**
+     * @return O limite inferior (menos infinito se não foi indicado).
+     */
+    public double getLowerBound() {
+        return lowerBound;
+    }
+
+    public double getGapTolerance() {
+        return gapTolerance;
+    }
+
+    /**
+     * @param cost O custo de uma solução.
+     * @return Verdadeiro se a solução está provadamente a menos da tolerância do ótimo.
+     */
+    boolean isGapClosed(double cost) {
+        return LagrangianBound.gap(cost, lowerBound) <= gapTolerance;
+    }
+
+    /**
+     * @return Verdadeiro se existe pelo menos um limite de tempo ou de avaliações.
+     */
+    public boolean isBounded() {
+        return millis > 0 || evaluations > 0;
+    }
+
+    @Override
+    public String toString() {
+        String bound = Double.isInfinite(lowerBound) ? "" : ", lower bound " + lowerBound + " ± " + gapTolerance;
+        return (isBounded() ? "Budget[" + millis + " ms, " + evaluations + " evaluations" : "Budget[unlimited")
+                + bound + "]";
+    }
+}
@@ -0,0 +1,189 @@
+package org.example;
+
+/**
+ * Controlo usado por {@link Solver#solve(Budget, CancellationToken, ImprovementListener)}:
+ * pára quando o orçamento se esgota ou a execução é cancelada, guarda a melhor
+ * solução de todas as execuções e passa as melhorias ao listener. Consulta e
+ * notifica também o controlo configurado no algoritmo.
+ */
+class BudgetControl extends SearchControl {
+
+    private final Budget budget;
+    private final CancellationToken token;
+    private final ImprovementListener listener;
+    private final SearchControl parent;
+    private final long startNanos = System.nanoTime();
+    private final long deadline;
+    private long phaseDeadline; // Fim da fase corrente: antes do fim do orçamento se houver uma reserva.
+    private long phaseEvaluations;
+    private long evaluations;
+    private int improvements;
+    private int restarts;
+    private double bestCost = Double.POSITIVE_INFINITY;
+    private int[] bestAssignment;
+    private SolverResult.StopReason stopReason;
+
+    BudgetControl(Budget budget, CancellationToken token, ImprovementListener listener, SearchControl parent) {
+        this.budget = budget;
+        this.token = token;
+        this.listener = listener;
+        this.parent = parent;
+        this.deadline = startNanos + budget.getMillis() * 1_000_000L;
+        this.phaseDeadline = deadline;
+        this.phaseEvaluations = budget.getEvaluations();
+    }
+
+    /**
+     * Reserva uma fração do orçamento (do tempo e das avaliações, se limitados)
+     * para o {@link #relink(PathRelinking, ElitePool, String)}: os recomeços param
+     * quando o resto se esgota.
+     *
+     * @param share A fração reservada, em [0, 1).
+     */
+    void reserve(double share) {
+        phaseDeadline = deadline - (long) (budget.getMillis() * share * 1_000_000L);
+        phaseEvaluations = budget.getEvaluations() - (long) (budget.getEvaluations() * share);
+    }
+
+    @Override
+    public boolean shouldStop() {
+        if (stopReason != null) {
+            return true;
+        }
+        if (isCancelled() || (token != null && token.isCancelled())) {
+            stopReason = SolverResult.StopReason.CANCELLED;
+        } else if (budget.getMillis() > 0 && System.nanoTime() - phaseDeadline >= 0) {
+            stopReason = SolverResult.StopReason.TIME_LIMIT;
+        } else if (budget.getEvaluations() > 0 && evaluations >= phaseEvaluations) {
+            stopReason = SolverResult.StopReason.EVALUATION_LIMIT;
+        } else if (parent.shouldStop()) {
+            stopReason = SolverResult.StopReason.STOPPED;
+        }
+        return stopReason != null;
+    }
+
+    @Override
+    public void evaluated(long count) {
+        evaluations += count;
+        parent.evaluated(count);
+    }
+
+    @Override
+    public void improved(double cost, int[] assignment) {
+        if (cost >= bestCost) {
+            return; // Melhoria de um recomeço que não supera a melhor de todas as execuções.
+        }
+        bestCost = cost;
+        bestAssignment = assignment.clone();
+        improvements++;
+        if (stopReason == null && budget.isGapClosed(cost)) {
+            stopReason = SolverResult.StopReason.GAP_CLOSED; // Ótimo provado: pára na próxima verificação.
+        }
+        parent.improved(cost, assignment);
+        if (listener != null) {
+            listener.onImprovement(cost, bestAssignment.clone(), elapsedMillis());
+        }
+    }
+
+    /**
+     * @return O custo da melhor solução de todas as execuções (infinito se ainda não houver).
+     */
+    double getBestCost() {
+        return bestCost;
+    }
+
+    /**
+     * @return A melhor atribuição de todas as execuções (sem cópia; null se ainda não houver).
+     */
+    int[] getBestAssignment() {
+        return bestAssignment;
+    }
+
+    /**
+     * Indica se o algoritmo deve recomeçar: só com um orçamento limitado e
+     * ainda não esgotado.
+     *
+     * @return Verdadeiro se deve ser feita mais uma execução.
+     */
+    boolean nextRestart() {
+        if (!budget.isBounded() || shouldStop()) {
+            return false;
+        }
+        restarts++;
+        return true;
+    }
+
+    /**
+     * Executa o ciclo de recomeços comum aos algoritmos: instala este controlo no
+     * algoritmo, faz uma execução por semente (a primeira, depois as seguintes)
+     * enquanto {@link #nextRestart()} o permitir e repõe no fim o controlo e a
+     * semente configurados.
+     *
+     * @param solver    O algoritmo (o controlo configurado é o pai deste).
+     * @param firstSeed A semente da primeira execução.
+     * @param run       Uma execução do algoritmo com a semente e o controlo instalados.
+     * @return O resultado de todas as execuções.
+     */
+    SolverResult runRestarts(Solver solver, long firstSeed, Runnable run) {
+        solver.setSearchControl(this);
+        long seed = firstSeed;
+        try {
+            do {
+                solver.setSeed(seed++);
+                run.run();
+            } while (nextRestart());
+        } finally {
+            solver.setSearchControl(parent);
+            solver.setSeed(firstSeed);
+        }
+        return result(solver.getName());
+    }
+
+    /**
+     * Fase final dos algoritmos com path relinking: percorre os caminhos entre as
+     * soluções do conjunto de elite e conta a melhor como melhoria se superar a de
+     * todas as execuções. Usa a reserva de {@link #reserve(double)} e pára, como os
+     * recomeços, quando o orçamento se esgota; não corre se a execução foi
+     * cancelada ou o ótimo provado.
+     *
+     * @param relinking  O path relinking.
+     * @param pool       O conjunto de elite alimentado pelas execuções.
+     * @param solverName O nome do algoritmo.
+     * @return O resultado de todas as execuções e dos caminhos.
+     */
+    SolverResult relink(PathRelinking relinking, ElitePool pool, String solverName) {
+        // O fim da fase dos recomeços não é o fim do orçamento: volta a verificar com o orçamento todo.
+        SolverResult.StopReason restartsReason = stopReason;
+        if (stopReason == SolverResult.StopReason.TIME_LIMIT
+                || stopReason == SolverResult.StopReason.EVALUATION_LIMIT) {
+            stopReason = null;
+        }
+        phaseDeadline = deadline;
+        phaseEvaluations = budget.getEvaluations();
+        if (!shouldStop()) {
+            relinking.setSearchControl(this);
+            PathRelinking.Result relinked = relinking.relink(pool);
+            if (relinked.getBestAssignment() != null) {
+                improved(relinked.bestCost, relinked.getBestAssignment());
+            }
+        }
+        if (stopReason == null) {
+            stopReason = restartsReason; // O relinking terminou dentro da reserva.
+        }
+        return result(solverName);
+    }
+
+    private long elapsedMillis() {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    /**
+     * @param solverName O nome do algoritmo.
+     * @return O resultado da execução.
+     */
+    SolverResult result(String solverName) {
+        SolverResult.StopReason reason = stopReason != null ? stopReason : SolverResult.StopReason.COMPLETED;
+        return new SolverResult(solverName, bestCost, bestAssignment, budget.getLowerBound(), elapsedMillis(),
+                evaluations, improvements, restarts, reason);
+    }
+}
@@ -0,0 +1,19 @@
+package org.example;
+
+/**
+ * Pedido de cancelamento de uma execução de um {@link Solver}. Pode ser
+ * cancelado a partir de qualquer thread; o algoritmo verifica-o em cada
+ * iteração e devolve a melhor solução encontrada até esse momento.
+ */
+public class CancellationToken {
+
+    private volatile boolean cancelled;
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
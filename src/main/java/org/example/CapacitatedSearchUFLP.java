@@ -0,0 +1,613 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * A classe CapacitatedSearchUFLP resolve a variante capacitada do problema
+ * (cada cliente servido por um único armazém, sem exceder as capacidades lidas
+ * dos ficheiros), com uma pesquisa local iterada sobre o {@link CapacitatedState}.
+ *
+ * <p>A pesquisa local usa quatro vizinhanças sobre o custo penalizado
+ * {@code custo + penalty · excesso}, as três primeiras avaliadas em O(1) por
+ * movimento:
+ * <ul>
+ *   <li>mudar um cliente para um dos seus armazéns candidatos;</li>
+ *   <li>trocar os armazéns de dois clientes (o segundo servido por um candidato do primeiro);</li>
+ *   <li>cadeias de ejeção: mudar um cliente para um candidato sem capacidade livre
+ *       e mudar outro cliente desse armazém para um dos seus candidatos;</li>
+ *   <li>abrir um armazém fechado, levando para ele os clientes que ficam mais
+ *       baratos, ou fechar um aberto, mudando cada cliente para o seu melhor
+ *       candidato. Estes movimentos são avaliados aplicando-os e desfazendo-os.</li>
+ * </ul>
+ * Sem os movimentos de armazém, a pesquisa fica presa ao conjunto de armazéns
+ * da solução inicial: nenhuma mudança de um só cliente paga o custo fixo de
+ * abrir um armazém, e fechar um exige mudar todos os seus clientes.
+ * O peso da penalidade é adaptativo: aumenta quando a pesquisa local termina
+ * numa solução inviável e diminui quando termina numa viável. Só as soluções
+ * viáveis são comunicadas como melhorias.
+ */
+public class CapacitatedSearchUFLP implements Solver {
+
+    private static final double EPSILON = 1e-9;
+
+    private WarehouseLocationProblem problem;
+    private CapacitatedState state;
+    private PreprocessedProblem view;
+    private int candidates;
+    private double bestCost;
+    private int[] bestAssignment;
+
+    // Movimentos de armazém: clientes que têm cada armazém como candidato e registo das mudanças a desfazer.
+    private int[][] candidateOf;
+    private int[] moved;
+    private int[] movedFrom;
+    private int movedCount;
+    private int[] closed;
+    private int[] open;
+    private boolean[] marked;
+
+    private int maxIterations = 200; // Número de perturbações da pesquisa local iterada.
+    private int perturbationSize = 4; // Clientes mudados ao acaso em cada perturbação.
+    private int candidateListSize = PreprocessedProblem.DEFAULT_CANDIDATES;
+    private boolean useEjectionChains = true;
+    private boolean useFacilityMoves = true;
+    private double penaltyIncrease = 2.0; // Fator aplicado à penalidade após um ótimo local inviável.
+    private double penaltyDecrease = 0.8; // Fator aplicado à penalidade após um ótimo local viável.
+    private long seed = 42;
+    private SearchControl control = new SearchControl();
+    private ConstructionHeuristic construction = ConstructionHeuristic.greedyDrop(); // Armazéns usados primeiro.
+    private final SolverMetrics metrics = SolverMetrics.forSolver(getName());
+
+    /**
+     * Construtor da classe
+     *
+     * @param problem Uma instância da classe WarehouseLocationProblem, com as
+     *                capacidades dos armazéns e as demandas dos clientes.
+     */
+    public CapacitatedSearchUFLP(WarehouseLocationProblem problem) {
+        this.problem = problem;
+    }
+
+    /**
+     * @param maxIterations O número de perturbações a aplicar.
+     */
+    public void setMaxIterations(int maxIterations) {
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * @param perturbationSize O número de clientes mudados em cada perturbação.
+     */
+    public void setPerturbationSize(int perturbationSize) {
+        this.perturbationSize = perturbationSize;
+    }
+
+    /**
+     * @param candidateListSize O tamanho das listas de candidatos, ou
+     *                          {@link PreprocessedProblem#FULL_SCAN} para todos os armazéns.
+     */
+    public void setCandidateListSize(int candidateListSize) {
+        this.candidateListSize = candidateListSize;
+    }
+
+    /**
+     * @param useEjectionChains Verdadeiro para incluir as cadeias de ejeção.
+     */
+    public void setUseEjectionChains(boolean useEjectionChains) {
+        this.useEjectionChains = useEjectionChains;
+    }
+
+    /**
+     * @param useFacilityMoves Verdadeiro para incluir a abertura e o fecho de armazéns.
+     */
+    public void setUseFacilityMoves(boolean useFacilityMoves) {
+        this.useFacilityMoves = useFacilityMoves;
+    }
+
+    /**
+     * @param increase O fator que aumenta a penalidade após um ótimo local inviável (maior que 1).
+     * @param decrease O fator que reduz a penalidade após um ótimo local viável (entre 0 e 1).
+     */
+    public void setPenaltyAdaptation(double increase, double decrease) {
+        this.penaltyIncrease = increase;
+        this.penaltyDecrease = decrease;
+    }
+
+    /**
+     * Define a semente do gerador aleatório (por omissão 42).
+     *
+     * @param seed A semente.
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Define o controlo da execução, consultado em cada iteração e notificado
+     * das novas melhores soluções viáveis.
+     *
+     * @param control O controlo da execução.
+     */
+    public void setSearchControl(SearchControl control) {
+        this.control = control;
+    }
+
+    /**
+     * Define a heurística (sem capacidades) que escolhe os armazéns a usar
+     * primeiro na atribuição inicial (por omissão, o DROP guloso).
+     *
+     * @param construction A heurística, ou null para considerar todos os armazéns por igual.
+     */
+    @Override
+    public void setConstruction(ConstructionHeuristic construction) {
+        this.construction = construction;
+    }
+
+    /**
+     * @return O custo da melhor solução viável (infinito se nenhuma foi encontrada).
+     */
+    public double getBestCost() {
+        return bestCost;
+    }
+
+    /**
+     * @return Uma cópia da melhor atribuição viável.
+     */
+    public int[] getBestAssignment() {
+        return bestAssignment.clone();
+    }
+
+    @Override
+    public String getName() {
+        return "Capacitated Search";
+    }
+
+    /**
+     * Executa a pesquisa dentro do orçamento. Com um orçamento limitado,
+     * recomeça com a semente seguinte até o esgotar.
+     *
+     * @param budget   O orçamento de tempo e de avaliações.
+     * @param token    O pedido de cancelamento.
+     * @param listener Recebe cada nova melhor solução viável (pode ser null).
+     * @return A melhor solução viável de todas as execuções.
+     */
+    @Override
+    public SolverResult solve(Budget budget, CancellationToken token, ImprovementListener listener) {
+        return new BudgetControl(budget, token, listener, control).runRestarts(this, seed, this::solve);
+    }
+
+    /**
+     * Executa a pesquisa local iterada com penalidade adaptativa.
+     */
+    public void solve() {
+        view = PreprocessedProblem.of(problem, candidateListSize);
+        candidates = view.candidateCount();
+        state = new CapacitatedState(problem);
+        if (useFacilityMoves) {
+            prepareFacilityMoves();
+        }
+        bestCost = Double.POSITIVE_INFINITY;
+        bestAssignment = null;
+        Random rand = new Random(seed);
+
+        state.reset(initialAssignment(rand));
+        double basePenalty = basePenalty();
+        state.setPenalty(basePenalty);
+        localSearch();
+        adaptPenalty(basePenalty);
+        updateBest(0);
+
+        for (int iteration = 0; iteration < maxIterations && !control.shouldStop(); iteration++) {
+            SolverEvents.IterationEvent iterationEvent = metrics.beginIteration();
+            SolverEvents.PerturbationEvent perturbationEvent = metrics.beginPerturbation();
+            double costBefore = state.getCost();
+            perturb(rand);
+            metrics.endPerturbation(perturbationEvent, iteration, perturbationSize, costBefore, state.getCost());
+            long evaluated = localSearch();
+            adaptPenalty(basePenalty);
+            metrics.endIteration(iterationEvent, iteration, evaluated, state.getCost(), bestCost);
+            if (!updateBest(iteration) && bestAssignment != null) {
+                state.reset(bestAssignment); // Volta à melhor solução viável antes da próxima perturbação.
+            }
+        }
+    }
+
+    /**
+     * Constrói as listas inversas de candidatos e os registos dos movimentos de armazém.
+     */
+    private void prepareFacilityMoves() {
+        int m = problem.numWarehouses;
+        int n = problem.numCustomers;
+        int[] size = new int[m];
+        for (int j = 0; j < n; j++) {
+            for (int r = 0; r < candidates; r++) {
+                size[view.candidate(j, r)]++;
+            }
+        }
+        candidateOf = new int[m][];
+        for (int i = 0; i < m; i++) {
+            candidateOf[i] = new int[size[i]];
+            size[i] = 0;
+        }
+        for (int j = 0; j < n; j++) {
+            for (int r = 0; r < candidates; r++) {
+                int i = view.candidate(j, r);
+                candidateOf[i][size[i]++] = j;
+            }
+        }
+        moved = new int[n];
+        movedFrom = new int[n];
+        closed = new int[m];
+        open = new int[m];
+        marked = new boolean[m];
+    }
+
+    /**
+     * Atribuição inicial gulosa: os clientes, por ordem decrescente de procura,
+     * vão para o armazém com capacidade livre que menos aumenta o custo (custo de
+     * alocação mais o custo fixo, se ainda estiver fechado). Com uma heurística de
+     * construção, os armazéns que ela abre são usados primeiro, já sem custo fixo;
+     * sem capacidade livre em lado nenhum, o cliente vai para o mais barato e a
+     * penalidade trata do excesso.
+     */
+    private int[] initialAssignment(Random rand) {
+        int m = problem.numWarehouses;
+        int n = problem.numCustomers;
+        float[] costs = problem.customerMajorCosts();
+        boolean[] preferred = new boolean[m];
+        boolean[] used = new boolean[m]; // Armazéns cujo custo fixo já foi contado.
+        if (construction != null) {
+            FacilityState facilities = new FacilityState(problem);
+            construction.construct(facilities, rand);
+            facilities.copyOpenTo(preferred);
+            facilities.copyOpenTo(used);
+        } else {
+            Arrays.fill(preferred, true);
+        }
+
+        long[] order = new long[n]; // Procura decrescente, desempate pelo índice.
+        for (int j = 0; j < n; j++) {
+            order[j] = ((long) (Integer.MAX_VALUE - problem.demands[j]) << 32) | j;
+        }
+        Arrays.sort(order);
+
+        int[] assignment = new int[n];
+        double[] load = new double[m];
+        for (long key : order) {
+            int j = (int) key;
+            int base = j * m;
+            int demand = problem.demands[j];
+            int chosen = -1;
+            double chosenCost = Double.POSITIVE_INFINITY;
+            int fallback = -1; // O mais barato entre todos, ignorando as capacidades.
+            for (int pass = 0; pass < 2 && chosen < 0; pass++) {
+                for (int i = 0; i < m; i++) {
+                    if (pass == 0 && !preferred[i]) {
+                        continue;
+                    }
+                    double c = costs[base + i] + (used[i] ? 0.0 : problem.fixedCosts[i]);
+                    if (fallback < 0 || costs[base + i] < costs[base + fallback]) {
+                        fallback = i;
+                    }
+                    if (load[i] + demand <= problem.capacities[i] && c < chosenCost) {
+                        chosenCost = c;
+                        chosen = i;
+                    }
+                }
+            }
+            if (chosen < 0) {
+                chosen = fallback;
+            }
+            assignment[j] = chosen;
+            load[chosen] += demand;
+            used[chosen] = true;
+        }
+        return assignment;
+    }
+
+    /**
+     * Peso inicial da penalidade: o custo médio por unidade de procura do armazém
+     * mais barato de cada cliente, para que o excesso e os custos tenham a mesma escala.
+     */
+    private double basePenalty() {
+        double cheapest = 0.0;
+        long demand = 0;
+        for (int j = 0; j < problem.numCustomers; j++) {
+            cheapest += view.cost(j, view.candidate(j, 0));
+            demand += problem.demands[j];
+        }
+        return Math.max(EPSILON, demand > 0 ? cheapest / demand : cheapest);
+    }
+
+    private void adaptPenalty(double basePenalty) {
+        double penalty = state.getPenalty();
+        if (state.isFeasible()) {
+            state.setPenalty(Math.max(basePenalty * 1e-3, penalty * penaltyDecrease));
+        } else {
+            state.setPenalty(penalty * penaltyIncrease);
+        }
+    }
+
+    /**
+     * Aplica mudanças e trocas de melhoria enquanto existirem e, quando não
+     * existem, as cadeias de ejeção; termina num ótimo local do custo penalizado.
+     *
+     * @return O número de movimentos avaliados.
+     */
+    private long localSearch() {
+        long evaluations = 0;
+        boolean improved = true;
+        while (improved && !control.shouldStop()) {
+            improved = false;
+            for (int j = 0; j < problem.numCustomers; j++) {
+                int current = state.warehouseOf(j);
+                int bestWarehouse = -1;
+                int bestPartner = -1;
+                double bestDelta = -EPSILON;
+                for (int r = 0; r < candidates; r++) {
+                    int i = view.candidate(j, r);
+                    if (i == current) {
+                        continue;
+                    }
+                    double delta = state.penalizedMoveDelta(j, i);
+                    evaluations++;
+                    if (delta < bestDelta) {
+                        bestDelta = delta;
+                        bestWarehouse = i;
+                        bestPartner = -1;
+                    }
+                    for (int k = state.firstCustomer(i); k >= 0; k = state.nextCustomer(k)) {
+                        delta = state.penalizedSwapDelta(j, k);
+                        evaluations++;
+                        if (delta < bestDelta) {
+                            bestDelta = delta;
+                            bestWarehouse = i;
+                            bestPartner = k;
+                        }
+                    }
+                }
+                if (bestPartner >= 0) {
+                    state.applySwap(j, bestPartner);
+                    improved = true;
+                } else if (bestWarehouse >= 0) {
+                    state.applyMove(j, bestWarehouse);
+                    improved = true;
+                }
+            }
+            if (!improved && useEjectionChains) {
+                long[] counter = new long[1];
+                improved = ejectionChains(counter);
+                evaluations += counter[0];
+            }
+            if (!improved && useFacilityMoves) {
+                long[] counter = new long[1];
+                improved = facilityMoves(counter);
+                evaluations += counter[0];
+            }
+        }
+        state.recompute(); // Elimina o erro numérico acumulado nas atualizações incrementais.
+        control.evaluated(evaluations);
+        return evaluations;
+    }
+
+    /**
+     * Procura, para cada cliente, a melhor cadeia de ejeção de comprimento dois:
+     * o cliente entra num candidato sem capacidade livre e outro cliente desse
+     * armazém sai para um dos seus candidatos. O primeiro movimento é aplicado de
+     * forma provisória para avaliar o segundo em O(1) e desfeito a seguir.
+     *
+     * @param evaluations Recebe o número de cadeias avaliadas.
+     * @return Verdadeiro se foi aplicada pelo menos uma cadeia de melhoria.
+     */
+    private boolean ejectionChains(long[] evaluations) {
+        boolean improved = false;
+        for (int j = 0; j < problem.numCustomers; j++) {
+            int current = state.warehouseOf(j);
+            int bestWarehouse = -1;
+            int bestEjected = -1;
+            int bestTarget = -1;
+            double bestDelta = -EPSILON;
+            for (int r = 0; r < candidates; r++) {
+                int i = view.candidate(j, r);
+                if (i == current || state.fits(j, i)) {
+                    continue; // Com capacidade livre, a mudança simples já foi avaliada.
+                }
+                double first = state.penalizedMoveDelta(j, i);
+                state.applyMove(j, i);
+                for (int k = state.firstCustomer(i); k >= 0; k = state.nextCustomer(k)) {
+                    if (k == j) {
+                        continue;
+                    }
+                    for (int s = 0; s < candidates; s++) {
+                        int h = view.candidate(k, s);
+                        if (h == i) {
+                            continue;
+                        }
+                        double delta = first + state.penalizedMoveDelta(k, h);
+                        evaluations[0]++;
+                        if (delta < bestDelta) {
+                            bestDelta = delta;
+                            bestWarehouse = i;
+                            bestEjected = k;
+                            bestTarget = h;
+                        }
+                    }
+                }
+                state.applyMove(j, current);
+            }
+            if (bestWarehouse >= 0) {
+                state.applyMove(j, bestWarehouse);
+                state.applyMove(bestEjected, bestTarget);
+                improved = true;
+            }
+        }
+        return improved;
+    }
+
+    /**
+     * Procura movimentos de armazém que melhorem o custo penalizado: fechar um
+     * armazém aberto (cada cliente vai para o seu melhor candidato), abrir um
+     * fechado (vêm para ele os clientes que ficam mais baratos, já sem contar o
+     * custo fixo) ou trocar um aberto por um fechado candidato dos seus
+     * clientes. Cada movimento é aplicado cliente a cliente, para que as cargas
+     * e o excesso fiquem exatos, e desfeito se não melhorar.
+     *
+     * @param evaluations Recebe o número de mudanças de cliente avaliadas.
+     * @return Verdadeiro se foi aplicado pelo menos um movimento de melhoria.
+     */
+    private boolean facilityMoves(long[] evaluations) {
+        int m = problem.numWarehouses;
+        boolean improved = false;
+        for (int i = 0; i < m && !control.shouldStop(); i++) {
+            movedCount = 0;
+            if (state.firstCustomer(i) < 0) {
+                if (tryOpen(i, evaluations) < -EPSILON) {
+                    improved = true;
+                } else {
+                    undoMoves();
+                }
+                continue;
+            }
+            if (tryClose(i, evaluations) < -EPSILON) {
+                improved = true;
+                continue;
+            }
+            undoMoves();
+
+            // Troca: os armazéns fechados que são candidatos dos clientes de i.
+            int closedCount = 0;
+            for (int k = state.firstCustomer(i); k >= 0; k = state.nextCustomer(k)) {
+                for (int r = 0; r < candidates; r++) {
+                    int h = view.candidate(k, r);
+                    if (state.firstCustomer(h) < 0 && !marked[h]) {
+                        marked[h] = true;
+                        closed[closedCount++] = h;
+                    }
+                }
+            }
+            for (int c = 0; c < closedCount; c++) {
+                marked[closed[c]] = false;
+            }
+            for (int c = 0; c < closedCount; c++) {
+                movedCount = 0;
+                double total = tryOpen(closed[c], evaluations);
+                total += tryClose(i, evaluations);
+                if (total < -EPSILON) {
+                    improved = true;
+                    break;
+                }
+                undoMoves();
+            }
+        }
+        return improved;
+    }
+
+    /**
+     * Abre um armazém fechado, mudando para ele os clientes (que o têm como
+     * candidato) cuja mudança melhora sem contar o custo fixo.
+     *
+     * @return A variação do custo penalizado, com o custo fixo.
+     */
+    private double tryOpen(int warehouse, long[] evaluations) {
+        double fixed = problem.fixedCosts[warehouse];
+        double total = 0.0;
+        for (int j : candidateOf[warehouse]) {
+            double delta = state.penalizedMoveDelta(j, warehouse);
+            evaluations[0]++;
+            if (delta - (state.firstCustomer(warehouse) < 0 ? fixed : 0.0) < -EPSILON) {
+                logMove(j);
+                total += delta;
+                state.applyMove(j, warehouse);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Fecha um armazém, mudando cada cliente para o melhor entre os seus
+     * candidatos e os armazéns abertos (com poucos armazéns abertos, os
+     * candidatos de um cliente podem estar todos fechados).
+     *
+     * @return A variação do custo penalizado, ou infinito se algum cliente não
+     * tiver outro candidato (o armazém fica aberto).
+     */
+    private double tryClose(int warehouse, long[] evaluations) {
+        int openCount = 0;
+        for (int h = 0; h < problem.numWarehouses; h++) {
+            if (h != warehouse && state.firstCustomer(h) >= 0) {
+                open[openCount++] = h;
+            }
+        }
+        double total = 0.0;
+        for (int k = state.firstCustomer(warehouse); k >= 0; ) {
+            int following = state.nextCustomer(k);
+            int target = -1;
+            double targetDelta = Double.POSITIVE_INFINITY;
+            for (int r = 0; r < candidates + openCount; r++) {
+                int h = r < candidates ? view.candidate(k, r) : open[r - candidates];
+                if (h == warehouse) {
+                    continue;
+                }
+                double delta = state.penalizedMoveDelta(k, h);
+                evaluations[0]++;
+                if (delta < targetDelta) {
+                    targetDelta = delta;
+                    target = h;
+                }
+            }
+            if (target < 0) {
+                return Double.POSITIVE_INFINITY;
+            }
+            logMove(k);
+            total += targetDelta;
+            state.applyMove(k, target);
+            k = following;
+        }
+        return total;
+    }
+
+    private void logMove(int customer) {
+        moved[movedCount] = customer;
+        movedFrom[movedCount++] = state.warehouseOf(customer);
+    }
+
+    /**
+     * Desfaz, pela ordem inversa, as mudanças registadas desde movedCount = 0.
+     */
+    private void undoMoves() {
+        while (movedCount > 0) {
+            movedCount--;
+            state.applyMove(moved[movedCount], movedFrom[movedCount]);
+        }
+    }
+
+    /**
+     * Muda alguns clientes ao acaso para um dos seus armazéns candidatos.
+     */
+    private void perturb(Random rand) {
+        for (int k = 0; k < perturbationSize; k++) {
+            int customer = rand.nextInt(problem.numCustomers);
+            state.applyMove(customer, view.candidate(customer, rand.nextInt(candidates)));
+        }
+    }
+
+    /**
+     * Guarda a solução corrente se for viável e melhor do que a melhor encontrada.
+     *
+     * @return Verdadeiro se a solução foi guardada.
+     */
+    private boolean updateBest(int iteration) {
+        if (!state.isFeasible() || state.getCost() >= bestCost - EPSILON) {
+            return false;
+        }
+        metrics.improvement(iteration, state.getCost(), bestCost);
+        bestCost = state.getCost();
+        if (bestAssignment == null) {
+            bestAssignment = new int[problem.numCustomers];
+        }
+        state.copyAssignmentTo(bestAssignment);
+        control.improved(bestCost, bestAssignment);
+        return true;
+    }
+}
@@ -0,0 +1,373 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * A classe CapacitatedState mantém uma atribuição de clientes a armazéns com
+ * capacidades, como a {@link SolutionState}, mas guarda também a procura servida
+ * por cada armazém e o excesso total sobre as capacidades. Assim, a viabilidade
+ * de um movimento e a variação do excesso são calculadas em O(1), sem recalcular
+ * cargas.
+ *
+ * <p>As soluções inviáveis são aceites durante a pesquisa, com um custo
+ * penalizado {@code custo + penalty · excesso}; o peso da penalidade é ajustado
+ * pelo algoritmo. Para cada armazém mantém a lista dos clientes que serve,
+ * usada pelas trocas e pelas cadeias de ejeção.
+ */
+public class CapacitatedState {
+
+    private final WarehouseLocationProblem problem;
+    private final float[] costs; // Custos por cliente (ver PreprocessedProblem).
+    private final int numWarehouses;
+    private final int numCustomers;
+    private final int[] assignment; // Armazém atribuído a cada cliente.
+    private final int[] count; // Número de clientes servidos por cada armazém.
+    private final double[] load; // Procura servida por cada armazém.
+    private int openCount;
+    private double cost; // Custo total corrente (sem penalidade).
+    private double excess; // Soma dos excessos de procura sobre as capacidades.
+    private double penalty = 1.0; // Peso de cada unidade de excesso no custo penalizado.
+
+    // Lista duplamente ligada dos clientes servidos por cada armazém.
+    private final int[] head;
+    private final int[] next;
+    private final int[] prev;
+
+    /**
+     * Construtor da classe
+     *
+     * @param problem A instância do problema.
+     */
+    public CapacitatedState(WarehouseLocationProblem problem) {
+        this.problem = problem;
+        this.costs = problem.customerMajorCosts();
+        this.numWarehouses = problem.numWarehouses;
+        this.numCustomers = problem.numCustomers;
+        this.assignment = new int[numCustomers];
+        this.count = new int[numWarehouses];
+        this.load = new double[numWarehouses];
+        this.head = new int[numWarehouses];
+        this.next = new int[numCustomers];
+        this.prev = new int[numCustomers];
+    }
+
+    /**
+     * Carrega uma atribuição completa e recalcula cargas, custo e excesso em O(n+m).
+     *
+     * @param solution Um array que representa a atribuição de clientes a armazéns.
+     */
+    public void reset(int[] solution) {
+        System.arraycopy(solution, 0, assignment, 0, numCustomers);
+        recompute();
+    }
+
+    /**
+     * Recalcula o estado a partir da atribuição atual, eliminando o erro
+     * acumulado pelas atualizações incrementais.
+     *
+     * @return O custo total da solução.
+     */
+    public double recompute() {
+        Arrays.fill(count, 0);
+        Arrays.fill(load, 0.0);
+        Arrays.fill(head, -1);
+        double total = 0.0;
+        for (int j = 0; j < numCustomers; j++) {
+            int warehouse = assignment[j];
+            count[warehouse]++;
+            load[warehouse] += problem.demands[j];
+            total += costs[j * numWarehouses + warehouse];
+            link(j, warehouse);
+        }
+        openCount = 0;
+        excess = 0.0;
+        for (int i = 0; i < numWarehouses; i++) {
+            if (count[i] > 0) {
+                total += problem.fixedCosts[i];
+                openCount++;
+            }
+            excess += excessOf(i, load[i]);
+        }
+        cost = total;
+        return cost;
+    }
+
+    private double excessOf(int warehouse, double warehouseLoad) {
+        return Math.max(0.0, warehouseLoad - problem.capacities[warehouse]);
+    }
+
+    private void link(int customer, int warehouse) {
+        int first = head[warehouse];
+        next[customer] = first;
+        prev[customer] = -1;
+        if (first >= 0) {
+            prev[first] = customer;
+        }
+        head[warehouse] = customer;
+    }
+
+    private void unlink(int customer, int warehouse) {
+        if (prev[customer] >= 0) {
+            next[prev[customer]] = next[customer];
+        } else {
+            head[warehouse] = next[customer];
+        }
+        if (next[customer] >= 0) {
+            prev[next[customer]] = prev[customer];
+        }
+    }
+
+    /**
+     * Variação do custo (sem penalidade) ao mover um cliente, em O(1).
+     *
+     * @param customer     O índice do cliente.
+     * @param newWarehouse O índice do novo armazém.
+     * @return A variação do custo total.
+     */
+    public double moveDelta(int customer, int newWarehouse) {
+        int oldWarehouse = assignment[customer];
+        if (oldWarehouse == newWarehouse) {
+            return 0.0;
+        }
+        int base = customer * numWarehouses;
+        double delta = costs[base + newWarehouse] - costs[base + oldWarehouse];
+        if (count[oldWarehouse] == 1) {
+            delta -= problem.fixedCosts[oldWarehouse]; // O armazém antigo fecha.
+        }
+        if (count[newWarehouse] == 0) {
+            delta += problem.fixedCosts[newWarehouse]; // O novo armazém abre.
+        }
+        return delta;
+    }
+
+    /**
+     * Variação do excesso sobre as capacidades ao mover um cliente, em O(1).
+     *
+     * @param customer     O índice do cliente.
+     * @param newWarehouse O índice do novo armazém.
+     * @return A variação do excesso total.
+     */
+    public double moveExcessDelta(int customer, int newWarehouse) {
+        int oldWarehouse = assignment[customer];
+        if (oldWarehouse == newWarehouse) {
+            return 0.0;
+        }
+        int demand = problem.demands[customer];
+        return excessOf(oldWarehouse, load[oldWarehouse] - demand) - excessOf(oldWarehouse, load[oldWarehouse])
+                + excessOf(newWarehouse, load[newWarehouse] + demand) - excessOf(newWarehouse, load[newWarehouse]);
+    }
+
+    /**
+     * @param customer     O índice do cliente.
+     * @param newWarehouse O índice do novo armazém.
+     * @return A variação do custo penalizado ao mover o cliente.
+     */
+    public double penalizedMoveDelta(int customer, int newWarehouse) {
+        return moveDelta(customer, newWarehouse) + penalty * moveExcessDelta(customer, newWarehouse);
+    }
+
+    /**
+     * Indica, em O(1), se o armazém tem capacidade livre para o cliente.
+     *
+     * @param customer  O índice do cliente.
+     * @param warehouse O índice do armazém.
+     * @return Verdadeiro se o cliente cabe no armazém (ou já está nele).
+     */
+    public boolean fits(int customer, int warehouse) {
+        return assignment[customer] == warehouse
+                || load[warehouse] + problem.demands[customer] <= problem.capacities[warehouse];
+    }
+
+    /**
+     * Variação do custo ao trocar os armazéns de dois clientes, em O(1). Os dois
+     * armazéns continuam a servir pelo menos um cliente, pelo que os custos
+     * fixos não mudam.
+     *
+     * @param first  O primeiro cliente.
+     * @param second O segundo cliente.
+     * @return A variação do custo total.
+     */
+    public double swapDelta(int first, int second) {
+        int a = assignment[first];
+        int b = assignment[second];
+        if (a == b) {
+            return 0.0;
+        }
+        int baseFirst = first * numWarehouses;
+        int baseSecond = second * numWarehouses;
+        return costs[baseFirst + b] + costs[baseSecond + a] - costs[baseFirst + a] - costs[baseSecond + b];
+    }
+
+    /**
+     * Variação do excesso ao trocar os armazéns de dois clientes, em O(1).
+     *
+     * @param first  O primeiro cliente.
+     * @param second O segundo cliente.
+     * @return A variação do excesso total.
+     */
+    public double swapExcessDelta(int first, int second) {
+        int a = assignment[first];
+        int b = assignment[second];
+        if (a == b) {
+            return 0.0;
+        }
+        int shift = problem.demands[second] - problem.demands[first]; // O que a ganha (e b perde).
+        return excessOf(a, load[a] + shift) - excessOf(a, load[a]) + excessOf(b, load[b] - shift)
+                - excessOf(b, load[b]);
+    }
+
+    /**
+     * @param first  O primeiro cliente.
+     * @param second O segundo cliente.
+     * @return A variação do custo penalizado ao trocar os armazéns dos clientes.
+     */
+    public double penalizedSwapDelta(int first, int second) {
+        return swapDelta(first, second) + penalty * swapExcessDelta(first, second);
+    }
+
+    /**
+     * Move um cliente para outro armazém, atualizando cargas, custo e excesso em O(1).
+     *
+     * @param customer     O índice do cliente.
+     * @param newWarehouse O índice do novo armazém.
+     */
+    public void applyMove(int customer, int newWarehouse) {
+        int oldWarehouse = assignment[customer];
+        if (oldWarehouse == newWarehouse) {
+            return;
+        }
+        cost += moveDelta(customer, newWarehouse);
+        excess += moveExcessDelta(customer, newWarehouse);
+        int demand = problem.demands[customer];
+        unlink(customer, oldWarehouse);
+        load[oldWarehouse] -= demand;
+        if (--count[oldWarehouse] == 0) {
+            openCount--;
+        }
+        link(customer, newWarehouse);
+        load[newWarehouse] += demand;
+        if (count[newWarehouse]++ == 0) {
+            openCount++;
+        }
+        assignment[customer] = newWarehouse;
+    }
+
+    /**
+     * Troca os armazéns de dois clientes.
+     *
+     * @param first  O primeiro cliente.
+     * @param second O segundo cliente.
+     */
+    public void applySwap(int first, int second) {
+        int a = assignment[first];
+        int b = assignment[second];
+        if (a == b) {
+            return;
+        }
+        cost += swapDelta(first, second);
+        excess += swapExcessDelta(first, second);
+        int shift = problem.demands[second] - problem.demands[first];
+        load[a] += shift;
+        load[b] -= shift;
+        unlink(first, a);
+        unlink(second, b);
+        link(first, b);
+        link(second, a);
+        assignment[first] = b;
+        assignment[second] = a;
+    }
+
+    /**
+     * @param warehouse O índice do armazém.
+     * @return O primeiro cliente da lista do armazém (-1 se não servir nenhum).
+     */
+    public int firstCustomer(int warehouse) {
+        return head[warehouse];
+    }
+
+    /**
+     * @param customer Um cliente da lista de um armazém.
+     * @return O cliente seguinte na mesma lista (-1 no fim).
+     */
+    public int nextCustomer(int customer) {
+        return next[customer];
+    }
+
+    /**
+     * @param warehouse O índice do armazém.
+     * @return A capacidade ainda livre (negativa se o armazém estiver sobrecarregado).
+     */
+    public double residual(int warehouse) {
+        return problem.capacities[warehouse] - load[warehouse];
+    }
+
+    /**
+     * @return O custo total corrente, sem penalidade.
+     */
+    public double getCost() {
+        return cost;
+    }
+
+    /**
+     * @return O excesso total de procura sobre as capacidades.
+     */
+    public double getExcess() {
+        return excess;
+    }
+
+    /**
+     * @return Verdadeiro se nenhum armazém excede a capacidade.
+     */
+    public boolean isFeasible() {
+        return excess <= 1e-9;
+    }
+
+    /**
+     * @return O custo com a penalidade do excesso.
+     */
+    public double getPenalizedCost() {
+        return cost + penalty * excess;
+    }
+
+    public double getPenalty() {
+        return penalty;
+    }
+
+    /**
+     * @param penalty O peso de cada unidade de excesso no custo penalizado.
+     */
+    public void setPenalty(double penalty) {
+        this.penalty = penalty;
+    }
+
+    /**
+     * @param customer O índice do cliente.
+     * @return O armazém atribuído ao cliente.
+     */
+    public int warehouseOf(int customer) {
+        return assignment[customer];
+    }
+
+    /**
+     * @return O número de armazéns abertos.
+     */
+    public int getOpenCount() {
+        return openCount;
+    }
+
+    /**
+     * Copia a atribuição corrente para o array indicado.
+     *
+     * @param target O array de destino (tamanho igual ao número de clientes).
+     */
+    public void copyAssignmentTo(int[] target) {
+        System.arraycopy(assignment, 0, target, 0, numCustomers);
+    }
+
+    /**
+     * @return A instância do problema.
+     */
+    public WarehouseLocationProblem getProblem() {
+        return problem;
+    }
+}
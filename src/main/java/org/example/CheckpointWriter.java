@@ -0,0 +1,142 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+
+/**
+ * A classe CheckpointWriter escreve checkpoints da pesquisa tabu numa thread
+ * própria, para que a pesquisa só pague a cópia do estado. Guarda apenas o
+ * checkpoint mais recente por escrever: se a pesquisa entregar um novo antes de
+ * o anterior ter sido escrito, o anterior é descartado (já está desatualizado).
+ */
+public class CheckpointWriter implements AutoCloseable {
+
+    private final Path file;
+    private final Thread thread;
+    private TabuCheckpoint pending; // O checkpoint por escrever (protegido por this).
+    private boolean closed;
+    private long written;
+    private long dropped;
+    private long bytes;
+    private long writeNanos;
+    private IOException failure; // O primeiro erro de escrita, relançado no close().
+
+    /**
+     * Construtor da classe
+     *
+     * @param file O ficheiro do checkpoint (substituído em cada escrita).
+     */
+    public CheckpointWriter(Path file) {
+        this.file = file;
+        this.thread = new Thread(this::run, "checkpoint-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Entrega um checkpoint para ser escrito, sem esperar pela escrita.
+     *
+     * @param checkpoint O checkpoint.
+     */
+    public synchronized void submit(TabuCheckpoint checkpoint) {
+        if (closed) {
+            throw new IllegalStateException("O escritor de checkpoints já foi fechado");
+        }
+        if (pending != null) {
+            dropped++;
+        }
+        pending = checkpoint;
+        notifyAll();
+    }
+
+    private void run() {
+        while (true) {
+            TabuCheckpoint checkpoint;
+            synchronized (this) {
+                while (pending == null && !closed) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (pending == null) {
+                    return; // Fechado e sem nada por escrever.
+                }
+                checkpoint = pending;
+                pending = null;
+            }
+            long start = System.nanoTime();
+            try {
+                byte[] data = checkpoint.toBytes();
+                checkpoint.write(file, data);
+                synchronized (this) {
+                    written++;
+                    bytes = data.length;
+                    writeNanos += System.nanoTime() - start;
+                }
+            } catch (IOException e) {
+                synchronized (this) {
+                    if (failure == null) {
+                        failure = e;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Escreve o checkpoint pendente (se houver) e termina a thread.
+     *
+     * @throws UncheckedIOException Se alguma escrita tiver falhado.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            if (failure != null) {
+                throw new UncheckedIOException("Falha ao escrever o checkpoint " + file, failure);
+            }
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * @return O número de checkpoints escritos.
+     */
+    public synchronized long getWritten() {
+        return written;
+    }
+
+    /**
+     * @return O número de checkpoints substituídos por um mais recente antes de serem escritos.
+     */
+    public synchronized long getDropped() {
+        return dropped;
+    }
+
+    /**
+     * @return O tamanho do último checkpoint escrito, em bytes.
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("CheckpointWriter[%s, written=%d, dropped=%d, bytes=%d, mean=%.3f ms]", file, written,
+                dropped, bytes, written == 0 ? 0.0 : writeNanos / 1e6 / written);
+    }
+}
@@ -0,0 +1,269 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * A classe ConstructionHeuristic constrói a solução inicial dos algoritmos, em
+ * vez da atribuição aleatória (que abre quase todos os armazéns):
+ * <ul>
+ *   <li>{@link #greedyAdd()}: parte do melhor armazém isolado e abre, um de cada
+ *       vez, o armazém que mais reduz o custo, enquanto algum o reduzir;</li>
+ *   <li>{@link #greedyDrop()}: parte de todos os armazéns abertos e fecha, um de
+ *       cada vez, o que mais reduz o custo;</li>
+ *   <li>{@link #grasp(double)}: como o ADD, mas escolhe ao acaso entre os
+ *       armazéns cuja variação está a uma fração α da melhor (lista restrita de
+ *       candidatos), para dar soluções diferentes em cada semente.</li>
+ *   <li>{@link #seeded(boolean[], int)}: parte de um conjunto de armazéns dado
+ *       (por exemplo, uma solução de elite recebida por migração) e inverte
+ *       alguns armazéns ao acaso, para continuar a pesquisa a partir dele.</li>
+ * </ul>
+ * Os passos são avaliados em O(1) por armazém com o {@link FacilityState}; o
+ * custo dominante é a ordenação das listas, O(n·m log m).
+ */
+public final class ConstructionHeuristic {
+
+    /**
+     * As heurísticas disponíveis.
+     */
+    public enum Type {
+        GREEDY_ADD, GREEDY_DROP, GRASP, SEEDED
+    }
+
+    private final Type type;
+    private final double alpha;
+    private final boolean[] seed; // Conjunto inicial do SEEDED.
+    private final int flips; // Armazéns invertidos ao acaso no SEEDED.
+
+    private ConstructionHeuristic(Type type, double alpha) {
+        if (alpha < 0 || alpha > 1) {
+            throw new IllegalArgumentException("α tem de estar em [0, 1]: " + alpha);
+        }
+        this.type = type;
+        this.alpha = alpha;
+        this.seed = null;
+        this.flips = 0;
+    }
+
+    private ConstructionHeuristic(boolean[] seed, int flips) {
+        this.type = Type.SEEDED;
+        this.alpha = 0.0;
+        this.seed = seed.clone();
+        this.flips = Math.max(0, flips);
+    }
+
+    /**
+     * @return A heurística ADD gulosa.
+     */
+    public static ConstructionHeuristic greedyAdd() {
+        return new ConstructionHeuristic(Type.GREEDY_ADD, 0.0);
+    }
+
+    /**
+     * @return A heurística DROP gulosa.
+     */
+    public static ConstructionHeuristic greedyDrop() {
+        return new ConstructionHeuristic(Type.GREEDY_DROP, 0.0);
+    }
+
+    /**
+     * @param alpha A tolerância da lista restrita de candidatos, em [0, 1]
+     *              (0 = ADD guloso, 1 = qualquer armazém que melhore).
+     * @return A heurística ADD aleatorizada.
+     */
+    public static ConstructionHeuristic grasp(double alpha) {
+        return new ConstructionHeuristic(Type.GRASP, alpha);
+    }
+
+    /**
+     * @param open  O conjunto de armazéns abertos de partida (é copiado).
+     * @param flips O número de armazéns invertidos ao acaso em cada construção
+     *              (0 = o conjunto tal como está).
+     * @return A heurística que parte do conjunto dado.
+     */
+    public static ConstructionHeuristic seeded(boolean[] open, int flips) {
+        return new ConstructionHeuristic(open, flips);
+    }
+
+    /**
+     * Lê uma heurística pelo nome: {@code greedy-add}, {@code greedy-drop} ou
+     * {@code grasp[:α]} (α por omissão 0.3).
+     *
+     * @param name O nome.
+     * @return A heurística.
+     */
+    public static ConstructionHeuristic parse(String name) {
+        String[] parts = name.trim().toLowerCase(Locale.ROOT).replace('_', '-').split(":", 2);
+        switch (parts[0]) {
+            case "greedy-add":
+            case "add":
+                return greedyAdd();
+            case "greedy-drop":
+            case "drop":
+                return greedyDrop();
+            case "grasp":
+                return grasp(parts.length > 1 ? Double.parseDouble(parts[1]) : 0.3);
+            default:
+                throw new IllegalArgumentException("Heurística de construção desconhecida: " + name);
+        }
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public double getAlpha() {
+        return alpha;
+    }
+
+    /**
+     * Constrói uma solução no estado indicado (o estado anterior é descartado).
+     *
+     * @param state  O estado onde a solução é construída.
+     * @param random O gerador usado pelo GRASP (ignorado pelas heurísticas gulosas).
+     */
+    public void construct(FacilityState state, Random random) {
+        if (type == Type.GREEDY_DROP) {
+            drop(state);
+        } else if (type == Type.SEEDED) {
+            seed(state, random);
+        } else {
+            add(state, random);
+        }
+    }
+
+    /**
+     * Constrói uma solução e devolve a atribuição correspondente (cada cliente
+     * no armazém aberto mais barato).
+     *
+     * @param problem A instância do problema.
+     * @param random  O gerador usado pelo GRASP.
+     * @return A atribuição de clientes a armazéns.
+     */
+    public int[] constructAssignment(WarehouseLocationProblem problem, Random random) {
+        FacilityState state = new FacilityState(problem);
+        construct(state, random);
+        int[] assignment = new int[problem.numCustomers];
+        state.copyAssignmentTo(assignment);
+        return assignment;
+    }
+
+    private void add(FacilityState state, Random random) {
+        WarehouseLocationProblem problem = state.getProblem();
+        int m = problem.numWarehouses;
+        int n = problem.numCustomers;
+        float[] costs = problem.customerMajorCosts();
+
+        // Primeiro armazém: custo de servir todos os clientes sozinho.
+        double[] single = new double[m];
+        for (int i = 0; i < m; i++) {
+            single[i] = problem.fixedCosts[i];
+        }
+        for (int j = 0; j < n; j++) {
+            int base = j * m;
+            for (int i = 0; i < m; i++) {
+                single[i] += costs[base + i];
+            }
+        }
+        boolean[] open = new boolean[m];
+        open[select(single, m, random, false)] = true;
+        state.reset(open);
+
+        double[] delta = new double[m];
+        while (state.getOpenCount() < m) {
+            for (int i = 0; i < m; i++) {
+                delta[i] = state.isOpen(i) ? Double.POSITIVE_INFINITY : state.openDelta(i);
+            }
+            int chosen = select(delta, m, random, true);
+            if (chosen < 0) {
+                break;
+            }
+            state.open(chosen);
+        }
+    }
+
+    private void seed(FacilityState state, Random random) {
+        int m = state.getProblem().numWarehouses;
+        if (seed.length != m) {
+            throw new IllegalArgumentException("O conjunto tem " + seed.length + " armazéns e a instância " + m);
+        }
+        state.reset(seed);
+        for (int k = 0; k < flips; k++) {
+            int warehouse = random.nextInt(m);
+            if (!state.isOpen(warehouse)) {
+                state.open(warehouse);
+            } else if (state.getOpenCount() > 1) {
+                state.close(warehouse);
+            }
+        }
+    }
+
+    private void drop(FacilityState state) {
+        int m = state.getProblem().numWarehouses;
+        boolean[] open = new boolean[m];
+        Arrays.fill(open, true);
+        state.reset(open);
+        while (state.getOpenCount() > 1) {
+            int chosen = -1;
+            double best = 0.0;
+            for (int i = 0; i < m; i++) {
+                if (state.isOpen(i)) {
+                    double delta = state.closeDelta(i);
+                    if (delta < best) {
+                        best = delta;
+                        chosen = i;
+                    }
+                }
+            }
+            if (chosen < 0) {
+                break;
+            }
+            state.close(chosen);
+        }
+    }
+
+    /**
+     * Escolhe um índice: o de menor valor (guloso) ou, no GRASP, um ao acaso entre
+     * os que não excedem {@code min + α·(max - min)}.
+     *
+     * @param improvingOnly Considera só valores negativos (devolve -1 se não houver).
+     */
+    private int select(double[] values, int count, Random random, boolean improvingOnly) {
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        int argMin = -1;
+        for (int i = 0; i < count; i++) {
+            double v = values[i];
+            if (Double.isInfinite(v) || (improvingOnly && v >= 0)) {
+                continue;
+            }
+            if (v < min) {
+                min = v;
+                argMin = i;
+            }
+            max = Math.max(max, v);
+        }
+        if (argMin < 0 || type != Type.GRASP || alpha == 0) {
+            return argMin;
+        }
+        double threshold = min + alpha * (max - min);
+        int chosen = -1;
+        int seen = 0;
+        for (int i = 0; i < count; i++) {
+            double v = values[i];
+            if (Double.isInfinite(v) || (improvingOnly && v >= 0) || v > threshold) {
+                continue;
+            }
+            if (random.nextInt(++seen) == 0) {
+                chosen = i; // Amostragem uniforme da lista restrita num só varrimento.
+            }
+        }
+        return chosen;
+    }
+
+    @Override
+    public String toString() {
+        return type == Type.GRASP ? "grasp:" + alpha : type.name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+}
@@ -0,0 +1,373 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A classe DynamicInstance é uma instância do UFLP que muda ao longo do tempo:
+ * clientes entram e saem, os custos de alocação de um cliente e as demandas
+ * mudam e os custos fixos dos armazéns são atualizados. O número de armazéns é
+ * fixo.
+ *
+ * <p>Cada cliente ocupa uma posição (identificador estável até ser removido;
+ * as posições livres são reutilizadas). Para cada cliente mantém os custos
+ * num array contíguo ({@code costs[cliente * m + armazém]}), a lista de todos os
+ * armazéns ordenada por custo e a posição de cada armazém nessa lista. Uma
+ * alteração custa O(m log m) para o cliente afetado, independentemente do
+ * número de clientes, e é comunicada aos {@link Listener}s registados.
+ */
+public class DynamicInstance {
+
+    /**
+     * Recebe as alterações da instância. Os métodos têm implementação vazia por
+     * omissão.
+     */
+    public interface Listener {
+
+        /**
+         * Chamado depois de um cliente entrar (ou de os seus custos mudarem).
+         *
+         * @param customer O identificador do cliente.
+         */
+        default void customerAdded(int customer) {
+        }
+
+        /**
+         * Chamado antes de um cliente sair (ou de os seus custos mudarem), com os
+         * dados antigos ainda disponíveis.
+         *
+         * @param customer O identificador do cliente.
+         */
+        default void customerRemoved(int customer) {
+        }
+
+        /**
+         * Chamado depois de o custo fixo de um armazém mudar.
+         *
+         * @param warehouse O índice do armazém.
+         * @param oldCost   O custo fixo anterior.
+         */
+        default void fixedCostChanged(int warehouse, float oldCost) {
+        }
+
+        /**
+         * Chamado depois de a demanda de um cliente mudar.
+         *
+         * @param customer  O identificador do cliente.
+         * @param oldDemand A demanda anterior.
+         */
+        default void demandChanged(int customer, int oldDemand) {
+        }
+    }
+
+    private final int numWarehouses;
+    private final float[] fixedCosts;
+    private final double[] capacities;
+
+    private int slots; // Número de posições de clientes alocadas.
+    private int customerCount; // Número de clientes ativos.
+    private float[] costs; // costs[cliente * m + armazém].
+    private int[] order; // order[cliente * m + r]: o r-ésimo armazém mais barato do cliente.
+    private int[] rank; // rank[cliente * m + armazém]: a posição do armazém na lista do cliente.
+    private int[] demands;
+    private boolean[] active;
+    private int[] freeSlots; // Pilha das posições livres.
+    private int freeCount;
+    private int highWater; // Posições usadas alguma vez (as seguintes nunca foram ocupadas).
+
+    private final List<Listener> listeners = new ArrayList<>();
+
+    /**
+     * Construtor de uma instância sem clientes.
+     *
+     * @param fixedCosts Os custos fixos dos armazéns.
+     * @param capacities As capacidades dos armazéns.
+     */
+    public DynamicInstance(float[] fixedCosts, double[] capacities) {
+        this.numWarehouses = fixedCosts.length;
+        this.fixedCosts = fixedCosts.clone();
+        this.capacities = capacities.clone();
+        this.slots = 16;
+        this.costs = new float[slots * numWarehouses];
+        this.order = new int[slots * numWarehouses];
+        this.rank = new int[slots * numWarehouses];
+        this.demands = new int[slots];
+        this.active = new boolean[slots];
+        this.freeSlots = new int[slots];
+    }
+
+    /**
+     * Cria uma instância dinâmica com os armazéns e clientes de uma instância
+     * estática (o cliente j fica com o identificador j).
+     *
+     * @param problem A instância estática.
+     * @return A instância dinâmica.
+     */
+    public static DynamicInstance of(WarehouseLocationProblem problem) {
+        DynamicInstance instance = new DynamicInstance(problem.fixedCosts, problem.capacities);
+        float[] source = problem.customerMajorCosts();
+        int m = problem.numWarehouses;
+        float[] row = new float[m];
+        for (int j = 0; j < problem.numCustomers; j++) {
+            System.arraycopy(source, j * m, row, 0, m);
+            instance.addCustomer(problem.demands[j], row);
+        }
+        return instance;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Acrescenta um cliente.
+     *
+     * @param demand  A demanda do cliente.
+     * @param costRow O custo de alocar o cliente a cada armazém (tamanho m).
+     * @return O identificador do cliente.
+     */
+    public int addCustomer(int demand, float[] costRow) {
+        checkRow(costRow);
+        int customer;
+        if (freeCount > 0) {
+            customer = freeSlots[--freeCount];
+        } else {
+            if (highWater == slots) {
+                grow();
+            }
+            customer = highWater++;
+        }
+        active[customer] = true;
+        demands[customer] = demand;
+        customerCount++;
+        writeRow(customer, costRow);
+        for (Listener listener : listeners) {
+            listener.customerAdded(customer);
+        }
+        return customer;
+    }
+
+    /**
+     * Remove um cliente. O identificador pode ser reutilizado por um cliente novo.
+     *
+     * @param customer O identificador do cliente.
+     */
+    public void removeCustomer(int customer) {
+        checkCustomer(customer);
+        for (Listener listener : listeners) {
+            listener.customerRemoved(customer);
+        }
+        active[customer] = false;
+        customerCount--;
+        freeSlots[freeCount++] = customer;
+    }
+
+    /**
+     * Substitui os custos de alocação de um cliente a todos os armazéns.
+     *
+     * @param customer O identificador do cliente.
+     * @param costRow  Os novos custos (tamanho m).
+     */
+    public void setCostRow(int customer, float[] costRow) {
+        checkCustomer(customer);
+        checkRow(costRow);
+        for (Listener listener : listeners) {
+            listener.customerRemoved(customer);
+        }
+        writeRow(customer, costRow);
+        for (Listener listener : listeners) {
+            listener.customerAdded(customer);
+        }
+    }
+
+    /**
+     * Altera o custo de alocação de um cliente a um armazém.
+     *
+     * @param customer  O identificador do cliente.
+     * @param warehouse O índice do armazém.
+     * @param cost      O novo custo.
+     */
+    public void setCost(int customer, int warehouse, float cost) {
+        checkCustomer(customer);
+        float[] row = Arrays.copyOfRange(costs, customer * numWarehouses, (customer + 1) * numWarehouses);
+        row[warehouse] = cost;
+        setCostRow(customer, row);
+    }
+
+    /**
+     * Altera o custo fixo de um armazém.
+     *
+     * @param warehouse O índice do armazém.
+     * @param cost      O novo custo fixo.
+     */
+    public void setFixedCost(int warehouse, float cost) {
+        float old = fixedCosts[warehouse];
+        fixedCosts[warehouse] = cost;
+        for (Listener listener : listeners) {
+            listener.fixedCostChanged(warehouse, old);
+        }
+    }
+
+    /**
+     * Altera a demanda de um cliente (não muda o custo da variante sem capacidades).
+     *
+     * @param customer O identificador do cliente.
+     * @param demand   A nova demanda.
+     */
+    public void setDemand(int customer, int demand) {
+        checkCustomer(customer);
+        int old = demands[customer];
+        demands[customer] = demand;
+        for (Listener listener : listeners) {
+            listener.demandChanged(customer, old);
+        }
+    }
+
+    /**
+     * Copia a linha de custos e ordena os armazéns do cliente por custo, com as
+     * chaves em long (como no {@link PreprocessedProblem}) para uma ordenação
+     * primitiva e determinista.
+     */
+    private void writeRow(int customer, float[] costRow) {
+        int base = customer * numWarehouses;
+        System.arraycopy(costRow, 0, costs, base, numWarehouses);
+        long[] keys = new long[numWarehouses];
+        for (int i = 0; i < numWarehouses; i++) {
+            keys[i] = ((long) PreprocessedProblem.sortableBits(costRow[i]) << 32) | i;
+        }
+        Arrays.sort(keys);
+        for (int r = 0; r < numWarehouses; r++) {
+            int warehouse = (int) keys[r];
+            order[base + r] = warehouse;
+            rank[base + warehouse] = r;
+        }
+    }
+
+    private void grow() {
+        slots *= 2;
+        costs = Arrays.copyOf(costs, slots * numWarehouses);
+        order = Arrays.copyOf(order, slots * numWarehouses);
+        rank = Arrays.copyOf(rank, slots * numWarehouses);
+        demands = Arrays.copyOf(demands, slots);
+        active = Arrays.copyOf(active, slots);
+        freeSlots = Arrays.copyOf(freeSlots, slots);
+    }
+
+    private void checkRow(float[] costRow) {
+        if (costRow.length != numWarehouses) {
+            throw new IllegalArgumentException("A linha de custos tem " + costRow.length + " valores em vez de "
+                    + numWarehouses);
+        }
+    }
+
+    private void checkCustomer(int customer) {
+        if (customer < 0 || customer >= highWater || !active[customer]) {
+            throw new IllegalArgumentException("Cliente inexistente: " + customer);
+        }
+    }
+
+    /**
+     * Cria uma instância estática com os clientes ativos, por ordem de
+     * identificador (por exemplo, para resolver de raiz e comparar). Custa O(n·m).
+     *
+     * @return A instância estática.
+     */
+    public WarehouseLocationProblem toProblem() {
+        int[] ids = customers();
+        WarehouseLocationProblem problem = new WarehouseLocationProblem(numWarehouses, ids.length);
+        System.arraycopy(fixedCosts, 0, problem.fixedCosts, 0, numWarehouses);
+        System.arraycopy(capacities, 0, problem.capacities, 0, numWarehouses);
+        for (int j = 0; j < ids.length; j++) {
+            problem.demands[j] = demands[ids[j]];
+            int base = ids[j] * numWarehouses;
+            for (int i = 0; i < numWarehouses; i++) {
+                problem.allocationCosts[i][j] = costs[base + i];
+            }
+        }
+        return problem;
+    }
+
+    /**
+     * @return Os identificadores dos clientes ativos, por ordem crescente.
+     */
+    public int[] customers() {
+        int[] ids = new int[customerCount];
+        int k = 0;
+        for (int c = 0; c < highWater; c++) {
+            if (active[c]) {
+                ids[k++] = c;
+            }
+        }
+        return ids;
+    }
+
+    public int getNumWarehouses() {
+        return numWarehouses;
+    }
+
+    /**
+     * @return O número de clientes ativos.
+     */
+    public int getCustomerCount() {
+        return customerCount;
+    }
+
+    /**
+     * @return O limite superior (exclusivo) dos identificadores de clientes já usados.
+     */
+    public int getCustomerLimit() {
+        return highWater;
+    }
+
+    /**
+     * @param customer O identificador do cliente.
+     * @return Verdadeiro se o cliente existe.
+     */
+    public boolean isActive(int customer) {
+        return customer >= 0 && customer < highWater && active[customer];
+    }
+
+    public float getFixedCost(int warehouse) {
+        return fixedCosts[warehouse];
+    }
+
+    public double getCapacity(int warehouse) {
+        return capacities[warehouse];
+    }
+
+    public int getDemand(int customer) {
+        return demands[customer];
+    }
+
+    /**
+     * @param customer  O identificador do cliente.
+     * @param warehouse O índice do armazém.
+     * @return O custo de alocação.
+     */
+    public float cost(int customer, int warehouse) {
+        return costs[customer * numWarehouses + warehouse];
+    }
+
+    /**
+     * @param customer O identificador do cliente.
+     * @param r        A posição na lista ordenada (0 = o mais barato).
+     * @return O r-ésimo armazém mais barato para o cliente.
+     */
+    public int preference(int customer, int r) {
+        return order[customer * numWarehouses + r];
+    }
+
+    /**
+     * @param customer  O identificador do cliente.
+     * @param warehouse O índice do armazém.
+     * @return A posição do armazém na lista ordenada do cliente.
+     */
+    public int rankOf(int customer, int warehouse) {
+        return rank[customer * numWarehouses + warehouse];
+    }
+}
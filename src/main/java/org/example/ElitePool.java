@@ -0,0 +1,245 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A classe ElitePool guarda um número limitado de soluções de elite (ótimos
+ * locais), representadas pelo conjunto de armazéns abertos ({@link OpenSet}),
+ * para o {@link PathRelinking}. A inserção segue a regra habitual do GRASP com
+ * path relinking, que mantém o conjunto diverso:
+ * <ul>
+ *   <li>uma solução igual a uma do conjunto é rejeitada;</li>
+ *   <li>uma solução que não é a melhor de todas tem de estar a pelo menos
+ *       {@code minDistance} flips de todas as outras;</li>
+ *   <li>com o conjunto cheio, tem de ser melhor do que a pior e substitui, entre
+ *       as piores do que ela, a mais parecida (a de menor distância).</li>
+ * </ul>
+ * Os métodos são sincronizados, porque o conjunto é alimentado por várias
+ * execuções e pelo relinking em paralelo.
+ */
+public class ElitePool {
+
+    public static final int DEFAULT_CAPACITY = 10;
+    public static final int DEFAULT_MIN_DISTANCE = 2;
+
+    /**
+     * Uma solução de elite. O custo é o indicado por quem a propôs (o custo da
+     * atribuição, que é um majorante do custo ótimo do conjunto).
+     */
+    public static final class Elite {
+        public final double cost;
+        private final OpenSet open;
+
+        Elite(double cost, OpenSet open) {
+            this.cost = cost;
+            this.open = open;
+        }
+
+        /**
+         * @return Uma cópia dos armazéns abertos.
+         */
+        public OpenSet getOpen() {
+            OpenSet copy = new OpenSet(open.size());
+            copy.copyFrom(open);
+            return copy;
+        }
+
+        /**
+         * @param other Outra solução de elite.
+         * @return O número de armazéns em que as duas diferem.
+         */
+        public int distance(Elite other) {
+            return open.distance(other.open);
+        }
+    }
+
+    private final int capacity;
+    private final int minDistance;
+    private final List<Elite> elites = new ArrayList<>();
+    private long offers;
+    private long accepted;
+
+    /**
+     * Construtor com a capacidade e a distância mínima por omissão.
+     */
+    public ElitePool() {
+        this(DEFAULT_CAPACITY, DEFAULT_MIN_DISTANCE);
+    }
+
+    /**
+     * Construtor da classe
+     *
+     * @param capacity    O número máximo de soluções.
+     * @param minDistance A distância mínima (em flips) de uma nova solução às do
+     *                    conjunto, exceto se for a melhor de todas.
+     */
+    public ElitePool(int capacity, int minDistance) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("A capacidade tem de ser positiva: " + capacity);
+        }
+        this.capacity = capacity;
+        this.minDistance = Math.max(1, minDistance);
+    }
+
+    /**
+     * Teste rápido, antes de construir o conjunto de armazéns de uma solução: com
+     * o conjunto cheio, só as soluções melhores do que a pior podem entrar.
+     *
+     * @param cost O custo da solução.
+     * @return Falso se a solução seria certamente rejeitada.
+     */
+    public synchronized boolean admits(double cost) {
+        return elites.size() < capacity || cost < worst().cost;
+    }
+
+    /**
+     * Propõe os armazéns abertos de uma atribuição.
+     *
+     * @param state O estado com a atribuição.
+     * @return Verdadeiro se a solução entrou no conjunto.
+     */
+    public boolean offer(SolutionState state) {
+        double cost = state.getCost();
+        if (!admits(cost)) {
+            synchronized (this) {
+                offers++;
+            }
+            return false;
+        }
+        OpenSet open = new OpenSet(state.getProblem().numWarehouses);
+        for (int i = 0; i < open.size(); i++) {
+            if (state.isOpen(i)) {
+                open.open(i);
+            }
+        }
+        return offer(cost, open);
+    }
+
+    /**
+     * Propõe uma solução.
+     *
+     * @param cost O custo da solução.
+     * @param open Os armazéns abertos (é copiado se a solução entrar).
+     * @return Verdadeiro se a solução entrou no conjunto.
+     */
+    public synchronized boolean offer(double cost, OpenSet open) {
+        offers++;
+        if (!admits(cost)) {
+            return false;
+        }
+        int nearest = Integer.MAX_VALUE;
+        for (Elite elite : elites) {
+            nearest = Math.min(nearest, elite.open.distance(open));
+        }
+        if (nearest == 0 || (!elites.isEmpty() && cost >= best().cost && nearest < minDistance)) {
+            return false;
+        }
+
+        OpenSet copy = new OpenSet(open.size());
+        copy.copyFrom(open);
+        Elite candidate = new Elite(cost, copy);
+        if (elites.size() < capacity) {
+            elites.add(candidate);
+        } else {
+            // Substitui a mais parecida entre as piores (em caso de empate, a de maior custo).
+            int replaced = -1;
+            int replacedDistance = Integer.MAX_VALUE;
+            for (int k = 0; k < elites.size(); k++) {
+                Elite elite = elites.get(k);
+                if (elite.cost < cost) {
+                    continue;
+                }
+                int distance = elite.open.distance(open);
+                if (distance < replacedDistance
+                        || (distance == replacedDistance && elite.cost > elites.get(replaced).cost)) {
+                    replaced = k;
+                    replacedDistance = distance;
+                }
+            }
+            elites.set(replaced, candidate);
+        }
+        accepted++;
+        return true;
+    }
+
+    private Elite best() {
+        Elite best = elites.get(0);
+        for (Elite elite : elites) {
+            if (elite.cost < best.cost) {
+                best = elite;
+            }
+        }
+        return best;
+    }
+
+    private Elite worst() {
+        Elite worst = elites.get(0);
+        for (Elite elite : elites) {
+            if (elite.cost > worst.cost) {
+                worst = elite;
+            }
+        }
+        return worst;
+    }
+
+    /**
+     * @return As soluções do conjunto, da melhor para a pior.
+     */
+    public synchronized List<Elite> snapshot() {
+        List<Elite> copy = new ArrayList<>(elites);
+        copy.sort(Comparator.comparingDouble(elite -> elite.cost));
+        return copy;
+    }
+
+    /**
+     * @return A melhor solução, ou null se o conjunto estiver vazio.
+     */
+    public synchronized Elite getBest() {
+        return elites.isEmpty() ? null : best();
+    }
+
+    public synchronized int size() {
+        return elites.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getMinDistance() {
+        return minDistance;
+    }
+
+    /**
+     * @return O número de soluções propostas.
+     */
+    public synchronized long getOffers() {
+        return offers;
+    }
+
+    /**
+     * @return O número de soluções que entraram no conjunto.
+     */
+    public synchronized long getAccepted() {
+        return accepted;
+    }
+
+    /**
+     * Esvazia o conjunto e os contadores.
+     */
+    public synchronized void clear() {
+        elites.clear();
+        offers = 0;
+        accepted = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        double best = elites.isEmpty() ? Double.NaN : best().cost;
+        double worst = elites.isEmpty() ? Double.NaN : worst().cost;
+        return String.format("ElitePool[%d/%d, best=%.3f, worst=%.3f, accepted=%d/%d]", elites.size(), capacity, best,
+                worst, accepted, offers);
+    }
+}
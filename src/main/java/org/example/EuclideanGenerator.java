@@ -0,0 +1,279 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * A classe EuclideanGenerator gera instâncias sintéticas do UFLP com armazéns e
+ * clientes em pontos aleatórios de um quadrado, diretamente na forma
+ * {@link SparseInstance} (sem nunca criar a matriz densa). O custo de servir
+ * um cliente é a demanda vezes a distância euclidiana ao armazém; cada cliente
+ * fica com os k armazéns mais próximos.
+ *
+ * <p>Os k vizinhos são encontrados com uma grelha uniforme sobre os armazéns
+ * (cerca de dois por célula): a procura percorre anéis de células à volta da do
+ * cliente até o anel seguinte estar mais longe do que o k-ésimo vizinho já
+ * encontrado, pelo que custa O(k) células em média e a geração é O(n·k log k).
+ *
+ * <p>Os custos fixos são escolhidos para que a solução ótima abra cerca de
+ * {@code openFraction · m} armazéns: com p armazéns abertos, a distância média
+ * ao mais próximo é cerca de {@code 0,5·lado/√p}, e igualar a derivada do custo
+ * de alocação ao custo fixo dá {@code f ≈ 0,25·lado·D/p^1,5}, onde D é a
+ * demanda total. A mesma semente gera sempre a mesma instância.
+ */
+public class EuclideanGenerator {
+
+    private final long seed;
+    private double side = 1000.0; // Lado do quadrado.
+    private int minDemand = 1;
+    private int maxDemand = 100;
+    private double openFraction = 0.1; // Fração de armazéns abertos pretendida.
+    private double fixedCostSpread = 0.5; // Os custos fixos variam ±50% em torno do valor base.
+
+    /**
+     * Construtor da classe
+     *
+     * @param seed A semente do gerador aleatório.
+     */
+    public EuclideanGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * @param side O lado do quadrado onde ficam os pontos.
+     */
+    public void setSide(double side) {
+        this.side = side;
+    }
+
+    /**
+     * @param minDemand A demanda mínima de um cliente.
+     * @param maxDemand A demanda máxima de um cliente.
+     */
+    public void setDemandRange(int minDemand, int maxDemand) {
+        this.minDemand = minDemand;
+        this.maxDemand = Math.max(minDemand, maxDemand);
+    }
+
+    /**
+     * @param openFraction A fração de armazéns que a solução deve abrir (calibra os custos fixos).
+     */
+    public void setOpenFraction(double openFraction) {
+        this.openFraction = openFraction;
+    }
+
+    /**
+     * @param fixedCostSpread A variação relativa dos custos fixos em torno do valor base (entre 0 e 1).
+     */
+    public void setFixedCostSpread(double fixedCostSpread) {
+        this.fixedCostSpread = fixedCostSpread;
+    }
+
+    /**
+     * Gera uma instância.
+     *
+     * @param numWarehouses O número de armazéns (m).
+     * @param numCustomers  O número de clientes (n).
+     * @param k             O número de candidatos por cliente (limitado a m).
+     * @return A instância esparsa.
+     */
+    public SparseInstance generate(int numWarehouses, int numCustomers, int k) {
+        Random random = new Random(seed);
+        int width = Math.max(1, Math.min(k, numWarehouses));
+        float[] fx = new float[numWarehouses];
+        float[] fy = new float[numWarehouses];
+        for (int i = 0; i < numWarehouses; i++) {
+            fx[i] = (float) (random.nextDouble() * side);
+            fy[i] = (float) (random.nextDouble() * side);
+        }
+        int[] demands = new int[numCustomers];
+        long totalDemand = 0;
+        for (int c = 0; c < numCustomers; c++) {
+            demands[c] = minDemand + random.nextInt(maxDemand - minDemand + 1);
+            totalDemand += demands[c];
+        }
+        double open = Math.max(1.0, openFraction * numWarehouses);
+        double baseFixedCost = 0.25 * side * totalDemand / Math.pow(open, 1.5);
+        float[] fixedCosts = new float[numWarehouses];
+        for (int i = 0; i < numWarehouses; i++) {
+            fixedCosts[i] = (float) (baseFixedCost * (1.0 + fixedCostSpread * (2.0 * random.nextDouble() - 1.0)));
+        }
+
+        Grid grid = new Grid(fx, fy, side);
+        int[] offsets = new int[numCustomers + 1];
+        int[] facilities = new int[numCustomers * width];
+        float[] costs = new float[numCustomers * width];
+        int[] heapFacility = new int[width];
+        double[] heapDistance = new double[width];
+        for (int c = 0; c < numCustomers; c++) {
+            double x = random.nextDouble() * side;
+            double y = random.nextDouble() * side;
+            int found = grid.nearest(x, y, width, heapFacility, heapDistance);
+            // O heap máximo sai do mais afastado para o mais próximo: preenche a lista do fim para o início.
+            int base = c * width;
+            offsets[c + 1] = base + width;
+            for (int r = found - 1; r >= 0; r--) {
+                facilities[base + r] = heapFacility[0];
+                costs[base + r] = (float) (demands[c] * Math.sqrt(heapDistance[0]));
+                popMax(heapFacility, heapDistance, r + 1);
+            }
+        }
+        return new SparseInstance(fixedCosts, demands, offsets, facilities, costs);
+    }
+
+    /**
+     * Gera uma instância e resolve-a com o {@link SparseSearchUFLP}, mostrando a
+     * memória da instância e o resultado.
+     *
+     * <p>Argumentos: armazéns clientes k segundos [semente].
+     *
+     * @param args Os argumentos da linha de comandos.
+     */
+    public static void main(String[] args) {
+        int m = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        int n = args.length > 1 ? Integer.parseInt(args[1]) : 200000;
+        int k = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        long seconds = args.length > 3 ? Long.parseLong(args[3]) : 30;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 42;
+
+        long start = System.nanoTime();
+        SparseInstance instance = new EuclideanGenerator(seed).generate(m, n, k);
+        System.out.printf("%s, gerada em %.1f s (a matriz densa ocuparia %.1f MiB)%n", instance,
+                (System.nanoTime() - start) / 1e9, (double) m * n * Float.BYTES / (1024.0 * 1024.0));
+
+        SolverResult result = new SparseSearchUFLP(instance).solve(Budget.ofMillis(seconds * 1000),
+                new CancellationToken(), null);
+        System.out.println(result);
+    }
+
+    /**
+     * Grelha uniforme com os armazéns de cada célula em listas contíguas (CSR).
+     */
+    private static final class Grid {
+        private final float[] fx;
+        private final float[] fy;
+        private final int cells; // Células por lado.
+        private final double cellSize;
+        private final int[] cellStart;
+        private final int[] cellFacilities;
+
+        Grid(float[] fx, float[] fy, double side) {
+            this.fx = fx;
+            this.fy = fy;
+            int m = fx.length;
+            this.cells = Math.max(1, (int) Math.sqrt(m / 2.0));
+            this.cellSize = side / cells;
+            this.cellStart = new int[cells * cells + 1];
+            this.cellFacilities = new int[m];
+            int[] cellOf = new int[m];
+            for (int i = 0; i < m; i++) {
+                cellOf[i] = cell(fx[i]) * cells + cell(fy[i]);
+                cellStart[cellOf[i] + 1]++;
+            }
+            for (int g = 0; g < cells * cells; g++) {
+                cellStart[g + 1] += cellStart[g];
+            }
+            int[] fill = Arrays.copyOf(cellStart, cells * cells);
+            for (int i = 0; i < m; i++) {
+                cellFacilities[fill[cellOf[i]]++] = i;
+            }
+        }
+
+        private int cell(double coordinate) {
+            return Math.min(cells - 1, Math.max(0, (int) (coordinate / cellSize)));
+        }
+
+        /**
+         * Procura os k armazéns mais próximos de (x, y), deixando-os num heap
+         * máximo pela distância ao quadrado.
+         *
+         * @return O número de armazéns encontrados (k, ou m se houver menos).
+         */
+        int nearest(double x, double y, int k, int[] heapFacility, double[] heapDistance) {
+            int cx = cell(x);
+            int cy = cell(y);
+            int size = 0;
+            for (int ring = 0; ring < cells; ring++) {
+                // Distância mínima de (x, y) a qualquer célula do anel: se excede o k-ésimo, acabou.
+                if (size == k) {
+                    double reach = Math.min(Math.min(x - (cx - ring + 1) * cellSize, (cx + ring) * cellSize - x),
+                            Math.min(y - (cy - ring + 1) * cellSize, (cy + ring) * cellSize - y));
+                    if (reach > 0 && reach * reach >= heapDistance[0]) {
+                        break;
+                    }
+                }
+                for (int gx = cx - ring; gx <= cx + ring; gx++) {
+                    if (gx < 0 || gx >= cells) {
+                        continue;
+                    }
+                    boolean edgeColumn = gx == cx - ring || gx == cx + ring;
+                    int step = edgeColumn ? 1 : Math.max(1, 2 * ring);
+                    for (int gy = cy - ring; gy <= cy + ring; gy += step) {
+                        if (gy < 0 || gy >= cells) {
+                            continue;
+                        }
+                        int g = gx * cells + gy;
+                        for (int t = cellStart[g]; t < cellStart[g + 1]; t++) {
+                            int facility = cellFacilities[t];
+                            double dx = fx[facility] - x;
+                            double dy = fy[facility] - y;
+                            double distance = dx * dx + dy * dy;
+                            if (size < k) {
+                                pushMax(heapFacility, heapDistance, size++, facility, distance);
+                            } else if (distance < heapDistance[0]) {
+                                heapFacility[0] = facility;
+                                heapDistance[0] = distance;
+                                siftDown(heapFacility, heapDistance, 0, size);
+                            }
+                        }
+                    }
+                }
+            }
+            return size;
+        }
+    }
+
+    private static void pushMax(int[] facility, double[] distance, int size, int value, double key) {
+        int i = size;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (distance[parent] >= key) {
+                break;
+            }
+            facility[i] = facility[parent];
+            distance[i] = distance[parent];
+            i = parent;
+        }
+        facility[i] = value;
+        distance[i] = key;
+    }
+
+    private static void popMax(int[] facility, double[] distance, int size) {
+        int last = size - 1;
+        facility[0] = facility[last];
+        distance[0] = distance[last];
+        siftDown(facility, distance, 0, last);
+    }
+
+    private static void siftDown(int[] facility, double[] distance, int i, int size) {
+        int value = facility[i];
+        double key = distance[i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && distance[child + 1] > distance[child]) {
+                child++;
+            }
+            if (distance[child] <= key) {
+                break;
+            }
+            facility[i] = facility[child];
+            distance[i] = distance[child];
+            i = child;
+        }
+        facility[i] = value;
+        distance[i] = key;
+    }
+}
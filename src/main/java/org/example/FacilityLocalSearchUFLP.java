@@ -0,0 +1,277 @@
+package org.example;
+
+import java.util.Random;
+
+/**
+ * A classe FacilityLocalSearchUFLP resolve o UFLP com movimentos ao nível dos
+ * armazéns, em vez de mover um cliente de cada vez: abrir/fechar um armazém
+ * (flip) e fechar um armazém abrindo outro (swap). Cada cliente é sempre servido
+ * pelo armazém aberto mais barato, e o {@link FacilityState} guarda o primeiro e
+ * o segundo armazém aberto mais próximo de cada cliente, pelo que os movimentos
+ * são avaliados sem recalcular a solução.
+ *
+ * <p>A pesquisa é uma pesquisa local iterada: a partir de cada ótimo local, fecha
+ * ou abre alguns armazéns ao acaso e volta a aplicar a pesquisa local, mantendo a
+ * melhor solução encontrada.
+ */
+public class FacilityLocalSearchUFLP implements Solver {
+
+    private WarehouseLocationProblem problem;
+    private FacilityState state;
+    private double bestCost;
+    private boolean[] bestOpen;
+    private int[] bestAssignment;
+
+    private int maxIterations = 100; // Número de perturbações da pesquisa local iterada.
+    private int perturbationSize = 3; // Número de armazéns invertidos em cada perturbação.
+    private boolean useSwaps = true; // Avalia trocas quando não há flips que melhorem.
+    private long seed = 42;
+    private SearchControl control = new SearchControl();
+    private ConstructionHeuristic construction; // null = solução inicial aleatória.
+    private final SolverMetrics metrics = SolverMetrics.forSolver(getName());
+
+    private static final double EPSILON = 1e-9;
+
+    /**
+     * Construtor da classe
+     *
+     * @param problem Uma instância da classe WarehouseLocationProblem, que contém
+     *                os dados do problema.
+     */
+    public FacilityLocalSearchUFLP(WarehouseLocationProblem problem) {
+        this.problem = problem;
+    }
+
+    /**
+     * @param maxIterations O número de perturbações a aplicar.
+     */
+    public void setMaxIterations(int maxIterations) {
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * @param perturbationSize O número de armazéns invertidos em cada perturbação.
+     */
+    public void setPerturbationSize(int perturbationSize) {
+        this.perturbationSize = perturbationSize;
+    }
+
+    /**
+     * @param useSwaps Verdadeiro para incluir a vizinhança de trocas.
+     */
+    public void setUseSwaps(boolean useSwaps) {
+        this.useSwaps = useSwaps;
+    }
+
+    /**
+     * Define a semente do gerador aleatório (por omissão 42).
+     *
+     * @param seed A semente.
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Define o controlo da execução, consultado em cada iteração e notificado
+     * das novas melhores soluções.
+     *
+     * @param control O controlo da execução.
+     */
+    public void setSearchControl(SearchControl control) {
+        this.control = control;
+    }
+
+    /**
+     * Define a heurística que constrói a solução inicial (por omissão, aleatória).
+     *
+     * @param construction A heurística, ou null para a solução inicial aleatória.
+     */
+    @Override
+    public void setConstruction(ConstructionHeuristic construction) {
+        this.construction = construction;
+    }
+
+    /**
+     * Retorna o custo da melhor solução encontrada.
+     *
+     * @return O custo da melhor solução.
+     */
+    public double getBestCost() {
+        return bestCost;
+    }
+
+    /**
+     * Retorna uma cópia da melhor atribuição encontrada.
+     *
+     * @return A melhor atribuição de clientes a armazéns.
+     */
+    public int[] getBestAssignment() {
+        return bestAssignment.clone();
+    }
+
+    @Override
+    public String getName() {
+        return "Facility Local Search";
+    }
+
+    /**
+     * Executa a pesquisa local iterada dentro do orçamento. Com um orçamento
+     * limitado, recomeça com a semente seguinte até o esgotar.
+     *
+     * @param budget   O orçamento de tempo e de avaliações.
+     * @param token    O pedido de cancelamento.
+     * @param listener Recebe cada nova melhor solução (pode ser null).
+     * @return A melhor solução de todas as execuções.
+     */
+    @Override
+    public SolverResult solve(Budget budget, CancellationToken token, ImprovementListener listener) {
+        return new BudgetControl(budget, token, listener, control).runRestarts(this, seed, this::solve);
+    }
+
+    /**
+     * Executa a pesquisa local iterada com flips e trocas.
+     */
+    public void solve() {
+        state = new FacilityState(problem);
+        bestOpen = new boolean[problem.numWarehouses];
+        bestAssignment = new int[problem.numCustomers];
+        Random rand = new Random(seed);
+
+        if (construction != null) {
+            construction.construct(state, rand);
+        } else {
+            // Solução inicial: cada armazém aberto com probabilidade 1/2 (pelo menos um aberto).
+            boolean[] initial = new boolean[problem.numWarehouses];
+            for (int i = 0; i < problem.numWarehouses; i++) {
+                initial[i] = rand.nextBoolean();
+            }
+            initial[rand.nextInt(problem.numWarehouses)] = true;
+            state.reset(initial);
+        }
+
+        localSearch();
+        bestCost = Double.POSITIVE_INFINITY;
+        saveBest(0);
+
+        for (int iteration = 0; iteration < maxIterations && !control.shouldStop(); iteration++) {
+            SolverEvents.IterationEvent iterationEvent = metrics.beginIteration();
+            SolverEvents.PerturbationEvent perturbationEvent = metrics.beginPerturbation();
+            double costBefore = state.getCost();
+            perturb(rand);
+            metrics.endPerturbation(perturbationEvent, iteration, perturbationSize, costBefore, state.getCost());
+            long evaluated = localSearch();
+            metrics.endIteration(iterationEvent, iteration, evaluated, state.getCost(), bestCost);
+            if (state.getCost() < bestCost - EPSILON) {
+                saveBest(iteration);
+            } else {
+                state.reset(bestOpen); // Volta à melhor solução antes da próxima perturbação.
+            }
+        }
+    }
+
+    /**
+     * Aplica movimentos de melhoria até chegar a um ótimo local: primeiro o melhor
+     * flip e, quando nenhum flip melhora, a melhor troca.
+     *
+     * @return O número de movimentos avaliados.
+     */
+    private long localSearch() {
+        long evaluated = descend(state, problem.numWarehouses, useSwaps);
+        control.evaluated(evaluated);
+        return evaluated;
+    }
+
+    /**
+     * Pesquisa local sobre um estado de armazéns, partilhada com o
+     * {@link FilterAndFanUFLP}: aplica o melhor flip enquanto houver flips que
+     * melhorem e, depois, a melhor troca; termina num ótimo local.
+     *
+     * @param state         O estado a melhorar.
+     * @param numWarehouses O número de armazéns.
+     * @param useSwaps      Verdadeiro para incluir a vizinhança de trocas.
+     * @return O número de movimentos avaliados.
+     */
+    static long descend(FacilityState state, int numWarehouses, boolean useSwaps) {
+        long evaluations = 0;
+        while (true) {
+            int bestWarehouse = -1;
+            double bestDelta = -EPSILON;
+            for (int i = 0; i < numWarehouses; i++) {
+                double delta = state.flipDelta(i);
+                if (delta < bestDelta) {
+                    bestDelta = delta;
+                    bestWarehouse = i;
+                }
+            }
+            evaluations += numWarehouses;
+            if (bestWarehouse >= 0) {
+                state.flip(bestWarehouse);
+                continue;
+            }
+            if (!useSwaps) {
+                break;
+            }
+            evaluations += (long) state.getOpenCount() * (numWarehouses - state.getOpenCount());
+            if (!bestSwap(state, numWarehouses)) {
+                break;
+            }
+        }
+        state.rebuild(); // Elimina o erro numérico acumulado nas atualizações incrementais.
+        return evaluations;
+    }
+
+    /**
+     * Procura e aplica a melhor troca (fechar um armazém aberto, abrir um fechado).
+     *
+     * @return Verdadeiro se foi aplicada uma troca que melhora a solução.
+     */
+    private static boolean bestSwap(FacilityState state, int numWarehouses) {
+        int bestClose = -1;
+        int bestOpenWarehouse = -1;
+        double bestDelta = -EPSILON;
+        for (int i = 0; i < numWarehouses; i++) {
+            if (!state.isOpen(i)) {
+                continue;
+            }
+            for (int j = 0; j < numWarehouses; j++) {
+                if (state.isOpen(j)) {
+                    continue;
+                }
+                double delta = state.swapDelta(i, j);
+                if (delta < bestDelta) {
+                    bestDelta = delta;
+                    bestClose = i;
+                    bestOpenWarehouse = j;
+                }
+            }
+        }
+        if (bestClose < 0) {
+            return false;
+        }
+        state.open(bestOpenWarehouse);
+        state.close(bestClose);
+        return true;
+    }
+
+    /**
+     * Inverte alguns armazéns ao acaso, garantindo que fica pelo menos um aberto.
+     */
+    private void perturb(Random rand) {
+        for (int k = 0; k < perturbationSize; k++) {
+            int warehouse = rand.nextInt(problem.numWarehouses);
+            if (state.isOpen(warehouse) && state.getOpenCount() == 1) {
+                continue;
+            }
+            state.flip(warehouse);
+        }
+    }
+
+    private void saveBest(int iteration) {
+        metrics.improvement(iteration, state.getCost(), bestCost);
+        bestCost = state.getCost();
+        state.copyOpenTo(bestOpen);
+        state.copyAssignmentTo(bestAssignment);
+        control.improved(bestCost, bestAssignment);
+    }
+}
@@ -0,0 +1,453 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * A classe FacilityState representa uma solução do UFLP pelo conjunto de
+ * armazéns abertos, com cada cliente servido pelo armazém aberto mais barato.
+ * Para cada cliente guarda o armazém aberto mais próximo e o segundo mais
+ * próximo (e as respetivas posições na lista ordenada de armazéns do cliente).
+ *
+ * <p>A partir destes valores mantém, de forma incremental:
+ * <ul>
+ *   <li>{@code gain[i]} (armazém fechado): poupança nos custos de alocação se i abrir;</li>
+ *   <li>{@code loss[i]} (armazém aberto): aumento nos custos de alocação se i fechar.</li>
+ * </ul>
+ * Assim, abrir ou fechar um armazém é avaliado em O(1) e a troca (fechar um,
+ * abrir outro) em O(clientes servidos pelo armazém que fecha). Aplicar um
+ * movimento só reprocessa os clientes cujo primeiro ou segundo armazém muda.
+ * O hash de {@link Zobrist} do conjunto de armazéns abertos é mantido em O(1)
+ * por movimento.
+ */
+public class FacilityState {
+
+    private final WarehouseLocationProblem problem;
+    private final PreprocessedProblem view; // Listas com todos os armazéns ordenados por custo.
+    private final int numWarehouses;
+    private final int numCustomers;
+    private final float[] costs;
+
+    private final boolean[] open;
+    private int openCount;
+    private double cost;
+    private long hash; // Hash de Zobrist do conjunto de armazéns abertos.
+
+    private final int[] rank1; // Posição do armazém aberto mais barato na lista do cliente.
+    private final int[] rank2; // Posição do segundo armazém aberto mais barato (-1 se não existir).
+    private final int[] best1;
+    private final int[] best2;
+    private final double[] gain;
+    private final double[] loss;
+
+    // Lista duplamente ligada dos clientes servidos por cada armazém (best1 == i).
+    private final int[] head;
+    private final int[] next;
+    private final int[] prev;
+
+    /**
+     * Construtor da classe
+     *
+     * @param problem A instância do problema.
+     */
+    public FacilityState(WarehouseLocationProblem problem) {
+        this(problem, PreprocessedProblem.of(problem, problem.numWarehouses));
+    }
+
+    /**
+     * Construtor que reutiliza uma vista com listas completas já ordenadas.
+     *
+     * @param problem A instância do problema.
+     * @param view    Vista com todos os armazéns ordenados por custo para cada cliente.
+     */
+    public FacilityState(WarehouseLocationProblem problem, PreprocessedProblem view) {
+        if (view.isFullScan() || view.candidateCount() != problem.numWarehouses) {
+            throw new IllegalArgumentException("FacilityState precisa das listas completas ordenadas por custo");
+        }
+        this.problem = problem;
+        this.view = view;
+        this.numWarehouses = problem.numWarehouses;
+        this.numCustomers = problem.numCustomers;
+        this.costs = view.costs;
+        this.open = new boolean[numWarehouses];
+        this.rank1 = new int[numCustomers];
+        this.rank2 = new int[numCustomers];
+        this.best1 = new int[numCustomers];
+        this.best2 = new int[numCustomers];
+        this.gain = new double[numWarehouses];
+        this.loss = new double[numWarehouses];
+        this.head = new int[numWarehouses];
+        this.next = new int[numCustomers];
+        this.prev = new int[numCustomers];
+    }
+
+    /**
+     * Copia o estado de outra instância (construída para o mesmo problema) sem
+     * alocar memória.
+     *
+     * @param other O estado a copiar.
+     */
+    public void copyFrom(FacilityState other) {
+        System.arraycopy(other.open, 0, open, 0, numWarehouses);
+        System.arraycopy(other.gain, 0, gain, 0, numWarehouses);
+        System.arraycopy(other.loss, 0, loss, 0, numWarehouses);
+        System.arraycopy(other.head, 0, head, 0, numWarehouses);
+        System.arraycopy(other.rank1, 0, rank1, 0, numCustomers);
+        System.arraycopy(other.rank2, 0, rank2, 0, numCustomers);
+        System.arraycopy(other.best1, 0, best1, 0, numCustomers);
+        System.arraycopy(other.best2, 0, best2, 0, numCustomers);
+        System.arraycopy(other.next, 0, next, 0, numCustomers);
+        System.arraycopy(other.prev, 0, prev, 0, numCustomers);
+        openCount = other.openCount;
+        cost = other.cost;
+        hash = other.hash;
+    }
+
+    /**
+     * Define o conjunto de armazéns abertos e reconstrói todo o estado em O(n·m).
+     *
+     * @param openSet Um array que indica os armazéns abertos (pelo menos um).
+     */
+    public void reset(boolean[] openSet) {
+        openCount = 0;
+        for (int i = 0; i < numWarehouses; i++) {
+            open[i] = openSet[i];
+            if (open[i]) {
+                openCount++;
+            }
+        }
+        hash = Zobrist.hash(open);
+        if (openCount == 0) {
+            throw new IllegalArgumentException("Pelo menos um armazém tem de estar aberto");
+        }
+        rebuild();
+    }
+
+    /**
+     * Recalcula de raiz o armazém mais próximo, o custo e os ganhos/perdas,
+     * eliminando o erro acumulado pelas atualizações incrementais.
+     */
+    public void rebuild() {
+        Arrays.fill(gain, 0.0);
+        Arrays.fill(loss, 0.0);
+        Arrays.fill(head, -1);
+        double total = 0.0;
+        for (int i = 0; i < numWarehouses; i++) {
+            if (open[i]) {
+                total += problem.fixedCosts[i];
+            }
+        }
+        for (int c = 0; c < numCustomers; c++) {
+            rank1[c] = nextOpenRank(c, 0);
+            rank2[c] = nextOpenRank(c, rank1[c] + 1);
+            best1[c] = view.candidate(c, rank1[c]);
+            best2[c] = rank2[c] < 0 ? -1 : view.candidate(c, rank2[c]);
+            total += d1(c);
+            link(c);
+            addContribution(c);
+        }
+        cost = total;
+    }
+
+    /**
+     * Procura, a partir de uma posição, o próximo armazém aberto na lista do cliente.
+     *
+     * @return A posição encontrada, ou -1 se não houver mais armazéns abertos.
+     */
+    private int nextOpenRank(int customer, int fromRank) {
+        for (int r = fromRank; r < numWarehouses; r++) {
+            if (open[view.candidate(customer, r)]) {
+                return r;
+            }
+        }
+        return -1;
+    }
+
+    private double d1(int customer) {
+        return costs[customer * numWarehouses + best1[customer]];
+    }
+
+    /**
+     * Soma (ou subtrai, com sign = -1) a contribuição do cliente para os ganhos e perdas.
+     */
+    private void contribution(int customer, double sign) {
+        int base = customer * numWarehouses;
+        double d1 = costs[base + best1[customer]];
+        if (best2[customer] >= 0) {
+            loss[best1[customer]] += sign * (costs[base + best2[customer]] - d1);
+        }
+        // Os armazéns antes de best1 na lista ordenada estão todos fechados e são mais baratos.
+        for (int r = 0; r < rank1[customer]; r++) {
+            int i = view.candidate(customer, r);
+            gain[i] += sign * (d1 - costs[base + i]);
+        }
+    }
+
+    private void addContribution(int customer) {
+        contribution(customer, 1.0);
+    }
+
+    private void removeContribution(int customer) {
+        contribution(customer, -1.0);
+    }
+
+    private void link(int customer) {
+        int i = best1[customer];
+        prev[customer] = -1;
+        next[customer] = head[i];
+        if (head[i] >= 0) {
+            prev[head[i]] = customer;
+        }
+        head[i] = customer;
+    }
+
+    private void unlink(int customer) {
+        int i = best1[customer];
+        if (prev[customer] >= 0) {
+            next[prev[customer]] = next[customer];
+        } else {
+            head[i] = next[customer];
+        }
+        if (next[customer] >= 0) {
+            prev[next[customer]] = prev[customer];
+        }
+    }
+
+    /**
+     * Variação do custo total ao abrir um armazém fechado, em O(1).
+     *
+     * @param warehouse O índice do armazém.
+     * @return A variação do custo.
+     */
+    public double openDelta(int warehouse) {
+        return problem.fixedCosts[warehouse] - gain[warehouse];
+    }
+
+    /**
+     * Variação do custo total ao fechar um armazém aberto, em O(1).
+     *
+     * @param warehouse O índice do armazém.
+     * @return A variação do custo (infinita se for o único armazém aberto).
+     */
+    public double closeDelta(int warehouse) {
+        if (openCount == 1) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return loss[warehouse] - problem.fixedCosts[warehouse];
+    }
+
+    /**
+     * Variação do custo ao abrir ou fechar um armazém, conforme o estado atual.
+     *
+     * @param warehouse O índice do armazém.
+     * @return A variação do custo.
+     */
+    public double flipDelta(int warehouse) {
+        return open[warehouse] ? closeDelta(warehouse) : openDelta(warehouse);
+    }
+
+    /**
+     * Variação do custo ao fechar um armazém aberto e abrir um fechado, em
+     * O(clientes servidos pelo armazém que fecha).
+     *
+     * @param closeWarehouse O armazém a fechar.
+     * @param openWarehouse  O armazém a abrir.
+     * @return A variação do custo.
+     */
+    public double swapDelta(int closeWarehouse, int openWarehouse) {
+        double delta = problem.fixedCosts[openWarehouse] - problem.fixedCosts[closeWarehouse] - gain[openWarehouse];
+        for (int c = head[closeWarehouse]; c >= 0; c = next[c]) {
+            int base = c * numWarehouses;
+            double d1 = costs[base + closeWarehouse];
+            double cj = costs[base + openWarehouse];
+            double d2 = best2[c] >= 0 ? costs[base + best2[c]] : Double.POSITIVE_INFINITY;
+            // Repõe a parte do ganho de openWarehouse contada para este cliente e usa o novo mais próximo.
+            delta += Math.max(0.0, d1 - cj) + Math.min(cj, d2) - d1;
+        }
+        return delta;
+    }
+
+    /**
+     * Abre um armazém e atualiza apenas os clientes para os quais passa a ser
+     * o primeiro ou o segundo mais próximo.
+     *
+     * @param warehouse O índice do armazém (fechado).
+     */
+    public void open(int warehouse) {
+        if (open[warehouse]) {
+            return;
+        }
+        cost += openDelta(warehouse);
+        open[warehouse] = true;
+        openCount++;
+        hash ^= Zobrist.key(warehouse);
+        for (int c = 0; c < numCustomers; c++) {
+            int base = c * numWarehouses;
+            double cj = costs[base + warehouse];
+            int rank = -1;
+            if (best2[c] >= 0) {
+                double d2 = costs[base + best2[c]];
+                if (cj > d2) {
+                    continue; // Mais caro que o segundo aberto: o cliente não é afetado.
+                }
+                rank = rankOf(c, warehouse);
+                if (rank > rank2[c]) {
+                    continue; // Empate com o segundo aberto, mas depois dele na ordem.
+                }
+            } else {
+                rank = rankOf(c, warehouse);
+            }
+            removeContribution(c);
+            if (rank < rank1[c]) {
+                unlink(c);
+                rank2[c] = rank1[c];
+                best2[c] = best1[c];
+                rank1[c] = rank;
+                best1[c] = warehouse;
+                link(c);
+            } else if (rank2[c] < 0 || rank < rank2[c]) {
+                rank2[c] = rank;
+                best2[c] = warehouse;
+            }
+            addContribution(c);
+        }
+        gain[warehouse] = 0.0;
+    }
+
+    /**
+     * Fecha um armazém e atualiza apenas os clientes que o tinham como primeiro
+     * ou segundo mais próximo.
+     *
+     * @param warehouse O índice do armazém (aberto, e não o único).
+     */
+    public void close(int warehouse) {
+        if (!open[warehouse]) {
+            return;
+        }
+        if (openCount == 1) {
+            throw new IllegalStateException("Não é possível fechar o único armazém aberto");
+        }
+        cost += closeDelta(warehouse);
+        open[warehouse] = false;
+        openCount--;
+        hash ^= Zobrist.key(warehouse);
+        for (int c = 0; c < numCustomers; c++) {
+            if (best1[c] != warehouse && best2[c] != warehouse) {
+                continue;
+            }
+            removeContribution(c);
+            if (best1[c] == warehouse) {
+                unlink(c);
+                rank1[c] = rank2[c];
+                best1[c] = best2[c];
+                link(c);
+            }
+            rank2[c] = nextOpenRank(c, rank1[c] + 1);
+            best2[c] = rank2[c] < 0 ? -1 : view.candidate(c, rank2[c]);
+            addContribution(c);
+        }
+        loss[warehouse] = 0.0;
+    }
+
+    /**
+     * Abre ou fecha um armazém, conforme o estado atual.
+     *
+     * @param warehouse O índice do armazém.
+     */
+    public void flip(int warehouse) {
+        if (open[warehouse]) {
+            close(warehouse);
+        } else {
+            open(warehouse);
+        }
+    }
+
+    /**
+     * Posição de um armazém na lista ordenada do cliente. Os armazéns mais baratos
+     * que o segundo aberto estão no início da lista, por isso a procura é curta.
+     */
+    private int rankOf(int customer, int warehouse) {
+        for (int r = 0; r < numWarehouses; r++) {
+            if (view.candidate(customer, r) == warehouse) {
+                return r;
+            }
+        }
+        throw new IllegalStateException("Armazém " + warehouse + " não está na lista do cliente " + customer);
+    }
+
+    /**
+     * @return A instância do problema.
+     */
+    public WarehouseLocationProblem getProblem() {
+        return problem;
+    }
+
+    /**
+     * @return A vista com as listas ordenadas usada por este estado.
+     */
+    public PreprocessedProblem getView() {
+        return view;
+    }
+
+    /**
+     * @return O custo total corrente.
+     */
+    public double getCost() {
+        return cost;
+    }
+
+    /**
+     * @param warehouse O índice do armazém.
+     * @return Verdadeiro se o armazém está aberto.
+     */
+    public boolean isOpen(int warehouse) {
+        return open[warehouse];
+    }
+
+    /**
+     * @return O número de armazéns abertos.
+     */
+    public int getOpenCount() {
+        return openCount;
+    }
+
+    /**
+     * @return O hash de Zobrist do conjunto de armazéns abertos.
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * @param customer O índice do cliente.
+     * @return O armazém aberto mais barato para o cliente.
+     */
+    public int nearest(int customer) {
+        return best1[customer];
+    }
+
+    /**
+     * @param customer O índice do cliente.
+     * @return O segundo armazém aberto mais barato (-1 se só houver um aberto).
+     */
+    public int secondNearest(int customer) {
+        return best2[customer];
+    }
+
+    /**
+     * Copia o conjunto de armazéns abertos para o array indicado.
+     *
+     * @param target O array de destino.
+     */
+    public void copyOpenTo(boolean[] target) {
+        System.arraycopy(open, 0, target, 0, numWarehouses);
+    }
+
+    /**
+     * Copia a atribuição induzida (cada cliente ao armazém aberto mais barato).
+     *
+     * @param target O array de destino (tamanho igual ao número de clientes).
+     */
+    public void copyAssignmentTo(int[] target) {
+        System.arraycopy(best1, 0, target, 0, numCustomers);
+    }
+}
@@ -1,20 +1,56 @@
 package org.example;
 
+import java.util.Arrays;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 
 /**
- * A classe FilterAndFanUFLP implementa uma abordagem metaheurística para
- * resolver o Problema de Localização de Armazéns Não Capacitados (UFLP).
- * Utiliza uma solução inicial aleatória seguida de uma busca local e uma
- * técnica de filtro e expansão para encontrar soluções quase ótimas.
+ * A classe FilterAndFanUFLP implementa a metaheurística de filtro e expansão
+ * (filter-and-fan) para resolver o Problema de Localização de Armazéns Não
+ * Capacitados (UFLP).
+ *
+ * <p>A partir de um ótimo local, cada nível da árvore gera, para cada solução do
+ * feixe, os {@code fanWidth} melhores movimentos (abrir ou fechar um armazém,
+ * avaliados em O(1) pelo {@link FacilityState}); o filtro guarda apenas as
+ * {@code beamWidth} (η) melhores soluções filhas, que formam o feixe do nível
+ * seguinte, até à profundidade máxima. Se algum nó melhorar o ótimo local, é
+ * aplicada a pesquisa local e a árvore recomeça a partir do novo ótimo; caso
+ * contrário, a melhor solução é perturbada. Os membros do feixe são expandidos
+ * em paralelo, cada um no seu próprio estado.
+ *
+ * <p>Uma {@link SolutionCache} guarda o ótimo local alcançado a partir de cada
+ * conjunto de armazéns já descido (pelo hash de {@link Zobrist}). Quando uma
+ * perturbação ou uma árvore leva a um conjunto conhecido, a pesquisa local é
+ * substituída pela leitura do ótimo guardado; depois de uma perturbação, isso
+ * indica um ciclo e a perturbação seguinte inverte mais um armazém, até a melhor
+ * solução voltar a melhorar.
  */
-public class FilterAndFanUFLP {
+public class FilterAndFanUFLP implements Solver {
+
+    private static final double EPSILON = 1e-9;
 
     private WarehouseLocationProblem problem;
+    private long seed = 42;
+    private Random random;
+    private SearchControl control = new SearchControl();
+    private ConstructionHeuristic construction; // null = solução inicial aleatória.
+    private double bestCost = Double.POSITIVE_INFINITY;
+    private int[] bestAssignment;
+
+    private int fanWidth = 5; // Movimentos gerados por cada membro do feixe.
+    private int beamWidth = 10; // Largura do feixe (η) após o filtro.
+    private int depth = 4; // Número de níveis da árvore.
+    private int maxRounds = 20; // Número de árvores (a partir de ótimos locais) a explorar.
+    private int perturbationSize = 3; // Armazéns invertidos quando a árvore não encontra melhoria.
+    private int parallelism = 1; // Threads usadas para expandir o feixe.
+    private int cacheCapacity = SolutionCache.DEFAULT_CAPACITY; // 0 = sem cache.
+    private SolutionCache cache; // Partilhada pelos recomeços do mesmo problema.
+    private final SolverMetrics metrics = SolverMetrics.forSolver(getName());
 
     /**
      * Construtor da classe
-     * 
+     *
      * @param problem Uma instância da classe WarehouseLocationProblem, que contêm
      *                os
      *                dados do problema, como o número de clientes, o número de
@@ -25,13 +61,125 @@ public class FilterAndFanUFLP {
         this.problem = problem;
     }
 
+    /**
+     * Define a semente do gerador aleatório (por omissão 42).
+     *
+     * @param seed A semente.
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Define o controlo da execução, consultado em cada passo e notificado das
+     * novas melhores soluções.
+     *
+     * @param control O controlo da execução.
+     */
+    public void setSearchControl(SearchControl control) {
+        this.control = control;
+    }
+
+    /**
+     * Define a heurística que constrói a solução inicial (por omissão, aleatória).
+     *
+     * @param construction A heurística, ou null para a solução inicial aleatória.
+     */
+    @Override
+    public void setConstruction(ConstructionHeuristic construction) {
+        this.construction = construction;
+    }
+
+    /**
+     * @param fanWidth O número de movimentos gerados por membro do feixe.
+     */
+    public void setFanWidth(int fanWidth) {
+        this.fanWidth = Math.max(1, fanWidth);
+    }
+
+    /**
+     * @param beamWidth A largura do feixe (η).
+     */
+    public void setBeamWidth(int beamWidth) {
+        this.beamWidth = Math.max(1, beamWidth);
+    }
+
+    /**
+     * @param depth O número de níveis da árvore.
+     */
+    public void setDepth(int depth) {
+        this.depth = Math.max(1, depth);
+    }
+
+    /**
+     * @param maxRounds O número de árvores a explorar.
+     */
+    public void setMaxRounds(int maxRounds) {
+        this.maxRounds = maxRounds;
+    }
+
+    /**
+     * @param perturbationSize O número de armazéns invertidos em cada perturbação.
+     */
+    public void setPerturbationSize(int perturbationSize) {
+        this.perturbationSize = perturbationSize;
+    }
+
+    /**
+     * Define o número de threads usadas para expandir o feixe. O resultado não
+     * depende deste valor.
+     *
+     * @param parallelism O número de threads (1 para expansão sequencial).
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Define o número de entradas da cache de ótimos locais (por omissão
+     * {@link SolutionCache#DEFAULT_CAPACITY}).
+     *
+     * @param cacheCapacity O número de entradas, ou 0 para não usar cache.
+     */
+    public void setCacheCapacity(int cacheCapacity) {
+        this.cacheCapacity = Math.max(0, cacheCapacity);
+        this.cache = null;
+    }
+
+    /**
+     * @return A cache de ótimos locais (com as estatísticas), ou null se não for usada.
+     */
+    public SolutionCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Retorna o custo da melhor solução encontrada pela última execução.
+     *
+     * @return O custo da melhor solução.
+     */
+    public double getBestCost() {
+        return bestCost;
+    }
+
+    /**
+     * Retorna uma cópia da melhor atribuição encontrada pela última execução.
+     *
+     * @return A melhor atribuição de clientes a armazéns.
+     */
+    public int[] getBestAssignment() {
+        return bestAssignment.clone();
+    }
+
     /**
      * Gera uma solução inicial aleatória.
-     * 
+     *
      * @return Um array que representa a atribuição inicial de clientes a armazéns.
      */
     public int[] initialSolution() {
-        Random random = new Random(42);
+        if (random == null) {
+            random = new Random(seed);
+        }
         int[] solution = new int[problem.numCustomers];
         for (int j = 0; j < problem.numCustomers; j++) {
             solution[j] = random.nextInt(problem.numWarehouses);
@@ -39,105 +187,379 @@ public class FilterAndFanUFLP {
         return solution;
     }
 
+    @Override
+    public String getName() {
+        return "Filter and Fan";
+    }
+
     /**
-     * Calcula o custo total de uma determinada solução.
-     * 
-     * @param solution Um array que representa a atribuição de clientes a armazéns.
-     * @return O custo total da solução.
+     * Aplica o filtro e expansão dentro do orçamento. Com um orçamento limitado,
+     * recomeça com a semente seguinte até o esgotar.
+     *
+     * @param budget   O orçamento de tempo e de avaliações.
+     * @param token    O pedido de cancelamento.
+     * @param listener Recebe cada nova melhor solução (pode ser null).
+     * @return A melhor solução de todas as execuções.
      */
-    public double calculateCost(int[] solution) {
-        double cost = 0.0;
-        int[] warehouseUsage = new int[problem.numWarehouses];
+    @Override
+    public SolverResult solve(Budget budget, CancellationToken token, ImprovementListener listener) {
+        return new BudgetControl(budget, token, listener, control).runRestarts(this, seed, this::filterAndFan);
+    }
 
-        for (int j = 0; j < problem.numCustomers; j++) {
-            int warehouse = solution[j];
-            warehouseUsage[warehouse] += problem.demands[j];
-            cost += problem.allocationCosts[warehouse][j];
+    /**
+     * Aplica a metaheurística de filtro e expansão: pesquisa local a partir de uma
+     * solução inicial e, depois, árvores de filtro e expansão a partir de cada
+     * ótimo local.
+     *
+     * @return A melhor solução encontrada.
+     */
+    public int[] filterAndFan() {
+        random = new Random(seed);
+        bestCost = Double.POSITIVE_INFINITY;
+        int m = problem.numWarehouses;
+        if (cache == null && cacheCapacity > 0) {
+            cache = new SolutionCache(cacheCapacity, m);
+            metrics.cacheMemory(cache.memoryBytes());
         }
+        boolean[] cachedOpen = new boolean[m];
+        int strength = perturbationSize;
 
-        for (int i = 0; i < problem.numWarehouses; i++) {
-            if (warehouseUsage[i] > 0) {
-                cost += problem.fixedCosts[i];
+        // Estados reutilizados: o ótimo local corrente e dois feixes (nível atual e seguinte).
+        FacilityState current = new FacilityState(problem);
+        PreprocessedProblem view = current.getView();
+        FacilityState[] beam = new FacilityState[beamWidth];
+        FacilityState[] nextBeam = new FacilityState[beamWidth];
+        boolean[][] path = new boolean[beamWidth][m]; // Armazéns já invertidos no caminho de cada nó.
+        boolean[][] nextPath = new boolean[beamWidth][m];
+        for (int k = 0; k < beamWidth; k++) {
+            beam[k] = new FacilityState(problem, view);
+            nextBeam[k] = new FacilityState(problem, view);
+        }
+
+        if (construction != null) {
+            construction.construct(current, random);
+        } else {
+            // A solução inicial abre os armazéns usados pela atribuição aleatória.
+            boolean[] open = new boolean[m];
+            for (int warehouse : initialSolution()) {
+                open[warehouse] = true;
             }
+            current.reset(open);
         }
+        descend(current, cachedOpen);
+        updateBest(current, 0);
 
-        return cost;
+        ForkJoinPool pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+        try {
+            for (int round = 0; round < maxRounds && !control.shouldStop(); round++) {
+                FacilityState improved = fan(current, beam, nextBeam, path, nextPath, pool);
+                if (improved != null) {
+                    current.copyFrom(improved);
+                    descend(current, cachedOpen);
+                } else {
+                    // Sem melhoria até à profundidade máxima: perturba a melhor solução.
+                    current.reset(bestOpen());
+                    SolverEvents.PerturbationEvent perturbationEvent = metrics.beginPerturbation();
+                    double costBefore = current.getCost();
+                    perturb(current, strength);
+                    metrics.endPerturbation(perturbationEvent, round, strength, costBefore, current.getCost());
+                    if (descend(current, cachedOpen)) {
+                        strength = Math.min(m, strength + 1); // Ciclo: a perturbação voltou a um conjunto conhecido.
+                    }
+                }
+                if (updateBest(current, round)) {
+                    strength = perturbationSize;
+                }
+            }
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+
+        return bestAssignment.clone();
     }
 
     /**
-     * Realiza uma pesquisa local para melhorar a solução inicial, explorando soluções
-     * vizinhas.
-     * 
-     * @param solution Um array que representa a atribuição inicial de clientes a
-     *                 armazéns.
-     * @return Uma solução melhorada após realizar a pesquisa local.
+     * Explora uma árvore de filtro e expansão a partir de um ótimo local.
+     *
+     * @return O primeiro nó que melhora o ótimo local, ou null se não houver nenhum.
      */
-    public int[] localSearch(int[] solution) {
-        boolean improved = true;
-        int iteration = 0;
-        double currentCost = calculateCost(solution);
+    private FacilityState fan(FacilityState root, FacilityState[] beam, FacilityState[] nextBeam,
+                              boolean[][] path, boolean[][] nextPath, ForkJoinPool pool) {
+        int m = problem.numWarehouses;
+        beam[0].copyFrom(root);
+        Arrays.fill(path[0], false);
+        int beamSize = 1;
 
-        while (improved && iteration < 100) {
-            improved = false;
+        int slots = beamWidth * fanWidth;
+        int[] childParent = new int[slots];
+        int[] childWarehouse = new int[slots];
+        double[] childCost = new double[slots];
+        int[] heap = new int[beamWidth]; // Próximo filho de cada pai por escolher.
+        int[] selected = new int[beamWidth];
 
-            for (int j = 0; j < problem.numCustomers; j++) {
-                int currentWarehouse = solution[j];
-                for (int i = 0; i < problem.numWarehouses; i++) {
-                    if (i != currentWarehouse) {
-                        solution[j] = i;
-                        double newCost = calculateCost(solution);
-                        if (newCost < currentCost) {
-                            currentCost = newCost;
-                            improved = true;
-                        } else {
-                            solution[j] = currentWarehouse;
-                        }
-                    }
+        for (int level = 0; level < depth && !control.shouldStop(); level++) {
+            SolverEvents.IterationEvent iterationEvent = metrics.beginIteration();
+            // Expansão: os fanWidth melhores flips de cada membro do feixe.
+            final FacilityState[] parents = beam;
+            final boolean[][] parentPaths = path;
+            runParallel(pool, beamSize, k -> expand(parents[k], parentPaths[k], k, childParent, childWarehouse, childCost));
+            long evaluated = (long) beamSize * m;
+            control.evaluated(evaluated);
+
+            // Filtro: as η melhores soluções filhas (custo, depois pai e armazém), sem repetições. Os
+            // filhos de cada pai já estão ordenados, pelo que basta fundir as listas com um heap
+            // mínimo das suas cabeças, tirando só os filhos necessários.
+            int heapSize = 0;
+            for (int k = 0; k < beamSize; k++) {
+                if (childCost[k * fanWidth] < Double.POSITIVE_INFINITY) {
+                    heap[heapSize] = k * fanWidth;
+                    siftUp(heap, heapSize++, childCost);
                 }
             }
+            int nextSize = 0;
+            while (heapSize > 0 && nextSize < beamWidth) {
+                int child = heap[0];
+                if (!isDuplicate(child, selected, nextSize, childParent, childWarehouse, path)) {
+                    selected[nextSize++] = child;
+                }
+                int next = child + 1;
+                if (next % fanWidth != 0 && childCost[next] < Double.POSITIVE_INFINITY) {
+                    heap[0] = next;
+                } else {
+                    heap[0] = heap[--heapSize];
+                }
+                siftDown(heap, heapSize, childCost);
+            }
+            if (nextSize == 0) {
+                metrics.endIteration(iterationEvent, level, evaluated, root.getCost(), bestCost);
+                return null;
+            }
+
+            // Materializa o novo feixe a partir dos pais, em paralelo (um estado por nó).
+            final FacilityState[] targets = nextBeam;
+            final boolean[][] targetPaths = nextPath;
+            runParallel(pool, nextSize, k -> {
+                int child = selected[k];
+                int parent = childParent[child];
+                int warehouse = childWarehouse[child];
+                targets[k].copyFrom(parents[parent]);
+                targets[k].flip(warehouse);
+                System.arraycopy(parentPaths[parent], 0, targetPaths[k], 0, m);
+                targetPaths[k][warehouse] = true;
+            });
+
+            FacilityState[] swapStates = beam;
+            beam = nextBeam;
+            nextBeam = swapStates;
+            boolean[][] swapPaths = path;
+            path = nextPath;
+            nextPath = swapPaths;
+            beamSize = nextSize;
+            metrics.endIteration(iterationEvent, level, evaluated, beam[0].getCost(), bestCost);
 
-            iteration++;
+            // O feixe está ordenado por custo: basta verificar o primeiro nó.
+            if (beam[0].getCost() < root.getCost() - EPSILON) {
+                return beam[0];
+            }
         }
+        return null;
+    }
 
-        return solution;
+    /**
+     * Indica se o filho a vem antes do filho b no filtro: menor custo e, nos
+     * empates, menor posição (pai e ordem do flip).
+     */
+    private static boolean precedes(int a, int b, double[] childCost) {
+        return childCost[a] < childCost[b] || (childCost[a] == childCost[b] && a < b);
+    }
+
+    private static void siftUp(int[] heap, int position, double[] childCost) {
+        int child = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (!precedes(child, heap[parent], childCost)) {
+                break;
+            }
+            heap[position] = heap[parent];
+            position = parent;
+        }
+        heap[position] = child;
+    }
+
+    private static void siftDown(int[] heap, int size, double[] childCost) {
+        if (size == 0) {
+            return;
+        }
+        int child = heap[0];
+        int position = 0;
+        while (true) {
+            int smallest = 2 * position + 1;
+            if (smallest >= size) {
+                break;
+            }
+            if (smallest + 1 < size && precedes(heap[smallest + 1], heap[smallest], childCost)) {
+                smallest++;
+            }
+            if (!precedes(heap[smallest], child, childCost)) {
+                break;
+            }
+            heap[position] = heap[smallest];
+            position = smallest;
+        }
+        heap[position] = child;
     }
 
     /**
-     * Aplica a metaheurística de filtro e expansão, que inclui a geração de uma
-     * solução inicial, pesquisa local e passos de perturbação.
-     * 
-     * @return Uma solução obtida após aplicar a abordagem de filtro e expansão.
+     * Gera os fanWidth melhores flips de um nó (sem desfazer flips do caminho e
+     * sem fechar o último armazém aberto), nas posições reservadas ao nó.
      */
-    public int[] filterAndFan() {
-        int[] solution = initialSolution();
-        solution = localSearch(solution);
+    private void expand(FacilityState node, boolean[] nodePath, int k, int[] childParent, int[] childWarehouse,
+                        double[] childCost) {
+        int base = k * fanWidth;
+        for (int t = 0; t < fanWidth; t++) {
+            childParent[base + t] = k;
+            childWarehouse[base + t] = -1;
+            childCost[base + t] = Double.POSITIVE_INFINITY;
+        }
+        double nodeCost = node.getCost();
+        for (int i = 0; i < problem.numWarehouses; i++) {
+            if (nodePath[i]) {
+                continue;
+            }
+            double cost = nodeCost + node.flipDelta(i);
+            if (cost >= childCost[base + fanWidth - 1]) {
+                continue;
+            }
+            // Inserção ordenada nas fanWidth posições do nó.
+            int t = fanWidth - 1;
+            while (t > 0 && childCost[base + t - 1] > cost) {
+                childCost[base + t] = childCost[base + t - 1];
+                childWarehouse[base + t] = childWarehouse[base + t - 1];
+                t--;
+            }
+            childCost[base + t] = cost;
+            childWarehouse[base + t] = i;
+        }
+    }
 
-        // Apply fan steps
-        for (int step = 0; step < 3; step++) {
-            solution = perturbSolution(solution);
-            solution = localSearch(solution);
+    /**
+     * Verifica se um filho gera o mesmo conjunto de armazéns abertos que um filho
+     * já selecionado (caminhos com os mesmos flips por outra ordem).
+     */
+    private boolean isDuplicate(int child, int[] selected, int count, int[] childParent, int[] childWarehouse,
+                                boolean[][] path) {
+        for (int s = 0; s < count; s++) {
+            int other = selected[s];
+            if (childParent[other] == childParent[child]) {
+                continue; // Flips diferentes do mesmo pai dão sempre conjuntos diferentes.
+            }
+            boolean[] a = path[childParent[child]];
+            boolean[] b = path[childParent[other]];
+            int wa = childWarehouse[child];
+            int wb = childWarehouse[other];
+            boolean same = true;
+            for (int i = 0; i < problem.numWarehouses && same; i++) {
+                boolean inA = a[i] ^ (i == wa);
+                boolean inB = b[i] ^ (i == wb);
+                same = inA == inB;
+            }
+            if (same) {
+                return true;
+            }
         }
+        return false;
+    }
 
-        return solution;
+    /**
+     * Executa uma tarefa para cada índice em [0, count), em paralelo se houver um pool.
+     */
+    private static void runParallel(ForkJoinPool pool, int count, java.util.function.IntConsumer task) {
+        if (pool == null || count == 1) {
+            for (int k = 0; k < count; k++) {
+                task.accept(k);
+            }
+        } else {
+            pool.submit(() -> IntStream.range(0, count).parallel().forEach(task)).join();
+        }
     }
 
     /**
-     * Perturba a solução dada, reatribuindo aleatoriamente alguns clientes a
-     * diferentes armazéns.
-     * 
-     * @param solution Um array que representa a atribuição atual de clientes a
-     *                 armazéns.
-     * @return Uma solução perturbada.
+     * Leva o estado a um ótimo local: pela cache, se o conjunto de armazéns já
+     * tiver sido descido, ou pela pesquisa local, guardando o resultado. Depois
+     * de uma descida, procura o ótimo alcançado na cache: as perturbações quase
+     * nunca repetem o conjunto de partida, mas voltam muitas vezes ao mesmo ótimo.
+     *
+     * @return Verdadeiro se o ótimo local já era conhecido (veio da cache ou já tinha sido alcançado).
      */
-    private int[] perturbSolution(int[] solution) {
-        Random random = new Random(42);
+    private boolean descend(FacilityState state, boolean[] cachedOpen) {
+        if (cache == null) {
+            control.evaluated(FacilityLocalSearchUFLP.descend(state, problem.numWarehouses, true));
+            return false;
+        }
+        // Cada consulta à cache conta nas métricas, para que as taxas de acerto coincidam.
+        long start = state.getHash();
+        boolean hit = !Double.isNaN(cache.get(start, cachedOpen));
+        metrics.cacheLookup(hit);
+        if (hit) {
+            state.reset(cachedOpen);
+            return true;
+        }
+        control.evaluated(FacilityLocalSearchUFLP.descend(state, problem.numWarehouses, true));
+        long optimum = state.getHash();
+        boolean known = false;
+        if (optimum != start) {
+            known = !Double.isNaN(cache.get(optimum, null));
+            metrics.cacheLookup(known);
+        }
+        state.copyOpenTo(cachedOpen);
+        cache.put(start, state.getCost(), cachedOpen);
+        cache.put(optimum, state.getCost(), cachedOpen); // Um ótimo local desce para si próprio.
+        return known;
+    }
 
-        for (int j = 0; j < problem.numCustomers; j++) {
-            if (random.nextDouble() < 0.1) {
-                solution[j] = random.nextInt(problem.numWarehouses);
+    /**
+     * Perturba a solução invertendo alguns armazéns ao acaso, mantendo pelo
+     * menos um aberto.
+     */
+    private void perturb(FacilityState state, int size) {
+        for (int k = 0; k < size; k++) {
+            int warehouse = random.nextInt(problem.numWarehouses);
+            if (state.isOpen(warehouse) && state.getOpenCount() == 1) {
+                continue;
             }
+            state.flip(warehouse);
         }
+    }
 
-        return solution;
+    /**
+     * Conjunto de armazéns abertos da melhor solução (os usados pela atribuição).
+     */
+    private boolean[] bestOpen() {
+        boolean[] open = new boolean[problem.numWarehouses];
+        for (int warehouse : bestAssignment) {
+            open[warehouse] = true;
+        }
+        return open;
+    }
+
+    /**
+     * Guarda a solução do estado se for melhor do que a melhor encontrada.
+     *
+     * @return Verdadeiro se a melhor solução melhorou.
+     */
+    private boolean updateBest(FacilityState state, int round) {
+        if (state.getCost() < bestCost - EPSILON) {
+            metrics.improvement(round, state.getCost(), bestCost);
+            bestCost = state.getCost();
+            if (bestAssignment == null) {
+                bestAssignment = new int[problem.numCustomers];
+            }
+            state.copyAssignmentTo(bestAssignment);
+            control.improved(bestCost, bestAssignment);
+            return true;
+        }
+        return false;
     }
 }
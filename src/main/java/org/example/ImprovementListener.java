@@ -0,0 +1,16 @@
+package org.example;
+
+/**
+ * Recebe as novas melhores soluções de um {@link Solver} à medida que são
+ * encontradas. É chamado na thread da pesquisa, pelo que deve ser rápido.
+ */
+@FunctionalInterface
+public interface ImprovementListener {
+
+    /**
+     * @param cost          O custo da nova melhor solução.
+     * @param assignment    Uma cópia da atribuição, que pode ser guardada.
+     * @param elapsedMillis O tempo desde o início da execução.
+     */
+    void onImprovement(double cost, int[] assignment, long elapsedMillis);
+}
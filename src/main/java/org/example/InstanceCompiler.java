@@ -0,0 +1,137 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A classe InstanceCompiler converte, uma única vez, as instâncias de texto em
+ * {@code FicheirosTeste} para o formato binário lido pelo {@link MappedInstance}.
+ * Cada ficheiro {@code nome.txt} dá origem a {@code nome.uflb} no diretório de
+ * saída, acompanhado do seu {@code .opt} e do {@code optimal.txt} da raiz, se
+ * existirem, para que o {@link BatchRunner} possa correr sobre a pasta compilada.
+ */
+public class InstanceCompiler {
+
+    public static final String EXTENSION = ".uflb";
+
+    /**
+     * Compila uma instância de texto para o formato binário. O ficheiro é escrito
+     * num temporário e movido no fim, para que um leitor nunca veja um ficheiro
+     * incompleto.
+     *
+     * @param textFile   O ficheiro de texto (formato ORLIB ou Kcapm*).
+     * @param binaryFile O ficheiro binário a criar.
+     * @return As estatísticas da leitura do ficheiro de texto.
+     * @throws IOException Se ocorrer um erro de leitura ou escrita.
+     */
+    public static InstanceParser.ParseStats compile(Path textFile, Path binaryFile) throws IOException {
+        WarehouseLocationProblem problem = new WarehouseLocationProblem(0, 0);
+        InstanceParser.ParseStats stats = InstanceParser.parseInto(textFile.toString(), problem);
+        write(problem, binaryFile);
+        return stats;
+    }
+
+    /**
+     * Escreve uma instância já carregada no formato binário.
+     *
+     * @param problem    A instância do problema.
+     * @param binaryFile O ficheiro binário a criar.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    public static void write(WarehouseLocationProblem problem, Path binaryFile) throws IOException {
+        int m = problem.numWarehouses;
+        int n = problem.numCustomers;
+        long size = MappedInstance.HEADER_BYTES + (long) Double.BYTES * m + (long) Float.BYTES * m
+                + (long) Integer.BYTES * n + (long) Float.BYTES * m * n;
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Instância demasiado grande para o formato binário: " + size + " bytes");
+        }
+
+        Path parent = binaryFile.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path tmp = binaryFile.resolveSibling(binaryFile.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = out.map(FileChannel.MapMode.READ_WRITE, 0, size).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MappedInstance.MAGIC);
+            buffer.putInt(MappedInstance.VERSION);
+            buffer.putInt(m);
+            buffer.putInt(n);
+            for (int i = 0; i < m; i++) {
+                buffer.putDouble(problem.capacities[i]);
+            }
+            for (int i = 0; i < m; i++) {
+                buffer.putFloat(problem.fixedCosts[i]);
+            }
+            for (int j = 0; j < n; j++) {
+                buffer.putInt(problem.demands[j]);
+            }
+            for (int i = 0; i < m; i++) {
+                buffer.asFloatBuffer().put(problem.allocationCosts[i]);
+                buffer.position(buffer.position() + Float.BYTES * n);
+            }
+        }
+        Files.move(tmp, binaryFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Procura todas as instâncias de texto (cap*.txt e Kcapm*.txt) num diretório.
+     *
+     * @param root O diretório raiz, por exemplo {@code FicheirosTeste}.
+     * @return A lista de ficheiros encontrados, por ordem.
+     * @throws IOException Se o diretório não puder ser percorrido.
+     */
+    public static List<Path> findInstances(Path root) throws IOException {
+        try (Stream<Path> files = Files.walk(root)) {
+            return files.filter(Files::isRegularFile)
+                    .filter(p -> {
+                        String name = p.getFileName().toString();
+                        return name.endsWith(".txt") && (name.startsWith("cap") || name.startsWith("Kcap"))
+                                && !name.equals("capinfo.txt");
+                    })
+                    .sorted()
+                    .collect(Collectors.toCollection(ArrayList::new));
+        }
+    }
+
+    /**
+     * Compila todas as instâncias encontradas.
+     * Uso: {@code InstanceCompiler [diretórioDeInstâncias] [diretórioDeSaída]}.
+     */
+    public static void main(String[] args) throws IOException {
+        Path root = Paths.get(args.length > 0 ? args[0] : "src/main/java/org/example/FicheirosTeste");
+        Path outDir = Paths.get(args.length > 1 ? args[1] : "build/instances");
+
+        for (Path textFile : findInstances(root)) {
+            String name = textFile.getFileName().toString();
+            Path binaryFile = outDir.resolve(name.substring(0, name.length() - ".txt".length()) + EXTENSION);
+            long start = System.nanoTime();
+            InstanceParser.ParseStats stats = compile(textFile, binaryFile);
+            System.out.printf("%s -> %s (%.1f ms; leitura: %s)%n", textFile, binaryFile,
+                    (System.nanoTime() - start) / 1e6, stats);
+            // O ótimo acompanha a instância, para o BatchRunner o encontrar na pasta compilada.
+            Path optFile = textFile.resolveSibling(name + ".opt");
+            if (Files.exists(optFile)) {
+                Files.copy(optFile, binaryFile.resolveSibling(binaryFile.getFileName() + ".opt"),
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Path optimal = root.resolve("optimal.txt");
+        if (Files.exists(optimal)) {
+            Files.copy(optimal, outDir.resolve("optimal.txt"), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
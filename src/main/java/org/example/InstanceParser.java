@@ -0,0 +1,309 @@
+package org.example;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A classe InstanceParser lê os ficheiros de instâncias (formato ORLIB cap* e
+ * formato Kcapm*) diretamente ao nível dos bytes, através de um buffer NIO
+ * reutilizado. Os números são convertidos sem criar objetos por token, pelo
+ * que as quebras de linha (por exemplo, as linhas de custos de um cliente que
+ * continuam em várias linhas nos ficheiros Kcapm*) são tratadas como qualquer
+ * outro espaço em branco.
+ */
+public class InstanceParser implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // Potências de 10 representáveis exatamente em double.
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private long bytesRead;
+    private long tokens;
+
+    /**
+     * Construtor da classe
+     *
+     * @param path O caminho do ficheiro a ler.
+     * @throws IOException Se o ficheiro não puder ser aberto.
+     */
+    public InstanceParser(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        this.buffer.flip(); // Começa vazio, o primeiro acesso faz o refill.
+    }
+
+    /**
+     * Lê o ficheiro indicado e preenche os arrays do problema diretamente.
+     *
+     * @param filePath O caminho do ficheiro com os dados do problema.
+     * @param problem  A instância a preencher.
+     * @return As estatísticas da leitura (bytes, tokens e tempo).
+     * @throws IOException Se ocorrer um erro de leitura ou de formato.
+     */
+    public static ParseStats parseInto(String filePath, WarehouseLocationProblem problem) throws IOException {
+        long start = System.nanoTime();
+        try (InstanceParser parser = new InstanceParser(Paths.get(filePath))) {
+            int numWarehouses = parser.nextInt();
+            int numCustomers = parser.nextInt();
+
+            problem.numWarehouses = numWarehouses;
+            problem.numCustomers = numCustomers;
+            problem.capacities = new double[numWarehouses];
+            problem.fixedCosts = new float[numWarehouses];
+            problem.demands = new int[numCustomers];
+            problem.allocationCosts = new float[numWarehouses][numCustomers];
+
+            // Capacidade e custo fixo de cada armazém.
+            for (int i = 0; i < numWarehouses; i++) {
+                problem.capacities[i] = parser.nextDouble();
+                problem.fixedCosts[i] = parser.nextFloat();
+            }
+
+            // Demanda e custos de alocação de cada cliente (a linha pode continuar em várias linhas).
+            float[][] allocationCosts = problem.allocationCosts;
+            for (int j = 0; j < numCustomers; j++) {
+                problem.demands[j] = parser.nextInt();
+                for (int i = 0; i < numWarehouses; i++) {
+                    allocationCosts[i][j] = parser.nextFloat();
+                }
+            }
+
+            return new ParseStats(parser.bytesRead, parser.tokens, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Lê o próximo token como inteiro.
+     *
+     * @return O valor lido.
+     * @throws IOException Se o token não for um inteiro válido.
+     */
+    public int nextInt() throws IOException {
+        int b = skipWhitespace();
+        boolean negative = false;
+        if (b == '-' || b == '+') {
+            negative = b == '-';
+            b = nextByte();
+        }
+        if (b < '0' || b > '9') {
+            throw new IOException("Inteiro esperado na posição " + position());
+        }
+        long value = 0;
+        while (b >= '0' && b <= '9') {
+            value = value * 10 + (b - '0');
+            if (value > (negative ? Integer.MAX_VALUE + 1L : Integer.MAX_VALUE)) {
+                throw new IOException("Inteiro fora do intervalo na posição " + position());
+            }
+            b = nextByte();
+        }
+        if (b == '.') {
+            // Aceita "146." como inteiro, desde que a parte decimal seja nula.
+            b = nextByte();
+            while (b == '0') {
+                b = nextByte();
+            }
+        }
+        endToken(b);
+        return (int) (negative ? -value : value);
+    }
+
+    /**
+     * Lê o próximo token como float.
+     *
+     * @return O valor lido.
+     * @throws IOException Se o token não for um número válido.
+     */
+    public float nextFloat() throws IOException {
+        return (float) nextDouble();
+    }
+
+    /**
+     * Lê o próximo token como double, aceitando sinal, parte decimal e expoente.
+     *
+     * @return O valor lido.
+     * @throws IOException Se o token não for um número válido.
+     */
+    public double nextDouble() throws IOException {
+        int b = skipWhitespace();
+        boolean negative = false;
+        if (b == '-' || b == '+') {
+            negative = b == '-';
+            b = nextByte();
+        }
+
+        long mantissa = 0;
+        int exponent = 0;
+        int digits = 0;
+        boolean seenDigit = false;
+
+        while (b >= '0' && b <= '9') {
+            seenDigit = true;
+            if (digits < 18) {
+                mantissa = mantissa * 10 + (b - '0');
+                if (mantissa != 0) {
+                    digits++;
+                }
+            } else {
+                exponent++; // Dígitos além da precisão do long só mudam a escala.
+            }
+            b = nextByte();
+        }
+        if (b == '.') {
+            b = nextByte();
+            while (b >= '0' && b <= '9') {
+                seenDigit = true;
+                if (digits < 18) {
+                    mantissa = mantissa * 10 + (b - '0');
+                    if (mantissa != 0) {
+                        digits++;
+                    }
+                    exponent--;
+                }
+                b = nextByte();
+            }
+        }
+        if (!seenDigit) {
+            throw new IOException("Número esperado na posição " + position());
+        }
+        if (b == 'e' || b == 'E') {
+            b = nextByte();
+            boolean negativeExponent = false;
+            if (b == '-' || b == '+') {
+                negativeExponent = b == '-';
+                b = nextByte();
+            }
+            int explicitExponent = 0;
+            while (b >= '0' && b <= '9') {
+                explicitExponent = Math.min(explicitExponent * 10 + (b - '0'), 10_000);
+                b = nextByte();
+            }
+            exponent += negativeExponent ? -explicitExponent : explicitExponent;
+        }
+        endToken(b);
+
+        double value;
+        if (exponent == 0) {
+            value = mantissa;
+        } else if (exponent > 0 && exponent < POWERS_OF_TEN.length) {
+            value = mantissa * POWERS_OF_TEN[exponent];
+        } else if (exponent < 0 && -exponent < POWERS_OF_TEN.length) {
+            value = mantissa / POWERS_OF_TEN[-exponent];
+        } else {
+            value = mantissa * Math.pow(10, exponent);
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Retorna o número de bytes consumidos até ao momento.
+     *
+     * @return O número de bytes lidos.
+     */
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    /**
+     * Retorna o número de tokens lidos até ao momento.
+     *
+     * @return O número de tokens.
+     */
+    public long getTokens() {
+        return tokens;
+    }
+
+    /**
+     * Fecha o canal do ficheiro.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void endToken(int b) throws IOException {
+        if (b != -1 && !isWhitespace(b)) {
+            throw new IOException("Carácter inesperado '" + (char) b + "' na posição " + position());
+        }
+        tokens++;
+    }
+
+    private int skipWhitespace() throws IOException {
+        int b = nextByte();
+        while (b != -1 && isWhitespace(b)) {
+            b = nextByte();
+        }
+        if (b == -1) {
+            throw new EOFException("Fim do ficheiro inesperado após " + tokens + " tokens");
+        }
+        return b;
+    }
+
+    private static boolean isWhitespace(int b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t' || b == '\f';
+    }
+
+    private int nextByte() throws IOException {
+        if (!buffer.hasRemaining() && !refill()) {
+            return -1;
+        }
+        bytesRead++;
+        return buffer.get() & 0xFF;
+    }
+
+    private boolean refill() throws IOException {
+        buffer.clear();
+        int n = channel.read(buffer);
+        buffer.flip();
+        return n > 0;
+    }
+
+    private long position() {
+        return bytesRead;
+    }
+
+    /**
+     * Estatísticas de uma leitura: bytes lidos, tokens convertidos e tempo gasto.
+     */
+    public static class ParseStats {
+        public final long bytes;
+        public final long tokens;
+        public final long nanos;
+
+        ParseStats(long bytes, long tokens, long nanos) {
+            this.bytes = bytes;
+            this.tokens = tokens;
+            this.nanos = nanos;
+        }
+
+        /**
+         * @return O débito da leitura em MB/s.
+         */
+        public double megabytesPerSecond() {
+            return nanos == 0 ? 0.0 : (bytes / 1e6) / (nanos / 1e9);
+        }
+
+        /**
+         * @return O débito da leitura em milhões de tokens por segundo.
+         */
+        public double tokensPerSecond() {
+            return nanos == 0 ? 0.0 : tokens / (nanos / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d bytes, %d tokens em %.2f ms (%.1f MB/s, %.2f Mtokens/s)",
+                    bytes, tokens, nanos / 1e6, megabytesPerSecond(), tokensPerSecond() / 1e6);
+        }
+    }
+}
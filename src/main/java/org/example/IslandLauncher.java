@@ -0,0 +1,380 @@
+package org.example;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A classe IslandLauncher lança o modelo de ilhas numa só máquina: um processo
+ * JVM por {@link IslandNode}, com o mesmo classpath, que comunicam por sockets
+ * em loopback. Os algoritmos são distribuídos pelas ilhas de forma circular.
+ *
+ * <p>Lê a saída das ilhas: a primeira linha {@code TARGET} dá o tempo até ao
+ * alvo do conjunto, e nesse momento as restantes ilhas são terminadas. Com
+ * {@code --compare=R} corre R vezes as mesmas ilhas sem migração
+ * ({@link IslandNode.Topology#NONE}, execuções independentes) e com a
+ * topologia escolhida, e compara os tempos até ao alvo.
+ */
+public class IslandLauncher {
+
+    private final Path instance;
+    private int islands = 4;
+    private List<PortfolioRunner.Strategy> strategies = Arrays.asList(PortfolioRunner.Strategy.TABU_SEARCH,
+            PortfolioRunner.Strategy.LOCAL_SEARCH, PortfolioRunner.Strategy.FILTER_AND_FAN);
+    private IslandNode.Topology topology = IslandNode.Topology.RING;
+    private long migrationIntervalMillis = 500;
+    private long timeBudgetMillis = 10_000;
+    private long baseSeed = 42;
+    private int basePort = 47100;
+    private int perturbation = 3;
+    private double target = Double.NEGATIVE_INFINITY;
+    private boolean verbose;
+
+    /**
+     * Construtor da classe
+     *
+     * @param instance O ficheiro da instância, lido por cada ilha.
+     */
+    public IslandLauncher(Path instance) {
+        this.instance = instance;
+    }
+
+    public void setIslands(int islands) {
+        this.islands = Math.max(1, islands);
+    }
+
+    public void setStrategies(List<PortfolioRunner.Strategy> strategies) {
+        this.strategies = new ArrayList<>(strategies);
+    }
+
+    public void setTopology(IslandNode.Topology topology) {
+        this.topology = topology;
+    }
+
+    public void setMigrationIntervalMillis(long migrationIntervalMillis) {
+        this.migrationIntervalMillis = migrationIntervalMillis;
+    }
+
+    public void setTimeBudgetMillis(long timeBudgetMillis) {
+        this.timeBudgetMillis = timeBudgetMillis;
+    }
+
+    public void setBaseSeed(long baseSeed) {
+        this.baseSeed = baseSeed;
+    }
+
+    public void setBasePort(int basePort) {
+        this.basePort = basePort;
+    }
+
+    public void setPerturbation(int perturbation) {
+        this.perturbation = perturbation;
+    }
+
+    /**
+     * @param target O custo alvo (por omissão nenhum: as ilhas correm até ao fim do orçamento).
+     */
+    public void setTarget(double target) {
+        this.target = target;
+    }
+
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    /**
+     * Resultado de uma execução do modelo de ilhas.
+     */
+    public static class LaunchResult {
+        public final IslandNode.Topology topology;
+        public final long seed;
+        public final double bestCost;
+        public final long timeToTargetMillis; // -1 se nenhuma ilha atingiu o alvo.
+        public final long elapsedMillis;
+        public final List<String> islandResults; // Linhas RESULT das ilhas que terminaram normalmente.
+
+        LaunchResult(IslandNode.Topology topology, long seed, double bestCost, long timeToTargetMillis,
+                     long elapsedMillis, List<String> islandResults) {
+            this.topology = topology;
+            this.seed = seed;
+            this.bestCost = bestCost;
+            this.timeToTargetMillis = timeToTargetMillis;
+            this.elapsedMillis = elapsedMillis;
+            this.islandResults = islandResults;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%-8s seed=%d best=%.3f ttt=%s elapsed=%d ms", topology, seed, bestCost,
+                    timeToTargetMillis < 0 ? "-" : timeToTargetMillis + " ms", elapsedMillis);
+        }
+    }
+
+    /**
+     * Lança as ilhas e espera até uma atingir o alvo ou todas terminarem.
+     *
+     * @param topology A topologia de migração.
+     * @param seed     A semente da ilha 0 (a ilha k usa {@code seed + 1000·k}).
+     * @return O resultado da execução.
+     * @throws IOException          Se não for possível lançar os processos.
+     * @throws InterruptedException Se a thread for interrompida enquanto espera.
+     */
+    public LaunchResult launch(IslandNode.Topology topology, long seed) throws IOException, InterruptedException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        String classPath = System.getProperty("java.class.path");
+        long start = System.currentTimeMillis();
+        BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+        List<Process> processes = new ArrayList<>();
+        try {
+            for (int k = 0; k < islands; k++) {
+                List<String> command = new ArrayList<>(Arrays.asList(java, "-cp", classPath,
+                        IslandNode.class.getName(), instance.toString(),
+                        "--island=" + k,
+                        "--islands=" + islands,
+                        "--strategy=" + strategies.get(k % strategies.size()),
+                        "--topology=" + topology,
+                        "--interval=" + migrationIntervalMillis,
+                        "--time-limit=" + timeBudgetMillis,
+                        "--port=" + basePort,
+                        "--seed=" + (seed + 1000L * k),
+                        "--perturbation=" + perturbation,
+                        "--start=" + start,
+                        "--verbose=" + verbose));
+                if (target > Double.NEGATIVE_INFINITY) {
+                    command.add("--target=" + target);
+                }
+                Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+                processes.add(process);
+                forward(process, k, lines);
+            }
+
+            // Cada processo termina com uma linha "EOF <ilha>" posta pela thread que lê a sua saída.
+            Map<Integer, String> results = new HashMap<>();
+            double bestCost = Double.POSITIVE_INFINITY;
+            long timeToTarget = -1;
+            int finished = 0;
+            long wait = timeBudgetMillis + 30_000; // Margem para o arranque e a escrita dos resultados.
+            while (finished < islands) {
+                String line = lines.poll(wait, TimeUnit.MILLISECONDS);
+                if (line == null) {
+                    break;
+                }
+                String[] tokens = line.split(" ");
+                if (line.startsWith("EOF ")) {
+                    finished++;
+                } else if (line.startsWith("TARGET ") && timeToTarget < 0) {
+                    timeToTarget = Long.parseLong(tokens[2]);
+                    int winner = Integer.parseInt(tokens[1]);
+                    for (int k = 0; k < processes.size(); k++) {
+                        if (k != winner) {
+                            processes.get(k).destroy(); // A ilha que atingiu o alvo termina e escreve o resultado.
+                        }
+                    }
+                } else if (line.startsWith("RESULT ")) {
+                    Map<String, String> fields = fields(tokens);
+                    results.put(Integer.parseInt(fields.get("island")), line);
+                    bestCost = Math.min(bestCost, Double.parseDouble(fields.get("cost")));
+                } else if (verbose) {
+                    System.out.println(line);
+                }
+            }
+            List<String> ordered = new ArrayList<>();
+            for (int k = 0; k < islands; k++) {
+                if (results.containsKey(k)) {
+                    ordered.add(results.get(k));
+                }
+            }
+            return new LaunchResult(topology, seed, bestCost, timeToTarget, System.currentTimeMillis() - start,
+                    ordered);
+        } finally {
+            for (Process process : processes) {
+                process.destroyForcibly();
+                process.waitFor();
+            }
+        }
+    }
+
+    /**
+     * Lê a saída de uma ilha numa thread própria e passa as linhas à fila.
+     */
+    private static void forward(Process process, int island, BlockingQueue<String> lines) {
+        Thread reader = new Thread(() -> {
+            try (BufferedReader in = new BufferedReader(new InputStreamReader(process.getInputStream(),
+                    StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    lines.add(line);
+                }
+            } catch (IOException e) {
+                // O processo foi terminado.
+            }
+            lines.add("EOF " + island);
+        }, "island-" + island + "-output");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    private static Map<String, String> fields(String[] tokens) {
+        Map<String, String> fields = new HashMap<>();
+        for (String token : tokens) {
+            int eq = token.indexOf('=');
+            if (eq > 0) {
+                fields.put(token.substring(0, eq), token.substring(eq + 1));
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * Compara, com as mesmas sementes, as ilhas sem migração e com a topologia
+     * escolhida.
+     *
+     * @param repetitions O número de execuções de cada modo.
+     * @return Os resultados, alternando execuções independentes e com migração.
+     * @throws IOException          Se não for possível lançar os processos.
+     * @throws InterruptedException Se a thread for interrompida enquanto espera.
+     */
+    public List<LaunchResult> compare(int repetitions) throws IOException, InterruptedException {
+        List<LaunchResult> results = new ArrayList<>();
+        for (int r = 0; r < repetitions; r++) {
+            long seed = baseSeed + r;
+            for (IslandNode.Topology mode : new IslandNode.Topology[] {IslandNode.Topology.NONE, topology}) {
+                LaunchResult result = launch(mode, seed);
+                System.out.println(result);
+                results.add(result);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Resume os tempos até ao alvo de uma topologia: execuções que o atingiram,
+     * média e mediana (as que falharam contam com o orçamento inteiro).
+     */
+    private String summary(List<LaunchResult> results, IslandNode.Topology mode) {
+        List<Long> times = new ArrayList<>();
+        int hits = 0;
+        double sumCost = 0.0;
+        for (LaunchResult result : results) {
+            if (result.topology != mode) {
+                continue;
+            }
+            if (result.timeToTargetMillis >= 0) {
+                hits++;
+            }
+            times.add(result.timeToTargetMillis >= 0 ? result.timeToTargetMillis : timeBudgetMillis);
+            sumCost += result.bestCost;
+        }
+        if (times.isEmpty()) {
+            return mode + ": sem execuções";
+        }
+        times.sort(null);
+        double mean = times.stream().mapToLong(Long::longValue).average().orElse(Double.NaN);
+        return String.format(Locale.ROOT, "%-8s hits=%d/%d ttt mean=%.0f ms median=%d ms mean cost=%.3f", mode, hits,
+                times.size(), mean, times.get(times.size() / 2), sumCost / times.size());
+    }
+
+    /**
+     * Procura o ótimo conhecido da instância na sua pasta e, se não estiver lá,
+     * na pasta das instâncias do projeto (ver {@link BatchRunner#discover(Path)}).
+     *
+     * @return O ótimo, ou NaN se não for conhecido.
+     */
+    static double knownOptimum(Path instance) throws IOException {
+        Path file = instance.toAbsolutePath().normalize();
+        Path root = Paths.get(BatchRunner.DEFAULT_ROOT).toAbsolutePath();
+        for (Path folder : new Path[] {file.getParent(), root}) {
+            if (!Files.isDirectory(folder)) {
+                continue;
+            }
+            for (BatchRunner.Instance candidate : BatchRunner.discover(folder)) {
+                if (candidate.path.toAbsolutePath().normalize().equals(file) && !Double.isNaN(candidate.optimum)) {
+                    return candidate.optimum;
+                }
+            }
+        }
+        return Double.NaN;
+    }
+
+    /**
+     * Lança o modelo de ilhas a partir da linha de comandos.
+     * Uso: {@code IslandLauncher <ficheiro> [--islands=N] [--solvers=A,B] [--topology=ring|complete|random|none]
+     * [--interval=ms] [--time-limit=ms] [--seed=s] [--port=p] [--perturbation=k]
+     * [--target=custo | --target-gap=f] [--compare=R] [--verbose=true]}.
+     * Sem {@code --target}, o alvo é o ótimo conhecido vezes {@code 1 + target-gap} (se existir).
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Path instance = Paths.get(args.length > 0 && !args[0].startsWith("--") ? args[0]
+                : "src/main/java/org/example/FicheirosTeste/ORLIB/ORLIB-uncap/a-c/capb.txt");
+        IslandLauncher launcher = new IslandLauncher(instance);
+        double target = Double.NaN;
+        double targetGap = 0.0;
+        int repetitions = 0;
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                continue;
+            }
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Opção sem valor: " + arg);
+            }
+            String key = arg.substring(2, eq);
+            String value = arg.substring(eq + 1);
+            switch (key) {
+                case "islands": launcher.setIslands(Integer.parseInt(value)); break;
+                case "solvers": {
+                    List<PortfolioRunner.Strategy> list = new ArrayList<>();
+                    for (String name : value.split(",")) {
+                        list.add(PortfolioRunner.Strategy.valueOf(name.trim().toUpperCase(Locale.ROOT)));
+                    }
+                    launcher.setStrategies(list);
+                    break;
+                }
+                case "topology": launcher.setTopology(IslandNode.Topology.valueOf(value.toUpperCase(Locale.ROOT))); break;
+                case "interval": launcher.setMigrationIntervalMillis(Long.parseLong(value)); break;
+                case "time-limit": launcher.setTimeBudgetMillis(Long.parseLong(value)); break;
+                case "seed": launcher.setBaseSeed(Long.parseLong(value)); break;
+                case "port": launcher.setBasePort(Integer.parseInt(value)); break;
+                case "perturbation": launcher.setPerturbation(Integer.parseInt(value)); break;
+                case "target": target = Double.parseDouble(value); break;
+                case "target-gap": targetGap = Double.parseDouble(value); break;
+                case "compare": repetitions = Integer.parseInt(value); break;
+                case "verbose": launcher.setVerbose(Boolean.parseBoolean(value)); break;
+                default: throw new IllegalArgumentException("Opção desconhecida: " + arg);
+            }
+        }
+        if (Double.isNaN(target)) {
+            double optimum = knownOptimum(instance);
+            target = Double.isNaN(optimum) ? Double.NEGATIVE_INFINITY : optimum * (1.0 + targetGap)
+                    + Math.abs(optimum) * BatchRunner.OPTIMUM_TOLERANCE;
+        }
+        launcher.setTarget(target);
+        System.out.printf(Locale.ROOT, "%s: %d ilhas, %s, migração a cada %d ms, alvo %.3f%n", instance.getFileName(),
+                launcher.islands, launcher.topology, launcher.migrationIntervalMillis, target);
+
+        if (repetitions > 0) {
+            List<LaunchResult> results = launcher.compare(repetitions);
+            System.out.println(launcher.summary(results, IslandNode.Topology.NONE));
+            System.out.println(launcher.summary(results, launcher.topology));
+        } else {
+            LaunchResult result = launcher.launch(launcher.topology, launcher.baseSeed);
+            for (String line : result.islandResults) {
+                System.out.println(line);
+            }
+            System.out.println(result);
+        }
+    }
+}
@@ -0,0 +1,499 @@
+package org.example;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A classe IslandNode é uma ilha do modelo de ilhas: um processo que corre um
+ * algoritmo ({@link PortfolioRunner.Strategy}) em épocas de duração fixa e
+ * troca a sua solução de elite com as ilhas vizinhas por sockets TCP em
+ * loopback, no formato do {@link MigrationProtocol}. A ilha {@code k} escuta
+ * na porta {@code basePort + k}.
+ *
+ * <p>No fim de cada época a ilha envia a sua elite aos vizinhos da topologia.
+ * As soluções recebidas ficam numa caixa de correio (só a melhor é guardada);
+ * uma migrante melhor do que a elite local termina a época corrente e passa a
+ * ser a elite. Cada época recomeça da elite com alguns armazéns invertidos
+ * ({@link ConstructionHeuristic#seeded(boolean[], int)}), pelo que com a
+ * topologia {@link Topology#NONE} a ilha é uma execução independente com o
+ * mesmo esquema de épocas, o que permite comparar as duas situações.
+ *
+ * <p>A ilha pára no fim do orçamento de tempo ou quando atinge o custo alvo.
+ * Os tempos são medidos a partir de um instante comum ({@code --start}, em
+ * milissegundos do relógio do sistema), definido pelo {@link IslandLauncher}.
+ */
+public class IslandNode {
+
+    private static final double EPSILON = 1e-9;
+    private static final int CONNECT_TIMEOUT_MILLIS = 200;
+
+    /**
+     * Topologias de migração.
+     */
+    public enum Topology {
+        NONE, RING, COMPLETE, RANDOM;
+
+        /**
+         * @param island  A ilha de origem.
+         * @param islands O número de ilhas.
+         * @param random  O gerador usado pela topologia RANDOM.
+         * @return As ilhas para onde a ilha envia a sua elite nesta época.
+         */
+        public int[] targets(int island, int islands, Random random) {
+            if (islands < 2) {
+                return new int[0];
+            }
+            switch (this) {
+                case NONE:
+                    return new int[0];
+                case RING:
+                    return new int[] {(island + 1) % islands};
+                case COMPLETE: {
+                    int[] all = new int[islands - 1];
+                    for (int k = 0, i = 0; k < islands; k++) {
+                        if (k != island) {
+                            all[i++] = k;
+                        }
+                    }
+                    return all;
+                }
+                case RANDOM: {
+                    int target = random.nextInt(islands - 1);
+                    return new int[] {target >= island ? target + 1 : target};
+                }
+                default:
+                    throw new IllegalArgumentException("Topologia desconhecida: " + this);
+            }
+        }
+    }
+
+    private final WarehouseLocationProblem problem;
+    private final int island;
+    private final int islands;
+    private PortfolioRunner.Strategy strategy = PortfolioRunner.Strategy.TABU_SEARCH;
+    private Topology topology = Topology.RING;
+    private int basePort = 47100;
+    private long migrationIntervalMillis = 500;
+    private long timeBudgetMillis = 10_000;
+    private long seed = 42;
+    private int perturbation = 3; // Armazéns invertidos ao recomeçar da elite.
+    private double target = Double.NEGATIVE_INFINITY;
+    private long startMillis = System.currentTimeMillis();
+    private boolean verbose;
+
+    private final AtomicReference<MigrationProtocol.Migrant> inbox = new AtomicReference<>();
+    private final AtomicInteger received = new AtomicInteger();
+    private volatile boolean running;
+
+    private boolean[] eliteOpen;
+    private double eliteCost = Double.POSITIVE_INFINITY;
+    private long timeToTargetMillis = -1;
+
+    /**
+     * Construtor da classe
+     *
+     * @param problem A instância do problema (a mesma em todas as ilhas).
+     * @param island  O número desta ilha, em [0, islands).
+     * @param islands O número de ilhas.
+     */
+    public IslandNode(WarehouseLocationProblem problem, int island, int islands) {
+        if (island < 0 || island >= islands) {
+            throw new IllegalArgumentException("Ilha " + island + " fora de [0, " + islands + ")");
+        }
+        this.problem = problem;
+        this.island = island;
+        this.islands = islands;
+    }
+
+    public void setStrategy(PortfolioRunner.Strategy strategy) {
+        this.strategy = strategy;
+    }
+
+    public void setTopology(Topology topology) {
+        this.topology = topology;
+    }
+
+    /**
+     * @param basePort A porta da ilha 0 (a ilha k usa {@code basePort + k}).
+     */
+    public void setBasePort(int basePort) {
+        this.basePort = basePort;
+    }
+
+    /**
+     * @param migrationIntervalMillis A duração de cada época, entre migrações.
+     */
+    public void setMigrationIntervalMillis(long migrationIntervalMillis) {
+        this.migrationIntervalMillis = Math.max(1, migrationIntervalMillis);
+    }
+
+    /**
+     * @param timeBudgetMillis O orçamento de tempo, contado a partir do instante comum.
+     */
+    public void setTimeBudgetMillis(long timeBudgetMillis) {
+        this.timeBudgetMillis = timeBudgetMillis;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * @param perturbation O número de armazéns invertidos ao recomeçar da elite.
+     */
+    public void setPerturbation(int perturbation) {
+        this.perturbation = perturbation;
+    }
+
+    /**
+     * @param target O custo a partir do qual a ilha pára (por exemplo, o ótimo conhecido).
+     */
+    public void setTarget(double target) {
+        this.target = target;
+    }
+
+    /**
+     * @param startMillis O instante comum de início ({@link System#currentTimeMillis()}).
+     */
+    public void setStartMillis(long startMillis) {
+        this.startMillis = startMillis;
+    }
+
+    /**
+     * @param verbose Escreve uma linha por época na saída de erro.
+     */
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    /**
+     * Resultado de uma ilha.
+     */
+    public static class IslandResult {
+        public final int island;
+        public final PortfolioRunner.Strategy strategy;
+        public final double cost;
+        private final boolean[] open;
+        public final int epochs;
+        public final int sent;
+        public final int received;
+        public final int accepted; // Migrantes que passaram a ser a elite.
+        public final long timeToTargetMillis; // -1 se o alvo não foi atingido.
+        public final long elapsedMillis;
+
+        IslandResult(int island, PortfolioRunner.Strategy strategy, double cost, boolean[] open, int epochs, int sent,
+                     int received, int accepted, long timeToTargetMillis, long elapsedMillis) {
+            this.island = island;
+            this.strategy = strategy;
+            this.cost = cost;
+            this.open = open;
+            this.epochs = epochs;
+            this.sent = sent;
+            this.received = received;
+            this.accepted = accepted;
+            this.timeToTargetMillis = timeToTargetMillis;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        /**
+         * @return Uma cópia dos armazéns abertos da elite (null se não houver).
+         */
+        public boolean[] getOpen() {
+            return open == null ? null : open.clone();
+        }
+
+        /**
+         * Linha lida pelo {@link IslandLauncher}: {@code RESULT} seguido de pares chave=valor.
+         */
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "RESULT island=%d strategy=%s cost=%.3f epochs=%d sent=%d received=%d "
+                            + "accepted=%d ttt=%d elapsed=%d",
+                    island, strategy, cost, epochs, sent, received, accepted, timeToTargetMillis, elapsedMillis);
+        }
+    }
+
+    /**
+     * Controlo de uma época: pára no fim do orçamento, ao atingir o alvo ou
+     * quando chega uma migrante melhor do que a elite.
+     */
+    private class EpochControl extends SearchControl {
+        private final long deadline;
+
+        EpochControl(long deadline) {
+            this.deadline = deadline;
+        }
+
+        @Override
+        public boolean shouldStop() {
+            if (isCancelled() || timeToTargetMillis >= 0 || System.nanoTime() - deadline >= 0) {
+                return true;
+            }
+            MigrationProtocol.Migrant migrant = inbox.get();
+            return migrant != null && migrant.cost < eliteCost - EPSILON;
+        }
+
+        @Override
+        public void improved(double cost, int[] assignment) {
+            checkTarget(cost);
+        }
+    }
+
+    /**
+     * Executa a ilha até ao fim do orçamento ou até atingir o alvo.
+     *
+     * @return A elite da ilha e as estatísticas da migração.
+     * @throws IOException Se não for possível escutar na porta da ilha.
+     */
+    public IslandResult run() throws IOException {
+        long deadline = System.nanoTime() + (startMillis + timeBudgetMillis - System.currentTimeMillis()) * 1_000_000L;
+        EpochControl control = new EpochControl(deadline);
+        Solver solver = strategy.create(problem);
+        solver.setSearchControl(control);
+        FacilityState state = new FacilityState(problem);
+        Random random = new Random(seed);
+        DataOutputStream[] links = new DataOutputStream[islands];
+        Socket[] sockets = new Socket[islands];
+        int epochs = 0;
+        int sent = 0;
+        int accepted = 0;
+
+        running = true;
+        ServerSocket server = topology == Topology.NONE ? null : listen();
+        try {
+            while (true) {
+                MigrationProtocol.Migrant migrant = inbox.getAndSet(null);
+                if (migrant != null && migrant.cost < eliteCost - EPSILON && adopt(state, migrant.getOpen())) {
+                    accepted++;
+                }
+                if (timeToTargetMillis >= 0 || System.nanoTime() - deadline >= 0) {
+                    break;
+                }
+
+                long remaining = (deadline - System.nanoTime()) / 1_000_000L;
+                solver.setConstruction(eliteOpen == null ? null : ConstructionHeuristic.seeded(eliteOpen, perturbation));
+                solver.setSeed(seed + epochs);
+                SolverResult result = solver.solve(Budget.ofMillis(Math.max(1, Math.min(migrationIntervalMillis,
+                        remaining))), null, null);
+                epochs++;
+                if (result.getAssignment() != null && result.getCost() < eliteCost - EPSILON) {
+                    boolean[] open = new boolean[problem.numWarehouses];
+                    for (int warehouse : result.getAssignment()) {
+                        open[warehouse] = true;
+                    }
+                    adopt(state, open);
+                }
+
+                if (eliteOpen != null) {
+                    MigrationProtocol.Migrant elite = new MigrationProtocol.Migrant(island, epochs, eliteCost,
+                            problem.numCustomers, eliteOpen);
+                    for (int k : topology.targets(island, islands, random)) {
+                        if (send(k, elite, links, sockets)) {
+                            sent++;
+                        }
+                    }
+                }
+                if (verbose) {
+                    System.err.printf(Locale.ROOT, "[ilha %d] época %d: %.3f (%s)%n", island, epochs, eliteCost,
+                            result.getStopReason());
+                }
+            }
+        } finally {
+            running = false;
+            for (Socket socket : sockets) {
+                closeQuietly(socket);
+            }
+            if (server != null) {
+                server.close();
+            }
+        }
+        return new IslandResult(island, strategy, eliteCost, eliteOpen == null ? null : eliteOpen.clone(), epochs,
+                sent, received.get(), accepted, timeToTargetMillis, elapsedMillis());
+    }
+
+    /**
+     * Avalia um conjunto e passa-o a elite se for melhor (o custo anunciado por
+     * uma migrante é recalculado localmente).
+     */
+    private boolean adopt(FacilityState state, boolean[] open) {
+        state.reset(open);
+        if (state.getCost() >= eliteCost - EPSILON) {
+            return false;
+        }
+        eliteOpen = open;
+        eliteCost = state.getCost();
+        checkTarget(eliteCost);
+        return true;
+    }
+
+    /**
+     * Regista (e anuncia ao {@link IslandLauncher}) o primeiro custo que atinge o alvo.
+     */
+    private void checkTarget(double cost) {
+        if (timeToTargetMillis < 0 && cost <= target) {
+            timeToTargetMillis = elapsedMillis();
+            System.out.println("TARGET " + island + " " + timeToTargetMillis);
+            System.out.flush();
+        }
+    }
+
+    /**
+     * Abre a porta da ilha e lança a thread que aceita as ligações dos vizinhos.
+     */
+    private ServerSocket listen() throws IOException {
+        ServerSocket server = new ServerSocket();
+        server.setReuseAddress(true);
+        server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), basePort + island), islands);
+        Thread acceptor = new Thread(() -> {
+            while (running) {
+                try {
+                    Socket socket = server.accept();
+                    Thread reader = new Thread(() -> receive(socket), "island-" + island + "-reader");
+                    reader.setDaemon(true);
+                    reader.start();
+                } catch (IOException e) {
+                    return; // Porta fechada no fim da execução.
+                }
+            }
+        }, "island-" + island + "-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        return server;
+    }
+
+    /**
+     * Lê as mensagens de um vizinho até a ligação terminar, guardando na caixa
+     * de correio a melhor migrante.
+     */
+    private void receive(Socket socket) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()))) {
+            while (running) {
+                MigrationProtocol.Migrant migrant = MigrationProtocol.read(in);
+                if (migrant.numWarehouses() != problem.numWarehouses || migrant.numCustomers != problem.numCustomers) {
+                    System.err.println("[ilha " + island + "] migrante de outra instância ignorada: " + migrant);
+                    continue;
+                }
+                received.incrementAndGet();
+                MigrationProtocol.Migrant current = inbox.get();
+                while ((current == null || migrant.cost < current.cost) && !inbox.compareAndSet(current, migrant)) {
+                    current = inbox.get();
+                }
+            }
+        } catch (EOFException e) {
+            // O vizinho terminou.
+        } catch (IOException e) {
+            if (running) {
+                System.err.println("[ilha " + island + "] ligação perdida: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Envia a elite a uma ilha, ligando-se a ela se ainda não houver ligação. Se
+     * a ilha ainda não estiver a escutar (ou já tiver terminado), a mensagem é
+     * descartada e a ligação é tentada de novo na época seguinte.
+     *
+     * @return Verdadeiro se a mensagem foi enviada.
+     */
+    private boolean send(int target, MigrationProtocol.Migrant migrant, DataOutputStream[] links, Socket[] sockets) {
+        try {
+            if (links[target] == null) {
+                Socket socket = new Socket();
+                socket.setTcpNoDelay(true);
+                socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), basePort + target),
+                        CONNECT_TIMEOUT_MILLIS);
+                sockets[target] = socket;
+                links[target] = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            }
+            MigrationProtocol.write(links[target], migrant);
+            links[target].flush();
+            return true;
+        } catch (IOException e) {
+            closeQuietly(sockets[target]);
+            sockets[target] = null;
+            links[target] = null;
+            return false;
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Já fechado.
+            }
+        }
+    }
+
+    private long elapsedMillis() {
+        return System.currentTimeMillis() - startMillis;
+    }
+
+    /**
+     * Executa uma ilha. Normalmente lançada pelo {@link IslandLauncher}.
+     * Uso: {@code IslandNode <ficheiro.txt|ficheiro.uflb> --island=k --islands=N [--strategy=TABU_SEARCH] [--topology=ring]
+     * [--interval=ms] [--time-limit=ms] [--port=p] [--seed=s] [--perturbation=k] [--target=custo]
+     * [--start=ms] [--verbose=true]}.
+     * Escreve {@code TARGET <ilha> <ms>} quando atinge o alvo e uma linha {@code RESULT} no fim.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            throw new IllegalArgumentException("Falta o ficheiro da instância");
+        }
+        int island = 0;
+        int islands = 1;
+        String[] options = new String[args.length - 1];
+        System.arraycopy(args, 1, options, 0, options.length);
+        for (String arg : options) {
+            if (arg.startsWith("--island=")) {
+                island = Integer.parseInt(arg.substring("--island=".length()));
+            } else if (arg.startsWith("--islands=")) {
+                islands = Integer.parseInt(arg.substring("--islands=".length()));
+            }
+        }
+
+        // Uma instância compilada é mapeada: as ilhas da mesma máquina partilham a page cache.
+        WarehouseLocationProblem problem = args[0].endsWith(InstanceCompiler.EXTENSION)
+                ? MappedInstance.load(Paths.get(args[0])) : new WarehouseLocationProblem(args[0]);
+        IslandNode node = new IslandNode(problem, island, islands);
+        for (String arg : options) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("Opção inválida: " + arg);
+            }
+            String key = arg.substring(2, eq);
+            String value = arg.substring(eq + 1);
+            switch (key) {
+                case "island":
+                case "islands":
+                    break;
+                case "strategy": node.setStrategy(PortfolioRunner.Strategy.valueOf(value.toUpperCase(Locale.ROOT))); break;
+                case "topology": node.setTopology(Topology.valueOf(value.toUpperCase(Locale.ROOT))); break;
+                case "interval": node.setMigrationIntervalMillis(Long.parseLong(value)); break;
+                case "time-limit": node.setTimeBudgetMillis(Long.parseLong(value)); break;
+                case "port": node.setBasePort(Integer.parseInt(value)); break;
+                case "seed": node.setSeed(Long.parseLong(value)); break;
+                case "perturbation": node.setPerturbation(Integer.parseInt(value)); break;
+                case "target": node.setTarget(Double.parseDouble(value)); break;
+                case "start": node.setStartMillis(Long.parseLong(value)); break;
+                case "verbose": node.setVerbose(Boolean.parseBoolean(value)); break;
+                default: throw new IllegalArgumentException("Opção desconhecida: " + arg);
+            }
+        }
+        System.out.println(node.run());
+    }
+}
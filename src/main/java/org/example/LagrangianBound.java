@@ -0,0 +1,325 @@
+package org.example;
+
+/**
+ * A classe LagrangianBound calcula um limite inferior para o custo ótimo do
+ * UFLP, para saber quão longe uma solução pode estar do ótimo e parar as
+ * pesquisas quando essa distância é desprezável.
+ *
+ * <p>Primeiro aplica a subida dual de Erlenkotter, que aumenta os multiplicadores
+ * {@code v[j]} de cada cliente, nível a nível pelos custos ordenados, enquanto
+ * nenhum armazém fica com folga negativa; {@code soma(v)} é já um limite válido.
+ * Depois usa esses valores como ponto de partida da relaxação Lagrangeana das
+ * restrições de atribuição,
+ * {@code L(λ) = soma(λ) + soma_i min(0, f[i] + soma_j min(0, c[i][j] - λ[j]))}
+ * (com pelo menos um armazém aberto), maximizada por otimização por subgradiente.
+ * Cada solução da relaxação dá também um conjunto de armazéns abertos, cujo custo
+ * é um limite superior.
+ */
+public class LagrangianBound {
+
+    private final WarehouseLocationProblem problem;
+    private int maxIterations = 500; // Iterações do subgradiente.
+    private int halvingInterval = 20; // Iterações sem melhoria após as quais o passo é reduzido a metade.
+    private double upperBound = Double.POSITIVE_INFINITY; // Melhor solução conhecida (define o tamanho do passo).
+
+    private double lowerBound = Double.NEGATIVE_INFINITY;
+    private double dualAscentBound = Double.NEGATIVE_INFINITY;
+    private double[] multipliers;
+    private double[] reducedCosts;
+    private double baseBound = Double.NEGATIVE_INFINITY; // L(λ) sem a restrição de um armazém aberto.
+    private boolean[] upperBoundOpen;
+    private int iterations;
+    private long millis;
+
+    /**
+     * Construtor da classe
+     *
+     * @param problem A instância do problema.
+     */
+    public LagrangianBound(WarehouseLocationProblem problem) {
+        this.problem = problem;
+    }
+
+    /**
+     * @param maxIterations O número máximo de iterações do subgradiente (0 para usar só a subida dual).
+     */
+    public void setMaxIterations(int maxIterations) {
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * Indica o custo de uma solução conhecida, que torna os passos do
+     * subgradiente mais precisos.
+     *
+     * @param upperBound O custo de uma solução admissível.
+     */
+    public void setUpperBound(double upperBound) {
+        this.upperBound = upperBound;
+    }
+
+    /**
+     * Calcula o limite inferior.
+     *
+     * @return O melhor limite inferior encontrado.
+     */
+    public double compute() {
+        long start = System.nanoTime();
+        int m = problem.numWarehouses;
+        int n = problem.numCustomers;
+        float[] costs = problem.customerMajorCosts();
+
+        double[] lambda = dualAscent(costs);
+        dualAscentBound = 0.0;
+        for (double v : lambda) {
+            dualAscentBound += v;
+        }
+        lowerBound = dualAscentBound;
+        multipliers = lambda.clone();
+
+        double[] rho = new double[m];
+        reducedCosts = new double[m];
+        boolean[] open = new boolean[m];
+        int[] openList = new int[m];
+        double[] g = new double[n];
+        double theta = 2.0;
+        int sinceImprovement = 0;
+        iterations = 0;
+
+        // A primeira avaliação (também com 0 iterações) preenche os custos reduzidos e o limite superior.
+        for (int iteration = 0; iteration <= maxIterations; iteration++) {
+            iterations = iteration;
+
+            // Custo reduzido de cada armazém: f[i] + soma_j min(0, c[i][j] - λ[j]).
+            for (int i = 0; i < m; i++) {
+                rho[i] = problem.fixedCosts[i];
+            }
+            double value = 0.0;
+            for (int j = 0; j < n; j++) {
+                double lj = lambda[j];
+                value += lj;
+                int base = j * m;
+                for (int i = 0; i < m; i++) {
+                    double d = costs[base + i] - lj;
+                    if (d < 0) {
+                        rho[i] += d;
+                    }
+                }
+            }
+
+            // Abre os armazéns com custo reduzido negativo (ou o menos positivo, se não houver nenhum).
+            int openCount = 0;
+            int cheapest = 0;
+            for (int i = 0; i < m; i++) {
+                open[i] = rho[i] < 0;
+                if (open[i]) {
+                    value += rho[i];
+                    openList[openCount++] = i;
+                }
+                if (rho[i] < rho[cheapest]) {
+                    cheapest = i;
+                }
+            }
+            double unforced = value; // Antes de forçar a abertura do armazém mais barato.
+            if (openCount == 0) {
+                open[cheapest] = true;
+                value += rho[cheapest];
+                openList[openCount++] = cheapest;
+            }
+
+            if (iteration == 0 || value > lowerBound) {
+                if (value > lowerBound) {
+                    lowerBound = value;
+                    System.arraycopy(lambda, 0, multipliers, 0, n);
+                    sinceImprovement = 0;
+                }
+                System.arraycopy(rho, 0, reducedCosts, 0, m);
+                baseBound = unforced;
+            } else if (++sinceImprovement >= halvingInterval) {
+                theta /= 2;
+                sinceImprovement = 0;
+            }
+
+            // Limite superior: os armazéns abertos pela relaxação, cada cliente no mais barato.
+            double primal = 0.0;
+            for (int k = 0; k < openCount; k++) {
+                primal += problem.fixedCosts[openList[k]];
+            }
+            for (int j = 0; j < n; j++) {
+                int base = j * m;
+                float best = Float.POSITIVE_INFINITY;
+                for (int k = 0; k < openCount; k++) {
+                    best = Math.min(best, costs[base + openList[k]]);
+                }
+                primal += best;
+            }
+            if (primal < upperBound) {
+                upperBound = primal;
+                upperBoundOpen = open.clone();
+            }
+
+            if (iteration == maxIterations || gap(upperBound, lowerBound) <= 1e-12 || theta < 1e-6) {
+                break;
+            }
+
+            // Subgradiente: g[j] = 1 - número de armazéns abertos onde c[i][j] < λ[j].
+            double norm = 0.0;
+            for (int j = 0; j < n; j++) {
+                int base = j * m;
+                int count = 0;
+                for (int k = 0; k < openCount; k++) {
+                    if (costs[base + openList[k]] < lambda[j]) {
+                        count++;
+                    }
+                }
+                g[j] = 1 - count;
+                norm += g[j] * g[j];
+            }
+            if (norm == 0) {
+                break; // A solução da relaxação é admissível: o limite é ótimo.
+            }
+            double step = theta * (upperBound - value) / norm;
+            for (int j = 0; j < n; j++) {
+                lambda[j] += step * g[j];
+            }
+        }
+
+        millis = (System.nanoTime() - start) / 1_000_000;
+        return lowerBound;
+    }
+
+    /**
+     * Subida dual de Erlenkotter: cada cliente sobe {@code v[j]} até ao custo
+     * seguinte na sua lista ordenada, limitado pela menor folga dos armazéns com
+     * custo não superior a {@code v[j]}, até nenhum cliente poder subir.
+     */
+    private double[] dualAscent(float[] costs) {
+        int m = problem.numWarehouses;
+        int n = problem.numCustomers;
+        PreprocessedProblem sorted = PreprocessedProblem.of(problem, m);
+        double[] slack = new double[m];
+        for (int i = 0; i < m; i++) {
+            slack[i] = problem.fixedCosts[i];
+        }
+        double[] v = new double[n];
+        int[] level = new int[n]; // Número de armazéns com custo <= v[j] (prefixo da lista ordenada).
+        for (int j = 0; j < n; j++) {
+            v[j] = costs[j * m + sorted.candidate(j, 0)];
+            level[j] = advance(sorted, j, 0, v[j]);
+        }
+
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int j = 0; j < n; j++) {
+                double limit = Double.POSITIVE_INFINITY;
+                for (int r = 0; r < level[j]; r++) {
+                    limit = Math.min(limit, slack[sorted.candidate(j, r)]);
+                }
+                if (limit <= 0) {
+                    continue;
+                }
+                double next = level[j] < m ? sorted.cost(j, sorted.candidate(j, level[j])) : Double.POSITIVE_INFINITY;
+                double step = Math.min(limit, next - v[j]);
+                for (int r = 0; r < level[j]; r++) {
+                    slack[sorted.candidate(j, r)] -= step;
+                }
+                v[j] += step;
+                level[j] = advance(sorted, j, level[j], v[j]);
+                changed = true;
+            }
+        }
+        return v;
+    }
+
+    private static int advance(PreprocessedProblem sorted, int customer, int level, double value) {
+        int m = sorted.candidateCount();
+        while (level < m && sorted.cost(customer, sorted.candidate(customer, level)) <= value) {
+            level++;
+        }
+        return level;
+    }
+
+    /**
+     * Distância relativa entre um limite superior e um limite inferior.
+     *
+     * @param upper O custo de uma solução.
+     * @param lower Um limite inferior.
+     * @return {@code (upper - lower) / |upper|}, ou infinito se algum for desconhecido.
+     */
+    public static double gap(double upper, double lower) {
+        if (Double.isInfinite(upper) || Double.isInfinite(lower)) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return (upper - lower) / Math.max(1e-12, Math.abs(upper));
+    }
+
+    /**
+     * @return O melhor limite inferior (depois de {@link #compute()}).
+     */
+    public double getLowerBound() {
+        return lowerBound;
+    }
+
+    /**
+     * @return O limite dado apenas pela subida dual.
+     */
+    public double getDualAscentBound() {
+        return dualAscentBound;
+    }
+
+    /**
+     * @return O custo da melhor solução conhecida (dada ou obtida da relaxação).
+     */
+    public double getUpperBound() {
+        return upperBound;
+    }
+
+    /**
+     * @return Os armazéns abertos da melhor solução obtida da relaxação, ou null
+     * se a solução dada em {@link #setUpperBound(double)} for melhor.
+     */
+    public boolean[] getUpperBoundOpen() {
+        return upperBoundOpen == null ? null : upperBoundOpen.clone();
+    }
+
+    /**
+     * @return Os multiplicadores λ do melhor limite.
+     */
+    public double[] getMultipliers() {
+        return multipliers.clone();
+    }
+
+    /**
+     * @return O custo reduzido de cada armazém com os multiplicadores do melhor limite.
+     */
+    public double[] getReducedCosts() {
+        return reducedCosts.clone();
+    }
+
+    /**
+     * Limite dos mesmos multiplicadores que {@link #getReducedCosts()}, sem a
+     * restrição de pelo menos um armazém aberto:
+     * {@code soma(λ) + soma_i min(0, ρ[i])}. Quando todos os ρ são não
+     * negativos, o limite inferior inclui ainda o ρ do armazém mais barato, que
+     * não pode ser somado outra vez nos testes de custo reduzido.
+     *
+     * @return O limite sem o armazém forçado a abrir.
+     */
+    public double getBaseBound() {
+        return baseBound;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public long getMillis() {
+        return millis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("lower=%.3f (dual ascent %.3f) upper=%.3f gap=%.4f%% iterations=%d time=%d ms",
+                lowerBound, dualAscentBound, upperBound, 100 * gap(upperBound, lowerBound), iterations, millis);
+    }
+}
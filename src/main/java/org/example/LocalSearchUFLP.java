@@ -7,18 +7,32 @@ import java.util.Random;
  * resolver o Problema de Localização de Armazéns Não Capacitados (UFLP). Ela
  * utiliza uma solução inicial aleatória, avalia os custos incrementais das
  * mudanças de atribuição de clientes e busca melhorar a solução iterativamente.
+ *
+ * <p>Os ótimos locais são guardados numa {@link SolutionCache} (pelo hash de
+ * {@link Zobrist} dos armazéns abertos), partilhada pelos recomeços. Um ótimo
+ * local que já tinha sido alcançado indica que a pesquisa voltou a uma região
+ * explorada: recomeça de imediato, sem os varrimentos de estagnação.
  */
-public class LocalSearchUFLP {
+public class LocalSearchUFLP implements Solver {
 
     private WarehouseLocationProblem problem;
-    private int[] assignment;
+    private SolutionState state;
     private double bestCost;
     private int[] bestAssignment;
-    private int[] warehouseUsage;
+    private Random rand;
+    private int candidateListSize = PreprocessedProblem.DEFAULT_CANDIDATES;
+    private long seed = 42;
+    private SearchControl control = new SearchControl();
+    private ConstructionHeuristic construction; // null = solução inicial aleatória.
+    private int cacheCapacity = SolutionCache.DEFAULT_CAPACITY; // 0 = sem cache.
+    private SolutionCache cache; // Ótimos locais já alcançados, partilhada pelos recomeços.
+    private ElitePool elitePool; // null = os ótimos locais não são guardados.
+    private boolean pathRelinking; // Path relinking entre os ótimos locais no fim de solve(Budget).
+    private final SolverMetrics metrics = SolverMetrics.forSolver(getName());
 
     /**
      * Construtor da classe
-     * 
+     *
      * @param problem Uma instância da classe WarehouseLocationProblem, contêm os
      *                dados do problema, como o número de clientes, o número de
      *                armazéns, as demandas, os custos fixos e os custos de
@@ -29,25 +43,115 @@ public class LocalSearchUFLP {
     }
 
     /**
-     * Inicializa uma solução aleatória e configura as variáveis de acompanhamento.
+     * Define quantos armazéns candidatos (os mais baratos) são avaliados por
+     * cliente em cada varrimento.
+     *
+     * @param candidateListSize O tamanho das listas de candidatos, ou
+     *                          {@link PreprocessedProblem#FULL_SCAN} para avaliar
+     *                          todos os armazéns.
      */
-    private void initializeSolution() {
-        assignment = new int[problem.numCustomers];
-        bestAssignment = new int[problem.numCustomers];
-        warehouseUsage = new int[problem.numWarehouses];
+    public void setCandidateListSize(int candidateListSize) {
+        this.candidateListSize = candidateListSize;
+    }
+
+    /**
+     * Define a semente do gerador aleatório (por omissão 42).
+     *
+     * @param seed A semente.
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Define o controlo da execução, consultado em cada iteração e notificado
+     * das novas melhores soluções.
+     *
+     * @param control O controlo da execução.
+     */
+    public void setSearchControl(SearchControl control) {
+        this.control = control;
+    }
+
+    /**
+     * Define a heurística que constrói a solução inicial (por omissão, aleatória).
+     *
+     * @param construction A heurística, ou null para a solução inicial aleatória.
+     */
+    @Override
+    public void setConstruction(ConstructionHeuristic construction) {
+        this.construction = construction;
+    }
+
+    /**
+     * Define o número de entradas da cache de ótimos locais (por omissão
+     * {@link SolutionCache#DEFAULT_CAPACITY}).
+     *
+     * @param cacheCapacity O número de entradas, ou 0 para não usar cache.
+     */
+    public void setCacheCapacity(int cacheCapacity) {
+        this.cacheCapacity = Math.max(0, cacheCapacity);
+        this.cache = null;
+    }
+
+    /**
+     * @return A cache de ótimos locais (com as estatísticas), ou null se não for usada.
+     */
+    public SolutionCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Define o conjunto de elite que recebe os ótimos locais de todos os
+     * recomeços (para o {@link PathRelinking}).
+     *
+     * @param elitePool O conjunto, ou null para não guardar os ótimos locais.
+     */
+    public void setElitePool(ElitePool elitePool) {
+        this.elitePool = elitePool;
+    }
+
+    /**
+     * Faz path relinking no fim de cada chamada a
+     * {@link #solve(Budget, CancellationToken, ImprovementListener)}: os ótimos
+     * locais de todos os recomeços entram no conjunto de elite (o configurado, ou
+     * um novo por chamada) e a melhor solução dos caminhos entre eles entra no
+     * resultado se for melhor.
+     *
+     * @param pathRelinking Verdadeiro para fazer o path relinking.
+     */
+    public void setPathRelinking(boolean pathRelinking) {
+        this.pathRelinking = pathRelinking;
+    }
 
-        Random rand = new Random(42);
+    /**
+     * Inicializa uma solução aleatória no estado incremental.
+     */
+    private void initializeSolution() {
+        int[] assignment = state.getAssignment();
         for (int j = 0; j < problem.numCustomers; j++) {
             assignment[j] = rand.nextInt(problem.numWarehouses);
         }
+        state.recompute();
+    }
 
-        bestCost = calculateCost(assignment);
-        System.arraycopy(assignment, 0, bestAssignment, 0, assignment.length);
+    /**
+     * Inicializa a solução com a heurística de construção, se existir; os
+     * recomeços por estagnação continuam a usar soluções aleatórias.
+     */
+    private void initializeConstructed() {
+        if (construction == null) {
+            initializeSolution();
+            return;
+        }
+        int[] constructed = construction.constructAssignment(problem, rand);
+        System.arraycopy(constructed, 0, state.getAssignment(), 0, problem.numCustomers);
+        state.recompute();
     }
 
     /**
      * Retorna o custo da melhor solução encontrada até o momento.
-     * 
+     *
      * @return O custo da melhor solução.
      */
     public double getBestCost() {
@@ -55,62 +159,59 @@ public class LocalSearchUFLP {
     }
 
     /**
-     * Calcula o custo total de uma determinada solução.
-     * 
-     * @param assignment Um array que representa a atribuição de clientes a
-     *                   armazéns.
-     * @return O custo total da solução.
+     * Retorna uma cópia da melhor atribuição encontrada.
+     *
+     * @return A melhor atribuição de clientes a armazéns.
      */
-    private double calculateCost(int[] assignment) {
-        double totalCost = 0.0;
-
-        // Reset warehouse usage
-        for (int i = 0; i < warehouseUsage.length; i++) {
-            warehouseUsage[i] = 0;
-        }
-
-        for (int j = 0; j < problem.numCustomers; j++) {
-            int warehouse = assignment[j];
-            warehouseUsage[warehouse] += problem.demands[j];
-            totalCost += problem.allocationCosts[warehouse][j];
-        }
+    public int[] getBestAssignment() {
+        return bestAssignment.clone();
+    }
 
-        for (int i = 0; i < problem.numWarehouses; i++) {
-            if (warehouseUsage[i] > 0) {
-                totalCost += problem.fixedCosts[i];
-            }
+    /**
+     * Atualiza a melhor solução se o estado corrente for melhor.
+     */
+    private void updateBest(int iteration) {
+        // O custo incremental acumula erro: recalcula-o antes de o comparar e de o comunicar.
+        if (state.getCost() < bestCost && state.recompute() < bestCost) {
+            metrics.improvement(iteration, state.getCost(), bestCost);
+            bestCost = state.getCost();
+            state.copyAssignmentTo(bestAssignment);
+            control.improved(bestCost, bestAssignment);
         }
+    }
 
-        return totalCost;
+    @Override
+    public String getName() {
+        return "Local Search";
     }
 
     /**
-     * Calcula o custo incremental ao mover um cliente de um armazém para outro.
-     * 
-     * @param customer       O índice do cliente.
-     * @param oldWarehouse   O índice do armazém atual do cliente.
-     * @param newWarehouseO  índice do novo armazém para onde o cliente será
-     *                       movido.
-     * @param warehouseUsage Um array que rastreia o uso atual dos armazéns.
-     * @return O custo incremental da mudança.
+     * Executa a pesquisa local dentro do orçamento. Com um orçamento limitado,
+     * recomeça com a semente seguinte até o esgotar; com
+     * {@link #setPathRelinking(boolean)}, termina com o path relinking, na fração
+     * {@link PathRelinking#BUDGET_SHARE} do orçamento reservada para ele.
+     *
+     * @param budget   O orçamento de tempo e de avaliações.
+     * @param token    O pedido de cancelamento.
+     * @param listener Recebe cada nova melhor solução (pode ser null).
+     * @return A melhor solução de todas as execuções.
      */
-    private double calculateIncrementalCost(int customer, int oldWarehouse, int newWarehouse, int[] warehouseUsage) {
-        double incrementalCost = 0.0;
-        int demand = problem.demands[customer];
-
-        // Remove cost associated with the old warehouse
-        incrementalCost -= problem.allocationCosts[oldWarehouse][customer];
-        if (warehouseUsage[oldWarehouse] == demand) {
-            incrementalCost -= problem.fixedCosts[oldWarehouse];
+    @Override
+    public SolverResult solve(Budget budget, CancellationToken token, ImprovementListener listener) {
+        BudgetControl budgetControl = new BudgetControl(budget, token, listener, control);
+        if (!pathRelinking) {
+            return budgetControl.runRestarts(this, seed, this::solve);
         }
-
-        // Add cost associated with the new warehouse
-        incrementalCost += problem.allocationCosts[newWarehouse][customer];
-        if (warehouseUsage[newWarehouse] == 0) {
-            incrementalCost += problem.fixedCosts[newWarehouse];
+        ElitePool configured = elitePool;
+        ElitePool pool = configured != null ? configured : new ElitePool();
+        elitePool = pool;
+        budgetControl.reserve(PathRelinking.BUDGET_SHARE);
+        try {
+            budgetControl.runRestarts(this, seed, this::solve);
+        } finally {
+            elitePool = configured;
         }
-
-        return incrementalCost;
+        return budgetControl.relink(new PathRelinking(problem), pool, getName());
     }
 
     /**
@@ -118,7 +219,19 @@ public class LocalSearchUFLP {
      * reinicializações para evitar estagnação.
      */
     public void solve() {
-        initializeSolution();
+        PreprocessedProblem view = PreprocessedProblem.of(problem, candidateListSize);
+        int candidates = view.candidateCount();
+        state = new SolutionState(problem);
+        bestAssignment = new int[problem.numCustomers];
+        bestCost = Double.POSITIVE_INFINITY;
+        rand = new Random(seed);
+        if (cache == null && cacheCapacity > 0) {
+            cache = new SolutionCache(cacheCapacity, problem.numWarehouses);
+            metrics.cacheMemory(cache.memoryBytes());
+        }
+        boolean[] open = new boolean[problem.numWarehouses];
+        initializeConstructed();
+        updateBest(0);
 
         int maxIterations = 200;
         int iteration = 0;
@@ -126,43 +239,74 @@ public class LocalSearchUFLP {
         int maxStagnation = 10;
         int maxResets = 3;
         int resetCount = 0;
-        double lastBestCost = bestCost;
 
-        while (iteration < maxIterations && resetCount < maxResets) {
+        while (iteration < maxIterations && resetCount < maxResets && !control.shouldStop()) {
+            SolverEvents.IterationEvent iterationEvent = metrics.beginIteration();
             boolean improved = false;
 
             for (int j = 0; j < problem.numCustomers; j++) {
-                int currentWarehouse = assignment[j];
-                for (int i = 0; i < problem.numWarehouses; i++) {
-                    if (i != currentWarehouse) {
-                        double incrementalCost = calculateIncrementalCost(j, currentWarehouse, i, warehouseUsage);
-                        if (incrementalCost < 0) {
-                            bestCost += incrementalCost;
-                            warehouseUsage[currentWarehouse] -= problem.demands[j];
-                            warehouseUsage[i] += problem.demands[j];
-                            assignment[j] = i;
-                            improved = true;
-                        }
+                // Procura o melhor armazém candidato para o cliente j (variação de custo em O(1)).
+                int bestWarehouse = -1;
+                double bestDelta = 0.0;
+                for (int r = 0; r < candidates; r++) {
+                    int i = view.candidate(j, r);
+                    double delta = state.moveDelta(j, i);
+                    if (delta < bestDelta) {
+                        bestDelta = delta;
+                        bestWarehouse = i;
                     }
                 }
+                if (bestWarehouse >= 0) {
+                    state.applyMove(j, bestWarehouse);
+                    improved = true;
+                }
             }
+            control.evaluated((long) problem.numCustomers * candidates);
 
             if (improved) {
-                lastBestCost = bestCost;
                 stagnationCount = 0;
-                System.arraycopy(assignment, 0, bestAssignment, 0, assignment.length);
+                updateBest(iteration);
             } else {
                 stagnationCount++;
-                if (stagnationCount >= maxStagnation) {
+                if (stagnationCount == 1 && elitePool != null) {
+                    elitePool.offer(state);
+                }
+                boolean revisited = stagnationCount == 1 && cache != null && isKnownOptimum(open);
+                if (revisited || stagnationCount >= maxStagnation) {
+                    SolverEvents.RestartEvent restartEvent = metrics.beginRestart();
+                    long restartStart = System.nanoTime();
+                    double costBefore = state.getCost();
                     initializeSolution();
+                    metrics.endRestart(restartEvent, restartStart, iteration, costBefore, state.getCost());
                     stagnationCount = 0;
                     resetCount++;
                 }
             }
+            metrics.endIteration(iterationEvent, iteration, (long) problem.numCustomers * candidates, state.getCost(),
+                    bestCost);
 
             iteration++;
         }
+    }
 
-        bestCost = calculateCost(bestAssignment);
+    /**
+     * Consulta a cache com o ótimo local corrente e guarda-o se for novo (ou se
+     * melhorar o custo guardado para os mesmos armazéns abertos).
+     *
+     * @param open Array auxiliar para o conjunto de armazéns abertos.
+     * @return Verdadeiro se o ótimo local já tinha sido alcançado com custo igual ou menor.
+     */
+    private boolean isKnownOptimum(boolean[] open) {
+        long key = state.getHash();
+        double cached = cache.get(key, null);
+        metrics.cacheLookup(!Double.isNaN(cached));
+        if (cached <= state.getCost() + 1e-9) {
+            return true;
+        }
+        for (int i = 0; i < problem.numWarehouses; i++) {
+            open[i] = state.isOpen(i);
+        }
+        cache.put(key, state.getCost(), open);
+        return false;
     }
 }
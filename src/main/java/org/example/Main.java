@@ -1,56 +1,33 @@
 package org.example;
 
 import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
 
 //TIP To <b>Run</b> code, press <shortcut actionId="Run"/> or
 // click the <icon src="AllIcons.Actions.Execute"/> icon in the gutter.
 public class Main {
-    public static void main(String[] args) {
-        WarehouseLocationProblem problem = new WarehouseLocationProblem("src/main/java/org/example/FicheirosTeste/ORLIB/ORLIB-uncap/a-c/capb.txt");
-
-        // Executar o algoritmo Filter and Fan
-        System.out.println("Executando Filter and Fan...");
-        long startTime = System.nanoTime();
-
-        FilterAndFanUFLP filterAndFanAlgorithm = new FilterAndFanUFLP(problem);
-        int[] filterAndFanSolution = filterAndFanAlgorithm.filterAndFan();
-        double filterAndFanCost = filterAndFanAlgorithm.calculateCost(filterAndFanSolution);
-
-        long endTime = System.nanoTime();
-        long durationFilterAndFan = (endTime - startTime) / 1_000_000; // Convert to milliseconds
-
-        System.out.println("Optimal solution cost (Filter and Fan): " + filterAndFanCost);
-        System.out.println("Filter and Fan execution time: " + durationFilterAndFan + " ms");
-
-        // Executar o algoritmo Tabu Search
-        System.out.println("\nExecutando Tabu Search...");
-        startTime = System.nanoTime();
-
-        TabuSearchUFLP tabuSearchAlgorithm = new TabuSearchUFLP(problem);
-        tabuSearchAlgorithm.solve();
-
-        endTime = System.nanoTime();
-        long durationTabuSearch = (endTime - startTime) / 1_000_000; // Convert to milliseconds
-
-        double tabuSearchCost = tabuSearchAlgorithm.getBestCost();
-
-        System.out.println("Optimal solution cost (Tabu Search): " + tabuSearchCost);
-        System.out.println("Tabu Search execution time: " + durationTabuSearch + " ms");
-
-        // Executar o algoritmo Local Search
-        System.out.println("\nExecutando Local Search...");
-        startTime = System.nanoTime();
-
-        LocalSearchUFLP localSearchAlgorithm = new LocalSearchUFLP(problem);
-        localSearchAlgorithm.solve();
-
-        endTime = System.nanoTime();
-        long durationLocalSearch = (endTime - startTime) / 1_000_000; // Convert to milliseconds
-
-        double localSearchCost = localSearchAlgorithm.getBestCost();
-
-        System.out.println("Optimal solution cost (Local Search): " + localSearchCost);
-        System.out.println("Local Search execution time: " + durationLocalSearch + " ms");
+    public static void main(String[] args) throws IOException, InterruptedException {
+        // "islands ..." lança o modelo de ilhas em vários processos (ver IslandLauncher).
+        if (args.length > 0 && args[0].equals("islands")) {
+            IslandLauncher.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        // Com argumentos, corre uma experiência completa (ver BatchRunner).
+        if (args.length > 0) {
+            BatchRunner.main(args);
+            return;
+        }
+
+        // Sem argumentos: todos os algoritmos na instância capb, com aquecimento e várias sementes,
+        // em vez de uma única execução a frio.
+        BatchRunner runner = new BatchRunner();
+        runner.setInstanceFilter("^capb$");
+        runner.setSeeds(3, 42);
+        runner.setWarmupRuns(1);
+
+        BatchRunner.BatchResult result = runner.run(BatchRunner.discover(Paths.get(BatchRunner.DEFAULT_ROOT)));
+        System.out.print(result);
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,222 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A classe MappedInstance carrega uma instância no formato binário produzido
+ * pelo {@link InstanceCompiler}, mapeando o ficheiro em memória. A matriz de
+ * custos é exposta diretamente sobre a page cache (sem cópia), pelo que vários
+ * processos que abram o mesmo ficheiro partilham a mesma cópia física.
+ *
+ * <p>Formato (little-endian):
+ * <pre>
+ *   int    magic ("UFLB")
+ *   int    versão
+ *   int    número de armazéns (m)
+ *   int    número de clientes (n)
+ *   double capacidades[m]
+ *   float  custos fixos[m]
+ *   int    demandas[n]
+ *   float  custos de alocação[m * n]   (por armazém: [armazém][cliente])
+ * </pre>
+ */
+public class MappedInstance implements AutoCloseable {
+
+    static final int MAGIC = 0x424C4655; // "UFLB" em little-endian.
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int numWarehouses;
+    private final int numCustomers;
+    private final int capacitiesOffset;
+    private final int fixedCostsOffset;
+    private final int demandsOffset;
+    private final int costsOffset;
+    private final FloatBuffer costs;
+
+    /**
+     * Construtor da classe
+     *
+     * @param path O caminho do ficheiro binário.
+     * @throws IOException Se o ficheiro não existir ou não tiver um cabeçalho válido.
+     */
+    public MappedInstance(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        long size = channel.size();
+        if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+            channel.close();
+            throw new IOException("Tamanho inválido para uma instância binária: " + size);
+        }
+        this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            channel.close();
+            throw new IOException("Ficheiro não é uma instância binária (versão " + VERSION + "): " + path);
+        }
+        this.numWarehouses = buffer.getInt(8);
+        this.numCustomers = buffer.getInt(12);
+
+        this.capacitiesOffset = HEADER_BYTES;
+        this.fixedCostsOffset = capacitiesOffset + Double.BYTES * numWarehouses;
+        this.demandsOffset = fixedCostsOffset + Float.BYTES * numWarehouses;
+        this.costsOffset = demandsOffset + Integer.BYTES * numCustomers;
+        long expected = costsOffset + (long) Float.BYTES * numWarehouses * numCustomers;
+        if (expected != size) {
+            channel.close();
+            throw new IOException("Tamanho do ficheiro (" + size + ") não corresponde ao cabeçalho (" + expected + ")");
+        }
+
+        this.costs = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN)
+                .position(costsOffset).slice().order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+    }
+
+    /**
+     * @return O número de armazéns.
+     */
+    public int getNumWarehouses() {
+        return numWarehouses;
+    }
+
+    /**
+     * @return O número de clientes.
+     */
+    public int getNumCustomers() {
+        return numCustomers;
+    }
+
+    /**
+     * @param warehouse O índice do armazém.
+     * @return A capacidade do armazém.
+     */
+    public double capacity(int warehouse) {
+        return buffer.getDouble(capacitiesOffset + Double.BYTES * warehouse);
+    }
+
+    /**
+     * @param warehouse O índice do armazém.
+     * @return O custo fixo de abertura do armazém.
+     */
+    public float fixedCost(int warehouse) {
+        return buffer.getFloat(fixedCostsOffset + Float.BYTES * warehouse);
+    }
+
+    /**
+     * @param customer O índice do cliente.
+     * @return A demanda do cliente.
+     */
+    public int demand(int customer) {
+        return buffer.getInt(demandsOffset + Integer.BYTES * customer);
+    }
+
+    /**
+     * @param warehouse O índice do armazém.
+     * @param customer  O índice do cliente.
+     * @return O custo de alocar o cliente ao armazém.
+     */
+    public float allocationCost(int warehouse, int customer) {
+        return costs.get(warehouse * numCustomers + customer);
+    }
+
+    /**
+     * Retorna uma vista só de leitura da matriz de custos, sem cópia. O elemento
+     * (armazém i, cliente j) está na posição {@code i * numCustomers + j}.
+     *
+     * @return Uma vista independente (posição própria) sobre o mapeamento.
+     */
+    public FloatBuffer costs() {
+        return costs.duplicate();
+    }
+
+    /**
+     * @return O tamanho do ficheiro mapeado, em bytes.
+     */
+    public long sizeBytes() {
+        return buffer.capacity();
+    }
+
+    /**
+     * Calcula o custo de uma atribuição lendo diretamente a matriz mapeada, sem
+     * passar pela cópia de {@link #toProblem()}: o custo de alocação de cada
+     * cliente mais os custos fixos dos armazéns que servem algum cliente (a mesma
+     * soma, pela mesma ordem, do {@link SolutionState#recompute()}).
+     *
+     * @param assignment O armazém de cada cliente.
+     * @return O custo da atribuição.
+     * @throws IllegalArgumentException Se a atribuição não tiver um armazém válido por cliente.
+     */
+    public double evaluate(int[] assignment) {
+        if (assignment.length != numCustomers) {
+            throw new IllegalArgumentException("Atribuição com " + assignment.length + " clientes; esperados "
+                    + numCustomers);
+        }
+        boolean[] open = new boolean[numWarehouses];
+        double total = 0.0;
+        for (int j = 0; j < numCustomers; j++) {
+            int warehouse = assignment[j];
+            if (warehouse < 0 || warehouse >= numWarehouses) {
+                throw new IllegalArgumentException("Armazém inválido para o cliente " + j + ": " + warehouse);
+            }
+            total += costs.get(warehouse * numCustomers + j);
+            open[warehouse] = true;
+        }
+        for (int i = 0; i < numWarehouses; i++) {
+            if (open[i]) {
+                total += fixedCost(i);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Copia a instância para um {@link WarehouseLocationProblem} em heap, para os
+     * algoritmos que trabalham sobre {@code float[][]}. A cópia é feita em bloco
+     * a partir do mapeamento, sem conversão de texto.
+     *
+     * @return Uma nova instância do problema.
+     */
+    public WarehouseLocationProblem toProblem() {
+        WarehouseLocationProblem problem = new WarehouseLocationProblem(numWarehouses, numCustomers);
+        for (int i = 0; i < numWarehouses; i++) {
+            problem.capacities[i] = capacity(i);
+            problem.fixedCosts[i] = fixedCost(i);
+        }
+        for (int j = 0; j < numCustomers; j++) {
+            problem.demands[j] = demand(j);
+        }
+        FloatBuffer view = costs();
+        for (int i = 0; i < numWarehouses; i++) {
+            view.get(problem.allocationCosts[i]);
+        }
+        return problem;
+    }
+
+    /**
+     * Carrega diretamente um ficheiro binário como {@link WarehouseLocationProblem}.
+     *
+     * @param path O caminho do ficheiro binário.
+     * @return A instância do problema.
+     * @throws IOException Se o ficheiro não puder ser lido.
+     */
+    public static WarehouseLocationProblem load(Path path) throws IOException {
+        try (MappedInstance instance = new MappedInstance(path)) {
+            return instance.toProblem();
+        }
+    }
+
+    /**
+     * Fecha o canal. O mapeamento continua válido até ser recolhido pelo GC.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
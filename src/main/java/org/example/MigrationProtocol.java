@@ -0,0 +1,142 @@
+package org.example;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Formato binário das mensagens trocadas pelas ilhas do {@link IslandNode}.
+ * Cada mensagem leva uma solução de elite apenas como conjunto de armazéns
+ * abertos, num bitset de {@code long}s (a atribuição ótima de um conjunto é
+ * recalculada por quem a recebe):
+ * <pre>
+ * int    MAGIC ('UFLP')
+ * byte   VERSION
+ * int    ilha de origem
+ * int    época
+ * double custo
+ * int    m (armazéns)
+ * int    n (clientes)
+ * long[] ceil(m / 64) palavras do bitset
+ * </pre>
+ * Para 500 armazéns uma mensagem ocupa 93 bytes.
+ */
+public final class MigrationProtocol {
+
+    public static final int MAGIC = 0x55464C50;
+    public static final byte VERSION = 1;
+    /** Limites das dimensões aceites, para que uma mensagem corrompida não aloque memória sem fim. */
+    public static final int MAX_WAREHOUSES = 1 << 20;
+    public static final int MAX_CUSTOMERS = 1 << 24;
+
+    private MigrationProtocol() {
+    }
+
+    /**
+     * Uma solução migrante.
+     */
+    public static final class Migrant {
+        public final int island;
+        public final int epoch;
+        public final double cost;
+        public final int numCustomers;
+        private final boolean[] open;
+
+        /**
+         * @param island       A ilha que a enviou.
+         * @param epoch        A época da ilha em que foi enviada.
+         * @param cost         O custo do conjunto.
+         * @param numCustomers O número de clientes da instância (para validação).
+         * @param open         Os armazéns abertos (não é copiado).
+         */
+        public Migrant(int island, int epoch, double cost, int numCustomers, boolean[] open) {
+            this.island = island;
+            this.epoch = epoch;
+            this.cost = cost;
+            this.numCustomers = numCustomers;
+            this.open = open;
+        }
+
+        /**
+         * @return O número de armazéns da instância.
+         */
+        public int numWarehouses() {
+            return open.length;
+        }
+
+        /**
+         * @return Uma cópia dos armazéns abertos.
+         */
+        public boolean[] getOpen() {
+            return open.clone();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("migrant(island=%d, epoch=%d, cost=%.3f)", island, epoch, cost);
+        }
+    }
+
+    /**
+     * Escreve uma mensagem (sem fazer flush).
+     *
+     * @param out     O destino.
+     * @param migrant A solução.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    public static void write(DataOutputStream out, Migrant migrant) throws IOException {
+        int m = migrant.open.length;
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeInt(migrant.island);
+        out.writeInt(migrant.epoch);
+        out.writeDouble(migrant.cost);
+        out.writeInt(m);
+        out.writeInt(migrant.numCustomers);
+        for (int w = 0; w < (m + 63) >>> 6; w++) {
+            long word = 0L;
+            for (int i = w << 6; i < Math.min(m, (w + 1) << 6); i++) {
+                if (migrant.open[i]) {
+                    word |= 1L << i;
+                }
+            }
+            out.writeLong(word);
+        }
+    }
+
+    /**
+     * Lê uma mensagem, bloqueando até estar completa.
+     *
+     * @param in A origem.
+     * @return A solução.
+     * @throws IOException Se a ligação terminar ou a mensagem for inválida
+     *                     (incluindo dimensões acima de {@link #MAX_WAREHOUSES}
+     *                     ou {@link #MAX_CUSTOMERS}).
+     */
+    public static Migrant read(DataInputStream in) throws IOException {
+        int magic = in.readInt();
+        if (magic != MAGIC) {
+            throw new IOException("Mensagem inválida: 0x" + Integer.toHexString(magic));
+        }
+        byte version = in.readByte();
+        if (version != VERSION) {
+            throw new IOException("Versão do protocolo não suportada: " + version);
+        }
+        int island = in.readInt();
+        int epoch = in.readInt();
+        double cost = in.readDouble();
+        int m = in.readInt();
+        int n = in.readInt();
+        if (m <= 0 || m > MAX_WAREHOUSES || n < 0 || n > MAX_CUSTOMERS) {
+            throw new IOException("Dimensões inválidas: " + m + "x" + n);
+        }
+        boolean[] open = new boolean[m];
+        for (int w = 0; w < (m + 63) >>> 6; w++) {
+            long word = in.readLong();
+            for (int i = w << 6; i < Math.min(m, (w + 1) << 6); i++) {
+                open[i] = (word & (1L << i)) != 0;
+            }
+        }
+        return new Migrant(island, epoch, cost, n, open);
+    }
+}
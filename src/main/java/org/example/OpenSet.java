@@ -0,0 +1,169 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * A classe OpenSet representa uma solução do UFLP apenas pelo conjunto de
+ * armazéns abertos, num bitset de {@code long}s (um bit por armazém). Sem
+ * capacidades, o conjunto determina a atribuição ótima (cada cliente vai para
+ * o armazém aberto mais barato), calculada pelo {@link OpenSetEvaluator}.
+ *
+ * <p>Para 500 armazéns o conjunto ocupa 8 {@code long}s: copiar, comparar e
+ * calcular o hash de {@link Zobrist} é muito mais barato do que com um
+ * {@code int[]} de atribuições.
+ */
+public final class OpenSet {
+
+    private final int size;
+    private final long[] words;
+
+    /**
+     * Construtor de um conjunto vazio.
+     *
+     * @param size O número de armazéns.
+     */
+    public OpenSet(int size) {
+        this.size = size;
+        this.words = new long[(size + 63) >>> 6];
+    }
+
+    /**
+     * @param open Um array que indica os armazéns abertos.
+     * @return O conjunto correspondente.
+     */
+    public static OpenSet of(boolean[] open) {
+        OpenSet set = new OpenSet(open.length);
+        for (int i = 0; i < open.length; i++) {
+            if (open[i]) {
+                set.open(i);
+            }
+        }
+        return set;
+    }
+
+    /**
+     * @return O número de armazéns (abertos ou não).
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isOpen(int warehouse) {
+        return (words[warehouse >>> 6] & (1L << warehouse)) != 0;
+    }
+
+    public void open(int warehouse) {
+        words[warehouse >>> 6] |= 1L << warehouse;
+    }
+
+    public void close(int warehouse) {
+        words[warehouse >>> 6] &= ~(1L << warehouse);
+    }
+
+    public void flip(int warehouse) {
+        words[warehouse >>> 6] ^= 1L << warehouse;
+    }
+
+    /**
+     * @return O número de armazéns abertos.
+     */
+    public int cardinality() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Percorre os armazéns abertos: {@code for (int i = s.nextOpen(0); i >= 0; i = s.nextOpen(i + 1))}.
+     *
+     * @param from O primeiro armazém a considerar.
+     * @return O primeiro armazém aberto a partir de {@code from}, ou -1 se não houver.
+     */
+    public int nextOpen(int from) {
+        if (from >= size) {
+            return -1;
+        }
+        int w = from >>> 6;
+        long word = words[w] & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                int index = (w << 6) + Long.numberOfTrailingZeros(word);
+                return index < size ? index : -1;
+            }
+            if (++w == words.length) {
+                return -1;
+            }
+            word = words[w];
+        }
+    }
+
+    /**
+     * Distância de Hamming entre dois conjuntos (com o mesmo número de
+     * armazéns): o número de armazéns abertos num e fechados no outro.
+     *
+     * @param other O outro conjunto.
+     * @return O número de flips que transformam um conjunto no outro.
+     */
+    public int distance(OpenSet other) {
+        int count = 0;
+        for (int w = 0; w < words.length; w++) {
+            count += Long.bitCount(words[w] ^ other.words[w]);
+        }
+        return count;
+    }
+
+    /**
+     * @return O hash de Zobrist do conjunto, em O(armazéns abertos).
+     */
+    public long hash() {
+        long hash = 0L;
+        for (int i = nextOpen(0); i >= 0; i = nextOpen(i + 1)) {
+            hash ^= Zobrist.key(i);
+        }
+        return hash;
+    }
+
+    /**
+     * Copia outro conjunto (com o mesmo número de armazéns) sem alocar memória.
+     *
+     * @param other O conjunto a copiar.
+     */
+    public void copyFrom(OpenSet other) {
+        System.arraycopy(other.words, 0, words, 0, words.length);
+    }
+
+    /**
+     * Copia o conjunto para um array de booleanos.
+     *
+     * @param target O array de destino.
+     */
+    public void copyTo(boolean[] target) {
+        for (int i = 0; i < size; i++) {
+            target[i] = isOpen(i);
+        }
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof OpenSet && Arrays.equals(words, ((OpenSet) other).words);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(words);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("{");
+        for (int i = nextOpen(0); i >= 0; i = nextOpen(i + 1)) {
+            if (text.length() > 1) {
+                text.append(", ");
+            }
+            text.append(i);
+        }
+        return text.append('}').toString();
+    }
+}
@@ -0,0 +1,79 @@
+package org.example;
+
+/**
+ * A classe OpenSetEvaluator calcula o custo de um {@link OpenSet}: a soma dos
+ * custos fixos dos armazéns abertos mais, para cada cliente, o menor custo de
+ * alocação entre eles. A redução percorre as linhas
+ * {@code allocationCosts[armazém]} dos armazéns abertos com o
+ * {@link OpenSetKernel}, em O(abertos · n).
+ *
+ * <p>Reutiliza um array auxiliar, pelo que cada avaliador deve ser usado por
+ * uma só thread.
+ */
+public class OpenSetEvaluator {
+
+    private final WarehouseLocationProblem problem;
+    private final OpenSetKernel kernel;
+    private final float[] nearest;
+
+    /**
+     * Construtor da classe, com o kernel de {@link OpenSetKernel#get()}.
+     *
+     * @param problem A instância do problema.
+     */
+    public OpenSetEvaluator(WarehouseLocationProblem problem) {
+        this(problem, OpenSetKernel.get());
+    }
+
+    /**
+     * Construtor com um kernel escolhido (por exemplo, para comparar implementações).
+     *
+     * @param problem A instância do problema.
+     * @param kernel  O kernel de redução.
+     */
+    public OpenSetEvaluator(WarehouseLocationProblem problem, OpenSetKernel kernel) {
+        this.problem = problem;
+        this.kernel = kernel;
+        this.nearest = new float[problem.numCustomers];
+    }
+
+    /**
+     * @param open Os armazéns abertos (pelo menos um).
+     * @return O custo total do conjunto.
+     */
+    public double evaluate(OpenSet open) {
+        return fixedCost(open) + kernel.minReduce(problem.allocationCosts, open, nearest);
+    }
+
+    /**
+     * @param open Os armazéns abertos.
+     * @return A soma dos custos fixos dos armazéns abertos.
+     */
+    public double fixedCost(OpenSet open) {
+        double total = 0.0;
+        for (int i = open.nextOpen(0); i >= 0; i = open.nextOpen(i + 1)) {
+            total += problem.fixedCosts[i];
+        }
+        return total;
+    }
+
+    /**
+     * Calcula a atribuição ótima de um conjunto (cada cliente ao armazém aberto
+     * mais barato).
+     *
+     * @param open       Os armazéns abertos (pelo menos um).
+     * @param assignment Recebe o armazém de cada cliente.
+     * @return O custo total do conjunto.
+     */
+    public double assign(OpenSet open, int[] assignment) {
+        float[] second = new float[problem.numCustomers];
+        return fixedCost(open) + kernel.nearestTwo(problem.allocationCosts, open, nearest, second, assignment);
+    }
+
+    /**
+     * @return O kernel usado.
+     */
+    public OpenSetKernel getKernel() {
+        return kernel;
+    }
+}
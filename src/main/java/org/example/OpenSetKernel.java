@@ -0,0 +1,87 @@
+package org.example;
+
+/**
+ * Operações de redução sobre as linhas da matriz de custos (uma linha por
+ * armazém, contígua sobre os clientes) usadas para avaliar conjuntos de
+ * armazéns abertos. Há uma implementação escalar e outra com a Vector API do
+ * JDK; {@link #get()} usa a escalar, salvo se a vetorial for pedida. Nas
+ * instâncias do projeto (até 500 armazéns e 1000 clientes) as duas demoram o
+ * mesmo, dentro do ruído da medição: as linhas são curtas e a maior parte do
+ * tempo vai para percorrer os armazéns abertos.
+ */
+public interface OpenSetKernel {
+
+    /**
+     * Calcula, para cada cliente, o menor custo entre os armazéns abertos.
+     *
+     * @param rows    As linhas de custos ({@code rows[armazém][cliente]}).
+     * @param open    Os armazéns abertos (pelo menos um).
+     * @param nearest Recebe o menor custo de cada cliente.
+     * @return A soma dos menores custos.
+     */
+    double minReduce(float[][] rows, OpenSet open, float[] nearest);
+
+    /**
+     * Calcula, para cada cliente, o armazém aberto mais barato e os custos do
+     * primeiro e do segundo mais baratos (infinito se só houver um aberto). Nos
+     * empates fica o armazém de menor índice.
+     *
+     * @param rows       As linhas de custos.
+     * @param open       Os armazéns abertos (pelo menos um).
+     * @param nearest    Recebe o menor custo de cada cliente.
+     * @param second     Recebe o segundo menor custo de cada cliente.
+     * @param assignment Recebe o armazém mais barato de cada cliente.
+     * @return A soma dos menores custos.
+     */
+    double nearestTwo(float[][] rows, OpenSet open, float[] nearest, float[] second, int[] assignment);
+
+    /**
+     * Poupança nos custos de alocação se um armazém abrir: a soma de
+     * {@code max(0, nearest[j] - row[j])}.
+     *
+     * @param row     A linha de custos do armazém.
+     * @param nearest O menor custo atual de cada cliente.
+     * @return A poupança.
+     */
+    double gain(float[] row, float[] nearest);
+
+    /**
+     * @return O nome da implementação.
+     */
+    String getName();
+
+    /**
+     * Devolve a implementação vetorial se a propriedade {@code uflp.vector} for
+     * {@code true} e a Vector API estiver disponível (a JVM foi lançada com
+     * {@code --add-modules jdk.incubator.vector}); caso contrário, a escalar.
+     *
+     * @return O kernel a usar.
+     */
+    static OpenSetKernel get() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Carrega o kernel uma vez. A classe vetorial é compilada à parte e carregada
+     * por reflexão, para que a falta do módulo (ou da classe) só se manifeste
+     * aqui (como {@link LinkageError} ou {@link ClassNotFoundException}).
+     */
+    final class Holder {
+        static final OpenSetKernel INSTANCE = load();
+
+        private Holder() {
+        }
+
+        private static OpenSetKernel load() {
+            if (!Boolean.parseBoolean(System.getProperty("uflp.vector", "false"))) {
+                return new ScalarOpenSetKernel();
+            }
+            try {
+                return (OpenSetKernel) Class.forName("org.example.VectorOpenSetKernel")
+                        .getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                return new ScalarOpenSetKernel();
+            }
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package org.example;
+
+import java.util.Random;
+
+/**
+ * A classe OpenSetSearchUFLP pesquisa diretamente no espaço dos conjuntos de
+ * armazéns abertos ({@link OpenSet}), sem manter uma atribuição incremental:
+ * depois de cada movimento, o primeiro e o segundo armazéns abertos mais
+ * baratos de todos os clientes são recalculados de raiz pelo
+ * {@link OpenSetKernel}, o que custa alguns microssegundos (2 a 10 µs nas
+ * instâncias de 300x300 a 500x500).
+ *
+ * <p>Em cada passo avalia todos os flips: abrir i poupa
+ * {@code gain(linha de i, mais próximos)} (uma redução sobre os
+ * clientes) e fechar i custa a soma de {@code segundo - primeiro} dos clientes
+ * que i serve (uma passagem sobre os clientes para todos os armazéns). Aplica
+ * o melhor flip enquanto melhorar; depois, como o
+ * {@link FacilityLocalSearchUFLP}, perturba o melhor conjunto e repete.
+ */
+public class OpenSetSearchUFLP implements Solver {
+
+    private static final double EPSILON = 1e-9;
+
+    private final WarehouseLocationProblem problem;
+    private final OpenSetKernel kernel;
+    private double bestCost;
+    private int[] bestAssignment;
+
+    private int maxIterations = 100; // Número de perturbações da pesquisa local iterada.
+    private int perturbationSize = 3; // Número de armazéns invertidos em cada perturbação.
+    private long seed = 42;
+    private SearchControl control = new SearchControl();
+    private ConstructionHeuristic construction; // null = solução inicial aleatória.
+    private final SolverMetrics metrics = SolverMetrics.forSolver(getName());
+
+    // Estado do conjunto corrente, recalculado pelo kernel depois de cada movimento.
+    private float[] nearest;
+    private float[] second;
+    private int[] assignment;
+    private double[] loss;
+
+    /**
+     * Construtor da classe, com o kernel de {@link OpenSetKernel#get()}.
+     *
+     * @param problem Uma instância da classe WarehouseLocationProblem, que contém
+     *                os dados do problema.
+     */
+    public OpenSetSearchUFLP(WarehouseLocationProblem problem) {
+        this(problem, OpenSetKernel.get());
+    }
+
+    /**
+     * Construtor com um kernel escolhido.
+     *
+     * @param problem A instância do problema.
+     * @param kernel  O kernel de redução.
+     */
+    public OpenSetSearchUFLP(WarehouseLocationProblem problem, OpenSetKernel kernel) {
+        this.problem = problem;
+        this.kernel = kernel;
+    }
+
+    /**
+     * @param maxIterations O número de perturbações a aplicar.
+     */
+    public void setMaxIterations(int maxIterations) {
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * @param perturbationSize O número de armazéns invertidos em cada perturbação.
+     */
+    public void setPerturbationSize(int perturbationSize) {
+        this.perturbationSize = perturbationSize;
+    }
+
+    /**
+     * Define a semente do gerador aleatório (por omissão 42).
+     *
+     * @param seed A semente.
+     */
+    @Override
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Define o controlo da execução, consultado em cada iteração e notificado
+     * das novas melhores soluções.
+     *
+     * @param control O controlo da execução.
+     */
+    @Override
+    public void setSearchControl(SearchControl control) {
+        this.control = control;
+    }
+
+    /**
+     * Define a heurística que constrói a solução inicial (por omissão, aleatória).
+     *
+     * @param construction A heurística, ou null para a solução inicial aleatória.
+     */
+    @Override
+    public void setConstruction(ConstructionHeuristic construction) {
+        this.construction = construction;
+    }
+
+    /**
+     * @return O custo da melhor solução da última execução.
+     */
+    public double getBestCost() {
+        return bestCost;
+    }
+
+    /**
+     * @return Uma cópia da melhor atribuição da última execução.
+     */
+    public int[] getBestAssignment() {
+        return bestAssignment.clone();
+    }
+
+    @Override
+    public String getName() {
+        return "Open-Set Search";
+    }
+
+    /**
+     * Executa a pesquisa dentro do orçamento. Com um orçamento limitado,
+     * recomeça com a semente seguinte até o esgotar.
+     *
+     * @param budget   O orçamento de tempo e de avaliações.
+     * @param token    O pedido de cancelamento.
+     * @param listener Recebe cada nova melhor solução (pode ser null).
+     * @return A melhor solução de todas as execuções.
+     */
+    @Override
+    public SolverResult solve(Budget budget, CancellationToken token, ImprovementListener listener) {
+        return new BudgetControl(budget, token, listener, control).runRestarts(this, seed, this::solve);
+    }
+
+    /**
+     * Resolve o problema com a pesquisa local iterada sobre conjuntos de armazéns.
+     */
+    public void solve() {
+        Random random = new Random(seed);
+        int m = problem.numWarehouses;
+        int n = problem.numCustomers;
+        nearest = new float[n];
+        second = new float[n];
+        assignment = new int[n];
+        loss = new double[m];
+        bestAssignment = new int[n];
+        bestCost = Double.POSITIVE_INFINITY;
+
+        OpenSet current = initialSet(random);
+        OpenSet best = new OpenSet(m);
+        double cost = descend(current, refresh(current));
+        best.copyFrom(current);
+        updateBest(cost, 0);
+        double bestSetCost = cost;
+
+        for (int iteration = 1; iteration <= maxIterations && !control.shouldStop(); iteration++) {
+            SolverEvents.IterationEvent iterationEvent = metrics.beginIteration();
+            SolverEvents.PerturbationEvent perturbationEvent = metrics.beginPerturbation();
+            perturb(current, random);
+            double perturbedCost = refresh(current);
+            metrics.endPerturbation(perturbationEvent, iteration, perturbationSize, bestSetCost, perturbedCost);
+            cost = descend(current, perturbedCost);
+
+            if (cost < bestSetCost - EPSILON) {
+                best.copyFrom(current);
+                bestSetCost = cost;
+                updateBest(cost, iteration);
+            } else {
+                current.copyFrom(best);
+            }
+            metrics.endIteration(iterationEvent, iteration, m, cost, bestCost);
+        }
+    }
+
+    /**
+     * Conjunto inicial: o da heurística de construção, se existir, ou os
+     * armazéns usados por uma atribuição aleatória.
+     */
+    private OpenSet initialSet(Random random) {
+        int m = problem.numWarehouses;
+        if (construction != null) {
+            FacilityState state = new FacilityState(problem);
+            construction.construct(state, random);
+            boolean[] open = new boolean[m];
+            state.copyOpenTo(open);
+            return OpenSet.of(open);
+        }
+        OpenSet set = new OpenSet(m);
+        for (int j = 0; j < problem.numCustomers; j++) {
+            set.open(random.nextInt(m));
+        }
+        return set;
+    }
+
+    /**
+     * Recalcula os dois armazéns abertos mais baratos de cada cliente e a perda
+     * de fechar cada armazém aberto.
+     *
+     * @return O custo total do conjunto.
+     */
+    private double refresh(OpenSet set) {
+        double cost = 0.0;
+        for (int i = set.nextOpen(0); i >= 0; i = set.nextOpen(i + 1)) {
+            cost += problem.fixedCosts[i];
+            loss[i] = 0.0;
+        }
+        cost += kernel.nearestTwo(problem.allocationCosts, set, nearest, second, assignment);
+        for (int j = 0; j < problem.numCustomers; j++) {
+            loss[assignment[j]] += (double) second[j] - nearest[j]; // Infinito se só houver um aberto.
+        }
+        return cost;
+    }
+
+    /**
+     * Aplica o melhor flip enquanto melhorar o custo.
+     *
+     * @param cost O custo do conjunto, já calculado por {@link #refresh(OpenSet)}.
+     * @return O custo do ótimo local.
+     */
+    private double descend(OpenSet set, double cost) {
+        int m = problem.numWarehouses;
+        while (!control.shouldStop()) {
+            int bestWarehouse = -1;
+            double bestDelta = -EPSILON;
+            for (int i = 0; i < m; i++) {
+                double delta = set.isOpen(i) ? loss[i] - problem.fixedCosts[i]
+                        : problem.fixedCosts[i] - kernel.gain(problem.allocationCosts[i], nearest);
+                if (delta < bestDelta) {
+                    bestDelta = delta;
+                    bestWarehouse = i;
+                }
+            }
+            control.evaluated(m);
+            if (bestWarehouse < 0) {
+                break;
+            }
+            set.flip(bestWarehouse);
+            cost = refresh(set);
+        }
+        return cost;
+    }
+
+    /**
+     * Perturba o conjunto invertendo alguns armazéns ao acaso, mantendo pelo
+     * menos um aberto.
+     */
+    private void perturb(OpenSet set, Random random) {
+        for (int k = 0; k < perturbationSize; k++) {
+            int warehouse = random.nextInt(problem.numWarehouses);
+            if (set.isOpen(warehouse) && set.cardinality() == 1) {
+                continue;
+            }
+            set.flip(warehouse);
+        }
+    }
+
+    /**
+     * Guarda a atribuição do conjunto corrente (calculada pelo último
+     * {@link #refresh(OpenSet)}) se o custo for melhor do que o melhor encontrado.
+     */
+    private void updateBest(double cost, int iteration) {
+        if (cost < bestCost) {
+            metrics.improvement(iteration, cost, bestCost);
+            bestCost = cost;
+            System.arraycopy(assignment, 0, bestAssignment, 0, problem.numCustomers);
+            control.improved(bestCost, bestAssignment);
+        }
+    }
+}
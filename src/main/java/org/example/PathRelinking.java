@@ -0,0 +1,383 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * A classe PathRelinking intensifica a pesquisa entre as soluções de um
+ * {@link ElitePool}: para cada par de soluções, parte da melhor e caminha até
+ * à outra invertendo, em cada passo, o armazém da diferença simétrica cujo
+ * flip custa menos (avaliado em O(1) pelo {@link FacilityState}). O melhor
+ * ponto intermédio de cada caminho é levado a um ótimo local por flips e
+ * proposto ao conjunto.
+ *
+ * <p>Os caminhos de pares diferentes são independentes e percorridos em
+ * paralelo, cada um com o seu {@link FacilityState}; as listas ordenadas do
+ * {@link PreprocessedProblem} são partilhadas (só de leitura).
+ *
+ * <p>O {@link SearchControl} é consultado entre os pares e em cada passo dos
+ * caminhos e da pesquisa local: quando pede para parar, os pares por começar são
+ * saltados e os caminhos a meio devolvem o melhor ponto encontrado até aí.
+ */
+public class PathRelinking {
+
+    /** Fração do orçamento que os algoritmos reservam para o path relinking. */
+    public static final double BUDGET_SHARE = 0.1;
+
+    private final WarehouseLocationProblem problem;
+    private SearchControl control = new SearchControl();
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private boolean localSearch = true;
+    private PreprocessedProblem view; // Listas completas, criadas na primeira execução.
+
+    /**
+     * Construtor da classe
+     *
+     * @param problem A instância do problema.
+     */
+    public PathRelinking(WarehouseLocationProblem problem) {
+        this.problem = problem;
+    }
+
+    /**
+     * @param parallelism O número de threads (1 para percorrer os caminhos em sequência).
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Define o controlo consultado durante os caminhos. É chamado pelas threads
+     * dos caminhos, sempre com o próprio controlo como monitor.
+     *
+     * @param control O controlo (por omissão, um que nunca pára).
+     */
+    public void setSearchControl(SearchControl control) {
+        this.control = control;
+    }
+
+    /**
+     * @param localSearch Leva o melhor ponto de cada caminho a um ótimo local (por omissão, sim).
+     */
+    public void setLocalSearch(boolean localSearch) {
+        this.localSearch = localSearch;
+    }
+
+    /**
+     * Resultado de uma passagem de path relinking.
+     */
+    public static class Result {
+        public final double bestCost;
+        private final boolean[] bestOpen;
+        private final int[] bestAssignment;
+        public final int paths;
+        public final int improvedPaths; // Caminhos que deram uma solução melhor do que as duas pontas.
+        public final int inserted; // Soluções que entraram no conjunto de elite.
+        public final long millis;
+
+        Result(double bestCost, boolean[] bestOpen, int[] bestAssignment, int paths, int improvedPaths, int inserted,
+               long millis) {
+            this.bestCost = bestCost;
+            this.bestOpen = bestOpen;
+            this.bestAssignment = bestAssignment;
+            this.paths = paths;
+            this.improvedPaths = improvedPaths;
+            this.inserted = inserted;
+            this.millis = millis;
+        }
+
+        /**
+         * @return Os armazéns abertos da melhor solução (null se o conjunto estava vazio).
+         */
+        public boolean[] getBestOpen() {
+            return bestOpen == null ? null : bestOpen.clone();
+        }
+
+        /**
+         * @return A atribuição da melhor solução (null se o conjunto estava vazio).
+         */
+        public int[] getBestAssignment() {
+            return bestAssignment == null ? null : bestAssignment.clone();
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "best=%.3f paths=%d improved=%d inserted=%d time=%d ms", bestCost,
+                    paths, improvedPaths, inserted, millis);
+        }
+    }
+
+    /**
+     * Percorre os caminhos entre todos os pares do conjunto de elite e propõe
+     * ao conjunto o melhor ponto de cada caminho.
+     *
+     * @param pool O conjunto de elite.
+     * @return A melhor solução (do conjunto ou dos caminhos) e as estatísticas.
+     */
+    public Result relink(ElitePool pool) {
+        long start = System.nanoTime();
+        if (view == null) {
+            view = PreprocessedProblem.of(problem, problem.numWarehouses);
+        }
+        List<ElitePool.Elite> elites = pool.snapshot(); // Da melhor para a pior.
+        List<int[]> pairs = new ArrayList<>();
+        for (int a = 0; a < elites.size(); a++) {
+            for (int b = a + 1; b < elites.size(); b++) {
+                if (elites.get(a).distance(elites.get(b)) > 1) {
+                    pairs.add(new int[] {a, b});
+                }
+            }
+        }
+
+        // Custos exatos das pontas, para contar os caminhos que melhoram as duas.
+        double[] eliteCost = new double[elites.size()];
+        FacilityState evaluator = new FacilityState(problem, view);
+        boolean[] open = new boolean[problem.numWarehouses];
+        for (int a = 0; a < elites.size(); a++) {
+            elites.get(a).getOpen().copyTo(open);
+            evaluator.reset(open);
+            eliteCost[a] = evaluator.getCost();
+        }
+
+        double[] pathCost = new double[pairs.size()];
+        boolean[][] pathOpen = new boolean[pairs.size()][];
+        ForkJoinPool executor = parallelism > 1 && pairs.size() > 1 ? new ForkJoinPool(parallelism) : null;
+        try {
+            runParallel(executor, pairs.size(), k -> {
+                if (stopped()) {
+                    return; // Par saltado: fica sem caminho.
+                }
+                int[] pair = pairs.get(k);
+                FacilityState state = new FacilityState(problem, view);
+                pathOpen[k] = relinkPair(elites.get(pair[0]).getOpen(), elites.get(pair[1]).getOpen(), state);
+                pathCost[k] = state.getCost();
+            });
+        } finally {
+            if (executor != null) {
+                executor.shutdown();
+            }
+        }
+
+        // As propostas são feitas pela ordem dos pares, para que o resultado não dependa das threads.
+        int improved = 0;
+        int inserted = 0;
+        double bestCost = Double.POSITIVE_INFINITY;
+        boolean[] bestOpen = null;
+        for (int a = 0; a < elites.size(); a++) {
+            if (eliteCost[a] < bestCost) {
+                bestCost = eliteCost[a];
+                bestOpen = new boolean[problem.numWarehouses];
+                elites.get(a).getOpen().copyTo(bestOpen);
+            }
+        }
+        int paths = 0;
+        for (int k = 0; k < pairs.size(); k++) {
+            if (pathOpen[k] == null) {
+                continue; // Par saltado ou caminho interrompido antes do primeiro passo.
+            }
+            paths++;
+            int[] pair = pairs.get(k);
+            if (pathCost[k] < Math.min(eliteCost[pair[0]], eliteCost[pair[1]]) - 1e-9) {
+                improved++;
+            }
+            if (pool.offer(pathCost[k], OpenSet.of(pathOpen[k]))) {
+                inserted++;
+            }
+            if (pathCost[k] < bestCost) {
+                bestCost = pathCost[k];
+                bestOpen = pathOpen[k];
+            }
+        }
+
+        int[] bestAssignment = null;
+        if (bestOpen != null) {
+            evaluator.reset(bestOpen);
+            bestAssignment = new int[problem.numCustomers];
+            evaluator.copyAssignmentTo(bestAssignment);
+        }
+        return new Result(bestCost, bestOpen, bestAssignment, paths, improved, inserted,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Executa uma tarefa para cada índice em [0, count), em paralelo se houver um pool.
+     */
+    private static void runParallel(ForkJoinPool pool, int count, IntConsumer task) {
+        if (pool == null) {
+            for (int k = 0; k < count; k++) {
+                task.accept(k);
+            }
+        } else {
+            pool.submit(() -> IntStream.range(0, count).parallel().forEach(task)).join();
+        }
+    }
+
+    /**
+     * @return Verdadeiro se o controlo pede para parar.
+     */
+    private boolean stopped() {
+        synchronized (control) {
+            return control.shouldStop();
+        }
+    }
+
+    private void evaluated(long count) {
+        synchronized (control) {
+            control.evaluated(count);
+        }
+    }
+
+    /**
+     * Caminha de {@code start} para {@code guide} e deixa no estado o melhor ponto
+     * intermédio (depois da pesquisa local, se ativa).
+     *
+     * @return Os armazéns abertos do ponto devolvido, ou null se o controlo pediu
+     * para parar antes do primeiro passo.
+     */
+    private boolean[] relinkPair(OpenSet start, OpenSet guide, FacilityState state) {
+        int m = problem.numWarehouses;
+        boolean[] open = new boolean[m];
+        start.copyTo(open);
+        state.reset(open);
+
+        int[] difference = new int[m];
+        int remaining = 0;
+        for (int i = 0; i < m; i++) {
+            if (start.isOpen(i) != guide.isOpen(i)) {
+                difference[remaining++] = i;
+            }
+        }
+
+        // O último passo chegaria à guia: o caminho pára um flip antes.
+        double bestCost = Double.POSITIVE_INFINITY;
+        boolean[] best = new boolean[m];
+        while (remaining > 1 && !stopped()) {
+            int chosen = 0;
+            double chosenDelta = Double.POSITIVE_INFINITY;
+            for (int k = 0; k < remaining; k++) {
+                double delta = state.flipDelta(difference[k]);
+                if (delta < chosenDelta) {
+                    chosenDelta = delta;
+                    chosen = k;
+                }
+            }
+            evaluated(remaining);
+            state.flip(difference[chosen]);
+            difference[chosen] = difference[--remaining];
+            if (state.getCost() < bestCost) {
+                bestCost = state.getCost();
+                state.copyOpenTo(best);
+            }
+        }
+
+        if (bestCost == Double.POSITIVE_INFINITY) {
+            return null;
+        }
+        state.reset(best);
+        if (localSearch) {
+            descend(state);
+            state.copyOpenTo(best);
+        }
+        return best;
+    }
+
+    /**
+     * Aplica o melhor flip enquanto melhorar o custo.
+     */
+    private void descend(FacilityState state) {
+        int m = problem.numWarehouses;
+        while (!stopped()) {
+            int bestWarehouse = -1;
+            double bestDelta = -1e-9;
+            for (int i = 0; i < m; i++) {
+                double delta = state.flipDelta(i);
+                if (delta < bestDelta) {
+                    bestDelta = delta;
+                    bestWarehouse = i;
+                }
+            }
+            evaluated(m);
+            if (bestWarehouse < 0) {
+                return;
+            }
+            state.flip(bestWarehouse);
+        }
+    }
+
+    /**
+     * Compara, em cada instância, a melhor solução de um algoritmo com a do path
+     * relinking entre os ótimos locais que ele guardou no conjunto de elite.
+     * Uso: {@code PathRelinking [filtro] [--solver=LOCAL_SEARCH|TABU_SEARCH] [--time-limit=ms]
+     * [--construction=greedy-add|greedy-drop|grasp:α] [--pool=N] [--min-distance=d] [--threads=N]}.
+     */
+    public static void main(String[] args) throws IOException {
+        String filter = null;
+        PortfolioRunner.Strategy strategy = PortfolioRunner.Strategy.LOCAL_SEARCH;
+        long timeLimit = 2_000;
+        ConstructionHeuristic construction = null;
+        int capacity = ElitePool.DEFAULT_CAPACITY;
+        int minDistance = ElitePool.DEFAULT_MIN_DISTANCE;
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                filter = arg;
+                continue;
+            }
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Opção sem valor: " + arg);
+            }
+            String key = arg.substring(2, eq);
+            String value = arg.substring(eq + 1);
+            switch (key) {
+                case "solver": strategy = PortfolioRunner.Strategy.valueOf(value.toUpperCase(Locale.ROOT)); break;
+                case "time-limit": timeLimit = Long.parseLong(value); break;
+                case "construction": construction = ConstructionHeuristic.parse(value); break;
+                case "pool": capacity = Integer.parseInt(value); break;
+                case "min-distance": minDistance = Integer.parseInt(value); break;
+                case "threads": threads = Integer.parseInt(value); break;
+                default: throw new IllegalArgumentException("Opção desconhecida: " + arg);
+            }
+        }
+
+        for (BatchRunner.Instance instance : BatchRunner.discover(Paths.get(BatchRunner.DEFAULT_ROOT))) {
+            if (filter != null && !instance.name.toLowerCase(Locale.ROOT).contains(filter.toLowerCase(Locale.ROOT))) {
+                continue;
+            }
+            WarehouseLocationProblem problem = new WarehouseLocationProblem(0, 0);
+            InstanceParser.parseInto(instance.path.toString(), problem);
+            ElitePool pool = new ElitePool(capacity, minDistance);
+            Solver solver;
+            if (strategy == PortfolioRunner.Strategy.TABU_SEARCH) {
+                TabuSearchUFLP tabu = new TabuSearchUFLP(problem);
+                tabu.setElitePool(pool);
+                solver = tabu;
+            } else if (strategy == PortfolioRunner.Strategy.LOCAL_SEARCH) {
+                LocalSearchUFLP localSearch = new LocalSearchUFLP(problem);
+                localSearch.setElitePool(pool);
+                solver = localSearch;
+            } else {
+                throw new IllegalArgumentException("O conjunto de elite só é alimentado pela pesquisa local e pela tabu");
+            }
+            solver.setConstruction(construction);
+            SolverResult result = solver.solve(Budget.ofMillis(timeLimit), null, null);
+
+            PathRelinking relinking = new PathRelinking(problem);
+            relinking.setParallelism(threads);
+            Result relinked = relinking.relink(pool);
+            System.out.printf(Locale.ROOT, "%-10s %s gap=%.3f%% | elite %d/%d | relinking gap=%.3f%% %s%n",
+                    instance.name, strategy, gap(result.getCost(), instance.optimum), pool.size(), pool.getCapacity(),
+                    gap(relinked.bestCost, instance.optimum), relinked);
+        }
+    }
+
+    private static double gap(double cost, double optimum) {
+        return 100.0 * (cost - optimum) / optimum;
+    }
+}
@@ -0,0 +1,405 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A classe PortfolioRunner lança em simultâneo várias execuções (com sementes
+ * diferentes) dos algoritmos disponíveis, num conjunto fixo de threads e com um
+ * orçamento de tempo global. As execuções partilham a melhor solução conhecida
+ * através de um {@link SharedIncumbent} sem locks, e uma execução claramente
+ * dominada (pior do que a melhor conhecida por mais do que uma tolerância, após
+ * um período de graça) é cancelada para libertar a thread.
+ */
+public class PortfolioRunner {
+
+    /**
+     * Algoritmos que podem fazer parte do portefólio. O CAPACITATED_SEARCH
+     * resolve a variante capacitada, pelo que não faz parte das listas por
+     * omissão (ver {@link #uncapacitated()}).
+     */
+    public enum Strategy {
+        LOCAL_SEARCH, TABU_SEARCH, FILTER_AND_FAN, FACILITY_LOCAL_SEARCH, OPEN_SET_SEARCH, CAPACITATED_SEARCH;
+
+        /**
+         * @return Verdadeiro se o algoritmo respeita as capacidades dos armazéns.
+         */
+        public boolean isCapacitated() {
+            return this == CAPACITATED_SEARCH;
+        }
+
+        /**
+         * @return Os algoritmos para o problema sem capacidades.
+         */
+        public static List<Strategy> uncapacitated() {
+            List<Strategy> list = new ArrayList<>();
+            for (Strategy strategy : values()) {
+                if (!strategy.isCapacitated()) {
+                    list.add(strategy);
+                }
+            }
+            return list;
+        }
+
+        /**
+         * Cria o algoritmo com os parâmetros por omissão.
+         *
+         * @param problem A instância do problema.
+         * @return O algoritmo.
+         */
+        public Solver create(WarehouseLocationProblem problem) {
+            switch (this) {
+                case LOCAL_SEARCH:
+                    return new LocalSearchUFLP(problem);
+                case TABU_SEARCH:
+                    return new TabuSearchUFLP(problem);
+                case FILTER_AND_FAN:
+                    return new FilterAndFanUFLP(problem);
+                case FACILITY_LOCAL_SEARCH:
+                    return new FacilityLocalSearchUFLP(problem);
+                case OPEN_SET_SEARCH:
+                    return new OpenSetSearchUFLP(problem);
+                case CAPACITATED_SEARCH:
+                    return new CapacitatedSearchUFLP(problem);
+                default:
+                    throw new IllegalArgumentException("Algoritmo desconhecido: " + this);
+            }
+        }
+    }
+
+    /**
+     * Estado final de uma execução.
+     */
+    public enum RunStatus {
+        COMPLETED, DOMINATED, TIMED_OUT, SKIPPED
+    }
+
+    private final WarehouseLocationProblem problem;
+    private List<Strategy> strategies = Strategy.uncapacitated();
+    private int runsPerStrategy = 4;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private long timeBudgetMillis = 10_000;
+    private long baseSeed = 42;
+    private double dominanceTolerance = 0.05; // Fração acima da melhor solução a partir da qual uma execução é dominada.
+    private long dominanceGraceMillis = 1_000; // Tempo mínimo de execução antes de poder ser cancelada.
+
+    /**
+     * Construtor da classe
+     *
+     * @param problem A instância do problema.
+     */
+    public PortfolioRunner(WarehouseLocationProblem problem) {
+        this.problem = problem;
+    }
+
+    public void setStrategies(List<Strategy> strategies) {
+        this.strategies = new ArrayList<>(strategies);
+    }
+
+    public void setRunsPerStrategy(int runsPerStrategy) {
+        this.runsPerStrategy = runsPerStrategy;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    public void setTimeBudgetMillis(long timeBudgetMillis) {
+        this.timeBudgetMillis = timeBudgetMillis;
+    }
+
+    public void setBaseSeed(long baseSeed) {
+        this.baseSeed = baseSeed;
+    }
+
+    /**
+     * Define quando uma execução é considerada dominada.
+     *
+     * @param tolerance   Fração acima da melhor solução conhecida (por exemplo 0.05 = 5%).
+     * @param graceMillis Tempo mínimo de execução antes de poder ser cancelada.
+     */
+    public void setDominance(double tolerance, long graceMillis) {
+        this.dominanceTolerance = tolerance;
+        this.dominanceGraceMillis = graceMillis;
+    }
+
+    /**
+     * Controlo de uma execução do portefólio: pára no fim do orçamento ou quando a
+     * execução fica dominada, e publica as suas melhorias no incumbente partilhado.
+     */
+    private class RunControl extends SearchControl {
+        private final SharedIncumbent incumbent;
+        private final Strategy strategy;
+        private final long seed;
+        private final long deadline;
+        private long startNanos; // Início da execução na thread do executor (não da submissão).
+        private final AtomicInteger wins;
+        private double runBest = Double.POSITIVE_INFINITY;
+        private RunStatus stopReason;
+
+        RunControl(SharedIncumbent incumbent, Strategy strategy, long seed, long deadline, AtomicInteger wins) {
+            this.incumbent = incumbent;
+            this.strategy = strategy;
+            this.seed = seed;
+            this.deadline = deadline;
+            this.wins = wins;
+        }
+
+        /**
+         * Marca o início da execução; o tempo de tolerância à dominância conta a
+         * partir daqui, e não do tempo passado na fila do executor.
+         */
+        void start(long now) {
+            startNanos = now;
+        }
+
+        @Override
+        public boolean shouldStop() {
+            if (stopReason != null || isCancelled()) {
+                return true;
+            }
+            long now = System.nanoTime();
+            if (now - deadline >= 0) {
+                stopReason = RunStatus.TIMED_OUT;
+                return true;
+            }
+            // Só é dominada depois de ter reportado uma solução e passado a tolerância.
+            if (runBest < Double.POSITIVE_INFINITY && now - startNanos >= dominanceGraceMillis * 1_000_000L
+                    && runBest > incumbent.getCost() * (1.0 + dominanceTolerance)) {
+                stopReason = RunStatus.DOMINATED;
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void improved(double cost, int[] assignment) {
+            runBest = cost;
+            if (incumbent.offer(cost, assignment, strategy.name(), seed)) {
+                wins.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Resultado de uma execução individual.
+     */
+    public static class RunOutcome {
+        public final Strategy strategy;
+        public final long seed;
+        public final double cost;
+        public final long millis;
+        public final RunStatus status;
+
+        RunOutcome(Strategy strategy, long seed, double cost, long millis, RunStatus status) {
+            this.strategy = strategy;
+            this.seed = seed;
+            this.cost = cost;
+            this.millis = millis;
+            this.status = status;
+        }
+    }
+
+    /**
+     * Estatísticas agregadas de um algoritmo no portefólio.
+     */
+    public static class StrategyStats {
+        public int runs;
+        public int completed;
+        public int dominated;
+        public int timedOut;
+        public int skipped;
+        public int incumbentUpdates; // Número de vezes que melhorou a solução partilhada.
+        public double bestCost = Double.POSITIVE_INFINITY;
+        public double sumCost;
+        public long totalMillis;
+
+        void add(RunOutcome outcome) {
+            runs++;
+            switch (outcome.status) {
+                case COMPLETED: completed++; break;
+                case DOMINATED: dominated++; break;
+                case TIMED_OUT: timedOut++; break;
+                case SKIPPED: skipped++; return;
+            }
+            bestCost = Math.min(bestCost, outcome.cost);
+            sumCost += outcome.cost;
+            totalMillis += outcome.millis;
+        }
+
+        /**
+         * @return O custo médio das execuções que chegaram a correr.
+         */
+        public double meanCost() {
+            int executed = runs - skipped;
+            return executed == 0 ? Double.NaN : sumCost / executed;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("runs=%d completed=%d dominated=%d timedOut=%d skipped=%d best=%.3f mean=%.3f "
+                            + "incumbentUpdates=%d time=%d ms",
+                    runs, completed, dominated, timedOut, skipped, bestCost, meanCost(), incumbentUpdates, totalMillis);
+        }
+    }
+
+    /**
+     * Resultado do portefólio: a melhor solução e as estatísticas por algoritmo.
+     */
+    public static class PortfolioResult {
+        public final double bestCost;
+        private final int[] bestAssignment;
+        public final String bestStrategy;
+        public final long bestSeed;
+        public final long elapsedMillis;
+        public final Map<Strategy, StrategyStats> stats;
+        public final List<RunOutcome> runs;
+
+        PortfolioResult(SharedIncumbent.Incumbent best, long elapsedMillis, Map<Strategy, StrategyStats> stats,
+                        List<RunOutcome> runs) {
+            this.bestCost = best == null ? Double.POSITIVE_INFINITY : best.cost;
+            this.bestAssignment = best == null ? null : best.getAssignment();
+            this.bestStrategy = best == null ? null : best.strategy;
+            this.bestSeed = best == null ? -1 : best.seed;
+            this.elapsedMillis = elapsedMillis;
+            this.stats = stats;
+            this.runs = runs;
+        }
+
+        public int[] getBestAssignment() {
+            return bestAssignment == null ? null : bestAssignment.clone();
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("Best cost: %.3f (%s, seed %d) in %d ms%n", bestCost, bestStrategy, bestSeed,
+                    elapsedMillis));
+            for (Map.Entry<Strategy, StrategyStats> entry : stats.entrySet()) {
+                sb.append("  ").append(entry.getKey()).append(": ").append(entry.getValue()).append(System.lineSeparator());
+            }
+            return sb.toString();
+        }
+    }
+
+    /**
+     * Executa o portefólio até todas as execuções terminarem ou o orçamento de
+     * tempo se esgotar.
+     *
+     * @return A melhor solução e as estatísticas por algoritmo.
+     * @throws InterruptedException Se a thread for interrompida enquanto espera.
+     */
+    public PortfolioResult run() throws InterruptedException {
+        long start = System.nanoTime();
+        long deadline = start + timeBudgetMillis * 1_000_000L;
+        SharedIncumbent incumbent = new SharedIncumbent();
+        Map<Strategy, AtomicInteger> wins = new EnumMap<>(Strategy.class);
+        for (Strategy strategy : strategies) {
+            wins.put(strategy, new AtomicInteger());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "portfolio-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<Future<RunOutcome>> futures = new ArrayList<>();
+        List<RunControl> controls = new ArrayList<>();
+        try {
+            // As execuções são intercaladas por algoritmo, para que todos comecem cedo.
+            for (int run = 0; run < runsPerStrategy; run++) {
+                for (Strategy strategy : strategies) {
+                    long seed = baseSeed + run;
+                    RunControl control = new RunControl(incumbent, strategy, seed, deadline, wins.get(strategy));
+                    controls.add(control);
+                    futures.add(executor.submit(() -> execute(strategy, seed, control, deadline)));
+                }
+            }
+
+            List<RunOutcome> outcomes = new ArrayList<>();
+            for (Future<RunOutcome> future : futures) {
+                try {
+                    outcomes.add(future.get());
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Execução do portefólio falhou", e.getCause());
+                }
+            }
+
+            Map<Strategy, StrategyStats> stats = new EnumMap<>(Strategy.class);
+            for (Strategy strategy : strategies) {
+                StrategyStats strategyStats = new StrategyStats();
+                strategyStats.incumbentUpdates = wins.get(strategy).get();
+                stats.put(strategy, strategyStats);
+            }
+            for (RunOutcome outcome : outcomes) {
+                stats.get(outcome.strategy).add(outcome);
+            }
+            return new PortfolioResult(incumbent.get(), (System.nanoTime() - start) / 1_000_000, stats, outcomes);
+        } finally {
+            for (RunControl control : controls) {
+                control.cancel();
+            }
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Executa um algoritmo com uma semente, na thread do executor.
+     */
+    private RunOutcome execute(Strategy strategy, long seed, RunControl control, long deadline) {
+        long start = System.nanoTime();
+        if (start - deadline >= 0) {
+            return new RunOutcome(strategy, seed, Double.POSITIVE_INFINITY, 0, RunStatus.SKIPPED);
+        }
+        control.start(start);
+
+        double cost = solve(strategy, problem, seed, control);
+        RunStatus status = control.stopReason != null ? control.stopReason : RunStatus.COMPLETED;
+        return new RunOutcome(strategy, seed, cost, (System.nanoTime() - start) / 1_000_000, status);
+    }
+
+    /**
+     * Executa uma vez um algoritmo até ao fim (ou até o controlo pedir para
+     * parar), com os parâmetros por omissão e a semente dada. Partilhado com o
+     * {@link BatchRunner}.
+     *
+     * @param strategy O algoritmo a executar.
+     * @param problem  A instância do problema.
+     * @param seed     A semente da execução.
+     * @param control  O controlo da execução.
+     * @return O custo da melhor solução encontrada.
+     */
+    static double solve(Strategy strategy, WarehouseLocationProblem problem, long seed, SearchControl control) {
+        Solver solver = strategy.create(problem);
+        solver.setSeed(seed);
+        solver.setSearchControl(control);
+        return solver.solve(Budget.unlimited(), null, null).getCost();
+    }
+
+    /**
+     * Executa o portefólio sobre uma instância.
+     * Uso: {@code PortfolioRunner <ficheiro> [orçamentoMs] [execuçõesPorAlgoritmo] [threads]}.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        String path = args.length > 0 ? args[0] : "src/main/java/org/example/FicheirosTeste/ORLIB/ORLIB-uncap/a-c/capb.txt";
+        WarehouseLocationProblem problem = new WarehouseLocationProblem(path);
+        PortfolioRunner runner = new PortfolioRunner(problem);
+        if (args.length > 1) {
+            runner.setTimeBudgetMillis(Long.parseLong(args[1]));
+        }
+        if (args.length > 2) {
+            runner.setRunsPerStrategy(Integer.parseInt(args[2]));
+        }
+        if (args.length > 3) {
+            runner.setThreads(Integer.parseInt(args[3]));
+        }
+        System.out.print(runner.run());
+    }
+}
@@ -0,0 +1,119 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * A classe PreprocessedProblem é uma vista pré-processada de um
+ * {@link WarehouseLocationProblem}, pensada para os ciclos de vizinhança dos
+ * algoritmos. Guarda a matriz de custos num array contíguo por cliente
+ * ({@code costs[cliente * m + armazém]}), para que percorrer os armazéns de um
+ * cliente seja um acesso sequencial, e, para cada cliente, a lista ordenada dos
+ * k armazéns mais baratos (listas de candidatos).
+ *
+ * <p>Com k menor ou igual a zero a vista fica em modo de varrimento completo:
+ * os candidatos de cada cliente são todos os armazéns, pela ordem dos índices,
+ * tal como nos ciclos originais. Com k &ge; m as listas contêm todos os
+ * armazéns, ordenados por custo.
+ */
+public class PreprocessedProblem {
+
+    public static final int FULL_SCAN = 0;
+    public static final int DEFAULT_CANDIDATES = 20; // Tamanho das listas de candidatos por omissão.
+
+    final int numWarehouses;
+    final int numCustomers;
+    final float[] costs; // Custos por cliente: costs[j * numWarehouses + i].
+    final float[] fixedCosts;
+    final int[] demands;
+
+    private final int candidateCount;
+    private final boolean fullScan;
+    private final int[] candidates; // candidates[j * candidateCount + r], ordenados por custo.
+
+    private PreprocessedProblem(WarehouseLocationProblem problem, int k) {
+        this.numWarehouses = problem.numWarehouses;
+        this.numCustomers = problem.numCustomers;
+        this.costs = problem.customerMajorCosts();
+        this.fixedCosts = problem.fixedCosts;
+        this.demands = problem.demands;
+        this.fullScan = k <= 0;
+        this.candidateCount = fullScan ? numWarehouses : Math.min(k, numWarehouses);
+        this.candidates = fullScan ? null : buildCandidates();
+    }
+
+    /**
+     * Cria a vista pré-processada com listas de candidatos de tamanho k.
+     *
+     * @param problem A instância do problema.
+     * @param k       O número de armazéns candidatos por cliente; {@link #FULL_SCAN}
+     *                para varrer todos os armazéns.
+     * @return A vista pré-processada.
+     */
+    public static PreprocessedProblem of(WarehouseLocationProblem problem, int k) {
+        return new PreprocessedProblem(problem, k);
+    }
+
+    /**
+     * Ordena os armazéns de cada cliente por custo e guarda os k primeiros. As
+     * chaves são longs (bits do custo ordenáveis seguidos do índice), pelo que a
+     * ordenação é primitiva e os empates ficam pela ordem dos índices.
+     */
+    private int[] buildCandidates() {
+        int m = numWarehouses;
+        int[] result = new int[numCustomers * candidateCount];
+        long[] keys = new long[m];
+        for (int j = 0; j < numCustomers; j++) {
+            int base = j * m;
+            for (int i = 0; i < m; i++) {
+                keys[i] = ((long) sortableBits(costs[base + i]) << 32) | i;
+            }
+            Arrays.sort(keys);
+            for (int r = 0; r < candidateCount; r++) {
+                result[j * candidateCount + r] = (int) keys[r];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Converte um float num inteiro com a mesma ordem (também para valores negativos).
+     */
+    static int sortableBits(float value) {
+        int bits = Float.floatToIntBits(value);
+        return bits ^ ((bits >> 31) & 0x7fffffff);
+    }
+
+    /**
+     * @return O número de candidatos por cliente.
+     */
+    public int candidateCount() {
+        return candidateCount;
+    }
+
+    /**
+     * @return Verdadeiro se a vista varre todos os armazéns.
+     */
+    public boolean isFullScan() {
+        return fullScan;
+    }
+
+    /**
+     * Retorna o r-ésimo armazém candidato do cliente.
+     *
+     * @param customer O índice do cliente.
+     * @param rank     A posição na lista (0 é o mais barato).
+     * @return O índice do armazém.
+     */
+    public int candidate(int customer, int rank) {
+        return fullScan ? rank : candidates[customer * candidateCount + rank];
+    }
+
+    /**
+     * @param customer  O índice do cliente.
+     * @param warehouse O índice do armazém.
+     * @return O custo de alocar o cliente ao armazém.
+     */
+    public float cost(int customer, int warehouse) {
+        return costs[customer * numWarehouses + warehouse];
+    }
+}
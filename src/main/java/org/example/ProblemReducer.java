@@ -0,0 +1,210 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * A classe ProblemReducer reduz uma instância antes da pesquisa, usando os
+ * custos reduzidos do {@link LagrangianBound}:
+ * <ul>
+ *   <li>um armazém com {@code ρ[i] >= 0} e {@code L0 + ρ[i] > UB} está fechado em
+ *       todas as soluções ótimas (abri-lo daria um limite acima de UB);</li>
+ *   <li>um armazém com {@code ρ[i] < 0} e {@code L0 - ρ[i] > UB} está aberto em
+ *       todas as soluções ótimas;</li>
+ *   <li>para cada cliente, os armazéns livres com custo não inferior ao do
+ *       armazém fixado aberto mais barato nunca são escolhidos (pares dominados);</li>
+ *   <li>um cliente cujo armazém livre mais barato não bate o fixado aberto mais
+ *       barato tem a atribuição determinada e sai do problema.</li>
+ * </ul>
+ * {@code L0} é o limite Lagrangeano sem a restrição de pelo menos um armazém
+ * aberto ({@link LagrangianBound#getBaseBound()}): quando todos os ρ são não
+ * negativos, o limite inferior já inclui o ρ do armazém mais barato, e somá-lo
+ * de novo fecharia armazéns que podem estar abertos numa solução ótima.
+ * O limite superior UB é o da relaxação melhorado pela pesquisa local de
+ * armazéns. Qualquer solução ótima do problema reduzido corresponde a uma
+ * solução ótima do original.
+ *
+ * <p>Os custos reduzidos ficam numa {@link SparseInstance}: a lista de cada
+ * cliente só tem os armazéns livres não dominados e o armazém que junta os
+ * fixados abertos.
+ */
+public class ProblemReducer {
+
+    private static final double TOLERANCE = 1e-7; // Margem relativa para o arredondamento dos custos em float.
+
+    private ProblemReducer() {
+    }
+
+    /**
+     * Reduz uma instância, calculando o limite Lagrangeano.
+     *
+     * @param problem A instância original.
+     * @return A instância reduzida.
+     */
+    public static ReducedInstance reduce(WarehouseLocationProblem problem) {
+        LagrangianBound bound = new LagrangianBound(problem);
+        bound.compute();
+        return reduce(problem, bound);
+    }
+
+    /**
+     * Reduz uma instância com um limite Lagrangeano já calculado.
+     *
+     * @param problem A instância original.
+     * @param bound   O limite calculado com {@link LagrangianBound#compute()}.
+     * @return A instância reduzida.
+     */
+    public static ReducedInstance reduce(WarehouseLocationProblem problem, LagrangianBound bound) {
+        int m = problem.numWarehouses;
+        int n = problem.numCustomers;
+        float[] costs = problem.customerMajorCosts();
+
+        // Limite superior: a melhor solução da relaxação, melhorada por pesquisa local.
+        double upper = bound.getUpperBound();
+        boolean[] upperOpen = bound.getUpperBoundOpen();
+        if (upperOpen != null) {
+            FacilityState state = new FacilityState(problem);
+            state.reset(upperOpen);
+            FacilityLocalSearchUFLP.descend(state, m, true);
+            upper = Math.min(upper, state.getCost());
+        }
+        double lower = bound.getBaseBound();
+        double[] rho = bound.getReducedCosts();
+        double margin = TOLERANCE * Math.abs(upper);
+
+        // 1: fixa armazéns pelos testes de custo reduzido.
+        byte[] status = new byte[m]; // 0 livre, 1 fixado aberto, -1 fixado fechado.
+        int fixedOpen = 0;
+        int fixedClosed = 0;
+        for (int i = 0; i < m; i++) {
+            if (rho[i] >= 0 && lower + rho[i] > upper + margin) {
+                status[i] = -1;
+                fixedClosed++;
+            } else if (rho[i] < 0 && lower - rho[i] > upper + margin) {
+                status[i] = 1;
+                fixedOpen++;
+            }
+        }
+
+        // 2: para cada cliente, o armazém fixado aberto mais barato e o livre mais barato.
+        int[] bestFixed = new int[n];
+        double offset = 0.0;
+        for (int i = 0; i < m; i++) {
+            if (status[i] == 1) {
+                offset += problem.fixedCosts[i];
+            }
+        }
+        boolean[] keepCustomer = new boolean[n];
+        int keptCustomers = 0;
+        for (int j = 0; j < n; j++) {
+            int base = j * m;
+            int fixed = -1;
+            float freeMin = Float.POSITIVE_INFINITY;
+            for (int i = 0; i < m; i++) {
+                if (status[i] == 1 && (fixed < 0 || costs[base + i] < costs[base + fixed])) {
+                    fixed = i;
+                } else if (status[i] == 0) {
+                    freeMin = Math.min(freeMin, costs[base + i]);
+                }
+            }
+            bestFixed[j] = fixed;
+            keepCustomer[j] = fixed < 0 || freeMin < costs[base + fixed];
+            if (keepCustomer[j]) {
+                keptCustomers++;
+            }
+        }
+        if (keptCustomers == 0) {
+            keepCustomer[0] = true; // O problema reduzido precisa de pelo menos um cliente.
+            keptCustomers = 1;
+        }
+
+        // 3: constrói o problema reduzido (armazéns livres + um armazém que junta os fixados abertos).
+        int freeCount = m - fixedOpen - fixedClosed;
+        int reducedM = freeCount + (fixedOpen > 0 ? 1 : 0);
+        int[] warehouseMap = new int[reducedM];
+        int w = 0;
+        for (int i = 0; i < m; i++) {
+            if (status[i] == 0) {
+                warehouseMap[w++] = i;
+            }
+        }
+        if (fixedOpen > 0) {
+            warehouseMap[w] = -1;
+        }
+
+        // Custos reduzidos em listas de candidatos (CSR): os pares dominados não entram.
+        int[] customerMap = new int[keptCustomers];
+        int[] mergedChoice = new int[keptCustomers];
+        int[] fixedAssignment = new int[n];
+        int[] offsets = new int[keptCustomers + 1];
+        int r = 0;
+        for (int j = 0; j < n; j++) {
+            if (!keepCustomer[j]) {
+                fixedAssignment[j] = bestFixed[j];
+                offset += costs[j * m + bestFixed[j]];
+                continue;
+            }
+            fixedAssignment[j] = -1;
+            customerMap[r] = j;
+            mergedChoice[r] = bestFixed[j];
+            int count = fixedOpen > 0 ? 1 : 0;
+            for (int k = 0; k < freeCount; k++) {
+                if (!dominated(costs, j * m, warehouseMap[k], bestFixed[j])) {
+                    count++;
+                }
+            }
+            offsets[r + 1] = offsets[r] + count;
+            r++;
+        }
+
+        int[] facilities = new int[offsets[keptCustomers]];
+        float[] pairCosts = new float[offsets[keptCustomers]];
+        long[] keys = new long[reducedM];
+        long prunedPairs = (long) keptCustomers * reducedM - offsets[keptCustomers];
+        for (r = 0; r < keptCustomers; r++) {
+            int base = customerMap[r] * m;
+            int count = 0;
+            for (int k = 0; k < freeCount; k++) {
+                if (!dominated(costs, base, warehouseMap[k], mergedChoice[r])) {
+                    keys[count++] = ((long) PreprocessedProblem.sortableBits(costs[base + warehouseMap[k]]) << 32) | k;
+                }
+            }
+            if (fixedOpen > 0) {
+                keys[count++] = ((long) PreprocessedProblem.sortableBits(costs[base + mergedChoice[r]]) << 32)
+                        | freeCount;
+            }
+            Arrays.sort(keys, 0, count); // Por custo crescente, como a SparseInstance exige.
+            for (int q = 0; q < count; q++) {
+                int k = (int) keys[q];
+                facilities[offsets[r] + q] = k;
+                pairCosts[offsets[r] + q] = costs[base + (k == freeCount ? mergedChoice[r] : warehouseMap[k])];
+            }
+        }
+
+        float[] reducedFixedCosts = new float[reducedM]; // O armazém que junta os fixados abertos custa 0.
+        for (int k = 0; k < freeCount; k++) {
+            reducedFixedCosts[k] = problem.fixedCosts[warehouseMap[k]];
+        }
+        double mergedCapacity = 0.0;
+        for (int i = 0; i < m; i++) {
+            if (status[i] == 1) {
+                mergedCapacity += problem.capacities[i];
+            }
+        }
+        int[] reducedDemands = new int[keptCustomers];
+        for (int q = 0; q < keptCustomers; q++) {
+            reducedDemands[q] = problem.demands[customerMap[q]];
+        }
+        SparseInstance sparse = new SparseInstance(reducedFixedCosts, reducedDemands, offsets, facilities, pairCosts);
+
+        return new ReducedInstance(problem, sparse, offset, warehouseMap, customerMap, mergedChoice, fixedAssignment,
+                mergedCapacity, fixedOpen, fixedClosed, prunedPairs, lower, upper);
+    }
+
+    /**
+     * @return Verdadeiro se o armazém livre nunca serve o cliente porque o
+     * armazém fixado aberto {@code fixed} (-1 se não houver) não é mais caro.
+     */
+    private static boolean dominated(float[] costs, int base, int warehouse, int fixed) {
+        return fixed >= 0 && costs[base + warehouse] >= costs[base + fixed];
+    }
+}
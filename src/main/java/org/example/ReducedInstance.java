@@ -0,0 +1,158 @@
+package org.example;
+
+/**
+ * A classe ReducedInstance é o resultado do {@link ProblemReducer}: um problema
+ * mais pequeno, equivalente ao original a menos de um custo constante, e a
+ * correspondência dos seus índices com os do problema original.
+ *
+ * <p>Os armazéns fixados como abertos são juntos num único armazém com custo
+ * fixo 0 (o último do problema reduzido), cujo custo de alocação para cada
+ * cliente é o do armazém fixado aberto mais barato para esse cliente. Os
+ * armazéns fixados como fechados e os clientes cuja atribuição já é conhecida
+ * não aparecem no problema reduzido; os custos correspondentes estão em
+ * {@link #getOffset()}.
+ *
+ * <p>Os custos reduzidos estão numa {@link SparseInstance} sem os pares
+ * dominados ({@link #getSparseProblem()}). A matriz densa de
+ * {@link #getProblem()}, para os algoritmos que a exigem, só é criada quando
+ * pedida e tem os custos verdadeiros de todos os pares: um par dominado nunca é
+ * melhor, mas se um algoritmo o escolher o custo continua certo.
+ */
+public class ReducedInstance {
+
+    private final WarehouseLocationProblem original;
+    private final SparseInstance sparse;
+    private WarehouseLocationProblem reduced; // Criado no primeiro getProblem().
+    private final double offset;
+    private final int[] warehouseMap; // Armazém reduzido -> original (-1 para o armazém que junta os fixados abertos).
+    private final int[] customerMap; // Cliente reduzido -> original.
+    private final int[] mergedChoice; // Para cada cliente reduzido, o armazém fixado aberto mais barato (original).
+    private final int[] fixedAssignment; // Para cada cliente original removido, o seu armazém (-1 se não foi removido).
+    private final double mergedCapacity; // Soma das capacidades dos armazéns fixados abertos.
+
+    final int fixedOpen;
+    final int fixedClosed;
+    final long prunedPairs;
+    final double lowerBound;
+    final double upperBound;
+
+    ReducedInstance(WarehouseLocationProblem original, SparseInstance sparse, double offset,
+                    int[] warehouseMap, int[] customerMap, int[] mergedChoice, int[] fixedAssignment,
+                    double mergedCapacity, int fixedOpen,
+                    int fixedClosed, long prunedPairs, double lowerBound, double upperBound) {
+        this.original = original;
+        this.sparse = sparse;
+        this.offset = offset;
+        this.warehouseMap = warehouseMap;
+        this.customerMap = customerMap;
+        this.mergedChoice = mergedChoice;
+        this.fixedAssignment = fixedAssignment;
+        this.mergedCapacity = mergedCapacity;
+        this.fixedOpen = fixedOpen;
+        this.fixedClosed = fixedClosed;
+        this.prunedPairs = prunedPairs;
+        this.lowerBound = lowerBound;
+        this.upperBound = upperBound;
+    }
+
+    /**
+     * @return O problema reduzido, que pode ser dado a qualquer algoritmo.
+     */
+    public synchronized WarehouseLocationProblem getProblem() {
+        if (reduced == null) {
+            reduced = densify();
+        }
+        return reduced;
+    }
+
+    /**
+     * @return Os custos reduzidos sem os pares dominados, para o {@link SparseSearchUFLP}.
+     */
+    public SparseInstance getSparseProblem() {
+        return sparse;
+    }
+
+    private WarehouseLocationProblem densify() {
+        int reducedM = warehouseMap.length;
+        int m = original.numWarehouses;
+        float[] costs = original.customerMajorCosts();
+        WarehouseLocationProblem problem = new WarehouseLocationProblem(reducedM, customerMap.length);
+        for (int k = 0; k < reducedM; k++) {
+            if (warehouseMap[k] >= 0) {
+                problem.capacities[k] = original.capacities[warehouseMap[k]];
+                problem.fixedCosts[k] = sparse.fixedCost(k);
+            } else {
+                problem.capacities[k] = mergedCapacity;
+            }
+        }
+        for (int r = 0; r < customerMap.length; r++) {
+            int base = customerMap[r] * m;
+            problem.demands[r] = sparse.demand(r);
+            for (int k = 0; k < reducedM; k++) {
+                problem.allocationCosts[k][r] = costs[base + (warehouseMap[k] >= 0 ? warehouseMap[k] : mergedChoice[r])];
+            }
+        }
+        return problem;
+    }
+
+    public WarehouseLocationProblem getOriginal() {
+        return original;
+    }
+
+    /**
+     * @return O custo que é preciso somar ao custo de uma solução reduzida para
+     * obter o custo da solução original correspondente.
+     */
+    public double getOffset() {
+        return offset;
+    }
+
+    /**
+     * Calcula o custo de uma atribuição do problema original, com os custos fixos
+     * só dos armazéns que servem algum cliente. Para uma atribuição dada por
+     * {@link #expand(int[])} nunca é maior do que o custo reduzido mais o
+     * deslocamento (que conta todos os armazéns fixados abertos).
+     *
+     * @param assignment A atribuição de todos os clientes originais.
+     * @return O custo exato.
+     */
+    public double originalCost(int[] assignment) {
+        int m = original.numWarehouses;
+        float[] costs = original.customerMajorCosts();
+        boolean[] open = new boolean[m];
+        double total = 0.0;
+        for (int j = 0; j < assignment.length; j++) {
+            total += costs[j * m + assignment[j]];
+            open[assignment[j]] = true;
+        }
+        for (int i = 0; i < m; i++) {
+            if (open[i]) {
+                total += original.fixedCosts[i];
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Converte uma atribuição do problema reduzido numa atribuição do original.
+     *
+     * @param reducedAssignment A atribuição de clientes reduzidos a armazéns reduzidos.
+     * @return A atribuição de todos os clientes originais a armazéns originais.
+     */
+    public int[] expand(int[] reducedAssignment) {
+        int[] assignment = fixedAssignment.clone();
+        for (int r = 0; r < customerMap.length; r++) {
+            int warehouse = warehouseMap[reducedAssignment[r]];
+            assignment[customerMap[r]] = warehouse >= 0 ? warehouse : mergedChoice[r];
+        }
+        return assignment;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%dx%d -> %dx%d (fixed open %d, fixed closed %d, pruned pairs %d, offset %.3f, "
+                        + "bounds [%.3f, %.3f])", original.numWarehouses, original.numCustomers,
+                sparse.getNumWarehouses(), sparse.getNumCustomers(), fixedOpen, fixedClosed, prunedPairs, offset, lowerBound,
+                upperBound);
+    }
+}
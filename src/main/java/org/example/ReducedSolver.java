@@ -0,0 +1,113 @@
+package org.example;
+
+/**
+ * A classe ReducedSolver aplica o {@link ProblemReducer} antes de resolver:
+ * o algoritmo interno trabalha no problema reduzido e cada melhoria é
+ * convertida para o problema original (atribuição expandida e o seu custo
+ * exato) antes de chegar ao orçamento, ao listener e ao controlo.
+ */
+public class ReducedSolver implements Solver {
+
+    private final ReducedInstance instance;
+    private final Solver inner;
+    private SearchControl control = new SearchControl();
+
+    /**
+     * Construtor da classe
+     *
+     * @param instance A instância reduzida.
+     * @param inner    O algoritmo, criado para {@code instance.getProblem()}.
+     */
+    public ReducedSolver(ReducedInstance instance, Solver inner) {
+        this.instance = instance;
+        this.inner = inner;
+    }
+
+    /**
+     * Reduz a instância e cria o algoritmo da estratégia para o problema reduzido.
+     *
+     * @param problem  A instância original.
+     * @param strategy O algoritmo a usar.
+     * @return O algoritmo sobre o problema reduzido.
+     */
+    public static ReducedSolver of(WarehouseLocationProblem problem, PortfolioRunner.Strategy strategy) {
+        ReducedInstance instance = ProblemReducer.reduce(problem);
+        return new ReducedSolver(instance, strategy.create(instance.getProblem()));
+    }
+
+    /**
+     * Reduz a instância e resolve o problema reduzido com o {@link SparseSearchUFLP}
+     * sobre as listas de candidatos, sem criar a matriz densa reduzida.
+     *
+     * @param problem A instância original.
+     * @return O algoritmo sobre o problema reduzido.
+     */
+    public static ReducedSolver sparse(WarehouseLocationProblem problem) {
+        ReducedInstance instance = ProblemReducer.reduce(problem);
+        return new ReducedSolver(instance, new SparseSearchUFLP(instance.getSparseProblem()));
+    }
+
+    public ReducedInstance getInstance() {
+        return instance;
+    }
+
+    @Override
+    public String getName() {
+        return inner.getName() + " (reduced)";
+    }
+
+    @Override
+    public void setSeed(long seed) {
+        inner.setSeed(seed);
+    }
+
+    @Override
+    public void setSearchControl(SearchControl control) {
+        this.control = control;
+    }
+
+    @Override
+    public void setConstruction(ConstructionHeuristic construction) {
+        inner.setConstruction(construction);
+    }
+
+    @Override
+    public SolverResult solve(Budget budget, CancellationToken token, ImprovementListener listener) {
+        BudgetControl budgetControl = new BudgetControl(budget, token, listener, control);
+        inner.setSearchControl(new ExpandingControl(budgetControl));
+        // O orçamento de fora decide a paragem; o de dentro só mantém os recomeços.
+        inner.solve(Budget.of(budget.getMillis(), budget.getEvaluations()), token, null);
+        return budgetControl.result(getName());
+    }
+
+    /**
+     * Passa as melhorias do problema reduzido ao controlo de fora, já
+     * convertidas para o problema original.
+     */
+    private final class ExpandingControl extends SearchControl {
+
+        private final BudgetControl outer;
+
+        ExpandingControl(BudgetControl outer) {
+            this.outer = outer;
+        }
+
+        @Override
+        public boolean shouldStop() {
+            return outer.shouldStop();
+        }
+
+        @Override
+        public void evaluated(long count) {
+            outer.evaluated(count);
+        }
+
+        @Override
+        public void improved(double cost, int[] assignment) {
+            // O custo é recalculado no original: um armazém fixado aberto que deixou de servir
+            // clientes não conta, e o custo comunicado é sempre o da atribuição expandida.
+            int[] expanded = instance.expand(assignment);
+            outer.improved(instance.originalCost(expanded), expanded);
+        }
+    }
+}
@@ -0,0 +1,743 @@
+package org.example;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * A classe Reoptimizer mantém uma boa solução de uma {@link DynamicInstance}
+ * à medida que a instância muda, sem resolver de raiz.
+ *
+ * <p>A solução é um conjunto de armazéns abertos, com cada cliente servido pelo
+ * aberto mais barato, guardada como no {@link FacilityState}: o primeiro e o
+ * segundo armazém aberto de cada cliente e, para cada armazém, o ganho de o
+ * abrir e a perda de o fechar. Cada alteração da instância é reparada logo,
+ * apenas para o cliente ou armazém afetado, e marca os armazéns à sua volta
+ * (os mais baratos do cliente, o armazém que o servia, o armazém cujo custo
+ * fixo mudou). {@link #reoptimize()} faz depois uma pesquisa local (flips e
+ * trocas) só sobre os armazéns marcados, alargando a marca aos armazéns dos
+ * clientes que mudam de armazém. O trabalho depende do tamanho da alteração.
+ *
+ * <p>Para que aplicar um movimento não percorra todos os clientes, cada armazém
+ * tem, como a transposta da {@link SparseInstance}, a lista dos clientes que o
+ * têm entre os seus preferidos até ao segundo aberto (inclusive): só esses
+ * mudam de primeiro ou segundo armazém quando ele abre ou fecha. Com um único
+ * armazém aberto não há segundo e as listas têm todos os clientes.
+ *
+ * <p>A pesquisa restrita acumula desvio face a uma solução de raiz (cerca de
+ * 1,4% na capb depois de 160 lotes de 5 alterações). Com
+ * {@link #setFullSolveInterval(int)}, a cada N reotimizações resolve também a
+ * instância de raiz e adota essa solução se for melhor.
+ */
+public class Reoptimizer {
+
+    private static final double EPSILON = 1e-9;
+
+    private final DynamicInstance instance;
+    private final int numWarehouses;
+    private int neighbourhoodSize = 10; // Armazéns mais baratos de cada cliente alterado marcados para a pesquisa.
+    private int fullSolveInterval; // Reotimizações entre pesquisas completas (0 = nunca).
+    private int batches; // Reotimizações feitas.
+    private final Listener listener = new Listener();
+
+    private final boolean[] open;
+    private int openCount;
+    private double cost;
+    private final double[] gain;
+    private final double[] loss;
+
+    private int[] rank1 = new int[0];
+    private int[] rank2 = new int[0];
+    private int[] best1 = new int[0];
+    private int[] best2 = new int[0];
+
+    // Lista duplamente ligada dos clientes servidos por cada armazém (best1 == i).
+    private final int[] head;
+    private int[] next = new int[0];
+    private int[] prev = new int[0];
+
+    // Listas por armazém dos clientes com o armazém antes ou no segundo aberto (ver a descrição da classe).
+    private final int[][] members;
+    private final int[] memberCount;
+    private int[] depth = new int[0]; // Preferidos de cada cliente que estão nas listas.
+    private int[][] slots = new int[0][]; // slots[c][r]: posição de c na lista do seu r-ésimo preferido.
+
+    // Armazéns marcados desde a última reotimização.
+    private final boolean[] affected;
+    private final int[] affectedList;
+    private int affectedCount;
+    private int changes;
+
+    /**
+     * Resultado de uma reotimização.
+     */
+    public static class Result {
+        public final double cost;
+        public final int changes; // Alterações da instância reparadas.
+        public final int affectedWarehouses; // Armazéns considerados pela pesquisa.
+        public final int flips;
+        public final int swaps;
+        public final long evaluations;
+        public final boolean fullSolve; // Verdadeiro se incluiu a pesquisa completa periódica.
+        public final long nanos;
+
+        Result(double cost, int changes, int affectedWarehouses, int flips, int swaps, long evaluations,
+               boolean fullSolve, long nanos) {
+            this.cost = cost;
+            this.changes = changes;
+            this.affectedWarehouses = affectedWarehouses;
+            this.flips = flips;
+            this.swaps = swaps;
+            this.evaluations = evaluations;
+            this.fullSolve = fullSolve;
+            this.nanos = nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("cost=%.3f changes=%d affected=%d flips=%d swaps=%d evaluations=%d%s time=%.1f us",
+                    cost, changes, affectedWarehouses, flips, swaps, evaluations, fullSolve ? " full" : "",
+                    nanos / 1e3);
+        }
+    }
+
+    /**
+     * Construtor da classe: resolve a instância atual de raiz (com a
+     * {@link FacilityLocalSearchUFLP}) e passa a acompanhar as alterações.
+     *
+     * @param instance A instância dinâmica.
+     */
+    public Reoptimizer(DynamicInstance instance) {
+        this(instance, initialOpen(instance));
+    }
+
+    /**
+     * Construtor a partir de um conjunto de armazéns abertos conhecido.
+     *
+     * @param instance    A instância dinâmica.
+     * @param initialOpen Os armazéns abertos (pelo menos um).
+     */
+    public Reoptimizer(DynamicInstance instance, boolean[] initialOpen) {
+        this.instance = instance;
+        this.numWarehouses = instance.getNumWarehouses();
+        this.open = new boolean[numWarehouses];
+        this.gain = new double[numWarehouses];
+        this.loss = new double[numWarehouses];
+        this.head = new int[numWarehouses];
+        this.members = new int[numWarehouses][4];
+        this.memberCount = new int[numWarehouses];
+        this.affected = new boolean[numWarehouses];
+        this.affectedList = new int[numWarehouses];
+        reset(initialOpen);
+        instance.addListener(listener);
+    }
+
+    /**
+     * Deixa de acompanhar as alterações da instância. A solução corrente fica
+     * como estava, mas deixa de corresponder à instância se esta mudar.
+     */
+    public void stopListening() {
+        instance.removeListener(listener);
+    }
+
+    private static boolean[] initialOpen(DynamicInstance instance) {
+        int m = instance.getNumWarehouses();
+        boolean[] initial = new boolean[m];
+        if (instance.getCustomerCount() == 0) {
+            int cheapest = 0;
+            for (int i = 1; i < m; i++) {
+                if (instance.getFixedCost(i) < instance.getFixedCost(cheapest)) {
+                    cheapest = i;
+                }
+            }
+            initial[cheapest] = true;
+            return initial;
+        }
+        FacilityLocalSearchUFLP solver = new FacilityLocalSearchUFLP(instance.toProblem());
+        solver.solve();
+        for (int warehouse : solver.getBestAssignment()) {
+            initial[warehouse] = true;
+        }
+        return initial;
+    }
+
+    /**
+     * @param neighbourhoodSize O número de armazéns mais baratos de cada cliente
+     *                          alterado que a pesquisa considera.
+     */
+    public void setNeighbourhoodSize(int neighbourhoodSize) {
+        this.neighbourhoodSize = Math.max(1, neighbourhoodSize);
+    }
+
+    /**
+     * Define de quantas em quantas reotimizações a instância é também resolvida
+     * de raiz ({@link FacilityLocalSearchUFLP}), para corrigir o desvio da
+     * pesquisa restrita. Partir da solução corrente não chega: ela é um ótimo
+     * local de que a pesquisa iterada raramente sai.
+     *
+     * @param fullSolveInterval O intervalo em reotimizações (0 para nunca).
+     */
+    public void setFullSolveInterval(int fullSolveInterval) {
+        this.fullSolveInterval = Math.max(0, fullSolveInterval);
+    }
+
+    /**
+     * Define o conjunto de armazéns abertos e reconstrói todo o estado em O(n·m).
+     *
+     * @param openSet Os armazéns abertos (pelo menos um).
+     */
+    public void reset(boolean[] openSet) {
+        openCount = 0;
+        for (int i = 0; i < numWarehouses; i++) {
+            open[i] = openSet[i];
+            if (open[i]) {
+                openCount++;
+            }
+        }
+        if (openCount == 0) {
+            throw new IllegalArgumentException("Pelo menos um armazém tem de estar aberto");
+        }
+        rebuild();
+    }
+
+    /**
+     * Recalcula de raiz o estado dos clientes, o custo e os ganhos/perdas,
+     * eliminando o erro acumulado pelas atualizações incrementais.
+     */
+    public void rebuild() {
+        ensureCapacity(instance.getCustomerLimit());
+        Arrays.fill(gain, 0.0);
+        Arrays.fill(loss, 0.0);
+        Arrays.fill(head, -1);
+        Arrays.fill(memberCount, 0);
+        Arrays.fill(depth, 0);
+        cost = 0.0;
+        for (int i = 0; i < numWarehouses; i++) {
+            if (open[i]) {
+                cost += instance.getFixedCost(i);
+            }
+        }
+        int limit = instance.getCustomerLimit();
+        for (int c = 0; c < limit; c++) {
+            if (instance.isActive(c)) {
+                attach(c);
+            }
+        }
+        clearAffected();
+    }
+
+    /**
+     * Repara e melhora a solução depois das alterações: pesquisa local com flips
+     * e trocas sobre os armazéns marcados, até nenhum movimento melhorar.
+     *
+     * @return As estatísticas da reotimização.
+     */
+    public Result reoptimize() {
+        long start = System.nanoTime();
+        int flips = 0;
+        int swaps = 0;
+        long evaluations = 0;
+        while (true) {
+            // Melhor flip entre os armazéns marcados (a lista pode crescer durante a pesquisa).
+            int bestWarehouse = -1;
+            double bestDelta = -EPSILON;
+            for (int k = 0; k < affectedCount; k++) {
+                int i = affectedList[k];
+                double delta = open[i] ? closeDelta(i) : openDelta(i);
+                if (delta < bestDelta) {
+                    bestDelta = delta;
+                    bestWarehouse = i;
+                }
+            }
+            evaluations += affectedCount;
+            if (bestWarehouse >= 0) {
+                if (open[bestWarehouse]) {
+                    close(bestWarehouse);
+                } else {
+                    open(bestWarehouse);
+                }
+                flips++;
+                continue;
+            }
+
+            // Melhor troca entre armazéns marcados: a solução anterior já era um ótimo
+            // local para as trocas, por isso só as que envolvem a alteração podem melhorar.
+            int bestClose = -1;
+            int bestOpen = -1;
+            for (int k = 0; k < affectedCount && openCount > 1; k++) {
+                int i = affectedList[k];
+                if (!open[i]) {
+                    continue;
+                }
+                for (int l = 0; l < affectedCount; l++) {
+                    int j = affectedList[l];
+                    if (open[j]) {
+                        continue;
+                    }
+                    double delta = swapDelta(i, j);
+                    evaluations++;
+                    if (delta < bestDelta) {
+                        bestDelta = delta;
+                        bestClose = i;
+                        bestOpen = j;
+                    }
+                }
+            }
+            if (bestClose < 0) {
+                break;
+            }
+            open(bestOpen);
+            close(bestClose);
+            swaps++;
+        }
+        int affectedWarehouses = affectedCount;
+        int repaired = changes;
+        clearAffected();
+        boolean fullSolve = fullSolveInterval > 0 && ++batches % fullSolveInterval == 0
+                && instance.getCustomerCount() > 0;
+        if (fullSolve) {
+            fullSolve();
+        }
+        return new Result(cost, repaired, affectedWarehouses, flips, swaps, evaluations, fullSolve,
+                System.nanoTime() - start);
+    }
+
+    /**
+     * Resolve a instância de raiz e adota a solução se for melhor do que a corrente.
+     */
+    private void fullSolve() {
+        FacilityLocalSearchUFLP solver = new FacilityLocalSearchUFLP(instance.toProblem());
+        solver.setSeed(batches);
+        solver.solve();
+        if (solver.getBestCost() < cost - EPSILON * Math.abs(cost)) {
+            boolean[] used = new boolean[numWarehouses];
+            for (int warehouse : solver.getBestAssignment()) {
+                used[warehouse] = true;
+            }
+            reset(used);
+        }
+    }
+
+    /**
+     * Liga um cliente ao estado: procura os dois armazéns abertos mais baratos,
+     * soma a sua contribuição e o seu custo.
+     */
+    private void attach(int customer) {
+        rank1[customer] = nextOpenRank(customer, 0);
+        rank2[customer] = nextOpenRank(customer, rank1[customer] + 1);
+        best1[customer] = instance.preference(customer, rank1[customer]);
+        best2[customer] = rank2[customer] < 0 ? -1 : instance.preference(customer, rank2[customer]);
+        cost += d1(customer);
+        link(customer);
+        contribution(customer, 1.0);
+        index(customer);
+    }
+
+    /**
+     * Desliga um cliente do estado (com os custos antigos ainda na instância).
+     */
+    private void detach(int customer) {
+        contribution(customer, -1.0);
+        unlink(customer);
+        cost -= d1(customer);
+        resize(customer, 0);
+    }
+
+    /**
+     * Acerta as listas dos armazéns com o segundo aberto atual do cliente.
+     */
+    private void index(int customer) {
+        resize(customer, rank2[customer] < 0 ? numWarehouses : rank2[customer] + 1);
+    }
+
+    /**
+     * Põe o cliente nas listas dos seus {@code target} armazéns preferidos (e só nessas).
+     */
+    private void resize(int customer, int target) {
+        int current = depth[customer];
+        if (target > current) {
+            if (slots[customer] == null || slots[customer].length < target) {
+                int size = slots[customer] == null ? target : Math.max(target, slots[customer].length * 2);
+                slots[customer] = slots[customer] == null ? new int[Math.min(size, numWarehouses)]
+                        : Arrays.copyOf(slots[customer], Math.min(size, numWarehouses));
+            }
+            for (int r = current; r < target; r++) {
+                int i = instance.preference(customer, r);
+                if (memberCount[i] == members[i].length) {
+                    members[i] = Arrays.copyOf(members[i], members[i].length * 2);
+                }
+                slots[customer][r] = memberCount[i];
+                members[i][memberCount[i]++] = customer;
+            }
+        } else {
+            for (int r = current - 1; r >= target; r--) {
+                // Remoção por troca com o último: o cliente movido atualiza a sua posição.
+                int i = instance.preference(customer, r);
+                int slot = slots[customer][r];
+                int last = members[i][--memberCount[i]];
+                if (last != customer) {
+                    members[i][slot] = last;
+                    slots[last][instance.rankOf(last, i)] = slot;
+                }
+            }
+        }
+        depth[customer] = target;
+    }
+
+    private int nextOpenRank(int customer, int fromRank) {
+        for (int r = fromRank; r < numWarehouses; r++) {
+            if (open[instance.preference(customer, r)]) {
+                return r;
+            }
+        }
+        return -1;
+    }
+
+    private double d1(int customer) {
+        return instance.cost(customer, best1[customer]);
+    }
+
+    /**
+     * Soma (ou subtrai, com sign = -1) a contribuição do cliente para os ganhos e perdas.
+     */
+    private void contribution(int customer, double sign) {
+        double d1 = d1(customer);
+        if (best2[customer] >= 0) {
+            loss[best1[customer]] += sign * (instance.cost(customer, best2[customer]) - d1);
+        }
+        // Os armazéns antes de best1 na lista ordenada estão todos fechados e são mais baratos.
+        for (int r = 0; r < rank1[customer]; r++) {
+            int i = instance.preference(customer, r);
+            gain[i] += sign * (d1 - instance.cost(customer, i));
+        }
+    }
+
+    private void link(int customer) {
+        int i = best1[customer];
+        prev[customer] = -1;
+        next[customer] = head[i];
+        if (head[i] >= 0) {
+            prev[head[i]] = customer;
+        }
+        head[i] = customer;
+    }
+
+    private void unlink(int customer) {
+        int i = best1[customer];
+        if (prev[customer] >= 0) {
+            next[prev[customer]] = next[customer];
+        } else {
+            head[i] = next[customer];
+        }
+        if (next[customer] >= 0) {
+            prev[next[customer]] = prev[customer];
+        }
+    }
+
+    private double openDelta(int warehouse) {
+        return instance.getFixedCost(warehouse) - gain[warehouse];
+    }
+
+    private double closeDelta(int warehouse) {
+        if (openCount == 1) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return loss[warehouse] - instance.getFixedCost(warehouse);
+    }
+
+    /**
+     * Variação do custo ao fechar um armazém aberto e abrir um fechado, em
+     * O(clientes servidos pelo armazém que fecha), como no {@link FacilityState}.
+     */
+    private double swapDelta(int closeWarehouse, int openWarehouse) {
+        double delta = instance.getFixedCost(openWarehouse) - instance.getFixedCost(closeWarehouse)
+                - gain[openWarehouse];
+        for (int c = head[closeWarehouse]; c >= 0; c = next[c]) {
+            double d1 = instance.cost(c, closeWarehouse);
+            double cj = instance.cost(c, openWarehouse);
+            double d2 = best2[c] >= 0 ? instance.cost(c, best2[c]) : Double.POSITIVE_INFINITY;
+            delta += Math.max(0.0, d1 - cj) + Math.min(cj, d2) - d1;
+        }
+        return delta;
+    }
+
+    /**
+     * Abre um armazém; os armazéns que deixam de servir clientes passam a ser
+     * considerados pela pesquisa (podem agora fechar).
+     */
+    private void open(int warehouse) {
+        cost += openDelta(warehouse);
+        open[warehouse] = true;
+        openCount++;
+        // Só os clientes da lista do armazém são afetados; as remoções das listas
+        // são de armazéns mais caros do que este, pelo que esta lista não muda.
+        int[] customers = members[warehouse];
+        for (int k = 0; k < memberCount[warehouse]; k++) {
+            int c = customers[k];
+            int rank = instance.rankOf(c, warehouse);
+            contribution(c, -1.0);
+            if (rank < rank1[c]) {
+                markAffected(best1[c]);
+                unlink(c);
+                rank2[c] = rank1[c];
+                best2[c] = best1[c];
+                rank1[c] = rank;
+                best1[c] = warehouse;
+                link(c);
+            } else {
+                rank2[c] = rank;
+                best2[c] = warehouse;
+            }
+            contribution(c, 1.0);
+            index(c);
+        }
+        gain[warehouse] = 0.0;
+    }
+
+    /**
+     * Fecha um armazém; os novos armazéns dos seus clientes e os preferidos
+     * desses clientes passam a ser considerados pela pesquisa.
+     */
+    private void close(int warehouse) {
+        cost += closeDelta(warehouse);
+        open[warehouse] = false;
+        openCount--;
+        // Os clientes da lista de um armazém aberto são os que o têm como primeiro ou
+        // segundo; as entradas novas são de armazéns mais caros, noutras listas.
+        int[] customers = members[warehouse];
+        for (int k = 0; k < memberCount[warehouse]; k++) {
+            int c = customers[k];
+            contribution(c, -1.0);
+            if (best1[c] == warehouse) {
+                unlink(c);
+                rank1[c] = rank2[c];
+                best1[c] = best2[c];
+                link(c);
+                markAffected(best1[c]);
+                markPreferences(c);
+            }
+            rank2[c] = nextOpenRank(c, rank1[c] + 1);
+            best2[c] = rank2[c] < 0 ? -1 : instance.preference(c, rank2[c]);
+            contribution(c, 1.0);
+            index(c);
+        }
+        loss[warehouse] = 0.0;
+    }
+
+    private void markAffected(int warehouse) {
+        if (!affected[warehouse]) {
+            affected[warehouse] = true;
+            affectedList[affectedCount++] = warehouse;
+        }
+    }
+
+    private void markPreferences(int customer) {
+        int depth = Math.min(neighbourhoodSize, numWarehouses);
+        for (int r = 0; r < depth; r++) {
+            markAffected(instance.preference(customer, r));
+        }
+    }
+
+    private void clearAffected() {
+        for (int k = 0; k < affectedCount; k++) {
+            affected[affectedList[k]] = false;
+        }
+        affectedCount = 0;
+        changes = 0;
+    }
+
+    private void ensureCapacity(int customers) {
+        if (customers <= rank1.length) {
+            return;
+        }
+        int size = Math.max(customers, rank1.length * 2);
+        rank1 = Arrays.copyOf(rank1, size);
+        rank2 = Arrays.copyOf(rank2, size);
+        best1 = Arrays.copyOf(best1, size);
+        best2 = Arrays.copyOf(best2, size);
+        next = Arrays.copyOf(next, size);
+        prev = Arrays.copyOf(prev, size);
+        depth = Arrays.copyOf(depth, size);
+        slots = Arrays.copyOf(slots, size);
+    }
+
+    /**
+     * Repara o estado logo a seguir a cada alteração da instância.
+     */
+    private final class Listener implements DynamicInstance.Listener {
+
+        @Override
+        public void customerAdded(int customer) {
+            ensureCapacity(customer + 1);
+            attach(customer);
+            markAffected(best1[customer]);
+            markPreferences(customer);
+            changes++;
+        }
+
+        @Override
+        public void customerRemoved(int customer) {
+            markAffected(best1[customer]);
+            if (best2[customer] >= 0) {
+                markAffected(best2[customer]);
+            }
+            detach(customer);
+            changes++;
+        }
+
+        @Override
+        public void fixedCostChanged(int warehouse, float oldCost) {
+            if (open[warehouse]) {
+                cost += instance.getFixedCost(warehouse) - oldCost;
+            }
+            markAffected(warehouse);
+            changes++;
+        }
+    }
+
+    /**
+     * @return O custo total da solução corrente.
+     */
+    public double getCost() {
+        return cost;
+    }
+
+    /**
+     * @param warehouse O índice do armazém.
+     * @return Verdadeiro se o armazém está aberto.
+     */
+    public boolean isOpen(int warehouse) {
+        return open[warehouse];
+    }
+
+    public int getOpenCount() {
+        return openCount;
+    }
+
+    /**
+     * @param customer O identificador do cliente (ativo).
+     * @return O armazém que serve o cliente.
+     */
+    public int warehouseOf(int customer) {
+        return best1[customer];
+    }
+
+    /**
+     * @return A atribuição dos clientes ativos, pela ordem de
+     * {@link DynamicInstance#customers()} (e de {@link DynamicInstance#toProblem()}).
+     */
+    public int[] getAssignment() {
+        int[] ids = instance.customers();
+        int[] assignment = new int[ids.length];
+        for (int k = 0; k < ids.length; k++) {
+            assignment[k] = best1[ids[k]];
+        }
+        return assignment;
+    }
+
+    /**
+     * Aplica uma sequência aleatória de alterações a uma instância, reotimizando
+     * depois de cada lote, e mede o tempo das reotimizações e o desvio final face
+     * a uma solução de raiz. Cada alteração acrescenta um cliente (cópia de outro
+     * com custos perturbados), remove um, perturba os custos de um ou muda um custo
+     * fixo. Com {@code --grow=N} a instância começa com N clientes extra.
+     * Uso: {@code Reoptimizer <instância> [--batches=N] [--changes=N] [--full-solve=N] [--grow=N] [--seed=N]}.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            throw new IllegalArgumentException("Uso: Reoptimizer <instância> [--batches=N] [--changes=N] "
+                    + "[--full-solve=N] [--grow=N] [--seed=N]");
+        }
+        int batches = 160;
+        int changes = 5;
+        int fullSolveInterval = 0;
+        int grow = 0;
+        long seed = 1;
+        for (int k = 1; k < args.length; k++) {
+            String arg = args[k];
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("Opção inválida: " + arg);
+            }
+            String value = arg.substring(eq + 1);
+            switch (arg.substring(2, eq)) {
+                case "batches": batches = Integer.parseInt(value); break;
+                case "changes": changes = Integer.parseInt(value); break;
+                case "full-solve": fullSolveInterval = Integer.parseInt(value); break;
+                case "grow": grow = Integer.parseInt(value); break;
+                case "seed": seed = Long.parseLong(value); break;
+                default: throw new IllegalArgumentException("Opção desconhecida: " + arg);
+            }
+        }
+
+        WarehouseLocationProblem problem = new WarehouseLocationProblem(0, 0);
+        InstanceParser.parseInto(args[0], problem);
+        DynamicInstance instance = DynamicInstance.of(problem);
+        Random random = new Random(seed);
+        for (int k = 0; k < grow; k++) {
+            int[] ids = instance.customers();
+            int source = ids[random.nextInt(ids.length)];
+            instance.addCustomer(instance.getDemand(source), perturbedRow(instance, source, random));
+        }
+
+        long setupStart = System.nanoTime();
+        Reoptimizer reoptimizer = new Reoptimizer(instance);
+        reoptimizer.setFullSolveInterval(fullSolveInterval);
+        System.out.printf(Locale.ROOT, "%d armazéns, %d clientes: solução inicial %.3f em %.1f ms%n",
+                instance.getNumWarehouses(), instance.getCustomerCount(), reoptimizer.getCost(),
+                (System.nanoTime() - setupStart) / 1e6);
+
+        int m = instance.getNumWarehouses();
+        long[] nanos = new long[batches];
+        long moves = 0;
+        for (int b = 0; b < batches; b++) {
+            for (int k = 0; k < changes; k++) {
+                int[] ids = instance.customers();
+                int customer = ids[random.nextInt(ids.length)];
+                switch (random.nextInt(4)) {
+                    case 0:
+                        instance.addCustomer(instance.getDemand(customer), perturbedRow(instance, customer, random));
+                        break;
+                    case 1:
+                        if (ids.length > 1) {
+                            instance.removeCustomer(customer);
+                        }
+                        break;
+                    case 2:
+                        instance.setCostRow(customer, perturbedRow(instance, customer, random));
+                        break;
+                    default:
+                        int warehouse = random.nextInt(m);
+                        instance.setFixedCost(warehouse,
+                                instance.getFixedCost(warehouse) * (0.3f + 1.5f * random.nextFloat()));
+                }
+            }
+            Result result = reoptimizer.reoptimize();
+            nanos[b] = result.nanos;
+            moves += result.flips + result.swaps;
+        }
+
+        double incremental = reoptimizer.getCost();
+        reoptimizer.rebuild();
+        FacilityLocalSearchUFLP scratch = new FacilityLocalSearchUFLP(instance.toProblem());
+        scratch.solve();
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        System.out.printf(Locale.ROOT, "%d lotes de %d alterações, %d movimentos: média %.1f us, mediana %.1f us, "
+                        + "máximo %.1f us%n", batches, changes, moves, Arrays.stream(nanos).average().orElse(0) / 1e3,
+                sorted[batches / 2] / 1e3, sorted[batches - 1] / 1e3);
+        System.out.printf(Locale.ROOT, "custo %.3f (recalculado %.3f), de raiz %.3f: desvio %.3f%%%n", incremental,
+                reoptimizer.getCost(), scratch.getBestCost(),
+                100.0 * (reoptimizer.getCost() - scratch.getBestCost()) / scratch.getBestCost());
+    }
+
+    // Os custos de alocação de um cliente multiplicados por fatores aleatórios em [0,5, 1,5).
+    private static float[] perturbedRow(DynamicInstance instance, int customer, Random random) {
+        float[] row = new float[instance.getNumWarehouses()];
+        for (int i = 0; i < row.length; i++) {
+            row[i] = instance.cost(customer, i) * (0.5f + random.nextFloat());
+        }
+        return row;
+    }
+}
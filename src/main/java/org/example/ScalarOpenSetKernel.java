@@ -0,0 +1,68 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * Implementação escalar do {@link OpenSetKernel}, usada quando a Vector API
+ * não está disponível. Percorre as linhas dos armazéns abertos, pelo que os
+ * acessos são sequenciais e o JIT ainda pode vetorizar os ciclos mais simples.
+ */
+public final class ScalarOpenSetKernel implements OpenSetKernel {
+
+    @Override
+    public double minReduce(float[][] rows, OpenSet open, float[] nearest) {
+        int n = nearest.length;
+        int first = open.nextOpen(0);
+        System.arraycopy(rows[first], 0, nearest, 0, n);
+        for (int i = open.nextOpen(first + 1); i >= 0; i = open.nextOpen(i + 1)) {
+            float[] row = rows[i];
+            for (int j = 0; j < n; j++) {
+                nearest[j] = Math.min(nearest[j], row[j]);
+            }
+        }
+        double total = 0.0;
+        for (int j = 0; j < n; j++) {
+            total += nearest[j];
+        }
+        return total;
+    }
+
+    @Override
+    public double nearestTwo(float[][] rows, OpenSet open, float[] nearest, float[] second, int[] assignment) {
+        int n = nearest.length;
+        Arrays.fill(nearest, Float.POSITIVE_INFINITY);
+        Arrays.fill(second, Float.POSITIVE_INFINITY);
+        for (int i = open.nextOpen(0); i >= 0; i = open.nextOpen(i + 1)) {
+            float[] row = rows[i];
+            for (int j = 0; j < n; j++) {
+                float c = row[j];
+                if (c < nearest[j]) {
+                    second[j] = nearest[j];
+                    nearest[j] = c;
+                    assignment[j] = i;
+                } else if (c < second[j]) {
+                    second[j] = c;
+                }
+            }
+        }
+        double total = 0.0;
+        for (int j = 0; j < n; j++) {
+            total += nearest[j];
+        }
+        return total;
+    }
+
+    @Override
+    public double gain(float[] row, float[] nearest) {
+        double total = 0.0;
+        for (int j = 0; j < nearest.length; j++) {
+            total += Math.max(0.0f, nearest[j] - row[j]);
+        }
+        return total;
+    }
+
+    @Override
+    public String getName() {
+        return "scalar";
+    }
+}
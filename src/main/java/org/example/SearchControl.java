@@ -0,0 +1,59 @@
+package org.example;
+
+/**
+ * A classe SearchControl é o ponto de contacto entre um algoritmo em execução
+ * e quem o lançou. O algoritmo consulta {@link #shouldStop()} uma vez por
+ * iteração, chama {@link #improved(double, int[])} sempre que encontra uma
+ * nova melhor solução e {@link #evaluated(long)} com o número de movimentos
+ * avaliados. Por omissão nunca pára e ignora as melhorias; as
+ * subclasses (por exemplo, as execuções do {@link PortfolioRunner}) redefinem
+ * estes métodos.
+ */
+public class SearchControl {
+
+    private volatile boolean cancelled;
+
+    /**
+     * Pede ao algoritmo que pare na próxima verificação. Pode ser chamado a partir
+     * de qualquer thread.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * @return Verdadeiro se a execução foi cancelada.
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Consultado pelo algoritmo em cada iteração, na thread da pesquisa.
+     *
+     * @return Verdadeiro se o algoritmo deve parar e devolver a melhor solução.
+     */
+    public boolean shouldStop() {
+        return cancelled;
+    }
+
+    /**
+     * Chamado pelo algoritmo, na thread da pesquisa, quando encontra uma nova
+     * melhor solução. A atribuição pertence ao algoritmo e não deve ser guardada
+     * sem cópia.
+     *
+     * @param cost       O custo da nova melhor solução.
+     * @param assignment A atribuição de clientes a armazéns.
+     */
+    public void improved(double cost, int[] assignment) {
+    }
+
+    /**
+     * Chamado pelo algoritmo, na thread da pesquisa, com o número de movimentos
+     * avaliados desde a chamada anterior (normalmente uma vez por iteração).
+     *
+     * @param count O número de movimentos avaliados.
+     */
+    public void evaluated(long count) {
+    }
+}
@@ -0,0 +1,76 @@
+package org.example;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A classe SharedIncumbent guarda a melhor solução conhecida, partilhada por
+ * várias execuções concorrentes. As atualizações são feitas sem locks, com
+ * compare-and-set sobre um registo imutável.
+ */
+public class SharedIncumbent {
+
+    /**
+     * Registo imutável da melhor solução.
+     */
+    public static final class Incumbent {
+        public final double cost;
+        private final int[] assignment;
+        public final String strategy;
+        public final long seed;
+
+        Incumbent(double cost, int[] assignment, String strategy, long seed) {
+            this.cost = cost;
+            this.assignment = assignment;
+            this.strategy = strategy;
+            this.seed = seed;
+        }
+
+        /**
+         * @return Uma cópia da atribuição.
+         */
+        public int[] getAssignment() {
+            return assignment.clone();
+        }
+    }
+
+    private final AtomicReference<Incumbent> best = new AtomicReference<>();
+
+    /**
+     * Propõe uma solução. Só é aceite se for estritamente melhor do que a atual.
+     *
+     * @param cost       O custo da solução.
+     * @param assignment A atribuição (é copiada apenas se for aceite).
+     * @param strategy   O nome do algoritmo que a encontrou.
+     * @param seed       A semente da execução.
+     * @return Verdadeiro se a solução passou a ser a melhor conhecida.
+     */
+    public boolean offer(double cost, int[] assignment, String strategy, long seed) {
+        Incumbent current = best.get();
+        if (current != null && cost >= current.cost) {
+            return false;
+        }
+        Incumbent candidate = new Incumbent(cost, assignment.clone(), strategy, seed);
+        while (current == null || cost < current.cost) {
+            if (best.compareAndSet(current, candidate)) {
+                return true;
+            }
+            current = best.get();
+        }
+        return false;
+    }
+
+    /**
+     * @return O custo da melhor solução conhecida (infinito se ainda não há nenhuma).
+     */
+    public double getCost() {
+        Incumbent current = best.get();
+        return current == null ? Double.POSITIVE_INFINITY : current.cost;
+    }
+
+    /**
+     * @return A melhor solução conhecida, ou null.
+     */
+    public Incumbent get() {
+        return best.get();
+    }
+}
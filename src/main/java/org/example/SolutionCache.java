@@ -0,0 +1,255 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * A classe SolutionCache guarda, para conjuntos de armazéns abertos já
+ * visitados (identificados pelo hash de {@link Zobrist}), o ótimo local a que a
+ * pesquisa chegou a partir deles: o seu custo e o seu conjunto de armazéns
+ * abertos. Um algoritmo que volte a um conjunto conhecido salta diretamente
+ * para o ótimo guardado em vez de repetir a pesquisa local, e deteta que está
+ * a andar em ciclo.
+ *
+ * <p>A capacidade é fixa e a memória é reservada no construtor: as entradas
+ * ficam em arrays paralelos (os conjuntos como bits em {@code long}s) e um
+ * índice de endereçamento aberto liga cada hash à sua entrada. Quando a cache
+ * está cheia, a entrada a substituir é escolhida pelo algoritmo do relógio
+ * (CLOCK): cada consulta com sucesso marca a entrada e o ponteiro do relógio
+ * salta as marcadas (desmarcando-as) até encontrar uma por marcar. As entradas
+ * novas entram desmarcadas, pelo que uma sequência de conjuntos nunca repetidos
+ * não expulsa os que já foram reutilizados.
+ *
+ * <p>Não é thread-safe: cada execução de um algoritmo usa a sua.
+ */
+public final class SolutionCache {
+
+    /**
+     * Número de entradas por omissão.
+     */
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    private final int capacity;
+    private final int numWarehouses;
+    private final int words; // Longs por conjunto de armazéns.
+
+    private final long[] keys;
+    private final double[] costs;
+    private final long[] optima; // optima[entrada * words + w]: bits do ótimo local.
+    private final boolean[] referenced; // Bit de referência do relógio.
+    private final int[] index; // Endereçamento aberto: entrada + 1 (0 = posição livre).
+    private final int mask;
+    private int size;
+    private int hand; // Ponteiro do relógio.
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Construtor da classe
+     *
+     * @param capacity      O número máximo de entradas.
+     * @param numWarehouses O número de armazéns do problema.
+     */
+    public SolutionCache(int capacity, int numWarehouses) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("A capacidade da cache tem de ser positiva: " + capacity);
+        }
+        this.capacity = capacity;
+        this.numWarehouses = numWarehouses;
+        this.words = (numWarehouses + 63) >>> 6;
+        this.keys = new long[capacity];
+        this.costs = new double[capacity];
+        this.optima = new long[capacity * words];
+        this.referenced = new boolean[capacity];
+        // Fator de carga de no máximo 1/2, para sondagens curtas.
+        int tableSize = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1) << 1;
+        this.index = new int[tableSize];
+        this.mask = tableSize - 1;
+    }
+
+    /**
+     * Procura um conjunto de armazéns abertos e marca a entrada como usada.
+     *
+     * @param key     O hash de Zobrist do conjunto.
+     * @param optimum Recebe os armazéns abertos do ótimo local guardado (pode ser null).
+     * @return O custo do ótimo local guardado, ou {@link Double#NaN} se o conjunto
+     *         não estiver na cache.
+     */
+    public double get(long key, boolean[] optimum) {
+        int slot = find(key);
+        if (slot < 0) {
+            misses++;
+            return Double.NaN;
+        }
+        hits++;
+        referenced[slot] = true;
+        if (optimum != null) {
+            int base = slot * words;
+            for (int i = 0; i < numWarehouses; i++) {
+                optimum[i] = (optima[base + (i >>> 6)] & (1L << i)) != 0;
+            }
+        }
+        return costs[slot];
+    }
+
+    /**
+     * Indica se o conjunto está na cache, sem contar a consulta nem marcar a entrada.
+     *
+     * @param key O hash de Zobrist do conjunto.
+     * @return Verdadeiro se o conjunto está na cache.
+     */
+    public boolean contains(long key) {
+        return find(key) >= 0;
+    }
+
+    /**
+     * Guarda (ou atualiza) o ótimo local alcançado a partir de um conjunto. Com a
+     * cache cheia, substitui a entrada escolhida pelo relógio.
+     *
+     * @param key     O hash de Zobrist do conjunto de partida.
+     * @param cost    O custo do ótimo local.
+     * @param optimum Os armazéns abertos do ótimo local.
+     */
+    public void put(long key, double cost, boolean[] optimum) {
+        int slot = find(key);
+        if (slot < 0) {
+            if (size < capacity) {
+                slot = size++;
+            } else {
+                slot = evict();
+            }
+            keys[slot] = key;
+            referenced[slot] = false;
+            insert(slot);
+        }
+        costs[slot] = cost;
+        int base = slot * words;
+        Arrays.fill(optima, base, base + words, 0L);
+        for (int i = 0; i < numWarehouses; i++) {
+            if (optimum[i]) {
+                optima[base + (i >>> 6)] |= 1L << i;
+            }
+        }
+    }
+
+    /**
+     * Esvazia a cache e põe as estatísticas a zero.
+     */
+    public void clear() {
+        Arrays.fill(index, 0);
+        Arrays.fill(referenced, false);
+        size = 0;
+        hand = 0;
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+    }
+
+    private static int home(long key, int mask) {
+        return (int) (key ^ (key >>> 32)) & mask;
+    }
+
+    private int find(long key) {
+        for (int p = home(key, mask); ; p = (p + 1) & mask) {
+            int entry = index[p];
+            if (entry == 0) {
+                return -1;
+            }
+            if (keys[entry - 1] == key) {
+                return entry - 1;
+            }
+        }
+    }
+
+    private void insert(int slot) {
+        int p = home(keys[slot], mask);
+        while (index[p] != 0) {
+            p = (p + 1) & mask;
+        }
+        index[p] = slot + 1;
+    }
+
+    /**
+     * Escolhe a entrada a substituir pelo relógio e retira-a do índice.
+     */
+    private int evict() {
+        while (referenced[hand]) {
+            referenced[hand] = false;
+            hand = (hand + 1) % capacity;
+        }
+        int slot = hand;
+        hand = (hand + 1) % capacity;
+        remove(slot);
+        evictions++;
+        return slot;
+    }
+
+    /**
+     * Retira uma entrada do índice deslocando para trás as entradas seguintes da
+     * mesma sequência de sondagem (sem marcas de remoção).
+     */
+    private void remove(int slot) {
+        int hole = home(keys[slot], mask);
+        while (index[hole] != slot + 1) {
+            hole = (hole + 1) & mask;
+        }
+        for (int p = (hole + 1) & mask; index[p] != 0; p = (p + 1) & mask) {
+            int wanted = home(keys[index[p] - 1], mask);
+            // A entrada em p só pode ocupar o buraco se a sua posição ideal não estiver em (hole, p].
+            boolean between = hole <= p ? wanted > hole && wanted <= p : wanted > hole || wanted <= p;
+            if (!between) {
+                index[hole] = index[p];
+                hole = p;
+            }
+        }
+        index[hole] = 0;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return O número de entradas ocupadas.
+     */
+    public int size() {
+        return size;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return A fração das consultas que encontraram o conjunto (NaN sem consultas).
+     */
+    public double hitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? Double.NaN : (double) hits / lookups;
+    }
+
+    /**
+     * Memória reservada pelos arrays da cache (sem os cabeçalhos dos objetos).
+     *
+     * @return O número de bytes.
+     */
+    public long memoryBytes() {
+        return (long) capacity * (Long.BYTES + Double.BYTES + 1) + (long) optima.length * Long.BYTES
+                + (long) index.length * Integer.BYTES;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SolutionCache: %d/%d entradas, hits=%d misses=%d (%.1f%%) evictions=%d, %.1f KiB",
+                size, capacity, hits, misses, 100.0 * hitRate(), evictions, memoryBytes() / 1024.0);
+    }
+}
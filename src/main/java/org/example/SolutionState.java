@@ -0,0 +1,219 @@
+package org.example;
+
+/**
+ * A classe SolutionState mantém o estado de uma solução (atribuição de clientes
+ * a armazéns) de forma incremental: o número de clientes servidos por cada
+ * armazém, o conjunto de armazéns abertos e o custo total corrente. Avaliar e
+ * aplicar a realocação de um cliente custa O(1) e não cria objetos, pelo que
+ * pode ser partilhada por todos os algoritmos de pesquisa. Mantém também o hash
+ * de {@link Zobrist} do conjunto de armazéns abertos.
+ */
+public class SolutionState {
+
+    private final WarehouseLocationProblem problem;
+    private final float[] costs; // Custos por cliente (ver PreprocessedProblem).
+    private final int numWarehouses;
+    private final int[] assignment; // Armazém atribuído a cada cliente.
+    private final int[] load; // Número de clientes servidos por cada armazém.
+    private int openCount; // Número de armazéns com pelo menos um cliente.
+    private double cost; // Custo total corrente.
+    private long hash; // Hash de Zobrist dos armazéns com pelo menos um cliente.
+
+    /**
+     * Construtor da classe
+     *
+     * @param problem A instância do problema.
+     */
+    public SolutionState(WarehouseLocationProblem problem) {
+        this.problem = problem;
+        this.costs = problem.customerMajorCosts();
+        this.numWarehouses = problem.numWarehouses;
+        this.assignment = new int[problem.numCustomers];
+        this.load = new int[problem.numWarehouses];
+    }
+
+    /**
+     * Carrega uma atribuição completa e recalcula as cargas e o custo em O(n+m).
+     *
+     * @param solution Um array que representa a atribuição de clientes a armazéns.
+     */
+    public void reset(int[] solution) {
+        System.arraycopy(solution, 0, assignment, 0, assignment.length);
+        recompute();
+    }
+
+    /**
+     * Carrega uma atribuição guardada com o custo que o estado tinha quando foi
+     * guardada. O custo incremental acumula arredondamentos diferentes dos de
+     * {@link #recompute()}; repô-lo tal como estava faz com que uma pesquisa
+     * retomada de um checkpoint faça exatamente as mesmas comparações.
+     *
+     * @param solution A atribuição de clientes a armazéns.
+     * @param cost     O custo corrente no momento em que foi guardada.
+     */
+    public void restore(int[] solution, double cost) {
+        reset(solution);
+        this.cost = cost;
+    }
+
+    /**
+     * Copia o estado de outra instância (do mesmo problema) sem alocar memória.
+     *
+     * @param other O estado a copiar.
+     */
+    public void copyFrom(SolutionState other) {
+        System.arraycopy(other.assignment, 0, assignment, 0, assignment.length);
+        System.arraycopy(other.load, 0, load, 0, load.length);
+        openCount = other.openCount;
+        cost = other.cost;
+        hash = other.hash;
+    }
+
+    /**
+     * Recalcula as cargas e o custo a partir da atribuição atual.
+     *
+     * @return O custo total da solução.
+     */
+    public double recompute() {
+        for (int i = 0; i < load.length; i++) {
+            load[i] = 0;
+        }
+        double total = 0.0;
+        for (int j = 0; j < assignment.length; j++) {
+            int warehouse = assignment[j];
+            load[warehouse]++;
+            total += costs[j * numWarehouses + warehouse];
+        }
+        openCount = 0;
+        hash = 0L;
+        for (int i = 0; i < load.length; i++) {
+            if (load[i] > 0) {
+                total += problem.fixedCosts[i];
+                openCount++;
+                hash ^= Zobrist.key(i);
+            }
+        }
+        cost = total;
+        return cost;
+    }
+
+    /**
+     * Calcula a variação do custo ao mover um cliente para outro armazém.
+     *
+     * @param customer     O índice do cliente.
+     * @param newWarehouse O índice do novo armazém.
+     * @return A variação do custo total (negativa se o movimento melhorar a solução).
+     */
+    public double moveDelta(int customer, int newWarehouse) {
+        int oldWarehouse = assignment[customer];
+        if (oldWarehouse == newWarehouse) {
+            return 0.0;
+        }
+        int base = customer * numWarehouses;
+        double delta = costs[base + newWarehouse] - costs[base + oldWarehouse];
+        if (load[oldWarehouse] == 1) {
+            delta -= problem.fixedCosts[oldWarehouse]; // O armazém antigo fecha.
+        }
+        if (load[newWarehouse] == 0) {
+            delta += problem.fixedCosts[newWarehouse]; // O novo armazém abre.
+        }
+        return delta;
+    }
+
+    /**
+     * Move um cliente para outro armazém, atualizando cargas e custo.
+     *
+     * @param customer     O índice do cliente.
+     * @param newWarehouse O índice do novo armazém.
+     * @return A variação do custo total.
+     */
+    public double applyMove(int customer, int newWarehouse) {
+        double delta = moveDelta(customer, newWarehouse);
+        int oldWarehouse = assignment[customer];
+        if (oldWarehouse == newWarehouse) {
+            return 0.0;
+        }
+        if (--load[oldWarehouse] == 0) {
+            openCount--;
+            hash ^= Zobrist.key(oldWarehouse);
+        }
+        if (load[newWarehouse]++ == 0) {
+            openCount++;
+            hash ^= Zobrist.key(newWarehouse);
+        }
+        assignment[customer] = newWarehouse;
+        cost += delta;
+        return delta;
+    }
+
+    /**
+     * @return O custo total corrente.
+     */
+    public double getCost() {
+        return cost;
+    }
+
+    /**
+     * @param customer O índice do cliente.
+     * @return O armazém atribuído ao cliente.
+     */
+    public int warehouseOf(int customer) {
+        return assignment[customer];
+    }
+
+    /**
+     * @param warehouse O índice do armazém.
+     * @return O número de clientes servidos pelo armazém.
+     */
+    public int getLoad(int warehouse) {
+        return load[warehouse];
+    }
+
+    /**
+     * @param warehouse O índice do armazém.
+     * @return Verdadeiro se o armazém serve pelo menos um cliente.
+     */
+    public boolean isOpen(int warehouse) {
+        return load[warehouse] > 0;
+    }
+
+    /**
+     * @return O número de armazéns abertos.
+     */
+    public int getOpenCount() {
+        return openCount;
+    }
+
+    /**
+     * @return O hash de Zobrist do conjunto de armazéns abertos.
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * Retorna o array interno da atribuição. Não deve ser alterado diretamente;
+     * use {@link #applyMove(int, int)}.
+     *
+     * @return A atribuição corrente.
+     */
+    public int[] getAssignment() {
+        return assignment;
+    }
+
+    /**
+     * Copia a atribuição corrente para o array indicado.
+     *
+     * @param target O array de destino (tamanho igual ao número de clientes).
+     */
+    public void copyAssignmentTo(int[] target) {
+        System.arraycopy(assignment, 0, target, 0, assignment.length);
+    }
+
+    /**
+     * @return A instância do problema.
+     */
+    public WarehouseLocationProblem getProblem() {
+        return problem;
+    }
+}
@@ -0,0 +1,46 @@
+package org.example;
+
+/**
+ * Interface comum dos algoritmos para o UFLP. Uma execução respeita um
+ * orçamento de tempo ou de avaliações, pode ser cancelada a qualquer momento e
+ * devolve sempre a melhor solução encontrada até parar.
+ */
+public interface Solver {
+
+    /**
+     * @return O nome do algoritmo.
+     */
+    String getName();
+
+    /**
+     * Define a semente da primeira execução (os recomeços usam as seguintes).
+     *
+     * @param seed A semente.
+     */
+    void setSeed(long seed);
+
+    /**
+     * Define um controlo adicional, consultado e notificado em conjunto com o
+     * orçamento (por exemplo, o do {@link PortfolioRunner}).
+     *
+     * @param control O controlo da execução.
+     */
+    void setSearchControl(SearchControl control);
+
+    /**
+     * Define a heurística que constrói a solução inicial de cada execução.
+     *
+     * @param construction A heurística, ou null para a solução inicial aleatória.
+     */
+    void setConstruction(ConstructionHeuristic construction);
+
+    /**
+     * Resolve o problema dentro do orçamento.
+     *
+     * @param budget   O orçamento de tempo e de avaliações.
+     * @param token    O pedido de cancelamento.
+     * @param listener Recebe cada nova melhor solução (pode ser null).
+     * @return A melhor solução encontrada e as estatísticas da execução.
+     */
+    SolverResult solve(Budget budget, CancellationToken token, ImprovementListener listener);
+}
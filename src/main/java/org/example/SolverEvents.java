@@ -0,0 +1,103 @@
+package org.example;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Eventos do JDK Flight Recorder emitidos pelos algoritmos. Só têm custo quando
+ * uma gravação os ativa (por exemplo {@code -XX:StartFlightRecording} ou
+ * {@code jcmd <pid> JFR.start}); caso contrário, {@code shouldCommit()} é falso e
+ * os objetos são eliminados pelo compilador JIT.
+ */
+final class SolverEvents {
+
+    private SolverEvents() {
+    }
+
+    @Name("org.example.SolverIteration")
+    @Label("Solver Iteration")
+    @Category({"UFLP", "Solver"})
+    @Description("Uma iteração de um algoritmo, com a sua duração")
+    @StackTrace(false)
+    static class IterationEvent extends Event {
+        @Label("Solver")
+        String solver;
+
+        @Label("Iteration")
+        long iteration;
+
+        @Label("Evaluations")
+        @Description("Movimentos avaliados nesta iteração")
+        long evaluations;
+
+        @Label("Current Cost")
+        double currentCost;
+
+        @Label("Best Cost")
+        double bestCost;
+    }
+
+    @Name("org.example.SolverImprovement")
+    @Label("Solver Improvement")
+    @Category({"UFLP", "Solver"})
+    @Description("Nova melhor solução de uma execução")
+    @StackTrace(false)
+    static class ImprovementEvent extends Event {
+        @Label("Solver")
+        String solver;
+
+        @Label("Iteration")
+        long iteration;
+
+        @Label("Cost")
+        double cost;
+
+        @Label("Previous Cost")
+        double previousCost;
+    }
+
+    @Name("org.example.SolverRestart")
+    @Label("Solver Restart")
+    @Category({"UFLP", "Solver"})
+    @Description("Reinicialização da solução corrente, com a sua duração")
+    @StackTrace(false)
+    static class RestartEvent extends Event {
+        @Label("Solver")
+        String solver;
+
+        @Label("Iteration")
+        long iteration;
+
+        @Label("Cost Before")
+        double costBefore;
+
+        @Label("Cost After")
+        double costAfter;
+    }
+
+    @Name("org.example.SolverPerturbation")
+    @Label("Solver Perturbation")
+    @Category({"UFLP", "Solver"})
+    @Description("Perturbação da solução corrente, com a sua duração")
+    @StackTrace(false)
+    static class PerturbationEvent extends Event {
+        @Label("Solver")
+        String solver;
+
+        @Label("Iteration")
+        long iteration;
+
+        @Label("Size")
+        int size;
+
+        @Label("Cost Before")
+        double costBefore;
+
+        @Label("Cost After")
+        double costAfter;
+    }
+}
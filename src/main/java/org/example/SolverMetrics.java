@@ -0,0 +1,242 @@
+package org.example;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A classe SolverMetrics guarda contadores cumulativos de cada algoritmo
+ * (iterações, movimentos avaliados, melhorias, reinicializações, perturbações,
+ * aspirações tabu e consultas à {@link SolutionCache}), partilhados por todas as execuções desse algoritmo na JVM.
+ * Os contadores são {@link LongAdder}, pelo que execuções concorrentes não
+ * disputam a mesma linha de cache; são atualizados uma vez por iteração (nunca
+ * por movimento) e podem ficar sempre ativos.
+ *
+ * <p>Os métodos de registo emitem também os eventos de {@link SolverEvents}
+ * quando uma gravação JFR os ativa.
+ */
+public final class SolverMetrics {
+
+    private static final Map<String, SolverMetrics> REGISTRY = new ConcurrentHashMap<>();
+
+    private final String solver;
+    private final LongAdder iterations = new LongAdder();
+    private final LongAdder evaluations = new LongAdder();
+    private final LongAdder improvements = new LongAdder();
+    private final LongAdder restarts = new LongAdder();
+    private final LongAdder restartNanos = new LongAdder();
+    private final LongAdder perturbations = new LongAdder();
+    private final LongAdder aspirations = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LongAccumulator cacheBytes = new LongAccumulator(Math::max, 0L); // Maior cache usada.
+
+    private SolverMetrics(String solver) {
+        this.solver = solver;
+    }
+
+    /**
+     * @param solver O nome do algoritmo ({@link Solver#getName()}).
+     * @return Os contadores do algoritmo (criados na primeira utilização).
+     */
+    public static SolverMetrics forSolver(String solver) {
+        return REGISTRY.computeIfAbsent(solver, SolverMetrics::new);
+    }
+
+    /**
+     * @return Um snapshot dos contadores de todos os algoritmos, por nome.
+     */
+    public static Map<String, Snapshot> snapshotAll() {
+        Map<String, Snapshot> result = new TreeMap<>();
+        for (SolverMetrics metrics : REGISTRY.values()) {
+            result.put(metrics.solver, metrics.snapshot());
+        }
+        return result;
+    }
+
+    /**
+     * Valores dos contadores num dado momento. Os contadores são lidos um a um,
+     * pelo que, com execuções em curso, o snapshot não é atómico.
+     */
+    public static final class Snapshot {
+        public final String solver;
+        public final long timestampNanos;
+        public final long iterations;
+        public final long evaluations;
+        public final long improvements;
+        public final long restarts;
+        public final long restartNanos;
+        public final long perturbations;
+        public final long aspirations;
+        public final long cacheHits;
+        public final long cacheMisses;
+        public final long cacheBytes;
+
+        Snapshot(SolverMetrics metrics) {
+            this.solver = metrics.solver;
+            this.timestampNanos = System.nanoTime();
+            this.iterations = metrics.iterations.sum();
+            this.evaluations = metrics.evaluations.sum();
+            this.improvements = metrics.improvements.sum();
+            this.restarts = metrics.restarts.sum();
+            this.restartNanos = metrics.restartNanos.sum();
+            this.perturbations = metrics.perturbations.sum();
+            this.aspirations = metrics.aspirations.sum();
+            this.cacheHits = metrics.cacheHits.sum();
+            this.cacheMisses = metrics.cacheMisses.sum();
+            this.cacheBytes = metrics.cacheBytes.get();
+        }
+
+        /**
+         * Movimentos avaliados por segundo entre um snapshot anterior e este.
+         *
+         * @param earlier O snapshot anterior do mesmo algoritmo.
+         * @return As avaliações por segundo no intervalo.
+         */
+        public double evaluationsPerSecond(Snapshot earlier) {
+            long nanos = timestampNanos - earlier.timestampNanos;
+            return nanos <= 0 ? Double.NaN : (evaluations - earlier.evaluations) * 1e9 / nanos;
+        }
+
+        @Override
+        public String toString() {
+            String text = String.format("%s: iterations=%d evaluations=%d improvements=%d restarts=%d (%.1f ms) "
+                            + "perturbations=%d aspirations=%d", solver, iterations, evaluations, improvements,
+                    restarts, restartNanos / 1e6, perturbations, aspirations);
+            long lookups = cacheHits + cacheMisses;
+            if (lookups > 0) {
+                text += String.format(" cache=%d/%d (%.1f%%, %.1f KiB)", cacheHits, lookups,
+                        100.0 * cacheHits / lookups, cacheBytes / 1024.0);
+            }
+            return text;
+        }
+    }
+
+    /**
+     * @return Os valores atuais dos contadores.
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    /**
+     * Põe os contadores a zero (por exemplo, entre experiências).
+     */
+    public void reset() {
+        iterations.reset();
+        evaluations.reset();
+        improvements.reset();
+        restarts.reset();
+        restartNanos.reset();
+        perturbations.reset();
+        aspirations.reset();
+        cacheHits.reset();
+        cacheMisses.reset();
+        cacheBytes.reset();
+    }
+
+    /**
+     * Início de uma iteração (ou de uma reinicialização ou perturbação): marca o
+     * início do evento JFR, se a gravação estiver ativa.
+     */
+    SolverEvents.IterationEvent beginIteration() {
+        SolverEvents.IterationEvent event = new SolverEvents.IterationEvent();
+        event.begin();
+        return event;
+    }
+
+    void endIteration(SolverEvents.IterationEvent event, long iteration, long evaluated, double currentCost,
+                      double bestCost) {
+        iterations.increment();
+        evaluations.add(evaluated);
+        if (event.shouldCommit()) {
+            event.solver = solver;
+            event.iteration = iteration;
+            event.evaluations = evaluated;
+            event.currentCost = currentCost;
+            event.bestCost = bestCost;
+            event.commit();
+        }
+    }
+
+    void improvement(long iteration, double cost, double previousCost) {
+        improvements.increment();
+        SolverEvents.ImprovementEvent event = new SolverEvents.ImprovementEvent();
+        if (event.shouldCommit()) {
+            event.solver = solver;
+            event.iteration = iteration;
+            event.cost = cost;
+            event.previousCost = previousCost;
+            event.commit();
+        }
+    }
+
+    SolverEvents.RestartEvent beginRestart() {
+        SolverEvents.RestartEvent event = new SolverEvents.RestartEvent();
+        event.begin();
+        return event;
+    }
+
+    void endRestart(SolverEvents.RestartEvent event, long startNanos, long iteration, double costBefore,
+                    double costAfter) {
+        restarts.increment();
+        restartNanos.add(System.nanoTime() - startNanos);
+        if (event.shouldCommit()) {
+            event.solver = solver;
+            event.iteration = iteration;
+            event.costBefore = costBefore;
+            event.costAfter = costAfter;
+            event.commit();
+        }
+    }
+
+    SolverEvents.PerturbationEvent beginPerturbation() {
+        SolverEvents.PerturbationEvent event = new SolverEvents.PerturbationEvent();
+        event.begin();
+        return event;
+    }
+
+    void endPerturbation(SolverEvents.PerturbationEvent event, long iteration, int size, double costBefore,
+                         double costAfter) {
+        perturbations.increment();
+        if (event.shouldCommit()) {
+            event.solver = solver;
+            event.iteration = iteration;
+            event.size = size;
+            event.costBefore = costBefore;
+            event.costAfter = costAfter;
+            event.commit();
+        }
+    }
+
+    /**
+     * Um movimento tabu foi aplicado por satisfazer o critério de aspiração.
+     */
+    void aspiration() {
+        aspirations.increment();
+    }
+
+    /**
+     * Uma consulta à cache de soluções.
+     *
+     * @param hit Verdadeiro se o conjunto estava na cache.
+     */
+    void cacheLookup(boolean hit) {
+        if (hit) {
+            cacheHits.increment();
+        } else {
+            cacheMisses.increment();
+        }
+    }
+
+    /**
+     * Regista a memória de uma cache de soluções (guarda o maior valor).
+     *
+     * @param bytes A memória reservada pela cache.
+     */
+    void cacheMemory(long bytes) {
+        cacheBytes.accumulate(bytes);
+    }
+}
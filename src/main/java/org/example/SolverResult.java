@@ -0,0 +1,107 @@
+package org.example;
+
+/**
+ * Resultado de uma execução de um {@link Solver}: a melhor solução e as
+ * estatísticas da execução.
+ */
+public class SolverResult {
+
+    /**
+     * Motivo pelo qual a execução terminou.
+     */
+    public enum StopReason {
+        COMPLETED, TIME_LIMIT, EVALUATION_LIMIT, CANCELLED, STOPPED, GAP_CLOSED
+    }
+
+    private final String solverName;
+    private final double cost;
+    private final int[] assignment;
+    private final double lowerBound;
+    private final long elapsedMillis;
+    private final long evaluations;
+    private final int improvements;
+    private final int restarts;
+    private final StopReason stopReason;
+
+    SolverResult(String solverName, double cost, int[] assignment, double lowerBound, long elapsedMillis,
+                 long evaluations, int improvements, int restarts, StopReason stopReason) {
+        this.solverName = solverName;
+        this.cost = cost;
+        this.assignment = assignment;
+        this.lowerBound = lowerBound;
+        this.elapsedMillis = elapsedMillis;
+        this.evaluations = evaluations;
+        this.improvements = improvements;
+        this.restarts = restarts;
+        this.stopReason = stopReason;
+    }
+
+    public String getSolverName() {
+        return solverName;
+    }
+
+    /**
+     * @return O custo da melhor solução (infinito se a execução parou antes da primeira).
+     */
+    public double getCost() {
+        return cost;
+    }
+
+    /**
+     * @return Uma cópia da melhor atribuição, ou null se não houver nenhuma.
+     */
+    public int[] getAssignment() {
+        return assignment == null ? null : assignment.clone();
+    }
+
+    /**
+     * @return O limite inferior indicado no orçamento (menos infinito se não houver).
+     */
+    public double getLowerBound() {
+        return lowerBound;
+    }
+
+    /**
+     * @return A distância relativa provada entre a solução e o ótimo (infinito sem limite inferior).
+     */
+    public double getGap() {
+        return LagrangianBound.gap(cost, lowerBound);
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * @return O número de movimentos avaliados.
+     */
+    public long getEvaluations() {
+        return evaluations;
+    }
+
+    /**
+     * @return O número de vezes que a melhor solução melhorou.
+     */
+    public int getImprovements() {
+        return improvements;
+    }
+
+    /**
+     * @return O número de execuções do algoritmo para além da primeira.
+     */
+    public int getRestarts() {
+        return restarts;
+    }
+
+    public StopReason getStopReason() {
+        return stopReason;
+    }
+
+    @Override
+    public String toString() {
+        double gap = getGap();
+        String gapText = Double.isFinite(gap) ? String.format("%.4f%%", 100 * gap) : "-"; // Sem limite inferior.
+        return String.format("%s: cost=%.3f gap=%s time=%d ms evaluations=%d improvements=%d restarts=%d stop=%s",
+                solverName, cost, gapText, elapsedMillis, evaluations, improvements, restarts, stopReason);
+    }
+}
@@ -0,0 +1,320 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * A classe SparseFacilityState é o equivalente do {@link FacilityState} sobre
+ * uma {@link SparseInstance}: representa a solução pelo conjunto de armazéns
+ * abertos, com cada cliente servido pelo candidato aberto mais barato da sua
+ * lista, e mantém as posições (globais, no CSR) do primeiro e do segundo
+ * candidatos abertos de cada cliente.
+ *
+ * <p>Como no estado denso, {@code gain[i]} e {@code loss[i]} dão a variação dos
+ * custos de alocação ao abrir ou fechar i em O(1). Um armazém que seja o único
+ * candidato aberto de algum cliente não pode fechar ({@code sole[i] > 0}), pelo
+ * que todos os clientes ficam sempre servidos. Abrir ou fechar um armazém só
+ * visita os clientes que o têm na lista (a transposta da instância), O(n·k/m)
+ * em média, em vez de todos os clientes.
+ */
+public class SparseFacilityState {
+
+    private final SparseInstance instance;
+    private final int numWarehouses;
+    private final int numCustomers;
+
+    private final boolean[] open;
+    private int openCount;
+    private double cost;
+    private long hash; // Hash de Zobrist do conjunto de armazéns abertos.
+
+    private final int[] pos1; // Posição do candidato aberto mais barato de cada cliente.
+    private final int[] pos2; // Posição do segundo candidato aberto (-1 se não existir).
+    private final double[] gain;
+    private final double[] loss;
+    private final int[] sole; // Clientes para os quais o armazém é o único candidato aberto.
+
+    /**
+     * Construtor da classe
+     *
+     * @param instance A instância esparsa.
+     */
+    public SparseFacilityState(SparseInstance instance) {
+        this.instance = instance;
+        this.numWarehouses = instance.getNumWarehouses();
+        this.numCustomers = instance.getNumCustomers();
+        this.open = new boolean[numWarehouses];
+        this.pos1 = new int[numCustomers];
+        this.pos2 = new int[numCustomers];
+        this.gain = new double[numWarehouses];
+        this.loss = new double[numWarehouses];
+        this.sole = new int[numWarehouses];
+    }
+
+    /**
+     * Copia o estado de outra instância (da mesma instância esparsa) sem alocar memória.
+     *
+     * @param other O estado a copiar.
+     */
+    public void copyFrom(SparseFacilityState other) {
+        System.arraycopy(other.open, 0, open, 0, numWarehouses);
+        System.arraycopy(other.gain, 0, gain, 0, numWarehouses);
+        System.arraycopy(other.loss, 0, loss, 0, numWarehouses);
+        System.arraycopy(other.sole, 0, sole, 0, numWarehouses);
+        System.arraycopy(other.pos1, 0, pos1, 0, numCustomers);
+        System.arraycopy(other.pos2, 0, pos2, 0, numCustomers);
+        openCount = other.openCount;
+        cost = other.cost;
+        hash = other.hash;
+    }
+
+    /**
+     * Define o conjunto de armazéns abertos e reconstrói todo o estado em O(n·k).
+     * Os clientes sem nenhum candidato aberto fazem abrir o seu candidato mais
+     * barato.
+     *
+     * @param openSet Um array que indica os armazéns abertos.
+     */
+    public void reset(boolean[] openSet) {
+        System.arraycopy(openSet, 0, open, 0, numWarehouses);
+        for (int c = 0; c < numCustomers; c++) {
+            if (nextOpen(c, instance.offset(c)) < 0) {
+                open[instance.facility(instance.offset(c))] = true;
+            }
+        }
+        rebuild();
+    }
+
+    /**
+     * Recalcula de raiz os candidatos abertos, o custo e os ganhos/perdas,
+     * eliminando o erro acumulado pelas atualizações incrementais.
+     */
+    public void rebuild() {
+        Arrays.fill(gain, 0.0);
+        Arrays.fill(loss, 0.0);
+        Arrays.fill(sole, 0);
+        double total = 0.0;
+        openCount = 0;
+        hash = 0L;
+        for (int i = 0; i < numWarehouses; i++) {
+            if (open[i]) {
+                total += instance.fixedCost(i);
+                openCount++;
+                hash ^= Zobrist.key(i);
+            }
+        }
+        for (int c = 0; c < numCustomers; c++) {
+            pos1[c] = nextOpen(c, instance.offset(c));
+            pos2[c] = nextOpen(c, pos1[c] + 1);
+            total += instance.cost(pos1[c]);
+            contribution(c, 1);
+        }
+        cost = total;
+    }
+
+    /**
+     * Primeira posição, a partir de {@code from}, com um candidato aberto (-1 se não houver).
+     */
+    private int nextOpen(int customer, int from) {
+        int end = instance.end(customer);
+        for (int p = from; p < end; p++) {
+            if (open[instance.facility(p)]) {
+                return p;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Soma (sign = 1) ou retira (sign = -1) a contribuição de um cliente para os
+     * ganhos dos candidatos mais baratos que o primeiro aberto e para a perda
+     * (ou a contagem {@code sole}) do primeiro aberto.
+     */
+    private void contribution(int customer, int sign) {
+        int first = pos1[customer];
+        double d1 = instance.cost(first);
+        for (int p = instance.offset(customer); p < first; p++) {
+            gain[instance.facility(p)] += sign * (d1 - instance.cost(p));
+        }
+        if (pos2[customer] >= 0) {
+            loss[instance.facility(first)] += sign * (instance.cost(pos2[customer]) - d1);
+        } else {
+            sole[instance.facility(first)] += sign;
+        }
+    }
+
+    /**
+     * @param warehouse O índice do armazém (fechado).
+     * @return A variação do custo total ao abrir o armazém.
+     */
+    public double openDelta(int warehouse) {
+        return instance.fixedCost(warehouse) - gain[warehouse];
+    }
+
+    /**
+     * @param warehouse O índice do armazém (aberto).
+     * @return A variação do custo total ao fechar o armazém, ou infinito se algum
+     *         cliente ficasse sem candidatos abertos.
+     */
+    public double closeDelta(int warehouse) {
+        return sole[warehouse] > 0 ? Double.POSITIVE_INFINITY : loss[warehouse] - instance.fixedCost(warehouse);
+    }
+
+    /**
+     * @param warehouse O índice do armazém.
+     * @return A variação do custo total ao abrir ou fechar o armazém.
+     */
+    public double flipDelta(int warehouse) {
+        return open[warehouse] ? closeDelta(warehouse) : openDelta(warehouse);
+    }
+
+    /**
+     * Abre um armazém, atualizando apenas os clientes para os quais passa a ser
+     * o primeiro ou o segundo candidato aberto.
+     *
+     * @param warehouse O índice do armazém (fechado).
+     */
+    public void open(int warehouse) {
+        if (open[warehouse]) {
+            return;
+        }
+        cost += openDelta(warehouse);
+        open[warehouse] = true;
+        openCount++;
+        hash ^= Zobrist.key(warehouse);
+        for (int slot = instance.facilityOffset(warehouse); slot < instance.facilityEnd(warehouse); slot++) {
+            int c = instance.facilityCustomer(slot);
+            int p = instance.facilityPosition(slot);
+            if (pos2[c] >= 0 && p > pos2[c]) {
+                continue; // Depois do segundo aberto: o cliente não é afetado.
+            }
+            contribution(c, -1);
+            if (p < pos1[c]) {
+                pos2[c] = pos1[c];
+                pos1[c] = p;
+            } else {
+                pos2[c] = p;
+            }
+            contribution(c, 1);
+        }
+        gain[warehouse] = 0.0;
+    }
+
+    /**
+     * Fecha um armazém, atualizando apenas os clientes que o tinham como
+     * primeiro ou segundo candidato aberto.
+     *
+     * @param warehouse O índice do armazém (aberto, e não o único candidato aberto de nenhum cliente).
+     */
+    public void close(int warehouse) {
+        if (!open[warehouse]) {
+            return;
+        }
+        if (sole[warehouse] > 0) {
+            throw new IllegalStateException("O armazém " + warehouse + " é o único candidato aberto de "
+                    + sole[warehouse] + " clientes");
+        }
+        cost += closeDelta(warehouse);
+        open[warehouse] = false;
+        openCount--;
+        hash ^= Zobrist.key(warehouse);
+        for (int slot = instance.facilityOffset(warehouse); slot < instance.facilityEnd(warehouse); slot++) {
+            int c = instance.facilityCustomer(slot);
+            int p = instance.facilityPosition(slot);
+            if (p != pos1[c] && p != pos2[c]) {
+                continue;
+            }
+            contribution(c, -1);
+            if (p == pos1[c]) {
+                pos1[c] = pos2[c];
+            }
+            pos2[c] = nextOpen(c, pos1[c] + 1);
+            contribution(c, 1);
+        }
+        loss[warehouse] = 0.0;
+    }
+
+    /**
+     * Abre ou fecha um armazém, conforme o estado atual.
+     *
+     * @param warehouse O índice do armazém.
+     */
+    public void flip(int warehouse) {
+        if (open[warehouse]) {
+            close(warehouse);
+        } else {
+            open(warehouse);
+        }
+    }
+
+    /**
+     * @param warehouse O índice do armazém.
+     * @return Verdadeiro se o armazém pode fechar sem deixar clientes sem candidatos abertos.
+     */
+    public boolean canClose(int warehouse) {
+        return open[warehouse] && sole[warehouse] == 0;
+    }
+
+    /**
+     * @return A instância esparsa.
+     */
+    public SparseInstance getInstance() {
+        return instance;
+    }
+
+    /**
+     * @return O custo total corrente.
+     */
+    public double getCost() {
+        return cost;
+    }
+
+    /**
+     * @param warehouse O índice do armazém.
+     * @return Verdadeiro se o armazém está aberto.
+     */
+    public boolean isOpen(int warehouse) {
+        return open[warehouse];
+    }
+
+    /**
+     * @return O número de armazéns abertos.
+     */
+    public int getOpenCount() {
+        return openCount;
+    }
+
+    /**
+     * @return O hash de Zobrist do conjunto de armazéns abertos.
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * @param customer O índice do cliente.
+     * @return O armazém que serve o cliente (o candidato aberto mais barato).
+     */
+    public int nearest(int customer) {
+        return instance.facility(pos1[customer]);
+    }
+
+    /**
+     * Copia o conjunto de armazéns abertos para o array indicado.
+     *
+     * @param target O array de destino.
+     */
+    public void copyOpenTo(boolean[] target) {
+        System.arraycopy(open, 0, target, 0, numWarehouses);
+    }
+
+    /**
+     * Copia a atribuição induzida (cada cliente ao candidato aberto mais barato).
+     *
+     * @param target O array de destino (tamanho igual ao número de clientes).
+     */
+    public void copyAssignmentTo(int[] target) {
+        for (int c = 0; c < numCustomers; c++) {
+            target[c] = instance.facility(pos1[c]);
+        }
+    }
+}
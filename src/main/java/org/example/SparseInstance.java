@@ -0,0 +1,247 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * A classe SparseInstance representa uma instância do UFLP guardando, para cada
+ * cliente, apenas os k armazéns mais baratos, em arrays primitivos no formato
+ * CSR: os armazéns candidatos do cliente c ocupam as posições
+ * {@code [offset(c), offset(c + 1))} de {@code facilities} e {@code costs},
+ * por ordem crescente de custo. Um cliente só pode ser servido por um armazém
+ * da sua lista.
+ *
+ * <p>Guarda também a transposta (para cada armazém, os clientes que o têm na
+ * lista e a posição nessa lista), para que abrir ou fechar um armazém só visite
+ * esses clientes. A memória é O(n·k + m) em vez dos O(n·m) da matriz densa do
+ * {@link WarehouseLocationProblem}: cerca de 16 bytes por par (cliente,
+ * candidato).
+ *
+ * <p>As soluções ficam restritas às listas, pelo que k deve ser bem maior do
+ * que m/p (com p armazéns abertos numa boa solução): com poucos armazéns
+ * abertos, cada cliente tem de continuar a ter um deles entre os seus k
+ * candidatos. Com k = m a forma esparsa é exata.
+ */
+public final class SparseInstance {
+
+    private final int numWarehouses;
+    private final int numCustomers;
+    private final float[] fixedCosts;
+    private final int[] demands;
+
+    private final int[] offsets; // offsets[c]: início da lista do cliente c (tamanho n + 1).
+    private final int[] facilities; // Armazéns candidatos, por cliente e por custo crescente.
+    private final float[] costs; // Custo de alocação de cada par (cliente, candidato).
+
+    private final int[] facilityOffsets; // Transposta: início da lista de cada armazém (tamanho m + 1).
+    private final int[] facilityCustomers; // Clientes que têm o armazém na lista.
+    private final int[] facilityPositions; // Posição (índice global em facilities) de cada par.
+
+    /**
+     * Construtor da classe. Os arrays passam a pertencer à instância.
+     *
+     * @param fixedCosts Os custos fixos dos armazéns (tamanho m).
+     * @param demands    As demandas dos clientes (tamanho n).
+     * @param offsets    O início da lista de cada cliente (tamanho n + 1).
+     * @param facilities Os armazéns candidatos, por custo crescente dentro de cada lista.
+     * @param costs      Os custos de alocação correspondentes.
+     */
+    public SparseInstance(float[] fixedCosts, int[] demands, int[] offsets, int[] facilities, float[] costs) {
+        this.numWarehouses = fixedCosts.length;
+        this.numCustomers = demands.length;
+        if (offsets.length != numCustomers + 1 || facilities.length != costs.length
+                || offsets[numCustomers] != facilities.length) {
+            throw new IllegalArgumentException("Arrays CSR inconsistentes");
+        }
+        for (int c = 0; c < numCustomers; c++) {
+            if (offsets[c + 1] <= offsets[c]) {
+                throw new IllegalArgumentException("O cliente " + c + " não tem armazéns candidatos");
+            }
+        }
+        this.fixedCosts = fixedCosts;
+        this.demands = demands;
+        this.offsets = offsets;
+        this.facilities = facilities;
+        this.costs = costs;
+
+        // Transposta por contagem (dois passes, sem ordenação).
+        this.facilityOffsets = new int[numWarehouses + 1];
+        for (int facility : facilities) {
+            facilityOffsets[facility + 1]++;
+        }
+        for (int i = 0; i < numWarehouses; i++) {
+            facilityOffsets[i + 1] += facilityOffsets[i];
+        }
+        this.facilityCustomers = new int[facilities.length];
+        this.facilityPositions = new int[facilities.length];
+        int[] fill = Arrays.copyOf(facilityOffsets, numWarehouses);
+        for (int c = 0; c < numCustomers; c++) {
+            for (int p = offsets[c]; p < offsets[c + 1]; p++) {
+                int slot = fill[facilities[p]]++;
+                facilityCustomers[slot] = c;
+                facilityPositions[slot] = p;
+            }
+        }
+    }
+
+    /**
+     * Cria a forma esparsa de uma instância densa, com os k armazéns mais
+     * baratos de cada cliente (por exemplo, para comparar com os ótimos conhecidos).
+     *
+     * @param problem A instância densa.
+     * @param k       O número de candidatos por cliente (limitado a m).
+     * @return A instância esparsa.
+     */
+    public static SparseInstance of(WarehouseLocationProblem problem, int k) {
+        PreprocessedProblem view = PreprocessedProblem.of(problem, Math.max(1, k));
+        int n = problem.numCustomers;
+        int m = problem.numWarehouses;
+        int width = view.candidateCount();
+        float[] dense = problem.customerMajorCosts();
+        int[] offsets = new int[n + 1];
+        int[] facilities = new int[n * width];
+        float[] costs = new float[n * width];
+        for (int c = 0; c < n; c++) {
+            offsets[c + 1] = offsets[c] + width;
+            for (int r = 0; r < width; r++) {
+                int facility = view.candidate(c, r);
+                facilities[offsets[c] + r] = facility;
+                costs[offsets[c] + r] = dense[c * m + facility];
+            }
+        }
+        return new SparseInstance(problem.fixedCosts.clone(), problem.demands.clone(), offsets, facilities, costs);
+    }
+
+    public int getNumWarehouses() {
+        return numWarehouses;
+    }
+
+    public int getNumCustomers() {
+        return numCustomers;
+    }
+
+    public float fixedCost(int warehouse) {
+        return fixedCosts[warehouse];
+    }
+
+    public int demand(int customer) {
+        return demands[customer];
+    }
+
+    /**
+     * @param customer O índice do cliente.
+     * @return A posição global do primeiro (mais barato) candidato do cliente.
+     */
+    public int offset(int customer) {
+        return offsets[customer];
+    }
+
+    /**
+     * @param customer O índice do cliente.
+     * @return A posição global a seguir ao último candidato do cliente.
+     */
+    public int end(int customer) {
+        return offsets[customer + 1];
+    }
+
+    /**
+     * @param position Uma posição global (entre {@link #offset(int)} e {@link #end(int)}).
+     * @return O armazém candidato nessa posição.
+     */
+    public int facility(int position) {
+        return facilities[position];
+    }
+
+    /**
+     * @param position Uma posição global.
+     * @return O custo de alocação nessa posição.
+     */
+    public float cost(int position) {
+        return costs[position];
+    }
+
+    /**
+     * @param warehouse O índice do armazém.
+     * @return O início, na transposta, dos clientes que têm o armazém na lista.
+     */
+    public int facilityOffset(int warehouse) {
+        return facilityOffsets[warehouse];
+    }
+
+    /**
+     * @param warehouse O índice do armazém.
+     * @return O fim (exclusivo), na transposta, dos clientes que têm o armazém na lista.
+     */
+    public int facilityEnd(int warehouse) {
+        return facilityOffsets[warehouse + 1];
+    }
+
+    /**
+     * @param slot Uma posição da transposta.
+     * @return O cliente nessa posição.
+     */
+    public int facilityCustomer(int slot) {
+        return facilityCustomers[slot];
+    }
+
+    /**
+     * @param slot Uma posição da transposta.
+     * @return A posição global do par (cliente, armazém) correspondente.
+     */
+    public int facilityPosition(int slot) {
+        return facilityPositions[slot];
+    }
+
+    /**
+     * @return O número total de pares (cliente, candidato).
+     */
+    public int size() {
+        return facilities.length;
+    }
+
+    /**
+     * Memória ocupada pelos arrays da instância (sem os cabeçalhos dos objetos).
+     *
+     * @return O número de bytes.
+     */
+    public long memoryBytes() {
+        long pairs = facilities.length;
+        return pairs * (Integer.BYTES + Float.BYTES + 2L * Integer.BYTES)
+                + (long) (numCustomers + 1) * Integer.BYTES + (long) numCustomers * Integer.BYTES
+                + (long) (numWarehouses + 1) * Integer.BYTES + (long) numWarehouses * Float.BYTES;
+    }
+
+    /**
+     * Calcula o custo de uma atribuição, verificando que cada cliente está num
+     * armazém da sua lista. Custa O(n·k).
+     *
+     * @param assignment O armazém de cada cliente.
+     * @return O custo total.
+     */
+    public double evaluate(int[] assignment) {
+        boolean[] open = new boolean[numWarehouses];
+        double total = 0.0;
+        for (int c = 0; c < numCustomers; c++) {
+            int p = offsets[c];
+            while (p < offsets[c + 1] && facilities[p] != assignment[c]) {
+                p++;
+            }
+            if (p == offsets[c + 1]) {
+                throw new IllegalArgumentException("O armazém " + assignment[c] + " não está na lista do cliente " + c);
+            }
+            total += costs[p];
+            open[assignment[c]] = true;
+        }
+        for (int i = 0; i < numWarehouses; i++) {
+            if (open[i]) {
+                total += fixedCosts[i];
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SparseInstance: %d armazéns, %d clientes, %d pares (%.1f MiB)", numWarehouses,
+                numCustomers, facilities.length, memoryBytes() / (1024.0 * 1024.0));
+    }
+}
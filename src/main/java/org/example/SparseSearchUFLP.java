@@ -0,0 +1,223 @@
+package org.example;
+
+import java.util.Random;
+
+/**
+ * A classe SparseSearchUFLP é uma pesquisa local iterada com movimentos de
+ * abrir/fechar armazéns, como o {@link FacilityLocalSearchUFLP}, mas sobre uma
+ * {@link SparseInstance}: nunca cria a matriz densa de custos, pelo que resolve
+ * instâncias com dezenas de milhares de armazéns e centenas de milhares de
+ * clientes.
+ *
+ * <p>A solução inicial abre o candidato mais barato de cada cliente. A pesquisa
+ * local percorre os armazéns por uma ordem aleatória e aplica cada flip que
+ * melhore (primeira melhoria), porque com m muito grande procurar o melhor flip
+ * em cada passo custaria O(m) por movimento. A perturbação escolhe clientes ao
+ * acaso e troca o armazém que os serve por outro candidato da sua lista, ou
+ * seja, um armazém vizinho.
+ */
+public class SparseSearchUFLP implements Solver {
+
+    private static final double EPSILON = 1e-9;
+
+    private final SparseInstance instance;
+    private double bestCost;
+    private int[] bestAssignment;
+
+    private int maxIterations = 100; // Número de perturbações da pesquisa local iterada.
+    private int perturbationSize = 3; // Clientes cujo armazém é trocado em cada perturbação.
+    private long seed = 42;
+    private SearchControl control = new SearchControl();
+    private final SolverMetrics metrics = SolverMetrics.forSolver(getName());
+
+    /**
+     * Construtor da classe
+     *
+     * @param instance A instância esparsa.
+     */
+    public SparseSearchUFLP(SparseInstance instance) {
+        this.instance = instance;
+    }
+
+    /**
+     * @param maxIterations O número de perturbações a aplicar.
+     */
+    public void setMaxIterations(int maxIterations) {
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * @param perturbationSize O número de clientes cujo armazém é trocado em cada perturbação.
+     */
+    public void setPerturbationSize(int perturbationSize) {
+        this.perturbationSize = perturbationSize;
+    }
+
+    /**
+     * Define a semente do gerador aleatório (por omissão 42).
+     *
+     * @param seed A semente.
+     */
+    @Override
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Define o controlo da execução, consultado em cada iteração e notificado
+     * das novas melhores soluções.
+     *
+     * @param control O controlo da execução.
+     */
+    @Override
+    public void setSearchControl(SearchControl control) {
+        this.control = control;
+    }
+
+    /**
+     * As heurísticas de construção trabalham sobre a matriz densa, que aqui não
+     * existe: a solução inicial é sempre a dos candidatos mais baratos.
+     *
+     * @param construction Ignorada.
+     */
+    @Override
+    public void setConstruction(ConstructionHeuristic construction) {
+    }
+
+    /**
+     * @return O custo da melhor solução da última execução.
+     */
+    public double getBestCost() {
+        return bestCost;
+    }
+
+    /**
+     * @return Uma cópia da melhor atribuição da última execução.
+     */
+    public int[] getBestAssignment() {
+        return bestAssignment.clone();
+    }
+
+    @Override
+    public String getName() {
+        return "Sparse Local Search";
+    }
+
+    /**
+     * Executa a pesquisa dentro do orçamento. Com um orçamento limitado,
+     * recomeça com a semente seguinte até o esgotar.
+     *
+     * @param budget   O orçamento de tempo e de avaliações.
+     * @param token    O pedido de cancelamento.
+     * @param listener Recebe cada nova melhor solução (pode ser null).
+     * @return A melhor solução de todas as execuções.
+     */
+    @Override
+    public SolverResult solve(Budget budget, CancellationToken token, ImprovementListener listener) {
+        return new BudgetControl(budget, token, listener, control).runRestarts(this, seed, this::solve);
+    }
+
+    /**
+     * Resolve a instância com a pesquisa local iterada.
+     */
+    public void solve() {
+        Random random = new Random(seed);
+        int m = instance.getNumWarehouses();
+        int n = instance.getNumCustomers();
+        SparseFacilityState state = new SparseFacilityState(instance);
+        SparseFacilityState best = new SparseFacilityState(instance);
+        bestAssignment = new int[n];
+        bestCost = Double.POSITIVE_INFINITY;
+        int[] order = new int[m];
+        for (int i = 0; i < m; i++) {
+            order[i] = i;
+        }
+
+        state.reset(new boolean[m]); // Abre o candidato mais barato de cada cliente.
+        descend(state, order, random);
+        best.copyFrom(state);
+        updateBest(best, 0);
+
+        for (int iteration = 1; iteration <= maxIterations && !control.shouldStop(); iteration++) {
+            SolverEvents.IterationEvent iterationEvent = metrics.beginIteration();
+            SolverEvents.PerturbationEvent perturbationEvent = metrics.beginPerturbation();
+            double costBefore = state.getCost();
+            perturb(state, random);
+            metrics.endPerturbation(perturbationEvent, iteration, perturbationSize, costBefore, state.getCost());
+            long evaluated = descend(state, order, random);
+
+            if (state.getCost() < best.getCost() - EPSILON) {
+                state.rebuild(); // Elimina o erro acumulado antes de guardar a nova melhor solução.
+                best.copyFrom(state);
+                updateBest(best, iteration);
+            } else {
+                state.copyFrom(best); // O(n + m): volta ao melhor ótimo local.
+            }
+            metrics.endIteration(iterationEvent, iteration, evaluated, state.getCost(), bestCost);
+        }
+    }
+
+    /**
+     * Pesquisa local de primeira melhoria: percorre os armazéns por uma ordem
+     * aleatória e aplica cada flip que melhore, até uma passagem sem melhorias.
+     *
+     * @return O número de movimentos avaliados.
+     */
+    private long descend(SparseFacilityState state, int[] order, Random random) {
+        int m = order.length;
+        long evaluated = 0;
+        boolean improved = true;
+        while (improved && !control.shouldStop()) {
+            improved = false;
+            shuffle(order, random);
+            for (int warehouse : order) {
+                if (state.flipDelta(warehouse) < -EPSILON) {
+                    state.flip(warehouse);
+                    improved = true;
+                }
+            }
+            evaluated += m;
+            control.evaluated(m);
+        }
+        return evaluated;
+    }
+
+    /**
+     * Para alguns clientes ao acaso, abre outro candidato da lista e fecha o
+     * armazém que os servia, se puder fechar.
+     */
+    private void perturb(SparseFacilityState state, Random random) {
+        int n = instance.getNumCustomers();
+        for (int k = 0; k < perturbationSize; k++) {
+            int customer = random.nextInt(n);
+            int served = state.nearest(customer);
+            int from = instance.offset(customer);
+            int other = instance.facility(from + random.nextInt(instance.end(customer) - from));
+            state.open(other);
+            if (other != served && state.canClose(served)) {
+                state.close(served);
+            }
+        }
+    }
+
+    private static void shuffle(int[] values, Random random) {
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = values[i];
+            values[i] = values[j];
+            values[j] = swap;
+        }
+    }
+
+    /**
+     * Guarda a atribuição do estado se for melhor do que a melhor encontrada.
+     */
+    private void updateBest(SparseFacilityState state, int iteration) {
+        if (state.getCost() < bestCost) {
+            metrics.improvement(iteration, state.getCost(), bestCost);
+            bestCost = state.getCost();
+            state.copyAssignmentTo(bestAssignment);
+            control.improved(bestCost, bestAssignment);
+        }
+    }
+}
@@ -0,0 +1,470 @@
+package org.example;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+/**
+ * A classe TabuCheckpoint é uma fotografia do estado do {@link TabuSearchUFLP}
+ * no início de uma iteração, suficiente para retomar a pesquisa exatamente
+ * onde estava: a melhor solução da execução, a solução corrente (com o custo
+ * incremental), a memória tabu, o estado do gerador aleatório e os contadores.
+ * Guarda também a melhor solução de todas as execuções do mesmo
+ * {@link TabuSearchUFLP#solve(Budget, CancellationToken, ImprovementListener)},
+ * que pode ter vindo de um recomeço anterior.
+ *
+ * <p>Formato binário (big-endian), terminado por um CRC32 de todos os bytes
+ * anteriores:
+ * <pre>
+ * int    MAGIC ('UFTC'), int VERSION
+ * long   impressão digital da instância, int m, int n
+ * long   semente da execução
+ * int    iteração, int iterações sem melhoria, int tenura corrente, boolean a descer
+ * double custo corrente, double melhor custo, double melhor custo de todas as execuções
+ * byte   largura dos índices de armazém (1, 2 ou 4 bytes)
+ * n      armazéns da melhor atribuição, n armazéns da atribuição corrente,
+ *        n armazéns da melhor atribuição de todas as execuções
+ * int    entradas tabu ativas, seguidas de pares (int atributo, int iteração limite)
+ * int    tamanho do gerador serializado, seguido dos bytes
+ * int    CRC32
+ * </pre>
+ * Só as entradas tabu ainda ativas são guardadas (no máximo uma por iteração
+ * da tenura máxima), pelo que o ficheiro tem O(n) bytes mesmo quando a memória
+ * tabu tem n·m entradas.
+ */
+public final class TabuCheckpoint {
+
+    static final int MAGIC = 0x55465443; // "UFTC".
+    static final int VERSION = 2;
+
+    private final long fingerprint;
+    private final int numWarehouses;
+    private final int numCustomers;
+    private final long seed;
+    private final int iteration;
+    private final int stagnationCount;
+    private final int currentTenure;
+    private final boolean descending;
+    private final double currentCost;
+    private final double bestCost;
+    private final int[] bestAssignment;
+    private final int[] assignment;
+    private final double overallBestCost;
+    private final int[] overallBestAssignment;
+    private final int[] tabuAttributes;
+    private final int[] tabuUntil;
+    private final byte[] random;
+
+    TabuCheckpoint(long fingerprint, int numWarehouses, int numCustomers, long seed, int iteration,
+                   int stagnationCount, int currentTenure, boolean descending, double currentCost, double bestCost,
+                   int[] bestAssignment, int[] assignment, double overallBestCost, int[] overallBestAssignment,
+                   int[] tabuAttributes, int[] tabuUntil, byte[] random) {
+        this.fingerprint = fingerprint;
+        this.numWarehouses = numWarehouses;
+        this.numCustomers = numCustomers;
+        this.seed = seed;
+        this.iteration = iteration;
+        this.stagnationCount = stagnationCount;
+        this.currentTenure = currentTenure;
+        this.descending = descending;
+        this.currentCost = currentCost;
+        this.bestCost = bestCost;
+        this.bestAssignment = bestAssignment;
+        this.assignment = assignment;
+        this.overallBestCost = overallBestCost;
+        this.overallBestAssignment = overallBestAssignment;
+        this.tabuAttributes = tabuAttributes;
+        this.tabuUntil = tabuUntil;
+        this.random = random;
+    }
+
+    /**
+     * Guarda o estado de uma pesquisa tabu (chamado na thread da pesquisa; as
+     * estruturas são copiadas para que a escrita possa ser feita noutra thread).
+     * Sem uma melhor solução de todas as execuções (null), guarda a da execução.
+     */
+    static TabuCheckpoint capture(long fingerprint, WarehouseLocationProblem problem, long seed, int iteration,
+                                  int stagnationCount, int currentTenure, boolean descending, SolutionState state,
+                                  double bestCost, int[] bestAssignment, double overallBestCost,
+                                  int[] overallBestAssignment, int[] tabu, Random rand) {
+        int active = 0;
+        for (int until : tabu) {
+            if (until > iteration) {
+                active++;
+            }
+        }
+        int[] attributes = new int[active];
+        int[] untils = new int[active];
+        for (int k = 0, a = 0; a < active; k++) {
+            if (tabu[k] > iteration) {
+                attributes[a] = k;
+                untils[a++] = tabu[k];
+            }
+        }
+        int[] assignment = new int[problem.numCustomers];
+        state.copyAssignmentTo(assignment);
+        if (overallBestAssignment == null || overallBestCost > bestCost) {
+            overallBestCost = bestCost;
+            overallBestAssignment = bestAssignment;
+        }
+        return new TabuCheckpoint(fingerprint, problem.numWarehouses, problem.numCustomers, seed, iteration,
+                stagnationCount, currentTenure, descending, state.getCost(), bestCost, bestAssignment.clone(),
+                assignment, overallBestCost, overallBestAssignment.clone(), attributes, untils, serialize(rand));
+    }
+
+    /**
+     * Impressão digital de uma instância (dimensões e todos os custos), para
+     * recusar um checkpoint de outra instância.
+     *
+     * @param problem A instância do problema.
+     * @return O hash da instância.
+     */
+    public static long fingerprint(WarehouseLocationProblem problem) {
+        long hash = 0xCBF29CE484222325L; // FNV-1a de 64 bits, sobre palavras de 32 bits.
+        hash = (hash ^ problem.numWarehouses) * 0x100000001B3L;
+        hash = (hash ^ problem.numCustomers) * 0x100000001B3L;
+        for (int i = 0; i < problem.numWarehouses; i++) {
+            hash = (hash ^ Float.floatToIntBits(problem.fixedCosts[i])) * 0x100000001B3L;
+            for (float cost : problem.allocationCosts[i]) {
+                hash = (hash ^ Float.floatToIntBits(cost)) * 0x100000001B3L;
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Verifica se o checkpoint foi criado para a instância dada.
+     *
+     * @param fingerprint A impressão digital da instância.
+     * @throws IllegalArgumentException Se for de outra instância.
+     */
+    void checkInstance(long fingerprint) {
+        if (fingerprint != this.fingerprint) {
+            throw new IllegalArgumentException("O checkpoint é de outra instância (" + numWarehouses + "x"
+                    + numCustomers + ")");
+        }
+    }
+
+    /**
+     * Repõe a memória tabu guardada num array com todas as entradas a zero.
+     */
+    void restoreTabu(int[] tabu) {
+        for (int k = 0; k < tabuAttributes.length; k++) {
+            tabu[tabuAttributes[k]] = tabuUntil[k];
+        }
+    }
+
+    /**
+     * @return Um gerador no mesmo estado do gerador guardado.
+     */
+    Random restoreRandom() {
+        try {
+            return deserialize(random);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // O read() já validou o gerador.
+        }
+    }
+
+    private static Random deserialize(byte[] random) throws IOException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(random))) {
+            in.setObjectInputFilter(RANDOM_ONLY);
+            return (Random) in.readObject();
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Estado do gerador inválido no checkpoint", e);
+        }
+    }
+
+    // O checkpoint vem de um ficheiro: só se aceita desserializar um java.util.Random.
+    private static final ObjectInputFilter RANDOM_ONLY =
+            ObjectInputFilter.Config.createFilter("java.util.Random;maxdepth=1;maxrefs=1;!*");
+
+    // java.util.Random é Serializable: a forma serializada guarda a semente interna (48 bits).
+    private static byte[] serialize(Random rand) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(rand);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // Não acontece com um ByteArrayOutputStream.
+        }
+        return bytes.toByteArray();
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getIteration() {
+        return iteration;
+    }
+
+    public int getStagnationCount() {
+        return stagnationCount;
+    }
+
+    public int getCurrentTenure() {
+        return currentTenure;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    public double getCurrentCost() {
+        return currentCost;
+    }
+
+    public double getBestCost() {
+        return bestCost;
+    }
+
+    /**
+     * @return Uma cópia da melhor atribuição.
+     */
+    public int[] getBestAssignment() {
+        return bestAssignment.clone();
+    }
+
+    /**
+     * @return O custo da melhor solução de todas as execuções (igual ou menor do que {@link #getBestCost()}).
+     */
+    public double getOverallBestCost() {
+        return overallBestCost;
+    }
+
+    /**
+     * @return Uma cópia da melhor atribuição de todas as execuções.
+     */
+    public int[] getOverallBestAssignment() {
+        return overallBestAssignment.clone();
+    }
+
+    /**
+     * @return Uma cópia da atribuição corrente.
+     */
+    public int[] getAssignment() {
+        return assignment.clone();
+    }
+
+    /**
+     * @return O número de entradas tabu ativas.
+     */
+    public int getTabuEntries() {
+        return tabuAttributes.length;
+    }
+
+    /**
+     * Codifica o checkpoint no formato binário.
+     *
+     * @return Os bytes do ficheiro.
+     */
+    public byte[] toBytes() {
+        int width = numWarehouses <= 0x100 ? 1 : numWarehouses <= 0x10000 ? 2 : 4;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(104 + 3 * width * numCustomers
+                + 8 * tabuAttributes.length + random.length);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(fingerprint);
+            out.writeInt(numWarehouses);
+            out.writeInt(numCustomers);
+            out.writeLong(seed);
+            out.writeInt(iteration);
+            out.writeInt(stagnationCount);
+            out.writeInt(currentTenure);
+            out.writeBoolean(descending);
+            out.writeDouble(currentCost);
+            out.writeDouble(bestCost);
+            out.writeDouble(overallBestCost);
+            out.writeByte(width);
+            writeWarehouses(out, bestAssignment, width);
+            writeWarehouses(out, assignment, width);
+            writeWarehouses(out, overallBestAssignment, width);
+            out.writeInt(tabuAttributes.length);
+            for (int k = 0; k < tabuAttributes.length; k++) {
+                out.writeInt(tabuAttributes[k]);
+                out.writeInt(tabuUntil[k]);
+            }
+            out.writeInt(random.length);
+            out.write(random);
+            CRC32 crc = new CRC32();
+            crc.update(bytes.toByteArray());
+            out.writeInt((int) crc.getValue());
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // Não acontece com um ByteArrayOutputStream.
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeWarehouses(DataOutputStream out, int[] warehouses, int width) throws IOException {
+        for (int warehouse : warehouses) {
+            if (width == 1) {
+                out.writeByte(warehouse);
+            } else if (width == 2) {
+                out.writeShort(warehouse);
+            } else {
+                out.writeInt(warehouse);
+            }
+        }
+    }
+
+    private static int[] readWarehouses(DataInputStream in, int count, int width, int m) throws IOException {
+        if (width != 1 && width != 2 && width != 4 || (long) count * width > in.available()) {
+            throw new IOException("Checkpoint truncado ou corrompido: " + count + " armazéns de " + width + " bytes");
+        }
+        int[] warehouses = new int[count];
+        for (int j = 0; j < count; j++) {
+            int warehouse = width == 1 ? in.readUnsignedByte() : width == 2 ? in.readUnsignedShort() : in.readInt();
+            if (warehouse < 0 || warehouse >= m) {
+                throw new IOException("Armazém inválido no checkpoint: " + warehouse);
+            }
+            warehouses[j] = warehouse;
+        }
+        return warehouses;
+    }
+
+    // Lê um comprimento e verifica que os elementos cabem nos bytes que faltam, antes de alocar.
+    private static int readLength(DataInputStream in, int elementBytes, String what) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || (long) length * elementBytes > in.available()) {
+            throw new IOException("Comprimento inválido no checkpoint (" + what + "): " + length);
+        }
+        return length;
+    }
+
+    /**
+     * Escreve o checkpoint num ficheiro temporário e move-o para o destino, para
+     * que uma interrupção a meio nunca deixe um checkpoint incompleto.
+     *
+     * @param file O ficheiro do checkpoint.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    public void write(Path file) throws IOException {
+        write(file, toBytes());
+    }
+
+    void write(Path file, byte[] data) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(tmp, data);
+        try {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Lê um checkpoint, verificando o formato e o CRC.
+     *
+     * @param file O ficheiro do checkpoint.
+     * @return O checkpoint.
+     * @throws IOException Se o ficheiro não existir, estiver truncado ou corrompido.
+     */
+    public static TabuCheckpoint read(Path file) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        if (bytes.length < 4) {
+            throw new IOException("Checkpoint truncado: " + file);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length - 4);
+        int stored = ((bytes[bytes.length - 4] & 0xFF) << 24) | ((bytes[bytes.length - 3] & 0xFF) << 16)
+                | ((bytes[bytes.length - 2] & 0xFF) << 8) | (bytes[bytes.length - 1] & 0xFF);
+        if ((int) crc.getValue() != stored) {
+            throw new IOException("CRC do checkpoint inválido: " + file);
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 0, bytes.length - 4))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Ficheiro não é um checkpoint da pesquisa tabu (versão " + VERSION + "): "
+                        + file);
+            }
+            long fingerprint = in.readLong();
+            int m = in.readInt();
+            int n = in.readInt();
+            if (m <= 0 || n <= 0 || (long) n * m > Integer.MAX_VALUE) {
+                throw new IOException("Dimensões inválidas no checkpoint: " + m + "x" + n);
+            }
+            long seed = in.readLong();
+            int iteration = in.readInt();
+            int stagnationCount = in.readInt();
+            int currentTenure = in.readInt();
+            boolean descending = in.readBoolean();
+            double currentCost = in.readDouble();
+            double bestCost = in.readDouble();
+            double overallBestCost = in.readDouble();
+            int width = in.readUnsignedByte();
+            int[] bestAssignment = readWarehouses(in, n, width, m);
+            int[] assignment = readWarehouses(in, n, width, m);
+            int[] overallBestAssignment = readWarehouses(in, n, width, m);
+            int entries = readLength(in, 8, "memória tabu");
+            int[] attributes = new int[entries];
+            int[] untils = new int[entries];
+            for (int k = 0; k < entries; k++) {
+                attributes[k] = in.readInt();
+                untils[k] = in.readInt();
+                if (attributes[k] < 0 || attributes[k] >= n * m) {
+                    throw new IOException("Entrada tabu inválida no checkpoint: " + attributes[k]);
+                }
+            }
+            byte[] random = new byte[readLength(in, 1, "gerador")];
+            in.readFully(random);
+            deserialize(random);
+            return new TabuCheckpoint(fingerprint, m, n, seed, iteration, stagnationCount, currentTenure, descending,
+                    currentCost, bestCost, bestAssignment, assignment, overallBestCost, overallBestAssignment,
+                    attributes, untils, random);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TabuCheckpoint[%dx%d, seed=%d, iteration=%d, current=%.3f, best=%.3f, overall=%.3f, "
+                + "tabu=%d]", numWarehouses, numCustomers, seed, iteration, currentCost, bestCost, overallBestCost,
+                tabuAttributes.length);
+    }
+
+    /**
+     * Executa a pesquisa tabu com checkpoints periódicos, retomando do
+     * checkpoint se o ficheiro já existir (por exemplo, depois de o processo ter
+     * sido terminado). Uso: {@code TabuCheckpoint <instância> <checkpoint> [orçamentoMs] [intervaloMs]}.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Uso: TabuCheckpoint <instância> <checkpoint> [orçamentoMs] [intervaloMs]");
+        }
+        WarehouseLocationProblem problem = new WarehouseLocationProblem(0, 0);
+        InstanceParser.parseInto(args[0], problem);
+        Path file = Paths.get(args[1]);
+        long budget = args.length > 2 ? Long.parseLong(args[2]) : 0;
+        long interval = args.length > 3 ? Long.parseLong(args[3]) : TabuSearchUFLP.DEFAULT_CHECKPOINT_INTERVAL_MILLIS;
+
+        TabuSearchUFLP tabu = new TabuSearchUFLP(problem);
+        tabu.setMaxIterations(Integer.MAX_VALUE);
+        tabu.setStagnationLimit(Integer.MAX_VALUE);
+        tabu.setTenure(7, 5); // Numa execução longa, a tenura aleatória e adaptativa evita ciclos.
+        tabu.setAdaptiveTenure(30, 25);
+        tabu.setCheckpoint(file, interval);
+        if (Files.exists(file)) {
+            TabuCheckpoint checkpoint = read(file);
+            System.out.println("A retomar: " + checkpoint);
+            tabu.resume(checkpoint);
+        }
+        SolverResult result = tabu.solve(budget > 0 ? Budget.ofMillis(budget) : Budget.unlimited(), null,
+                (cost, assignment, millis) -> System.out.printf("%d ms: %.3f%n", millis, cost));
+        System.out.println(result);
+        System.out.println(tabu.getCheckpointWriter());
+    }
+}
@@ -1,47 +1,61 @@
 package org.example;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
-public class TabuSearchUFLP {
+public class TabuSearchUFLP implements Solver {
+
+    public static final long DEFAULT_CHECKPOINT_INTERVAL_MILLIS = 1000;
 
     private WarehouseLocationProblem problem; // Instância do problema de localização de armazéns.
-    private int[] assignment; // Array que armazena a atribuição de clientes para armazéns.
+    private SolutionState state; // Estado incremental da atribuição de clientes para armazéns.
     private double bestCost; // Custo da melhor solução encontrada até agora.
+    private int[] bestAssignment; // Atribuição correspondente à melhor solução.
 
-    private int tenure = 10; // Tenura da lista tabu, ou seja, o número máximo de iterações que um movimento permanece na lista tabu.
+    private int tenure = 10; // Tenura mínima: número de iterações em que o regresso de um cliente ao armazém de onde saiu é proibido.
+    private int tenureSpread = 0; // Parte aleatória da tenura, sorteada em [0, tenureSpread] para cada movimento (0 = fixa).
+    private int maxTenure = 30; // Tenura máxima alcançável pela adaptação.
+    private int adaptInterval = 0; // Iterações sem nova melhor solução após as quais a tenura aumenta (0 = sem adaptação).
     private int maxIterations = 100; // Número máximo de iterações do algoritmo.
     private int stagnationLimit = 10; // Limite de iterações sem melhora para interromper a pesquisa.
+    private int candidateListSize = PreprocessedProblem.DEFAULT_CANDIDATES; // Armazéns candidatos avaliados por cliente.
 
-    private Queue<Move> tabuList; // Lista tabu que armazena os movimentos proibidos temporariamente.
+    // Memória tabu por atributo: tabuUntil[cliente * m + armazém] é a iteração até à qual o
+    // cliente não pode voltar a esse armazém. Verificação em O(1), sem criar objetos.
+    private int[] tabuUntil;
 
-    /**
-     * Classe interna que representa um movimento (realocação de um cliente de um armazém para outro).
-     */
-    private class Move {
-        int customer;
-        int fromWarehouse;
-        int toWarehouse;
+    private long seed = 42; // Semente do gerador aleatório.
+    private SearchControl control = new SearchControl(); // Controlo da execução (paragem e notificação de melhorias).
+    private ConstructionHeuristic construction; // Heurística da solução inicial (null = aleatória).
+    private int parallelism = 1; // Número de threads usadas para avaliar a vizinhança (1 = sequencial).
+    private ElitePool elitePool; // Recebe os mínimos locais visitados (null = não guardados).
+    private boolean pathRelinking; // Path relinking entre os mínimos locais no fim de solve(Budget).
+    private final SolverMetrics metrics = SolverMetrics.forSolver(getName()); // Contadores e eventos JFR.
+    private Path checkpointFile; // Ficheiro dos checkpoints periódicos (null = sem checkpoints).
+    private long checkpointInterval = DEFAULT_CHECKPOINT_INTERVAL_MILLIS; // Intervalo entre checkpoints (ms).
+    private CheckpointWriter checkpointWriter; // Escritor da última chamada com checkpoints.
+    private long nextCheckpoint; // Instante do próximo checkpoint (partilhado pelos recomeços).
+    private BudgetControl budgetControl; // Controlo da chamada a solve(Budget) em curso (null fora dela).
+    private TabuCheckpoint resumeFrom; // Checkpoint de onde a próxima execução continua (null = do início).
+    private PreprocessedProblem view; // Listas de candidatos da execução corrente.
+    private int candidates;
 
-        Move(int customer, int fromWarehouse, int toWarehouse) {
-            this.customer = customer;
-            this.fromWarehouse = fromWarehouse;
-            this.toWarehouse = toWarehouse;
-        }
+    // Resultado da avaliação de um intervalo de clientes: um por bloco, sem partilha entre threads.
+    private static class MoveCandidate {
+        int customer = -1;
+        int warehouse = -1;
+        double delta = Double.POSITIVE_INFINITY;
 
-        @Override
-        public boolean equals(Object obj) {
-            if (this == obj) return true;
-            if (obj == null || getClass() != obj.getClass()) return false;
-            Move move = (Move) obj;
-            return customer == move.customer && fromWarehouse == move.fromWarehouse && toWarehouse == move.toWarehouse;
-        }
-
-        @Override
-        public int hashCode() {
-            return Objects.hash(customer, fromWarehouse, toWarehouse);
+        void clear() {
+            customer = -1;
+            warehouse = -1;
+            delta = Double.POSITIVE_INFINITY;
         }
     }
-    
+
     /**
      * Construtor que recebe uma instância do problema de localização de armazéns.
      * @param problem
@@ -51,41 +65,175 @@ public class TabuSearchUFLP {
     }
 
     /**
-     * Método para inicializar uma solução aleatória.
+     * Método que define quantos armazéns candidatos (os mais baratos) são avaliados por cliente.
+     * @param candidateListSize O tamanho das listas, ou PreprocessedProblem.FULL_SCAN para todos os armazéns.
      */
-    private void initializeSolution() {
-        assignment = new int[problem.numCustomers];
-        Random rand = new Random(42); // Configura a semente para reprodutibilidade
-        for (int j = 0; j < problem.numCustomers; j++) {
-            assignment[j] = rand.nextInt(problem.numWarehouses);
-        }
-        bestCost = calculateCost(assignment);
+    public void setCandidateListSize(int candidateListSize) {
+        this.candidateListSize = candidateListSize;
     }
 
     /**
-     * Método para calcular o custo total da solução dada uma atribuição de clientes para armazéns.
-     * @param assignment
-     * @return
+     * Método que define a tenura mínima e a sua parte aleatória (por omissão, 10 fixa).
+     * @param tenure A tenura mínima (em iterações).
+     * @param tenureSpread A amplitude da parte aleatória (0 para tenura fixa).
+     */
+    public void setTenure(int tenure, int tenureSpread) {
+        this.tenure = tenure;
+        this.tenureSpread = tenureSpread;
+        this.maxTenure = Math.max(maxTenure, tenure);
+    }
+
+    /**
+     * Método que define os limites da adaptação da tenura (por omissão, desativada).
+     * @param maxTenure A tenura máxima.
+     * @param adaptInterval Iterações sem melhoria após as quais a tenura aumenta uma unidade (0 desativa).
+     */
+    public void setAdaptiveTenure(int maxTenure, int adaptInterval) {
+        this.maxTenure = maxTenure;
+        this.adaptInterval = adaptInterval;
+    }
+
+    /**
+     * Método que define o número de threads usadas na avaliação da vizinhança. O resultado é o mesmo
+     * para qualquer número de threads: cada bloco escolhe o melhor movimento pela ordem sequencial e a
+     * redução mantém o primeiro em caso de empate.
+     * @param parallelism O número de threads (1 para avaliação sequencial).
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Método que define a semente do gerador aleatório (por omissão 42).
+     * @param seed
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Método que define o controlo da execução, consultado em cada iteração e notificado das novas melhores soluções.
+     * @param control
+     */
+    public void setSearchControl(SearchControl control) {
+        this.control = control;
+    }
+
+    /**
+     * Método que define a heurística que constrói a solução inicial.
+     * @param construction A heurística, ou null para a solução inicial aleatória.
+     */
+    @Override
+    public void setConstruction(ConstructionHeuristic construction) {
+        this.construction = construction;
+    }
+
+    /**
+     * Método que define o número máximo de iterações.
+     * @param maxIterations
      */
-    private double calculateCost(int[] assignment) {
-        double totalCost = 0.0;
-        int[] warehouseUsage = new int[problem.numWarehouses];
+    public void setMaxIterations(int maxIterations) {
+        this.maxIterations = maxIterations;
+    }
 
-        for (int j = 0; j < problem.numCustomers; j++) {
-            int warehouse = assignment[j];
-            warehouseUsage[warehouse] += problem.demands[j];
-            totalCost += problem.allocationCosts[warehouse][j];
+    /**
+     * Método que define o número de iterações sem nova melhor solução que interrompe a pesquisa.
+     * @param stagnationLimit
+     */
+    public void setStagnationLimit(int stagnationLimit) {
+        this.stagnationLimit = stagnationLimit;
+    }
+
+    /**
+     * Método que define o conjunto de elite que recebe os mínimos locais visitados
+     * pela pesquisa (as soluções onde o melhor movimento deixa de melhorar).
+     * @param elitePool O conjunto, ou null para não guardar os mínimos locais.
+     */
+    public void setElitePool(ElitePool elitePool) {
+        this.elitePool = elitePool;
+    }
+
+    /**
+     * Método que ativa o path relinking no fim de cada chamada a
+     * {@link #solve(Budget, CancellationToken, ImprovementListener)}: os mínimos
+     * locais de todas as execuções entram no conjunto de elite (o configurado, ou
+     * um novo por chamada) e a melhor solução dos caminhos entre eles entra no
+     * resultado se for melhor.
+     * @param pathRelinking Verdadeiro para fazer o path relinking.
+     */
+    public void setPathRelinking(boolean pathRelinking) {
+        this.pathRelinking = pathRelinking;
+    }
+
+    /**
+     * Método que ativa os checkpoints periódicos: no início de uma iteração, passado o intervalo, o estado
+     * da pesquisa é copiado e escrito noutra thread; no fim de cada execução é escrito o estado final. Os
+     * recomeços de uma chamada a {@link #solve(Budget, CancellationToken, ImprovementListener)} partilham o
+     * escritor e o intervalo, e cada checkpoint guarda também a melhor solução de todos eles.
+     * @param file O ficheiro do checkpoint, ou null para desativar.
+     * @param intervalMillis O intervalo mínimo entre checkpoints.
+     */
+    public void setCheckpoint(Path file, long intervalMillis) {
+        this.checkpointFile = file;
+        this.checkpointInterval = Math.max(0, intervalMillis);
+    }
+
+    /**
+     * Método que faz a próxima execução continuar de um checkpoint em vez de construir a solução inicial.
+     * Com a mesma configuração, a execução retomada percorre as mesmas iterações que a execução original
+     * teria percorrido sem interrupção. A semente passa a ser a do checkpoint, e a melhor solução de todas
+     * as execuções guardada no checkpoint entra no resultado da chamada que o retoma.
+     * @param checkpoint O checkpoint, ou null para começar do início.
+     */
+    public void resume(TabuCheckpoint checkpoint) {
+        if (checkpoint != null) {
+            checkpoint.checkInstance(TabuCheckpoint.fingerprint(problem));
+            seed = checkpoint.getSeed();
         }
+        this.resumeFrom = checkpoint;
+    }
+
+    /**
+     * Método que faz a próxima execução continuar do checkpoint guardado num ficheiro.
+     * @param file O ficheiro do checkpoint.
+     * @throws IOException Se o ficheiro não puder ser lido ou estiver corrompido.
+     */
+    public void resume(Path file) throws IOException {
+        resume(TabuCheckpoint.read(file));
+    }
+
+    /**
+     * Método para obter o escritor de checkpoints da última chamada (com as estatísticas das escritas).
+     * @return O escritor, ou null se a última chamada não tiver checkpoints.
+     */
+    public CheckpointWriter getCheckpointWriter() {
+        return checkpointWriter;
+    }
 
-        for (int i = 0; i < problem.numWarehouses; i++) {
-            if (warehouseUsage[i] > 0) {
-                totalCost += problem.fixedCosts[i];
+    /**
+     * Método para inicializar uma solução aleatória, ou construída pela heurística definida.
+     */
+    private void initializeSolution(Random rand) {
+        state = new SolutionState(problem);
+        int[] assignment = state.getAssignment();
+        if (construction != null) {
+            System.arraycopy(construction.constructAssignment(problem, rand), 0, assignment, 0, problem.numCustomers);
+        } else {
+            for (int j = 0; j < problem.numCustomers; j++) {
+                assignment[j] = rand.nextInt(problem.numWarehouses);
             }
         }
-
-        return totalCost;
+        bestCost = state.recompute();
+        bestAssignment = assignment.clone();
     }
 
+    /**
+     * Método para obter uma cópia da melhor atribuição encontrada.
+     * @return
+     */
+    public int[] getBestAssignment() {
+        return bestAssignment.clone();
+    }
 
     /**
      * Método para obter o custo da melhor solução encontrada.
@@ -95,85 +243,282 @@ public class TabuSearchUFLP {
         return bestCost;
     }
 
+    @Override
+    public String getName() {
+        return "Tabu Search";
+    }
+
     /**
-     * Método que executa o algoritmo de pesquisa tabu.
+     * Método que executa a pesquisa tabu dentro do orçamento, recomeçando com a
+     * semente seguinte enquanto o orçamento (se limitado) não se esgotar; com
+     * {@link #setPathRelinking(boolean)}, termina com o path relinking, na fração
+     * {@link PathRelinking#BUDGET_SHARE} do orçamento reservada para ele.
+     *
+     * @param budget   O orçamento de tempo e de avaliações.
+     * @param token    O pedido de cancelamento.
+     * @param listener Recebe cada nova melhor solução (pode ser null).
+     * @return A melhor solução de todas as execuções.
+     */
+    @Override
+    public SolverResult solve(Budget budget, CancellationToken token, ImprovementListener listener) {
+        BudgetControl budgetControl = new BudgetControl(budget, token, listener, control);
+        ElitePool configured = elitePool;
+        ElitePool pool = pathRelinking && configured == null ? new ElitePool() : configured;
+        elitePool = pool;
+        if (pathRelinking) {
+            budgetControl.reserve(PathRelinking.BUDGET_SHARE);
+        }
+        this.budgetControl = budgetControl;
+        CheckpointWriter writer = openCheckpointWriter(); // Um escritor para todos os recomeços.
+        try {
+            budgetControl.runRestarts(this, seed, this::solve);
+        } finally {
+            this.budgetControl = null;
+            elitePool = configured;
+            if (writer != null) {
+                writer.close();
+            }
+        }
+        return pathRelinking ? budgetControl.relink(new PathRelinking(problem), pool, getName())
+                : budgetControl.result(getName());
+    }
+
+    /**
+     * Método que cria o escritor de checkpoints (se estiverem ativos) e começa a contar o intervalo.
+     * @return O escritor, a fechar por quem chamou este método, ou null sem checkpoints.
+     */
+    private CheckpointWriter openCheckpointWriter() {
+        checkpointWriter = checkpointFile == null ? null : new CheckpointWriter(checkpointFile);
+        nextCheckpoint = System.nanoTime() + checkpointInterval * 1_000_000L;
+        return checkpointWriter;
+    }
+
+    /**
+     * Método que executa o algoritmo de pesquisa tabu. Em cada iteração é aplicado o melhor
+     * movimento admissível (não tabu, ou tabu que satisfaz o critério de aspiração), mesmo
+     * que piore a solução corrente.
      */
     public void solve() {
-        initializeSolution();
-        tabuList = new LinkedList<>();
-        int iteration = 0;
-        int stagnationCount = 0;
-        double lastBestCost = bestCost;
-
-        while (iteration < maxIterations && stagnationCount < stagnationLimit) {
-            boolean foundBetterNeighbor = false;
-            Move bestMove = null;
-            double bestMoveCost = Double.POSITIVE_INFINITY;
-            // Avalia todos os possíveis movimentos.
-            for (int j = 0; j < problem.numCustomers; j++) {
-                int currentWarehouse = assignment[j];
-                for (int i = 0; i < problem.numWarehouses; i++) {
-                    if (i != currentWarehouse) {
-                        Move move = new Move(j, currentWarehouse, i);
-                        // Verifica se o movimento é tabu ou se satisfaz os critérios de aspiração.
-                        if (!isTabu(move) || satisfiesAspirationCriteria(move, bestMoveCost)) {
-                            int oldWarehouse = assignment[j];
-                            assignment[j] = i;
-                            double currentCost = calculateCost(assignment);
-                            // Atualiza o melhor movimento encontrado.
-                            if (currentCost < bestCost && currentCost < bestMoveCost) {
-                                bestMove = move;
-                                bestMoveCost = currentCost;
-                                foundBetterNeighbor = true;
-                            }
-
-                            assignment[j] = oldWarehouse;
-                        }
+        Random rand = new Random(seed); // Configura a semente para reprodutibilidade
+        TabuCheckpoint checkpoint = resumeFrom;
+        resumeFrom = null;
+        if (checkpoint == null) {
+            initializeSolution(rand);
+        } else {
+            rand = checkpoint.restoreRandom();
+            state = new SolutionState(problem);
+            state.restore(checkpoint.getAssignment(), checkpoint.getCurrentCost());
+            bestCost = checkpoint.getBestCost();
+            bestAssignment = checkpoint.getBestAssignment();
+            control.improved(checkpoint.getOverallBestCost(), checkpoint.getOverallBestAssignment());
+        }
+        control.improved(bestCost, bestAssignment);
+        view = PreprocessedProblem.of(problem, candidateListSize);
+        candidates = view.candidateCount();
+        int m = problem.numWarehouses;
+        tabuUntil = new int[problem.numCustomers * m];
+        if (checkpoint != null) {
+            checkpoint.restoreTabu(tabuUntil);
+        }
+
+        // Blocos de clientes avaliados em paralelo, cada um com o seu resultado.
+        ForkJoinPool pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+        int blockSize = pool == null ? problem.numCustomers
+                : Math.max(16, (problem.numCustomers + parallelism * 4 - 1) / (parallelism * 4));
+        int blocks = Math.max(1, (problem.numCustomers + blockSize - 1) / blockSize);
+        MoveCandidate[] results = new MoveCandidate[blocks];
+        for (int b = 0; b < blocks; b++) {
+            results[b] = new MoveCandidate();
+        }
+
+        int iteration = checkpoint == null ? 0 : checkpoint.getIteration();
+        int stagnationCount = checkpoint == null ? 0 : checkpoint.getStagnationCount();
+        int currentTenure = checkpoint == null ? tenure : checkpoint.getCurrentTenure();
+        boolean descending = checkpoint == null || checkpoint.isDescending(); // O último movimento melhorou a solução corrente.
+
+        // Checkpoints: o estado é copiado no início da iteração e escrito pela thread do escritor. Dentro de
+        // solve(Budget), o escritor e o intervalo são os da chamada; fora, os desta execução.
+        CheckpointWriter ownWriter = budgetControl == null ? openCheckpointWriter() : null;
+        CheckpointWriter writer = checkpointWriter;
+        long fingerprint = writer == null ? 0 : TabuCheckpoint.fingerprint(problem);
+        long intervalNanos = checkpointInterval * 1_000_000L;
+
+        try {
+            while (iteration < maxIterations && stagnationCount < stagnationLimit && !control.shouldStop()) {
+                if (writer != null && System.nanoTime() - nextCheckpoint >= 0) {
+                    writer.submit(capture(fingerprint, iteration, stagnationCount, currentTenure, descending, rand));
+                    nextCheckpoint = System.nanoTime() + intervalNanos;
+                }
+                SolverEvents.IterationEvent iterationEvent = metrics.beginIteration();
+
+                // Avalia todos os possíveis movimentos.
+                if (pool == null) {
+                    evaluateBlock(0, problem.numCustomers, iteration, results[0]);
+                } else {
+                    pool.invoke(new EvaluationTask(0, blocks, blockSize, iteration, results));
+                }
+                control.evaluated((long) problem.numCustomers * candidates);
+
+                // Redução pela ordem dos blocos: o primeiro melhor movimento, como na avaliação sequencial.
+                int bestCustomer = -1;
+                int bestWarehouse = -1;
+                double bestMoveDelta = Double.POSITIVE_INFINITY;
+                for (MoveCandidate result : results) {
+                    if (result.customer >= 0 && result.delta < bestMoveDelta) {
+                        bestMoveDelta = result.delta;
+                        bestCustomer = result.customer;
+                        bestWarehouse = result.warehouse;
                     }
                 }
-            }
-            // Executa o melhor movimento encontrado.
-            if (foundBetterNeighbor && bestMove != null) {
-                assignment[bestMove.customer] = bestMove.toWarehouse;
-                bestCost = bestMoveCost;
-                // Adiciona o movimento à lista tabu.
-                tabuList.offer(bestMove);
-                if (tabuList.size() > tenure) {
-                    tabuList.poll();
+
+                if (bestCustomer < 0) {
+                    break; // Todos os movimentos são tabu.
                 }
-                // Verifica se houve melhora no custo da melhor solução.
-                if (bestCost < lastBestCost) {
-                    lastBestCost = bestCost;
+
+                // Mínimo local: depois de descer, o melhor movimento já não melhora.
+                if (descending && bestMoveDelta >= 0 && elitePool != null) {
+                    elitePool.offer(state);
+                }
+                descending = bestMoveDelta < 0;
+
+                if (isTabu(bestCustomer * m + bestWarehouse, iteration)) {
+                    metrics.aspiration(); // Movimento tabu aceite pelo critério de aspiração.
+                }
+
+                // Executa o melhor movimento encontrado e proíbe o regresso ao armazém de origem.
+                int fromWarehouse = state.warehouseOf(bestCustomer);
+                state.applyMove(bestCustomer, bestWarehouse);
+                int moveTenure = currentTenure + (tenureSpread > 0 ? rand.nextInt(tenureSpread + 1) : 0);
+                tabuUntil[bestCustomer * m + fromWarehouse] = iteration + moveTenure;
+
+                // Verifica se houve melhora no custo da melhor solução, com o custo recalculado
+                // para que o erro acumulado nas atualizações incrementais não chegue ao resultado.
+                if (state.getCost() < bestCost && state.recompute() < bestCost) {
+                    metrics.improvement(iteration, state.getCost(), bestCost);
+                    bestCost = state.getCost();
+                    state.copyAssignmentTo(bestAssignment);
+                    control.improved(bestCost, bestAssignment);
                     stagnationCount = 0;
+                    currentTenure = tenure; // Intensifica em torno da nova melhor solução.
                 } else {
                     stagnationCount++;
+                    if (adaptInterval > 0 && stagnationCount % adaptInterval == 0) {
+                        currentTenure = Math.min(maxTenure, currentTenure + 1); // Diversifica.
+                    }
                 }
-            } else {
-                stagnationCount++;
+                metrics.endIteration(iterationEvent, iteration, (long) problem.numCustomers * candidates,
+                        state.getCost(), bestCost);
+
+                iteration++;
+            }
+            if (writer != null) {
+                writer.submit(capture(fingerprint, iteration, stagnationCount, currentTenure, descending, rand));
             }
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+            if (ownWriter != null) {
+                ownWriter.close();
+            }
+        }
+    }
+
+    /**
+     * Método que copia o estado da execução para um checkpoint, com a melhor solução de todas as execuções
+     * da chamada a solve(Budget) em curso (ou a desta execução, fora dela).
+     */
+    private TabuCheckpoint capture(long fingerprint, int iteration, int stagnationCount, int currentTenure,
+                                   boolean descending, Random rand) {
+        double overallBestCost = budgetControl == null ? bestCost : budgetControl.getBestCost();
+        int[] overallBestAssignment = budgetControl == null ? bestAssignment : budgetControl.getBestAssignment();
+        return TabuCheckpoint.capture(fingerprint, problem, seed, iteration, stagnationCount, currentTenure,
+                descending, state, bestCost, bestAssignment, overallBestCost, overallBestAssignment, tabuUntil, rand);
+    }
 
-            iteration++;
+    /**
+     * Método que avalia os movimentos dos clientes [from, to) e guarda o melhor movimento admissível.
+     * Só lê o estado, pelo que vários blocos podem ser avaliados ao mesmo tempo.
+     */
+    private void evaluateBlock(int from, int to, int iteration, MoveCandidate result) {
+        result.clear();
+        int m = problem.numWarehouses;
+        double currentCost = state.getCost();
+        double bestMoveDelta = Double.POSITIVE_INFINITY;
+        for (int j = from; j < to; j++) {
+            int currentWarehouse = state.warehouseOf(j);
+            int base = j * m;
+            for (int r = 0; r < candidates; r++) {
+                int i = view.candidate(j, r);
+                if (i == currentWarehouse) {
+                    continue;
+                }
+                double delta = state.moveDelta(j, i);
+                if (delta >= bestMoveDelta) {
+                    continue;
+                }
+                // Verifica se o movimento é tabu ou se satisfaz os critérios de aspiração.
+                if (!isTabu(base + i, iteration) || satisfiesAspirationCriteria(currentCost + delta)) {
+                    bestMoveDelta = delta;
+                    result.customer = j;
+                    result.warehouse = i;
+                }
+            }
+        }
+        result.delta = bestMoveDelta;
+    }
+
+    /**
+     * Tarefa que divide os blocos de clientes entre as threads do ForkJoinPool.
+     */
+    private class EvaluationTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int fromBlock;
+        private final int toBlock;
+        private final int blockSize;
+        private final int iteration;
+        private final MoveCandidate[] results;
+
+        EvaluationTask(int fromBlock, int toBlock, int blockSize, int iteration, MoveCandidate[] results) {
+            this.fromBlock = fromBlock;
+            this.toBlock = toBlock;
+            this.blockSize = blockSize;
+            this.iteration = iteration;
+            this.results = results;
         }
 
-        //System.out.println("Optimal solution cost (Tabu Search): " + bestCost);
+        @Override
+        protected void compute() {
+            if (toBlock - fromBlock == 1) {
+                int from = fromBlock * blockSize;
+                int to = Math.min(problem.numCustomers, from + blockSize);
+                evaluateBlock(from, to, iteration, results[fromBlock]);
+                return;
+            }
+            int mid = (fromBlock + toBlock) >>> 1;
+            invokeAll(new EvaluationTask(fromBlock, mid, blockSize, iteration, results),
+                    new EvaluationTask(mid, toBlock, blockSize, iteration, results));
+        }
     }
 
     /**
-     * Método que verifica se um movimento está na lista tabu.
-     * @param move
+     * Método que verifica se um atributo (cliente, armazém) está proibido na iteração dada.
+     * @param attribute O índice cliente * m + armazém.
+     * @param iteration A iteração corrente.
      * @return
      */
-    private boolean isTabu(Move move) {
-        return tabuList.contains(move);
+    private boolean isTabu(int attribute, int iteration) {
+        return tabuUntil[attribute] > iteration;
     }
 
     /**
-     * Método que verifica se um movimento satisfaz os critérios de aspiração.
-     * @param move
-     * @param moveCost
+     * Método que verifica se um movimento satisfaz o critério de aspiração: um movimento
+     * tabu é aceite se levar a uma solução melhor do que a melhor encontrada.
+     * @param moveCost O custo da solução após o movimento.
      * @return
      */
-    private boolean satisfiesAspirationCriteria(Move move, double moveCost) {
+    private boolean satisfiesAspirationCriteria(double moveCost) {
         return moveCost < bestCost;
     }
 }
@@ -0,0 +1,45 @@
+package org.example;
+
+/**
+ * Chaves de Zobrist para conjuntos de armazéns abertos: o hash de um conjunto
+ * é o XOR das chaves dos armazéns abertos, pelo que abrir ou fechar um armazém
+ * o atualiza em O(1) ({@code hash ^= key(i)}).
+ *
+ * <p>A chave de cada armazém é uma função fixa do seu índice (a mistura do
+ * SplitMix64), sem tabela nem semente: todos os estados, de qualquer algoritmo,
+ * dão o mesmo hash ao mesmo conjunto e podem partilhar uma {@link SolutionCache}.
+ * Com 64 bits, a probabilidade de dois conjuntos distintos colidirem numa cache
+ * de k entradas é cerca de k²/2⁶⁵, desprezável para os tamanhos usados.
+ */
+public final class Zobrist {
+
+    private Zobrist() {
+    }
+
+    /**
+     * @param warehouse O índice do armazém.
+     * @return A chave de 64 bits do armazém.
+     */
+    public static long key(int warehouse) {
+        long z = (warehouse + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Calcula de raiz o hash de um conjunto de armazéns abertos, em O(m).
+     *
+     * @param open Um array que indica os armazéns abertos.
+     * @return O hash do conjunto.
+     */
+    public static long hash(boolean[] open) {
+        long hash = 0L;
+        for (int i = 0; i < open.length; i++) {
+            if (open[i]) {
+                hash ^= key(i);
+            }
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,93 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Testes do {@link MigrationProtocol}: ida e volta de uma mensagem e rejeição
+ * de cabeçalhos inválidos antes de alocar o bitset.
+ */
+class MigrationProtocolTest {
+
+    private static byte[] write(MigrationProtocol.Migrant migrant) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            MigrationProtocol.write(out, migrant);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static MigrationProtocol.Migrant read(byte[] message) throws IOException {
+        return MigrationProtocol.read(new DataInputStream(new ByteArrayInputStream(message)));
+    }
+
+    // Um cabeçalho válido com as dimensões indicadas e sem bitset.
+    private static byte[] header(int m, int n) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MigrationProtocol.MAGIC);
+            out.writeByte(MigrationProtocol.VERSION);
+            out.writeInt(0);
+            out.writeInt(0);
+            out.writeDouble(1.0);
+            out.writeInt(m);
+            out.writeInt(n);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Test
+    void readsBackWhatWasWritten() throws IOException {
+        boolean[] open = new boolean[130]; // Três palavras, a última incompleta.
+        for (int i = 0; i < open.length; i++) {
+            open[i] = i % 7 == 0 || i == 63 || i == 64 || i == 129;
+        }
+        MigrationProtocol.Migrant sent = new MigrationProtocol.Migrant(3, 17, 12345.678, 1000, open);
+        byte[] message = write(sent);
+        assertEquals(4 + 1 + 4 + 4 + 8 + 4 + 4 + 3 * 8, message.length);
+
+        MigrationProtocol.Migrant received = read(message);
+        assertEquals(3, received.island);
+        assertEquals(17, received.epoch);
+        assertEquals(12345.678, received.cost);
+        assertEquals(1000, received.numCustomers);
+        assertEquals(130, received.numWarehouses());
+        assertArrayEquals(open, received.getOpen());
+    }
+
+    @Test
+    void messageFor500WarehousesTakes93Bytes() throws IOException {
+        assertEquals(93, write(new MigrationProtocol.Migrant(0, 0, 0.0, 10, new boolean[500])).length);
+    }
+
+    @Test
+    void rejectsInvalidDimensionsBeforeAllocating() throws IOException {
+        assertThrows(IOException.class, () -> read(header(0, 10)));
+        assertThrows(IOException.class, () -> read(header(Integer.MAX_VALUE, 10)));
+        assertThrows(IOException.class, () -> read(header(MigrationProtocol.MAX_WAREHOUSES + 1, 10)));
+        assertThrows(IOException.class, () -> read(header(10, -1)));
+        assertThrows(IOException.class, () -> read(header(10, MigrationProtocol.MAX_CUSTOMERS + 1)));
+        // Dimensões válidas mas sem bitset: a mensagem está truncada.
+        assertThrows(EOFException.class, () -> read(header(10, 10)));
+    }
+
+    @Test
+    void rejectsUnknownMagicAndVersion() throws IOException {
+        byte[] message = write(new MigrationProtocol.Migrant(0, 0, 0.0, 10, new boolean[10]));
+        message[0] ^= 1;
+        assertThrows(IOException.class, () -> read(message));
+        message[0] ^= 1;
+        message[4] = (byte) (MigrationProtocol.VERSION + 1);
+        assertThrows(IOException.class, () -> read(message));
+    }
+}
@@ -0,0 +1,116 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testes da {@link SolutionCache}: substituição pelo relógio e remoção do
+ * índice com deslocamento para trás.
+ */
+class SolutionCacheTest {
+
+    private static final int WAREHOUSES = 70; // Mais de 64: os conjuntos ocupam dois longs.
+
+    /**
+     * Com capacidade 4 o índice tem 8 posições, pelo que as chaves 1, 9, 17, ...
+     * têm todas a posição ideal 1 e ficam na mesma sequência de sondagem.
+     */
+    private static long collidingKey(int k) {
+        return 1 + 8L * k;
+    }
+
+    private static boolean[] set(long key) {
+        boolean[] open = new boolean[WAREHOUSES];
+        for (int i = 0; i < WAREHOUSES; i++) {
+            open[i] = (key + i) % 3 == 0;
+        }
+        return open;
+    }
+
+    private static SolutionCache filled() {
+        SolutionCache cache = new SolutionCache(4, WAREHOUSES);
+        for (int k = 0; k < 4; k++) {
+            long key = collidingKey(k);
+            cache.put(key, key * 1.5, set(key));
+        }
+        return cache;
+    }
+
+    @Test
+    void storesCostAndOptimum() {
+        SolutionCache cache = filled();
+        boolean[] optimum = new boolean[WAREHOUSES];
+        for (int k = 0; k < 4; k++) {
+            long key = collidingKey(k);
+            assertEquals(key * 1.5, cache.get(key, optimum));
+            assertArrayEquals(set(key), optimum);
+        }
+        assertTrue(Double.isNaN(cache.get(collidingKey(4), optimum)));
+        assertEquals(4, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(0.8, cache.hitRate(), 1e-12);
+    }
+
+    @Test
+    void clockEvictsUnreferencedEntries() {
+        SolutionCache cache = filled();
+        cache.get(collidingKey(0), null); // Marca as entradas 0 e 2.
+        cache.get(collidingKey(2), null);
+
+        // O relógio desmarca a entrada 0 e substitui a 1; depois desmarca a 2 e substitui a 3.
+        cache.put(collidingKey(4), 4.0, set(collidingKey(4)));
+        cache.put(collidingKey(5), 5.0, set(collidingKey(5)));
+
+        assertEquals(4, cache.size());
+        assertEquals(2, cache.getEvictions());
+        assertTrue(cache.contains(collidingKey(0)));
+        assertFalse(cache.contains(collidingKey(1)));
+        assertTrue(cache.contains(collidingKey(2)));
+        assertFalse(cache.contains(collidingKey(3)));
+        assertTrue(cache.contains(collidingKey(4)));
+        assertTrue(cache.contains(collidingKey(5)));
+    }
+
+    @Test
+    void entriesAfterARemovedOneStayReachable() {
+        SolutionCache cache = filled();
+        // Sem marcas, o relógio substitui a entrada 0, a primeira da sequência de sondagem:
+        // as seguintes têm de ser deslocadas para trás para continuarem a ser encontradas.
+        cache.put(collidingKey(4), 4.0, set(collidingKey(4)));
+        assertFalse(cache.contains(collidingKey(0)));
+        boolean[] optimum = new boolean[WAREHOUSES];
+        for (int k = 1; k <= 4; k++) {
+            long key = collidingKey(k);
+            assertTrue(cache.contains(key));
+            cache.get(key, optimum);
+            assertArrayEquals(set(key), optimum);
+        }
+    }
+
+    @Test
+    void agreesWithAMapUnderRandomOperations() {
+        SolutionCache cache = new SolutionCache(16, WAREHOUSES);
+        Random random = new Random(1);
+        boolean[] optimum = new boolean[WAREHOUSES];
+        for (int t = 0; t < 100_000; t++) {
+            long key = random.nextInt(64) * 32L; // Muitas colisões no índice de 32 posições.
+            if (random.nextBoolean()) {
+                cache.put(key, key + 0.5, set(key));
+            } else {
+                double cost = cache.get(key, optimum);
+                if (!Double.isNaN(cost)) {
+                    assertEquals(key + 0.5, cost);
+                    assertArrayEquals(set(key), optimum);
+                }
+            }
+            assertTrue(cache.size() <= 16);
+        }
+        assertTrue(cache.getEvictions() > 0);
+    }
+}
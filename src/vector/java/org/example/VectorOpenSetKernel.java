@@ -0,0 +1,117 @@
+package org.example;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.util.Arrays;
+
+/**
+ * Implementação do {@link OpenSetKernel} com a Vector API do JDK
+ * ({@code jdk.incubator.vector}): cada instrução processa tantos clientes
+ * quantas as pistas da espécie preferida (16 floats com AVX-512, 8 com AVX2).
+ * Os mínimos e os argumentos mínimos são calculados sem saltos, com máscaras
+ * de comparação e {@code blend}; os clientes que sobram no fim de cada linha
+ * são tratados com código escalar.
+ *
+ * <p>Fica num conjunto de fontes próprio ({@code src/vector/java}), o único
+ * compilado com {@code --add-modules jdk.incubator.vector}. Só é carregada pelo
+ * {@link OpenSetKernel#get()}, por reflexão, com {@code -Duflp.vector=true} e o
+ * módulo também presente na execução.
+ */
+public final class VectorOpenSetKernel implements OpenSetKernel {
+
+    private static final VectorSpecies<Float> FLOATS = FloatVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> INTS = VectorSpecies.of(int.class, FLOATS.vectorShape());
+
+    @Override
+    public double minReduce(float[][] rows, OpenSet open, float[] nearest) {
+        int n = nearest.length;
+        int bound = FLOATS.loopBound(n);
+        int first = open.nextOpen(0);
+        System.arraycopy(rows[first], 0, nearest, 0, n);
+        for (int i = open.nextOpen(first + 1); i >= 0; i = open.nextOpen(i + 1)) {
+            float[] row = rows[i];
+            int j = 0;
+            for (; j < bound; j += FLOATS.length()) {
+                FloatVector.fromArray(FLOATS, nearest, j).min(FloatVector.fromArray(FLOATS, row, j))
+                        .intoArray(nearest, j);
+            }
+            for (; j < n; j++) {
+                nearest[j] = Math.min(nearest[j], row[j]);
+            }
+        }
+        return sum(nearest);
+    }
+
+    @Override
+    public double nearestTwo(float[][] rows, OpenSet open, float[] nearest, float[] second, int[] assignment) {
+        int n = nearest.length;
+        int bound = FLOATS.loopBound(n);
+        int first = open.nextOpen(0);
+        System.arraycopy(rows[first], 0, nearest, 0, n);
+        Arrays.fill(second, Float.POSITIVE_INFINITY);
+        Arrays.fill(assignment, first);
+        for (int i = open.nextOpen(first + 1); i >= 0; i = open.nextOpen(i + 1)) {
+            float[] row = rows[i];
+            IntVector index = IntVector.broadcast(INTS, i);
+            int j = 0;
+            for (; j < bound; j += FLOATS.length()) {
+                FloatVector c = FloatVector.fromArray(FLOATS, row, j);
+                FloatVector d1 = FloatVector.fromArray(FLOATS, nearest, j);
+                FloatVector d2 = FloatVector.fromArray(FLOATS, second, j);
+                VectorMask<Float> better = c.compare(VectorOperators.LT, d1);
+                // Se c < d1, o antigo primeiro passa a segundo; senão, o segundo é min(d2, c).
+                d2.min(c).blend(d1, better).intoArray(second, j);
+                d1.blend(c, better).intoArray(nearest, j);
+                IntVector.fromArray(INTS, assignment, j).blend(index, better.cast(INTS)).intoArray(assignment, j);
+            }
+            for (; j < n; j++) {
+                float c = row[j];
+                if (c < nearest[j]) {
+                    second[j] = nearest[j];
+                    nearest[j] = c;
+                    assignment[j] = i;
+                } else if (c < second[j]) {
+                    second[j] = c;
+                }
+            }
+        }
+        return sum(nearest);
+    }
+
+    @Override
+    public double gain(float[] row, float[] nearest) {
+        int n = nearest.length;
+        int bound = FLOATS.loopBound(n);
+        FloatVector zero = FloatVector.zero(FLOATS);
+        double total = 0.0;
+        int j = 0;
+        for (; j < bound; j += FLOATS.length()) {
+            FloatVector saving = FloatVector.fromArray(FLOATS, nearest, j).sub(FloatVector.fromArray(FLOATS, row, j));
+            total += saving.max(zero).reduceLanes(VectorOperators.ADD);
+        }
+        for (; j < n; j++) {
+            total += Math.max(0.0f, nearest[j] - row[j]);
+        }
+        return total;
+    }
+
+    /**
+     * Soma em double (a soma em float perderia precisão com custos grandes).
+     */
+    private static double sum(float[] values) {
+        double total = 0.0;
+        for (float value : values) {
+            total += value;
+        }
+        return total;
+    }
+
+    @Override
+    public String getName() {
+        return "vector (" + FLOATS.length() + " lanes)";
+    }
+}